@@ -7,7 +7,7 @@ package io.hyperfoil.api.collection;
  */
 public interface ElasticPool<T> {
    /**
-    * This can be called by single thread only.
+    * Can be called by any thread; open-model phases acquire objects concurrently from all executors.
     *
     * @return pooled or new object.
     */
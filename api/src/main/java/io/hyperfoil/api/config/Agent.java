@@ -24,6 +24,8 @@ import java.util.Map;
 
 public class Agent implements Serializable {
    private static final String THREADS = "threads";
+   private static final String EXECUTOR_CPUS = "executorCpus";
+   private static final String AUXILIARY_CPUS = "auxiliaryCpus";
 
    public final String name;
    public final String inlineConfig;
@@ -46,4 +48,18 @@ public class Agent implements Serializable {
          throw new BenchmarkDefinitionException("Cannot parse number of threads for agent " + name + ": " + threadsProperty);
       }
    }
+
+   /**
+    * @return CPUs (in Linux <code>cpulist</code> format) the executor threads should be pinned to, or <code>null</code>.
+    */
+   public String executorCpus() {
+      return properties.get(EXECUTOR_CPUS);
+   }
+
+   /**
+    * @return CPUs (in Linux <code>cpulist</code> format) for watchdog and statistics threads, or <code>null</code>.
+    */
+   public String auxiliaryCpus() {
+      return properties.get(AUXILIARY_CPUS);
+   }
 }
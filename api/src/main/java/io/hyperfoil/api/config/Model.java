@@ -117,6 +117,53 @@ public interface Model extends Serializable {
       }
    }
 
+   /**
+    * Open model that searches for the highest arrival rate meeting the response time, error and blocking limits.
+    * Every <code>adjustmentPeriod</code> the rate is increased when the limits were met and decreased when these
+    * were violated; after the first violation the rate is bisected between the highest sustainable and the lowest
+    * unsustainable rate. The feedback comes from statistics collected on each agent, therefore the adjustment period
+    * should span several statistics collection periods.
+    */
+   class AdaptiveRate extends OpenModel {
+      public final double initialUsersPerSec;
+      public final double minUsersPerSec;
+      public final double maxUsersPerSec;
+      public final long adjustmentPeriod;
+      public final double increaseFactor;
+      public final double decreaseFactor;
+      public final double precision;
+      public final String metric;
+      public final double percentile;
+      public final long maxResponseTime;
+      public final double maxErrorRatio;
+      public final double maxBlockedRatio;
+
+      public AdaptiveRate(double initialUsersPerSec, double minUsersPerSec, double maxUsersPerSec,
+                          long adjustmentPeriod, double increaseFactor, double decreaseFactor, double precision,
+                          String metric, double percentile, long maxResponseTime, double maxErrorRatio, double maxBlockedRatio,
+                          boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
+         super(variance, maxSessions, sessionLimitPolicy);
+         this.initialUsersPerSec = initialUsersPerSec;
+         this.minUsersPerSec = minUsersPerSec;
+         this.maxUsersPerSec = maxUsersPerSec;
+         this.adjustmentPeriod = adjustmentPeriod;
+         this.increaseFactor = increaseFactor;
+         this.decreaseFactor = decreaseFactor;
+         this.precision = precision;
+         this.metric = metric;
+         this.percentile = percentile;
+         this.maxResponseTime = maxResponseTime;
+         this.maxErrorRatio = maxErrorRatio;
+         this.maxBlockedRatio = maxBlockedRatio;
+      }
+
+      @Override
+      public String description() {
+         return String.format("%.2f - %.2f users per second, adapted to %s percentile below %d ms",
+               minUsersPerSec, maxUsersPerSec, percentile * 100, maxResponseTime / 1_000_000);
+      }
+   }
+
    class Sequentially implements Model {
       public final int repeats;
 
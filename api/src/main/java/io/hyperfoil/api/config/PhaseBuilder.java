@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -14,6 +15,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import io.hyperfoil.function.SerializableSupplier;
+import io.hyperfoil.impl.Util;
 
 /**
  * The builder creates a matrix of phases (not just single phase); we allow multiple iterations of a phase
@@ -558,6 +560,202 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
       }
    }
 
+   public static class AdaptiveRate extends OpenModel<AdaptiveRate> {
+      private double initialUsersPerSec;
+      private double minUsersPerSec = 1;
+      private double maxUsersPerSec;
+      private long adjustmentPeriod = 5000;
+      private double increaseFactor = 1.2;
+      private double decreaseFactor = 0.5;
+      private double precision = 0.02;
+      private String metric;
+      private double percentile = 0.99;
+      private long maxResponseTime;
+      private double maxErrorRatio = 0.01;
+      private double maxBlockedRatio;
+
+      AdaptiveRate(BenchmarkBuilder parent, String name, double initialUsersPerSec) {
+         super(parent, name);
+         this.initialUsersPerSec = initialUsersPerSec;
+         // reaching the session limit is one of the signals to slow down rather than a failure
+         this.sessionLimitPolicy = SessionLimitPolicy.CONTINUE;
+      }
+
+      @Override
+      protected Model createModel(int iteration, double weight) {
+         if (maxUsersPerSec <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".maxUsersPerSec must be positive.");
+         }
+         if (minUsersPerSec <= 0 || minUsersPerSec > maxUsersPerSec) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".minUsersPerSec must be positive and not higher than maxUsersPerSec.");
+         }
+         double initial = initialUsersPerSec > 0 ? initialUsersPerSec : minUsersPerSec;
+         if (initial < minUsersPerSec || initial > maxUsersPerSec) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".initialUsersPerSec must be between minUsersPerSec and maxUsersPerSec.");
+         }
+         if (maxResponseTime <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".maxResponseTime must be set.");
+         }
+         if (percentile <= 0 || percentile > 1) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".percentile must be within (0, 1].");
+         }
+         if (adjustmentPeriod <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".adjustmentPeriod must be positive.");
+         }
+         if (increaseFactor <= 1 || decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new BenchmarkDefinitionException("Phase " + name + " must have increaseFactor > 1 and decreaseFactor within (0, 1).");
+         }
+         int maxSessions;
+         if (this.maxSessions <= 0) {
+            maxSessions = (int) Math.ceil(weight * maxUsersPerSec);
+         } else {
+            maxSessions = (int) Math.round(this.maxSessions * weight);
+         }
+         return new Model.AdaptiveRate(initial * weight, minUsersPerSec * weight, maxUsersPerSec * weight,
+               adjustmentPeriod, increaseFactor, decreaseFactor, precision, metric, percentile, maxResponseTime,
+               maxErrorRatio, maxBlockedRatio, variance, maxSessions, sessionLimitPolicy);
+      }
+
+      /**
+       * Arrival rate used in the first adjustment period. Default is <code>minUsersPerSec</code>.
+       *
+       * @param initialUsersPerSec Rate for new users.
+       * @return Self.
+       */
+      public AdaptiveRate initialUsersPerSec(double initialUsersPerSec) {
+         this.initialUsersPerSec = initialUsersPerSec;
+         return this;
+      }
+
+      /**
+       * Lowest arrival rate the phase falls back to. Default is 1.
+       *
+       * @param minUsersPerSec Rate for new users.
+       * @return Self.
+       */
+      public AdaptiveRate minUsersPerSec(double minUsersPerSec) {
+         this.minUsersPerSec = minUsersPerSec;
+         return this;
+      }
+
+      /**
+       * Highest arrival rate the phase tries out.
+       *
+       * @param maxUsersPerSec Rate for new users.
+       * @return Self.
+       */
+      public AdaptiveRate maxUsersPerSec(double maxUsersPerSec) {
+         this.maxUsersPerSec = maxUsersPerSec;
+         return this;
+      }
+
+      /**
+       * Time spent at one arrival rate before the limits are evaluated. Default is 5 seconds.
+       *
+       * @param adjustmentPeriod Period in milliseconds.
+       * @return Self.
+       */
+      public AdaptiveRate adjustmentPeriod(long adjustmentPeriod) {
+         this.adjustmentPeriod = adjustmentPeriod;
+         return this;
+      }
+
+      /**
+       * Multiplier applied to the rate while no rate violating the limits was found. Default is 1.2.
+       *
+       * @param increaseFactor Factor greater than 1.
+       * @return Self.
+       */
+      public AdaptiveRate increaseFactor(double increaseFactor) {
+         this.increaseFactor = increaseFactor;
+         return this;
+      }
+
+      /**
+       * Multiplier applied to the rate when the limits are violated and no sustainable rate is known. Default is 0.5.
+       *
+       * @param decreaseFactor Factor between 0 and 1.
+       * @return Self.
+       */
+      public AdaptiveRate decreaseFactor(double decreaseFactor) {
+         this.decreaseFactor = decreaseFactor;
+         return this;
+      }
+
+      /**
+       * Relative difference between the highest sustainable and lowest unsustainable rate where the search stops
+       * and the phase keeps running at the sustainable rate. Default is 0.02 (2%).
+       *
+       * @param precision Relative precision.
+       * @return Self.
+       */
+      public AdaptiveRate precision(double precision) {
+         this.precision = precision;
+         return this;
+      }
+
+      /**
+       * Evaluate only statistics for given metric. By default statistics of all metrics in this phase are merged.
+       *
+       * @param metric Metric name.
+       * @return Self.
+       */
+      public AdaptiveRate metric(String metric) {
+         this.metric = metric;
+         return this;
+      }
+
+      /**
+       * Percentile of response times (corrected for coordinated omission) compared to <code>maxResponseTime</code>.
+       * Default is 0.99.
+       *
+       * @param percentile Percentile within (0, 1].
+       * @return Self.
+       */
+      public AdaptiveRate percentile(double percentile) {
+         this.percentile = percentile;
+         return this;
+      }
+
+      public AdaptiveRate maxResponseTime(long maxResponseTime, TimeUnit timeUnit) {
+         this.maxResponseTime = timeUnit.toNanos(maxResponseTime);
+         return this;
+      }
+
+      /**
+       * Highest allowed response time at given percentile. Use suffix `ns`, `us`, `ms` or `s` to specify units.
+       *
+       * @param maxResponseTime Response time.
+       * @return Self.
+       */
+      public AdaptiveRate maxResponseTime(String maxResponseTime) {
+         return maxResponseTime(Util.parseToNanos(maxResponseTime), TimeUnit.NANOSECONDS);
+      }
+
+      /**
+       * Highest allowed ratio of errors and invalid responses to all requests. Default is 0.01.
+       *
+       * @param maxErrorRatio Ratio.
+       * @return Self.
+       */
+      public AdaptiveRate maxErrorRatio(double maxErrorRatio) {
+         this.maxErrorRatio = maxErrorRatio;
+         return this;
+      }
+
+      /**
+       * Highest allowed ratio of users waiting for a free session at the end of adjustment period to all users
+       * that should have been started in that period. Default is 0.
+       *
+       * @param maxBlockedRatio Ratio.
+       * @return Self.
+       */
+      public AdaptiveRate maxBlockedRatio(double maxBlockedRatio) {
+         this.maxBlockedRatio = maxBlockedRatio;
+         return this;
+      }
+   }
+
    public static class Sequentially extends PhaseBuilder<Sequentially> {
       private int repeats;
 
@@ -604,6 +802,10 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          return new ConstantRate(parent, name, usersPerSec);
       }
 
+      public AdaptiveRate adaptiveRate(int initialUsersPerSec) {
+         return new AdaptiveRate(parent, name, initialUsersPerSec);
+      }
+
       public Sequentially sequentially(int repeats) {
          return new Sequentially(parent, name, repeats);
       }
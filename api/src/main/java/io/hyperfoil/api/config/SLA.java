@@ -22,6 +22,8 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 
+import org.HdrHistogram.Histogram;
+
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 
 public class SLA implements Serializable {
@@ -31,14 +33,21 @@ public class SLA implements Serializable {
    private final long meanResponseTime;
    private final double blockedRatio;
    private final Collection<PercentileLimit> limits;
+   private final boolean correctedLatency;
 
    public SLA(long window, double errorRatio, double invalidRatio, long meanResponseTime, double blockedRatio, Collection<PercentileLimit> limits) {
+      this(window, errorRatio, invalidRatio, meanResponseTime, blockedRatio, limits, false);
+   }
+
+   public SLA(long window, double errorRatio, double invalidRatio, long meanResponseTime, double blockedRatio,
+              Collection<PercentileLimit> limits, boolean correctedLatency) {
       this.window = window;
       this.meanResponseTime = meanResponseTime;
       this.errorRatio = errorRatio;
       this.invalidRatio = invalidRatio;
       this.blockedRatio = blockedRatio;
       this.limits = limits;
+      this.correctedLatency = correctedLatency;
    }
 
    public long window() {
@@ -65,6 +74,13 @@ public class SLA implements Serializable {
       return Collections.unmodifiableCollection(limits);
    }
 
+   /**
+    * @return True if mean response time and percentile limits apply to response times corrected for coordinated omission.
+    */
+   public boolean correctedLatency() {
+      return correctedLatency;
+   }
+
    public SLA.Failure validate(String phase, String metric, StatisticsSnapshot statistics) {
       double actualErrorRatio = (double) statistics.errors() / statistics.requestCount;
       if (statistics.errors() > 0 && actualErrorRatio >= errorRatio) {
@@ -79,11 +95,13 @@ public class SLA implements Serializable {
          return new SLA.Failure(this, phase, metric, statistics.clone(),
                String.format("Invalid response ratio exceeded: required %.3f, actual %.3f", invalidRatio, actualInvalidRatio));
       }
+      Histogram histogram = correctedLatency ? statistics.correctedHistogram : statistics.histogram;
+      String latencyType = correctedLatency ? "Corrected response time" : "Response time";
       if (meanResponseTime < Long.MAX_VALUE) {
-         double mean = statistics.histogram.getMean();
+         double mean = histogram.getMean();
          if (mean >= meanResponseTime) {
             return new SLA.Failure(this, phase, metric, statistics.clone(),
-                  String.format("Mean response time exceeded: required %d, actual %.3f", meanResponseTime, mean));
+                  String.format("Mean %s exceeded: required %d, actual %.3f", latencyType.toLowerCase(), meanResponseTime, mean));
          }
       }
       if (statistics.blockedTime > 0) {
@@ -94,10 +112,10 @@ public class SLA implements Serializable {
          }
       }
       for (SLA.PercentileLimit limit : limits) {
-         long value = statistics.histogram.getValueAtPercentile(limit.percentile());
+         long value = histogram.getValueAtPercentile(limit.percentile());
          if (value >= limit.responseTime()) {
             return new SLA.Failure(this, phase, metric, statistics.clone(),
-                  String.format("Response time at percentile %f exceeded: required %d, actual %d", limit.percentile, limit.responseTime, value));
+                  String.format("%s at percentile %f exceeded: required %d, actual %d", latencyType, limit.percentile, limit.responseTime, value));
          }
       }
       return null;
@@ -18,6 +18,7 @@ public class SLABuilder<P> implements BuilderBase<SLABuilder<P>> {
    private long meanResponseTime = Long.MAX_VALUE;
    private final Collection<SLA.PercentileLimit> limits = new ArrayList<>();
    private double blockedRatio = 0; // do not allow blocking
+   private boolean correctedLatency;
    private SLA sla;
 
    public SLABuilder(P parent) {
@@ -31,7 +32,7 @@ public class SLABuilder<P> implements BuilderBase<SLABuilder<P>> {
       if (sla != null) {
          return sla;
       }
-      return sla = new SLA(window, errorRatio, invalidRatio, meanResponseTime, blockedRatio, limits);
+      return sla = new SLA(window, errorRatio, invalidRatio, meanResponseTime, blockedRatio, limits, correctedLatency);
    }
 
    public P endSLA() {
@@ -106,6 +107,20 @@ public class SLABuilder<P> implements BuilderBase<SLABuilder<P>> {
       return this;
    }
 
+   /**
+    * Apply <code>meanResponseTime</code> and percentile <code>limits</code> to response times corrected
+    * for coordinated omission: in open-model phases (<code>constantRate</code>, <code>increasingRate</code>...)
+    * these include the time the session waited to be started after its scheduled start.
+    * Default is false.
+    *
+    * @param correctedLatency Use corrected response times?
+    * @return Self.
+    */
+   public SLABuilder<P> correctedLatency(boolean correctedLatency) {
+      this.correctedLatency = correctedLatency;
+      return this;
+   }
+
    /**
     * Percentile limits.
     *
@@ -30,6 +30,7 @@ import java.util.stream.Stream;
 
 import io.hyperfoil.api.session.AccessVisitor;
 import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.session.ResourceKeyVisitor;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.WriteAccess;
 
@@ -42,6 +43,7 @@ public class Scenario implements Serializable {
    private final int sumConcurrency;
    private final WriteAccess[] writes;
    private final int uniqueVars;
+   private final int uniqueResources;
 
    public Scenario(Sequence[] initialSequences, Sequence[] sequences, int maxRequests, int maxSequences) {
       this.initialSequences = initialSequences;
@@ -72,6 +74,13 @@ public class Scenario implements Serializable {
             access.setIndex(keyIndexMap.get(access.key()));
          }
       }
+      ResourceKeyVisitor resourceKeyVisitor = new ResourceKeyVisitor();
+      resourceKeyVisitor.visit(sequences);
+      Session.ResourceKey<?>[] resourceKeys = resourceKeyVisitor.keys();
+      for (int i = 0; i < resourceKeys.length; ++i) {
+         resourceKeys[i].setIndex(i);
+      }
+      uniqueResources = resourceKeys.length;
    }
 
    public Sequence[] initialSequences() {
@@ -102,6 +111,13 @@ public class Scenario implements Serializable {
       return sequence;
    }
 
+   /**
+    * @return Number of resource slots with index assigned by this scenario.
+    */
+   public int uniqueResources() {
+      return uniqueResources;
+   }
+
    public Session.Var[] createVars(Session session) {
       Session.Var[] vars = new Session.Var[uniqueVars];
       for (WriteAccess access : writes) {
@@ -5,29 +5,26 @@ import java.util.concurrent.TimeUnit;
 
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.TimerWheel;
 import io.hyperfoil.api.statistics.Statistics;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
-import io.netty.util.concurrent.ScheduledFuture;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 public abstract class Request implements Callable<Void>, GenericFutureListener<Future<Void>> {
    private static final Logger log = LogManager.getLogger(Request.class);
-   private static final GenericFutureListener<Future<Object>> FAILURE_LISTENER = future -> {
-      if (!future.isSuccess() && !future.isCancelled()) {
-         log.error("Timeout task failed", future.cause());
-      }
-   };
 
    public final Session session;
    private long startTimestampMillis;
    private long startTimestampNanos;
+   // Added to the response time to get the time since intended start
+   private long startLagNanos;
    private SequenceInstance sequence;
    private SequenceInstance completionSequence;
    private Statistics statistics;
-   private ScheduledFuture<?> timeoutFuture;
+   private final TimerWheel.Timer timeoutTimer = new TimerWheel.Timer(this::call);
    private Connection connection;
    private Status status = Status.IDLE;
    private Result result = Result.VALID;
@@ -43,7 +40,6 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    public Void call() {
       int uniqueId = session == null ? -1 : session.uniqueId();
       log.warn("#{} Request timeout, closing connection {}", uniqueId, connection);
-      timeoutFuture = null;
       if (status != Status.COMPLETED) {
          result = Result.TIMED_OUT;
          statistics.incrementTimeouts(startTimestampMillis);
@@ -62,6 +58,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    public void start(SequenceInstance sequence, Statistics statistics) {
       this.startTimestampMillis = System.currentTimeMillis();
       this.startTimestampNanos = System.nanoTime();
+      this.startLagNanos = session.takeStartLagNanos();
       this.sequence = sequence;
       // The reason for using separate sequence reference just for the sake of decrementing
       // its counter is that the request sequence might be overridden (wrapped) through
@@ -102,10 +99,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setCompleted() {
-      if (timeoutFuture != null) {
-         timeoutFuture.cancel(false);
-         timeoutFuture = null;
-      }
+      timeoutTimer.cancel();
       connection = null;
       sequence = null;
       // handleEnd may indirectly call handleThrowable which calls setCompleted first
@@ -129,7 +123,8 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void recordResponse(long endTimestampNanos) {
-      statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos);
+      long responseTime = endTimestampNanos - startTimestampNanos;
+      statistics.recordResponse(startTimestampMillis, responseTime, responseTime + startLagNanos);
    }
 
    public long startTimestampMillis() {
@@ -141,8 +136,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setTimeout(long timeout, TimeUnit timeUnit) {
-      timeoutFuture = session.executor().schedule(this, timeout, timeUnit);
-      timeoutFuture.addListener(FAILURE_LISTENER);
+      TimerWheel.get(session.executor()).schedule(timeoutTimer, timeout, timeUnit);
    }
 
    @Override
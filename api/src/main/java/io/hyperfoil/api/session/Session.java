@@ -1,9 +1,12 @@
 package io.hyperfoil.api.session;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Visitor;
 import io.hyperfoil.api.connection.Request;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.netty.util.concurrent.EventExecutor;
@@ -89,6 +92,24 @@ public interface Session {
 
    void start(PhaseInstance phase);
 
+   /**
+    * Start the session in an open-model phase that scheduled the start to given time.
+    *
+    * @param phase              Phase instance.
+    * @param intendedStartNanos Time (as in {@link System#nanoTime()}) when the session should have been started.
+    */
+   void start(PhaseInstance phase, long intendedStartNanos);
+
+   /**
+    * Returns the delay between the intended start of this session and the actual start and resets it,
+    * so that only the first request started after the session was scheduled is corrected; the following
+    * requests are not delayed by the start of the session.
+    *
+    * @return Start lag in nanoseconds; zero when the session was not scheduled by an open-model phase
+    * or when the lag has been taken already.
+    */
+   long takeStartLagNanos();
+
    /**
     * Run anything that can be executed.
     */
@@ -140,7 +161,82 @@ public interface Session {
       default void destroy() {}
    }
 
-   interface ResourceKey<R extends Resource> extends Serializable {}
+   /**
+    * Key identifying a resource in the session. Sessions store resources in an array rather than a map:
+    * keys reachable from the scenario get a dense index when the {@link Scenario} is built, other keys
+    * (e.g. static constants shared by all scenarios) get a global index when they are first declared.
+    * Global indices are reset when no run {@link #retainGlobalIndices() retains} them anymore.
+    *
+    * @param <R> Type of the resource.
+    */
+   class ResourceKey<R extends Resource> implements Serializable {
+      public static final int UNASSIGNED = -1;
+      // keys with global index; access is guarded by the list itself
+      private static final List<ResourceKey<?>> GLOBAL_KEYS = new ArrayList<>();
+      private static int globalIndexUsers;
+
+      // Values >= 0 are indices in scenario resources, values < -1 encode global index as -2 - index
+      @Visitor.Ignore
+      private int index = UNASSIGNED;
+
+      /**
+       * @return Index of resource in the scenario, {@link #UNASSIGNED} or encoded global index.
+       */
+      public final int index() {
+         return index;
+      }
+
+      public final void setIndex(int index) {
+         assert index >= 0;
+         assert this.index == UNASSIGNED || this.index == index : "Current index " + this.index + ", suggested index " + index;
+         this.index = index;
+      }
+
+      /**
+       * Assigns global index to this key unless it was assigned an index before.
+       *
+       * @return Index as returned from {@link #index()}.
+       */
+      public final int ensureIndex() {
+         synchronized (GLOBAL_KEYS) {
+            if (index == UNASSIGNED) {
+               index = -2 - GLOBAL_KEYS.size();
+               GLOBAL_KEYS.add(this);
+            }
+            return index;
+         }
+      }
+
+      /**
+       * Called when a run starts creating sessions; global indices are kept until the run
+       * {@link #releaseGlobalIndices() releases} them.
+       */
+      public static void retainGlobalIndices() {
+         synchronized (GLOBAL_KEYS) {
+            ++globalIndexUsers;
+         }
+      }
+
+      /**
+       * Called when a run ends; when there are no other runs the global indices are unassigned
+       * so that these don't accumulate over runs in the same JVM.
+       */
+      public static void releaseGlobalIndices() {
+         synchronized (GLOBAL_KEYS) {
+            assert globalIndexUsers > 0;
+            if (--globalIndexUsers == 0) {
+               for (ResourceKey<?> key : GLOBAL_KEYS) {
+                  key.index = UNASSIGNED;
+               }
+               GLOBAL_KEYS.clear();
+            }
+         }
+      }
+
+      public static int globalIndex(int index) {
+         return -2 - index;
+      }
+   }
 
    /**
     * Behaviour when a new sequence start is requested but the concurrency factor is exceeded.
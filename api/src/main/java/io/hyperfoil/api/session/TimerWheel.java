@@ -0,0 +1,226 @@
+package io.hyperfoil.api.session;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Hashed timing wheel with millisecond ticks, one per event loop. Insertion and cancellation are O(1)
+ * and do not allocate when the {@link Timer} is reused, as opposed to scheduling on the executor that keeps
+ * the tasks in a heap. The wheel schedules a single task on the executor every tick and only while
+ * there are some timers.
+ * <p>
+ * All methods must be called from the event loop thread. Timers never fire before their deadline,
+ * but they can fire up to one tick late.
+ */
+public final class TimerWheel {
+   private static final Logger log = LogManager.getLogger(TimerWheel.class);
+   private static final FastThreadLocal<TimerWheel> WHEELS = new FastThreadLocal<>();
+   // One revolution is about 4 seconds; timers with longer delay stay in the bucket for more revolutions
+   private static final int SLOTS = 4096;
+   private static final int MASK = SLOTS - 1;
+   private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+   private final EventExecutor executor;
+   private final LongSupplier nanoClock;
+   private final Timer[] buckets = new Timer[SLOTS];
+   private final long startNanos;
+   private final Runnable tickTask = this::tick;
+   private Timer[] expired = new Timer[16];
+   private long processedTick;
+   private int size;
+   private boolean ticking;
+
+   private TimerWheel(EventExecutor executor) {
+      this(executor, System::nanoTime);
+   }
+
+   // for testing with a controlled clock
+   TimerWheel(EventExecutor executor, LongSupplier nanoClock) {
+      this.executor = executor;
+      this.nanoClock = nanoClock;
+      this.startNanos = nanoClock.getAsLong();
+   }
+
+   /**
+    * @param executor  Executor that runs the ticks.
+    * @param nanoClock Source of time, in nanoseconds.
+    * @return Timing wheel that is not bound to the current thread.
+    */
+   public static TimerWheel forTesting(EventExecutor executor, LongSupplier nanoClock) {
+      return new TimerWheel(executor, nanoClock);
+   }
+
+   /**
+    * @param executor Executor of the current thread.
+    * @return Timing wheel driven by this executor.
+    */
+   public static TimerWheel get(EventExecutor executor) {
+      assert executor.inEventLoop();
+      TimerWheel wheel = WHEELS.get();
+      if (wheel == null || wheel.executor != executor) {
+         wheel = new TimerWheel(executor);
+         WHEELS.set(wheel);
+      }
+      return wheel;
+   }
+
+   /**
+    * Schedule one-off task; prefer {@link #schedule(Timer, long, TimeUnit)} with a reused timer on hot paths.
+    *
+    * @param task  Task to run.
+    * @param delay Delay.
+    * @param unit  Unit of the delay.
+    * @return Timer that can be cancelled.
+    */
+   public Timer schedule(Runnable task, long delay, TimeUnit unit) {
+      Timer timer = new Timer(task);
+      schedule(timer, delay, unit);
+      return timer;
+   }
+
+   /**
+    * Schedule the timer; if it is already scheduled its deadline is moved.
+    *
+    * @param timer Timer.
+    * @param delay Delay.
+    * @param unit  Unit of the delay.
+    */
+   public void schedule(Timer timer, long delay, TimeUnit unit) {
+      assert executor.inEventLoop();
+      if (timer.wheel != null) {
+         timer.wheel.remove(timer);
+      }
+      long now = nanoClock.getAsLong() - startNanos;
+      if (size == 0) {
+         // nothing to expire in between, we can skip idle ticks
+         processedTick = Math.max(processedTick, now / TICK_NANOS);
+      }
+      long deadlineTick = (now + unit.toNanos(delay) + TICK_NANOS - 1) / TICK_NANOS;
+      timer.deadlineTick = Math.max(deadlineTick, processedTick + 1);
+      int slot = (int) (timer.deadlineTick & MASK);
+      Timer head = buckets[slot];
+      timer.next = head;
+      timer.prev = null;
+      if (head != null) {
+         head.prev = timer;
+      }
+      buckets[slot] = timer;
+      timer.wheel = this;
+      ++size;
+      if (!ticking) {
+         ticking = true;
+         executor.schedule(tickTask, (processedTick + 1) * TICK_NANOS - now, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   /**
+    * @return Number of scheduled timers.
+    */
+   public int size() {
+      return size;
+   }
+
+   private void remove(Timer timer) {
+      timer.wheel = null;
+      if (timer.expired) {
+         // already detached from the bucket, waiting to be run
+         timer.expired = false;
+         return;
+      }
+      if (timer.prev != null) {
+         timer.prev.next = timer.next;
+      } else {
+         buckets[(int) (timer.deadlineTick & MASK)] = timer.next;
+      }
+      if (timer.next != null) {
+         timer.next.prev = timer.prev;
+      }
+      timer.prev = null;
+      timer.next = null;
+      --size;
+   }
+
+   void tick() {
+      long nowTick = (nanoClock.getAsLong() - startNanos) / TICK_NANOS;
+      // when the executor falls behind we'll visit every bucket just once
+      long steps = Math.min(nowTick - processedTick, SLOTS);
+      int numExpired = 0;
+      for (long t = processedTick + 1; steps > 0; ++t, --steps) {
+         Timer timer = buckets[(int) (t & MASK)];
+         while (timer != null) {
+            Timer next = timer.next;
+            if (timer.deadlineTick <= nowTick) {
+               remove(timer);
+               // the task could cancel or reschedule other expired timers so we keep them
+               // as scheduled until they're actually run
+               timer.wheel = this;
+               timer.expired = true;
+               if (numExpired == expired.length) {
+                  expired = Arrays.copyOf(expired, numExpired * 2);
+               }
+               expired[numExpired++] = timer;
+            }
+            timer = next;
+         }
+      }
+      processedTick = Math.max(processedTick, nowTick);
+      for (int i = 0; i < numExpired; ++i) {
+         Timer timer = expired[i];
+         expired[i] = null;
+         if (timer.expired) {
+            timer.expired = false;
+            timer.wheel = null;
+            try {
+               timer.task.run();
+            } catch (Throwable t) {
+               log.error("Timer task {} failed", timer.task, t);
+            }
+         }
+      }
+      if (size > 0) {
+         long now = nanoClock.getAsLong() - startNanos;
+         executor.schedule(tickTask, (processedTick + 1) * TICK_NANOS - now, TimeUnit.NANOSECONDS);
+      } else {
+         ticking = false;
+      }
+   }
+
+   /**
+    * Reusable handle for a task scheduled in the wheel. The timer can be scheduled again after it fires
+    * or is cancelled.
+    */
+   public static final class Timer {
+      private final Runnable task;
+      private TimerWheel wheel;
+      private long deadlineTick;
+      private Timer prev;
+      private Timer next;
+      private boolean expired;
+
+      public Timer(Runnable task) {
+         this.task = task;
+      }
+
+      public boolean isScheduled() {
+         return wheel != null;
+      }
+
+      /**
+       * @return True if the timer was scheduled and it won't fire.
+       */
+      public boolean cancel() {
+         if (wheel == null) {
+            return false;
+         }
+         wheel.remove(this);
+         return true;
+      }
+   }
+}
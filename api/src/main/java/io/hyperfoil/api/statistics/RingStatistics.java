@@ -0,0 +1,289 @@
+package io.hyperfoil.api.statistics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Alternative to {@link Statistics} that does not allocate a new {@link StatisticsSnapshot} for each sampling
+ * period. Samples are kept in a small ring of snapshots; after {@link #visitSnapshots(Consumer)} publishes
+ * a snapshot it is reset and put back to the ring, so the memory used by histograms stays constant.
+ * When all slots hold samples that were not published yet (the reader falls behind or a response arrives
+ * very late) the ring grows; samples are never merged with other periods.
+ * <p>
+ * All recording methods (including {@link #end(long)}) must be invoked by a single thread, the executor
+ * that owns the sessions. Instead of the atomic operations in {@link org.HdrHistogram.WriterReaderPhaser}
+ * the writer only bumps its own epoch: the reader detaches a snapshot from the ring and then waits until
+ * the writer leaves any critical section it might have been in.
+ */
+public class RingStatistics extends Statistics {
+   private static final Logger log = LogManager.getLogger(RingStatistics.class);
+   private static final VarHandle WRITER_EPOCH;
+   // Usually there are only two active samples: current second and the previous one with in-flight requests.
+   private static final int INITIAL_SLOTS = 4;
+
+   static {
+      try {
+         WRITER_EPOCH = MethodHandles.lookup().findVarHandle(RingStatistics.class, "writerEpoch", long.class);
+      } catch (ReflectiveOperationException e) {
+         throw new ExceptionInInitializerError(e);
+      }
+   }
+
+   // Replaced (by the writer) only when holding the lock on this, therefore the reader sees a stable array
+   private volatile AtomicReferenceArray<StatisticsSnapshot> slots = new AtomicReferenceArray<>(INITIAL_SLOTS);
+   // Odd value means that the writer is recording into one of the snapshots
+   private volatile long writerEpoch;
+   private volatile long startTimestamp;
+   private volatile long endTimestamp = Long.MAX_VALUE;
+   private volatile int highestActive;
+   // Accessed only by the writer
+   private int lastSlot;
+   // Accessed only by the reader: reset snapshot that replaces the one detached from the ring
+   private StatisticsSnapshot spare;
+
+   public RingStatistics(long startTimestamp) {
+      this.startTimestamp = startTimestamp;
+   }
+
+   @Override
+   public void recordResponse(long startTimestamp, long responseTime, long correctedResponseTime) {
+      responseTime = checkResponseTime(responseTime);
+      correctedResponseTime = checkResponseTime(correctedResponseTime);
+      StatisticsSnapshot active = enter(startTimestamp);
+      try {
+         active.histogram.recordValue(responseTime);
+         active.correctedHistogram.recordValue(correctedResponseTime);
+         active.responseCount++;
+      } finally {
+         exit();
+      }
+   }
+
+   @Override
+   public void incrementRequests(long timestamp) {
+      StatisticsSnapshot active = enter(timestamp);
+      try {
+         active.requestCount++;
+      } finally {
+         exit();
+      }
+   }
+
+   @Override
+   public void incrementTimeouts(long timestamp) {
+      StatisticsSnapshot active = enter(timestamp);
+      try {
+         active.requestTimeouts++;
+      } finally {
+         exit();
+      }
+   }
+
+   @Override
+   public void incrementConnectionErrors(long timestamp) {
+      StatisticsSnapshot active = enter(timestamp);
+      try {
+         active.connectionErrors++;
+      } finally {
+         exit();
+      }
+   }
+
+   @Override
+   public void incrementInternalErrors(long timestamp) {
+      StatisticsSnapshot active = enter(timestamp);
+      try {
+         active.internalErrors++;
+      } finally {
+         exit();
+      }
+   }
+
+   @Override
+   public void incrementBlockedTime(long timestamp, long blockedTime) {
+      StatisticsSnapshot active = enter(timestamp);
+      try {
+         active.blockedTime += blockedTime;
+      } finally {
+         exit();
+      }
+   }
+
+   @Override
+   public <C extends StatsExtension> void update(String key, long timestamp, Supplier<C> creator, LongUpdater<C> updater, long value) {
+      StatisticsSnapshot active = enter(timestamp);
+      try {
+         StatsExtension custom = active.extensions.get(key);
+         if (custom == null) {
+            custom = creator.get();
+            active.extensions.put(key, custom);
+         }
+         //noinspection unchecked
+         updater.update((C) custom, value);
+      } finally {
+         exit();
+      }
+   }
+
+   @Override
+   public <C extends StatsExtension> void update(String key, long timestamp, Supplier<C> creator, ObjectUpdater<C> updater, Object value) {
+      StatisticsSnapshot active = enter(timestamp);
+      try {
+         StatsExtension custom = active.extensions.get(key);
+         if (custom == null) {
+            custom = creator.get();
+            active.extensions.put(key, custom);
+         }
+         //noinspection unchecked
+         updater.update((C) custom, value);
+      } finally {
+         exit();
+      }
+   }
+
+   @Override
+   public void addInvalid(long timestamp) {
+      StatisticsSnapshot active = enter(timestamp);
+      try {
+         active.invalid++;
+      } finally {
+         exit();
+      }
+   }
+
+   @Override
+   public synchronized void visitSnapshots(Consumer<StatisticsSnapshot> consumer) {
+      long endTimestamp = this.endTimestamp;
+      // If the statistics is not finished don't publish the last sample
+      // as this might be shortened be the termination of the phase.
+      int limit = endTimestamp == Long.MAX_VALUE ? highestActive : Integer.MAX_VALUE;
+      AtomicReferenceArray<StatisticsSnapshot> slots = this.slots;
+      for (int i = 0; i < slots.length(); ++i) {
+         StatisticsSnapshot snapshot = slots.get(i);
+         // The writer changes sequenceId only from -1 to the sample index, therefore we can read it racily
+         if (snapshot == null || snapshot.sequenceId < 0 || snapshot.sequenceId >= limit) {
+            continue;
+         }
+         // Detach the snapshot by swapping it with a reset one; the writer stores snapshots only into
+         // empty slots so we don't need CAS and no snapshot is lost.
+         if (spare == null) {
+            spare = new StatisticsSnapshot();
+            spare.sequenceId = -1;
+         }
+         slots.set(i, spare);
+         awaitWriter();
+         if (!snapshot.isEmpty()) {
+            long sampleStart = startTimestamp + snapshot.sequenceId * SAMPLING_PERIOD_MILLIS;
+            snapshot.histogram.setStartTimeStamp(sampleStart);
+            snapshot.histogram.setEndTimeStamp(Math.min(endTimestamp, sampleStart + SAMPLING_PERIOD_MILLIS));
+            consumer.accept(snapshot);
+         }
+         snapshot.reset();
+         snapshot.sequenceId = -1;
+         spare = snapshot;
+      }
+   }
+
+   @Override
+   public void start(long now) {
+      startTimestamp = now;
+      endTimestamp = Long.MAX_VALUE;
+   }
+
+   @Override
+   public void end(long now) {
+      endTimestamp = now;
+   }
+
+   private void awaitWriter() {
+      long epoch = writerEpoch;
+      if ((epoch & 1) != 0) {
+         while (writerEpoch == epoch) {
+            Thread.onSpinWait();
+         }
+      }
+   }
+
+   private StatisticsSnapshot enter(long timestamp) {
+      // This must be a volatile write: the reader must see that we're in the critical section
+      // before we read the slot, or we must see that the reader has detached it.
+      writerEpoch = writerEpoch + 1;
+      int index = (int) ((timestamp - startTimestamp) / SAMPLING_PERIOD_MILLIS);
+      if (index < 0) {
+         log.error("Record start timestamp {} predates statistics start {}", timestamp, startTimestamp);
+         index = 0;
+      }
+      StatisticsSnapshot snapshot = slots.get(lastSlot);
+      if (snapshot == null || snapshot.sequenceId != index) {
+         snapshot = claim(index);
+      }
+      // Highest active is increasing monotonically and it is updated only by the writer
+      if (index > highestActive) {
+         highestActive = index;
+      }
+      return snapshot;
+   }
+
+   private void exit() {
+      WRITER_EPOCH.setRelease(this, (long) WRITER_EPOCH.getOpaque(this) + 1);
+   }
+
+   private StatisticsSnapshot claim(int index) {
+      // Note that the reader can swap a snapshot in the ring while we're in the critical section
+      // (it will wait until we leave it), so we must not read the same slot twice.
+      for (;;) {
+         AtomicReferenceArray<StatisticsSnapshot> slots = this.slots;
+         int emptySlot = -1, freeSlot = -1;
+         StatisticsSnapshot free = null;
+         for (int i = 0; i < slots.length(); ++i) {
+            StatisticsSnapshot snapshot = slots.get(i);
+            if (snapshot == null) {
+               if (emptySlot < 0) {
+                  emptySlot = i;
+               }
+            } else if (snapshot.sequenceId == index) {
+               lastSlot = i;
+               return snapshot;
+            } else if (snapshot.sequenceId < 0 && free == null) {
+               free = snapshot;
+               freeSlot = i;
+            }
+         }
+         if (free != null) {
+            // The reader does not detach snapshots with sequenceId == -1
+            free.sequenceId = index;
+            lastSlot = freeSlot;
+            return free;
+         }
+         if (emptySlot >= 0) {
+            // Only the writer fills empty slots
+            StatisticsSnapshot snapshot = new StatisticsSnapshot();
+            snapshot.sequenceId = index;
+            slots.set(emptySlot, snapshot);
+            lastSlot = emptySlot;
+            return snapshot;
+         }
+         grow(slots);
+      }
+   }
+
+   private void grow(AtomicReferenceArray<StatisticsSnapshot> slots) {
+      // The reader might be waiting for us to leave the critical section while holding the lock.
+      exit();
+      synchronized (this) {
+         AtomicReferenceArray<StatisticsSnapshot> grown = new AtomicReferenceArray<>(slots.length() * 2);
+         for (int i = 0; i < slots.length(); ++i) {
+            grown.set(i, slots.get(i));
+         }
+         this.slots = grown;
+      }
+      log.debug("Statistics ring grown to {} slots", slots.length() * 2);
+      writerEpoch = writerEpoch + 1;
+   }
+}
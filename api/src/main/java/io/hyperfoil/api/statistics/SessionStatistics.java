@@ -8,11 +8,14 @@ import java.util.NoSuchElementException;
 
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.internal.Properties;
 
 /**
  * This instance holds common statistics shared between all {@link Session sessions} (in given phase) driven by the same executor.
  */
 public class SessionStatistics {
+   private static final boolean RING = Properties.getBoolean(Properties.STATISTICS_RING);
+
    private Phase[] phases;
    private int[] stepIds;
    private Map<String, Statistics>[] maps;
@@ -30,7 +33,7 @@ public class SessionStatistics {
          if (stepIds[i] == stepId && phases[i] == phase) {
             Statistics s = maps[i].get(name);
             if (s == null) {
-               s = new Statistics(startTime);
+               s = createStatistics(startTime);
                maps[i].put(name, s);
             }
             return s;
@@ -44,7 +47,7 @@ public class SessionStatistics {
 
       phases[size] = phase;
       stepIds[size] = stepId;
-      Statistics s = new Statistics(startTime);
+      Statistics s = createStatistics(startTime);
       HashMap<String, Statistics> map = new HashMap<>();
       map.put(name, s);
       maps[size] = map;
@@ -52,6 +55,10 @@ public class SessionStatistics {
       return s;
    }
 
+   private static Statistics createStatistics(long startTime) {
+      return RING ? new RingStatistics(startTime) : new RecorderStatistics(startTime);
+   }
+
    public int size() {
       return size;
    }
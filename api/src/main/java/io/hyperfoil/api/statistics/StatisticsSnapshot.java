@@ -13,8 +13,17 @@ import org.HdrHistogram.Histogram;
  * Non-thread safe mutable set of values.
  */
 public class StatisticsSnapshot implements Serializable {
+   public static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toNanos(1);
+   public static final int PRECISION = 2;
+
    public int sequenceId = -1;
-   public final Histogram histogram = new Histogram(TimeUnit.MINUTES.toNanos(1), 2);
+   public final Histogram histogram;
+   /**
+    * Response times corrected for coordinated omission: each value includes the delay between the time
+    * the phase intended to start the session and its actual start. In closed-model phases
+    * this is identical to {@link #histogram}.
+    */
+   public final Histogram correctedHistogram;
    public int requestCount;
    public int responseCount;
    public int invalid;
@@ -24,6 +33,19 @@ public class StatisticsSnapshot implements Serializable {
    public long blockedTime;
    public final Map<String, StatsExtension> extensions = new HashMap<>();
 
+   public StatisticsSnapshot() {
+      this(new Histogram(HIGHEST_TRACKABLE_VALUE, PRECISION), new Histogram(HIGHEST_TRACKABLE_VALUE, PRECISION));
+   }
+
+   /**
+    * @param histogram          Histogram that becomes part of this snapshot (e.g. one decoded from its serialized form).
+    * @param correctedHistogram Histogram with response times corrected for coordinated omission.
+    */
+   public StatisticsSnapshot(Histogram histogram, Histogram correctedHistogram) {
+      this.histogram = histogram;
+      this.correctedHistogram = correctedHistogram;
+   }
+
    public boolean isEmpty() {
       return requestCount + responseCount + invalid + connectionErrors + requestTimeouts + internalErrors == 0 &&
             extensions.values().stream().allMatch(StatsExtension::isNull);
@@ -31,6 +53,7 @@ public class StatisticsSnapshot implements Serializable {
 
    public void reset() {
       histogram.reset();
+      correctedHistogram.reset();
       requestCount = 0;
       responseCount = 0;
       invalid = 0;
@@ -54,6 +77,7 @@ public class StatisticsSnapshot implements Serializable {
 
    public void add(StatisticsSnapshot other) {
       histogram.add(other.histogram);
+      correctedHistogram.add(other.correctedHistogram);
       requestCount += other.requestCount;
       responseCount += other.responseCount;
       invalid += other.invalid;
@@ -76,6 +100,7 @@ public class StatisticsSnapshot implements Serializable {
 
    public void subtract(StatisticsSnapshot other) {
       histogram.subtract(other.histogram);
+      correctedHistogram.subtract(other.correctedHistogram);
       requestCount -= other.requestCount;
       responseCount -= other.responseCount;
       invalid -= other.invalid;
@@ -103,11 +128,16 @@ public class StatisticsSnapshot implements Serializable {
       TreeMap<Double, Long> percentilesMap = getPercentiles(percentiles);
       return new StatisticsSummary(histogram.getStartTimeStamp(), histogram.getEndTimeStamp(),
             histogram.getMinValue(), (long) histogram.getMean(), histogram.getMaxValue(),
-            percentilesMap, requestCount, responseCount,
+            percentilesMap, (long) correctedHistogram.getMean(), correctedHistogram.getMaxValue(),
+            getPercentiles(correctedHistogram, percentiles), requestCount, responseCount,
             invalid, connectionErrors, requestTimeouts, internalErrors, blockedTime, new TreeMap<>(extensions));
    }
 
    public TreeMap<Double, Long> getPercentiles(double[] percentiles) {
+      return getPercentiles(histogram, percentiles);
+   }
+
+   private static TreeMap<Double, Long> getPercentiles(Histogram histogram, double[] percentiles) {
       return DoubleStream.of(percentiles).collect(TreeMap::new,
             (map, p) -> map.put(p * 100, histogram.getValueAtPercentile(p * 100)), TreeMap::putAll);
    }
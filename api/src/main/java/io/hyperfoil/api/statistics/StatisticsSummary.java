@@ -13,6 +13,10 @@ public class StatisticsSummary {
    public final long meanResponseTime;
    public final long maxResponseTime;
    public final SortedMap<Double, Long> percentileResponseTime; // the percentiles depend on configuration
+   // response times corrected for coordinated omission
+   public final long meanCorrectedResponseTime;
+   public final long maxCorrectedResponseTime;
+   public final SortedMap<Double, Long> percentileCorrectedResponseTime;
    public final int requestCount;
    public final int responseCount;
    public final int invalid;
@@ -29,6 +33,9 @@ public class StatisticsSummary {
                             @JsonProperty("meanResponseTime") long meanResponseTime,
                             @JsonProperty("maxResponseTime") long maxResponseTime,
                             @JsonProperty("percentileResponseTime") SortedMap<Double, Long> percentileResponseTime,
+                            @JsonProperty("meanCorrectedResponseTime") long meanCorrectedResponseTime,
+                            @JsonProperty("maxCorrectedResponseTime") long maxCorrectedResponseTime,
+                            @JsonProperty("percentileCorrectedResponseTime") SortedMap<Double, Long> percentileCorrectedResponseTime,
                             @JsonProperty("requestCount") int requestCount,
                             @JsonProperty("responseCount") int responseCount,
                             @JsonProperty("invalid") int invalid,
@@ -43,6 +50,9 @@ public class StatisticsSummary {
       this.meanResponseTime = meanResponseTime;
       this.maxResponseTime = maxResponseTime;
       this.percentileResponseTime = percentileResponseTime;
+      this.meanCorrectedResponseTime = meanCorrectedResponseTime;
+      this.maxCorrectedResponseTime = maxCorrectedResponseTime;
+      this.percentileCorrectedResponseTime = percentileCorrectedResponseTime;
       this.requestCount = requestCount;
       this.responseCount = responseCount;
       this.invalid = invalid;
@@ -60,7 +70,13 @@ public class StatisticsSummary {
          writer.print(p * 100);
          writer.print(',');
       }
-      writer.print("Max,ConnectionErrors,RequestTimeouts,InternalErrors,Invalid,BlockedTime");
+      writer.print("Max,ConnectionErrors,RequestTimeouts,InternalErrors,Invalid,BlockedTime,CorrectedMean,");
+      for (double p : percentiles) {
+         writer.print("CorrectedP");
+         writer.print(p * 100);
+         writer.print(',');
+      }
+      writer.print("CorrectedMax");
    }
 
    public void printTo(PrintWriter writer, String[] extensionHeaders) {
@@ -87,6 +103,14 @@ public class StatisticsSummary {
       writer.print(invalid);
       writer.print(',');
       writer.print(blockedTime);
+      writer.print(',');
+      writer.print(meanCorrectedResponseTime);
+      writer.print(',');
+      for (long prt : percentileCorrectedResponseTime.values()) {
+         writer.print(prt);
+         writer.print(',');
+      }
+      writer.print(maxCorrectedResponseTime);
       for (String header : extensionHeaders) {
          writer.print(',');
          int index = header.indexOf('.');
@@ -6,11 +6,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.CharBuffer;
-import java.nio.charset.CharsetEncoder;
-import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -24,6 +20,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.util.AsciiString;
 
 public class Util {
@@ -163,27 +160,8 @@ public class Util {
    }
 
    public static ByteBuf string2byteBuf(CharSequence str, ByteBuf buffer) {
-      // TODO: allocations everywhere but at least not the bytes themselves...
-      CharBuffer input = CharBuffer.wrap(str);
-      ByteBuffer output = buffer.nioBuffer(buffer.writerIndex(), buffer.capacity() - buffer.writerIndex());
-      CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
-      int accumulatedBytes = buffer.writerIndex();
-      for (; ; ) {
-         CoderResult result = encoder.encode(input, output, true);
-         if (result.isError()) {
-            throw new RuntimeException("Cannot encode: " + result + ", string is " + str);
-         } else if (result.isUnderflow()) {
-            buffer.writerIndex(accumulatedBytes + output.position());
-            return buffer;
-         } else if (result.isOverflow()) {
-            buffer.capacity(buffer.capacity() * 2);
-            int writtenBytes = output.position();
-            accumulatedBytes += writtenBytes;
-            output = buffer.nioBuffer(accumulatedBytes, buffer.capacity() - accumulatedBytes);
-         } else {
-            throw new IllegalStateException();
-         }
-      }
+      ByteBufUtil.writeUtf8(buffer, str);
+      return buffer;
    }
 
    public static String explainCauses(Throwable e) {
@@ -469,21 +447,199 @@ public class Util {
 
    }
 
-   public static void urlEncode(String string, ByteBuf buf) {
-      // TODO: more efficient implementation without allocation
-      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
-      for (byte b : bytes) {
-         if (b >= 0 && URLEncoding.DONT_NEED_ENCODING.get(b)) {
-            buf.ensureWritable(1);
-            buf.writeByte(b);
-         } else if (b == ' ') {
-            buf.ensureWritable(1);
-            buf.writeByte('+');
-         } else {
-            buf.ensureWritable(3);
-            buf.writeByte('%');
-            buf.writeByte(HEX[(b >> 4) & 0xF]);
-            buf.writeByte(HEX[b & 0xF]);
+   /**
+    * Writes UTF-8 representation of the string with all but unreserved characters percent-encoded
+    * (and space encoded as <code>+</code>), without allocating any intermediate objects.
+    */
+   public static void urlEncode(CharSequence string, ByteBuf buf) {
+      int length = string.length();
+      for (int i = 0; i < length; ++i) {
+         int codePoint = codePointAt(string, i);
+         i += Character.charCount(codePoint) - 1;
+         int utf8Length = utf8Length(codePoint);
+         for (int j = 0; j < utf8Length; ++j) {
+            int b = utf8Byte(codePoint, utf8Length, j);
+            if (b < 0x80 && URLEncoding.DONT_NEED_ENCODING.get(b)) {
+               buf.writeByte(b);
+            } else if (b == ' ') {
+               buf.writeByte('+');
+            } else {
+               buf.writeByte('%');
+               buf.writeByte(HEX[b >> 4]);
+               buf.writeByte(HEX[b & 0xF]);
+            }
+         }
+      }
+   }
+
+   public static void urlEncode(CharSequence string, StringBuilder sb) {
+      int length = string.length();
+      for (int i = 0; i < length; ++i) {
+         int codePoint = codePointAt(string, i);
+         i += Character.charCount(codePoint) - 1;
+         int utf8Length = utf8Length(codePoint);
+         for (int j = 0; j < utf8Length; ++j) {
+            int b = utf8Byte(codePoint, utf8Length, j);
+            if (b < 0x80 && URLEncoding.DONT_NEED_ENCODING.get(b)) {
+               sb.append((char) b);
+            } else if (b == ' ') {
+               sb.append('+');
+            } else {
+               sb.append('%').append((char) HEX[b >> 4]).append((char) HEX[b & 0xF]);
+            }
+         }
+      }
+   }
+
+   /**
+    * Writes Base64 encoding of the UTF-8 representation of the string without allocating any intermediate objects.
+    */
+   public static void base64Encode(CharSequence string, ByteBuf buf) {
+      int length = string.length();
+      int group = 0;
+      int groupBytes = 0;
+      for (int i = 0; i < length; ++i) {
+         int codePoint = codePointAt(string, i);
+         i += Character.charCount(codePoint) - 1;
+         int utf8Length = utf8Length(codePoint);
+         for (int j = 0; j < utf8Length; ++j) {
+            group = (group << 8) | utf8Byte(codePoint, utf8Length, j);
+            if (++groupBytes == 3) {
+               for (int shift = 18; shift >= 0; shift -= 6) {
+                  buf.writeByte(Base64Encoding.ALPHABET[(group >> shift) & 0x3F]);
+               }
+               group = 0;
+               groupBytes = 0;
+            }
+         }
+      }
+      if (groupBytes > 0) {
+         group <<= 8 * (3 - groupBytes);
+         for (int shift = 18; shift >= 18 - 6 * groupBytes; shift -= 6) {
+            buf.writeByte(Base64Encoding.ALPHABET[(group >> shift) & 0x3F]);
+         }
+         for (int i = groupBytes; i < 3; ++i) {
+            buf.writeByte('=');
+         }
+      }
+   }
+
+   public static void base64Encode(CharSequence string, StringBuilder sb) {
+      int length = string.length();
+      int group = 0;
+      int groupBytes = 0;
+      for (int i = 0; i < length; ++i) {
+         int codePoint = codePointAt(string, i);
+         i += Character.charCount(codePoint) - 1;
+         int utf8Length = utf8Length(codePoint);
+         for (int j = 0; j < utf8Length; ++j) {
+            group = (group << 8) | utf8Byte(codePoint, utf8Length, j);
+            if (++groupBytes == 3) {
+               for (int shift = 18; shift >= 0; shift -= 6) {
+                  sb.append((char) Base64Encoding.ALPHABET[(group >> shift) & 0x3F]);
+               }
+               group = 0;
+               groupBytes = 0;
+            }
+         }
+      }
+      if (groupBytes > 0) {
+         group <<= 8 * (3 - groupBytes);
+         for (int shift = 18; shift >= 18 - 6 * groupBytes; shift -= 6) {
+            sb.append((char) Base64Encoding.ALPHABET[(group >> shift) & 0x3F]);
+         }
+         for (int i = groupBytes; i < 3; ++i) {
+            sb.append('=');
+         }
+      }
+   }
+
+   /**
+    * Writes bytes decoded from Base64-encoded string without allocating any intermediate objects.
+    *
+    * @throws IllegalArgumentException if the input is not valid Base64.
+    */
+   public static void base64Decode(CharSequence string, ByteBuf buf) {
+      int length = string.length();
+      int group = 0;
+      int bits = 0;
+      int i = 0;
+      for (; i < length; ++i) {
+         char c = string.charAt(i);
+         if (c == '=') {
+            break;
+         }
+         int value = c < Base64Encoding.DECODE.length ? Base64Encoding.DECODE[c] : -1;
+         if (value < 0) {
+            throw new IllegalArgumentException("Illegal base64 character " + Integer.toHexString(c) + " in '" + string + "'");
+         }
+         group = (group << 6) | value;
+         bits += 6;
+         if (bits >= 8) {
+            bits -= 8;
+            buf.writeByte(group >> bits);
+            group &= (1 << bits) - 1;
+         }
+      }
+      // there can be at most two padding characters completing the last 4-character group
+      int padding = length - i;
+      if (bits >= 6 || padding > 2 || padding > 0 && (i + padding) % 4 != 0) {
+         throw new IllegalArgumentException("Invalid base64 padding in '" + string + "'");
+      }
+      for (; i < length; ++i) {
+         if (string.charAt(i) != '=') {
+            throw new IllegalArgumentException("Invalid base64 padding in '" + string + "'");
+         }
+      }
+   }
+
+   private static int codePointAt(CharSequence string, int index) {
+      char c = string.charAt(index);
+      if (Character.isHighSurrogate(c) && index + 1 < string.length() && Character.isLowSurrogate(string.charAt(index + 1))) {
+         return Character.toCodePoint(c, string.charAt(index + 1));
+      } else if (Character.isSurrogate(c)) {
+         // the same replacement as String.getBytes uses for malformed input
+         return '?';
+      }
+      return c;
+   }
+
+   private static int utf8Length(int codePoint) {
+      if (codePoint < 0x80) {
+         return 1;
+      } else if (codePoint < 0x800) {
+         return 2;
+      } else if (codePoint < 0x10000) {
+         return 3;
+      } else {
+         return 4;
+      }
+   }
+
+   private static int utf8Byte(int codePoint, int utf8Length, int index) {
+      if (index == 0) {
+         switch (utf8Length) {
+            case 1:
+               return codePoint;
+            case 2:
+               return 0xC0 | (codePoint >> 6);
+            case 3:
+               return 0xE0 | (codePoint >> 12);
+            default:
+               return 0xF0 | (codePoint >> 18);
+         }
+      }
+      return 0x80 | ((codePoint >> (6 * (utf8Length - 1 - index))) & 0x3F);
+   }
+
+   private static class Base64Encoding {
+      private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+      private static final int[] DECODE = new int[128];
+
+      static {
+         Arrays.fill(DECODE, -1);
+         for (int i = 0; i < ALPHABET.length; ++i) {
+            DECODE[ALPHABET[i]] = i;
          }
       }
    }
@@ -3,11 +3,14 @@ package io.hyperfoil.internal;
 import java.util.function.Function;
 
 public interface Properties {
+   String AGENT_AUXILIARY_CPUS = "io.hyperfoil.agent.auxiliary.cpus";
    String AGENT_DEBUG_PORT = "io.hyperfoil.agent.debug.port";
    String AGENT_DEBUG_SUSPEND = "io.hyperfoil.agent.debug.suspend";
+   String AGENT_EXECUTOR_CPUS = "io.hyperfoil.agent.executor.cpus";
    String AGENT_JAVA_EXECUTABLE = "io.hyperfoil.agent.java.executable";
    String AGENT_NAME = "io.hyperfoil.agent.name";
    String BENCHMARK_DIR = "io.hyperfoil.benchmarkdir";
+   String CONTROLLER_AGGREGATION_THREADS = "io.hyperfoil.controller.aggregation.threads";
    String CONTROLLER_CLUSTER_IP = "io.hyperfoil.controller.cluster.ip";
    String CONTROLLER_CLUSTER_PORT = "io.hyperfoil.controller.cluster.port";
    String CONTROLLER_EXTERNAL_URI = "io.hyperfoil.controller.external.uri";
@@ -21,11 +24,16 @@ public interface Properties {
    String CONTROLLER_LOG = "io.hyperfoil.controller.log.file";
    String CONTROLLER_LOG_LEVEL = "io.hyperfoil.controller.log.level";
    String CONTROLLER_PORT = "io.hyperfoil.controller.port";
+   String CONTROLLER_SERIES_FILE = "io.hyperfoil.controller.series.file";
    String CPU_WATCHDOG_PERIOD = "io.hyperfoil.cpu.watchdog.period";
    String CPU_WATCHDOG_IDLE_THRESHOLD = "io.hyperfoil.cpu.watchdog.idle.threshold";
    String DEPLOYER = "io.hyperfoil.deployer";
    String DEPLOY_TIMEOUT = "io.hyperfoil.deploy.timeout";
    String DIST_DIR = "io.hyperfoil.distdir";
+   String EXECUTOR_WATCHDOG_BUSY_PERIOD = "io.hyperfoil.executor.watchdog.busy.period";
+   String EXECUTOR_WATCHDOG_BUSY_THRESHOLD = "io.hyperfoil.executor.watchdog.busy.threshold";
+   String EXECUTOR_WATCHDOG_FAIL = "io.hyperfoil.executor.watchdog.fail";
+   String EXECUTOR_WATCHDOG_PERIOD = "io.hyperfoil.executor.watchdog.period";
    String JITTER_WATCHDOG_PERIOD = "io.hyperfoil.jitter.watchdog.period";
    String JITTER_WATCHDOG_THRESHOLD = "io.hyperfoil.jitter.watchdog.threshold";
    String LOG4J2_CONFIGURATION_FILE = "log4j.configurationFile";
@@ -35,6 +43,7 @@ public interface Properties {
    String ROOT_DIR = "io.hyperfoil.rootdir";
    String RUN_DIR = "io.hyperfoil.rundir";
    String RUN_ID = "io.hyperfoil.runid";
+   String STATISTICS_RING = "io.hyperfoil.statistics.ring";
    String TRIGGER_URL = "io.hyperfoil.trigger.url";
    String CLI_REQUEST_TIMEOUT = "io.hyperfoil.cli.request.timeout";
 
@@ -0,0 +1,94 @@
+package io.hyperfoil.api.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.netty.channel.DefaultEventLoop;
+
+public class TimerWheelTest {
+   private final DefaultEventLoop eventLoop = new DefaultEventLoop();
+
+   @After
+   public void shutdown() {
+      eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   @Test
+   public void testOrder() throws Exception {
+      List<Integer> fired = new ArrayList<>();
+      CompletableFuture<Void> done = new CompletableFuture<>();
+      long start = System.nanoTime();
+      eventLoop.execute(() -> {
+         TimerWheel wheel = TimerWheel.get(eventLoop);
+         wheel.schedule(() -> fired.add(30), 30, TimeUnit.MILLISECONDS);
+         wheel.schedule(() -> fired.add(10), 10, TimeUnit.MILLISECONDS);
+         wheel.schedule(() -> fired.add(20), 20, TimeUnit.MILLISECONDS);
+         wheel.schedule(() -> done.complete(null), 40, TimeUnit.MILLISECONDS);
+      });
+      done.get(5, TimeUnit.SECONDS);
+      assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+      assertEquals(Arrays.asList(10, 20, 30), fired);
+   }
+
+   @Test
+   public void testCancelAndReschedule() throws Exception {
+      List<String> fired = new ArrayList<>();
+      CompletableFuture<Integer> done = new CompletableFuture<>();
+      eventLoop.execute(() -> {
+         TimerWheel wheel = TimerWheel.get(eventLoop);
+         TimerWheel.Timer cancelled = wheel.schedule(() -> fired.add("cancelled"), 5, TimeUnit.MILLISECONDS);
+         TimerWheel.Timer moved = new TimerWheel.Timer(() -> fired.add("moved"));
+         wheel.schedule(moved, 5, TimeUnit.MILLISECONDS);
+         fired.add("cancel " + cancelled.cancel());
+         fired.add("cancel " + cancelled.cancel());
+         wheel.schedule(moved, 20, TimeUnit.MILLISECONDS);
+         wheel.schedule(() -> fired.add("first"), 10, TimeUnit.MILLISECONDS);
+         wheel.schedule(() -> done.complete(wheel.size()), 30, TimeUnit.MILLISECONDS);
+      });
+      assertEquals(0, (int) done.get(5, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList("cancel true", "cancel false", "first", "moved"), fired);
+   }
+
+   @Test
+   public void testLongDelay() throws Exception {
+      // Delay longer than one revolution of the wheel
+      CompletableFuture<Long> done = new CompletableFuture<>();
+      long start = System.nanoTime();
+      eventLoop.execute(() -> TimerWheel.get(eventLoop)
+            .schedule(() -> done.complete(System.nanoTime() - start), 4200, TimeUnit.MILLISECONDS));
+      assertTrue(done.get(10, TimeUnit.SECONDS) >= TimeUnit.MILLISECONDS.toNanos(4200));
+   }
+
+   @Test
+   public void testCancelFromExpiredTask() throws Exception {
+      List<String> fired = new ArrayList<>();
+      AtomicLong clock = new AtomicLong();
+      CompletableFuture<Integer> done = new CompletableFuture<>();
+      eventLoop.execute(() -> {
+         TimerWheel wheel = new TimerWheel(eventLoop, clock::get);
+         TimerWheel.Timer second = new TimerWheel.Timer(() -> fired.add("second"));
+         // both timers have the same deadline and expire in the same tick: the second one
+         // is already collected as expired when the first one cancels it
+         wheel.schedule(second, 5, TimeUnit.MILLISECONDS);
+         wheel.schedule(() -> {
+            fired.add("first");
+            fired.add("cancel " + second.cancel());
+         }, 5, TimeUnit.MILLISECONDS);
+         clock.set(TimeUnit.MILLISECONDS.toNanos(10));
+         wheel.tick();
+         done.complete(wheel.size());
+      });
+      assertEquals(0, (int) done.get(5, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList("first", "cancel true"), fired);
+   }
+}
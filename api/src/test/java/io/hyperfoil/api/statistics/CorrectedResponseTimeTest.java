@@ -0,0 +1,56 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.api.config.SLABuilder;
+
+public class CorrectedResponseTimeTest {
+   private static final double[] PERCENTILES = { 0.5, 0.99 };
+
+   @Test
+   public void testSummary() {
+      StatisticsSnapshot snapshot = record();
+      StatisticsSummary summary = snapshot.summary(PERCENTILES);
+      assertTrue(summary.maxResponseTime < 2_000_000);
+      assertTrue(summary.maxCorrectedResponseTime > 100_000_000);
+      assertTrue(summary.meanCorrectedResponseTime > summary.meanResponseTime);
+      assertTrue(summary.percentileCorrectedResponseTime.get(99d) > summary.percentileResponseTime.get(99d));
+
+      StatisticsSnapshot copy = snapshot.clone();
+      assertEquals(snapshot.correctedHistogram, copy.correctedHistogram);
+   }
+
+   @Test
+   public void testSLA() {
+      StatisticsSnapshot snapshot = record();
+      SLA sla = new SLABuilder<>(null).meanResponseTime("10ms").build();
+      assertNull(sla.validate("phase", "metric", snapshot));
+      SLA correctedSla = new SLABuilder<>(null).correctedLatency(true).meanResponseTime("10ms").build();
+      SLA.Failure failure = correctedSla.validate("phase", "metric", snapshot);
+      assertNotNull(failure);
+      assertTrue(failure.message(), failure.message().startsWith("Mean corrected response time"));
+   }
+
+   private StatisticsSnapshot record() {
+      Statistics statistics = new RecorderStatistics(0);
+      for (int i = 0; i < 100; ++i) {
+         // the last requests were started 200 ms late
+         long lag = i < 90 ? 0 : 200_000_000;
+         statistics.recordResponse(100, 1_000_000 + i, 1_000_000 + i + lag);
+      }
+      statistics.end(1000);
+      List<StatisticsSnapshot> snapshots = new ArrayList<>();
+      statistics.visitSnapshots(s -> snapshots.add(s.clone()));
+      assertEquals(1, snapshots.size());
+      return snapshots.get(0);
+   }
+}
@@ -0,0 +1,104 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class RingStatisticsTest {
+   @Test
+   public void testRecycling() {
+      RingStatistics statistics = new RingStatistics(0);
+      Set<StatisticsSnapshot> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+      List<Integer> sequenceIds = new ArrayList<>();
+      for (int second = 0; second < 1000; ++second) {
+         long timestamp = second * 1000L + 500;
+         statistics.incrementRequests(timestamp);
+         statistics.recordResponse(timestamp, 1_000_000);
+         statistics.visitSnapshots(snapshot -> {
+            assertEquals(1, snapshot.requestCount);
+            assertEquals(1, snapshot.responseCount);
+            assertEquals(1, snapshot.histogram.getTotalCount());
+            assertEquals(snapshot.sequenceId * 1000L, snapshot.histogram.getStartTimeStamp());
+            sequenceIds.add(snapshot.sequenceId);
+            seen.add(snapshot);
+         });
+      }
+      statistics.end(999_700);
+      statistics.visitSnapshots(snapshot -> {
+         assertEquals(999_700, snapshot.histogram.getEndTimeStamp());
+         sequenceIds.add(snapshot.sequenceId);
+         seen.add(snapshot);
+      });
+      assertEquals(1000, sequenceIds.size());
+      for (int i = 0; i < sequenceIds.size(); ++i) {
+         assertEquals(i, (int) sequenceIds.get(i));
+      }
+      assertTrue("Too many snapshots: " + seen.size(), seen.size() <= 4);
+   }
+
+   @Test
+   public void testGrowth() {
+      RingStatistics statistics = new RingStatistics(0);
+      // the reader falls behind: none of these samples are published before the ring is full
+      for (int second = 0; second < 10; ++second) {
+         for (int i = 0; i <= second; ++i) {
+            statistics.incrementRequests(second * 1000L + i);
+         }
+      }
+      // very late response for the first sample
+      statistics.recordResponse(500, 1_000_000);
+      statistics.end(10_000);
+      List<Integer> sequenceIds = new ArrayList<>();
+      statistics.visitSnapshots(snapshot -> {
+         // each sample keeps only its own requests
+         assertEquals(snapshot.sequenceId + 1, snapshot.requestCount);
+         assertEquals(snapshot.sequenceId == 0 ? 1 : 0, snapshot.responseCount);
+         sequenceIds.add(snapshot.sequenceId);
+      });
+      Collections.sort(sequenceIds);
+      assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), sequenceIds);
+   }
+
+   @Test
+   public void testConcurrentReader() throws InterruptedException {
+      RingStatistics statistics = new RingStatistics(0);
+      AtomicBoolean running = new AtomicBoolean(true);
+      long[] collected = new long[2];
+      Thread reader = new Thread(() -> {
+         while (running.get()) {
+            statistics.visitSnapshots(snapshot -> {
+               collected[0] += snapshot.requestCount;
+               collected[1] += snapshot.histogram.getTotalCount();
+            });
+         }
+      });
+      reader.start();
+      int requests = 0;
+      for (int second = 0; second < 200; ++second) {
+         for (int i = 0; i < 5000; ++i) {
+            long timestamp = second * 1000L + i / 5;
+            statistics.incrementRequests(timestamp);
+            // responses arrive a bit later but are attributed to request start
+            statistics.recordResponse(timestamp - (i & 1) * 1000, 1000);
+            ++requests;
+         }
+      }
+      running.set(false);
+      reader.join();
+      statistics.end(200_000);
+      statistics.visitSnapshots(snapshot -> {
+         collected[0] += snapshot.requestCount;
+         collected[1] += snapshot.histogram.getTotalCount();
+      });
+      assertEquals(requests, collected[0]);
+      assertEquals(requests, collected[1]);
+   }
+}
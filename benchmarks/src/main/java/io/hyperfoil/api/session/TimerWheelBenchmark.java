@@ -0,0 +1,104 @@
+package io.hyperfoil.api.session;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Schedule and cancel of request timeouts, comparing {@link TimerWheel} against scheduling directly
+ * on the event loop. Each operation schedules a timeout and cancels the oldest one, keeping
+ * <code>inFlight</code> timeouts pending as it happens with many concurrent requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerWheelBenchmark {
+   private static final int BATCH = 1000;
+   private static final long TIMEOUT_SECONDS = 60;
+   private static final Runnable NOOP = () -> {
+   };
+
+   @Param({ "netty", "wheel" })
+   String impl;
+
+   @Param({ "1000", "100000" })
+   int inFlight;
+
+   private DefaultEventLoop eventLoop;
+   private ScheduledFuture<?>[] futures;
+   private TimerWheel.Timer[] timers;
+   private final Runnable batch = this::batch;
+   // Accessed only from the event loop
+   private int index;
+   private volatile boolean done;
+
+   @Setup
+   public void setup() throws Exception {
+      eventLoop = new DefaultEventLoop();
+      futures = new ScheduledFuture[inFlight];
+      timers = new TimerWheel.Timer[inFlight];
+      eventLoop.submit(() -> {
+         TimerWheel wheel = TimerWheel.get(eventLoop);
+         for (int i = 0; i < inFlight; ++i) {
+            if ("wheel".equals(impl)) {
+               timers[i] = new TimerWheel.Timer(NOOP);
+               wheel.schedule(timers[i], TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } else {
+               futures[i] = eventLoop.schedule(NOOP, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+         }
+      }).sync();
+   }
+
+   @TearDown
+   public void tearDown() throws InterruptedException {
+      eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(BATCH)
+   public void scheduleCancel() {
+      done = false;
+      eventLoop.execute(batch);
+      while (!done) {
+         Thread.onSpinWait();
+      }
+   }
+
+   private void batch() {
+      if ("wheel".equals(impl)) {
+         TimerWheel wheel = TimerWheel.get(eventLoop);
+         for (int i = 0; i < BATCH; ++i) {
+            TimerWheel.Timer timer = timers[index];
+            timer.cancel();
+            wheel.schedule(timer, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            index = (index + 1) % inFlight;
+         }
+      } else {
+         for (int i = 0; i < BATCH; ++i) {
+            futures[index].cancel(false);
+            futures[index] = eventLoop.schedule(NOOP, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            index = (index + 1) % inFlight;
+         }
+      }
+      done = true;
+   }
+}
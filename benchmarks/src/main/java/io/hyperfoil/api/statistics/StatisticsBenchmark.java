@@ -0,0 +1,60 @@
+package io.hyperfoil.api.statistics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording into {@link Statistics} from the event-loop thread. There is no concurrent reader;
+ * this measures the writer critical section and histogram update alone. The {@code recorder} parameter
+ * selects between {@link Statistics} and {@link RingStatistics}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+   private static final int VALUES = 1024;
+
+   @Param({ "phaser", "ring" })
+   private String recorder;
+
+   private final long[] responseTimes = new long[VALUES];
+   private Statistics statistics;
+   private long timestamp;
+   private int index;
+
+   @Setup
+   public void setup() {
+      timestamp = System.currentTimeMillis();
+      statistics = "ring".equals(recorder) ? new RingStatistics(timestamp) : new RecorderStatistics(timestamp);
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (int i = 0; i < VALUES; ++i) {
+         // 100 us - 100 ms, spread over the whole histogram range
+         responseTimes[i] = random.nextLong(TimeUnit.MICROSECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(100));
+      }
+   }
+
+   @Benchmark
+   public void recordResponse() {
+      statistics.recordResponse(timestamp, responseTimes[index++ & (VALUES - 1)]);
+   }
+
+   @Benchmark
+   public void incrementRequests() {
+      statistics.incrementRequests(timestamp);
+   }
+}
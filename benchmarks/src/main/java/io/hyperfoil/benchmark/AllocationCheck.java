@@ -0,0 +1,117 @@
+package io.hyperfoil.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks with the GC profiler (same as <code>-prof gc</code>) and compares the allocated
+ * bytes per operation against <code>allocation-baseline.properties</code>. Exits with non-zero status
+ * if any benchmark allocates more than its baseline (with some tolerance for the noise).
+ * <p>
+ * Usage: <code>java -cp benchmarks.jar io.hyperfoil.benchmark.AllocationCheck [regexp...]</code>
+ * <p>
+ * When the allocation profile changes intentionally run this with <code>-Dupdate=true</code> and copy
+ * the printed values into the baseline file.
+ */
+public final class AllocationCheck {
+   private static final String BASELINE = "allocation-baseline.properties";
+   private static final String NORM_ALLOCATION = "gc.alloc.rate.norm";
+   private static final double RELATIVE_TOLERANCE = 0.1;
+   private static final double ABSOLUTE_TOLERANCE = 16;
+
+   private AllocationCheck() {
+   }
+
+   public static void main(String[] args) throws IOException, RunnerException {
+      Properties baseline = new Properties();
+      try (InputStream stream = AllocationCheck.class.getClassLoader().getResourceAsStream(BASELINE)) {
+         if (stream == null) {
+            throw new IllegalStateException("Cannot find " + BASELINE);
+         }
+         baseline.load(stream);
+      }
+      boolean update = Boolean.getBoolean("update");
+
+      ChainedOptionsBuilder options = new OptionsBuilder()
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.seconds(1));
+      if (args.length == 0) {
+         options.include("io\\.hyperfoil\\..*Benchmark");
+      } else {
+         for (String arg : args) {
+            options.include(arg);
+         }
+      }
+      Collection<RunResult> results = new Runner(options.build()).run();
+
+      List<String> failures = new ArrayList<>();
+      TreeSet<String> updated = new TreeSet<>();
+      for (RunResult result : results) {
+         String key = key(result.getParams());
+         Result<?> allocation = result.getSecondaryResults().get(NORM_ALLOCATION);
+         if (allocation == null) {
+            failures.add(key + ": no allocation profile, was the GC profiler attached?");
+            continue;
+         }
+         double allocated = allocation.getScore();
+         updated.add(key + "=" + Math.round(Math.ceil(allocated)));
+         String expected = baseline.getProperty(key);
+         if (expected == null) {
+            failures.add(key + ": missing baseline, allocated " + allocated + " B/op");
+         } else {
+            double limit = Double.parseDouble(expected) * (1 + RELATIVE_TOLERANCE) + ABSOLUTE_TOLERANCE;
+            if (allocated > limit) {
+               failures.add(key + ": allocated " + allocated + " B/op, baseline is " + expected + " B/op");
+            }
+         }
+      }
+      if (update) {
+         System.out.println("Updated baseline:");
+         updated.forEach(System.out::println);
+      }
+      if (failures.isEmpty()) {
+         System.out.println("All " + results.size() + " benchmarks are within the allocation baseline.");
+      } else {
+         System.err.println("Allocation regressions:");
+         failures.forEach(System.err::println);
+         System.exit(1);
+      }
+   }
+
+   private static String key(BenchmarkParams params) {
+      StringBuilder sb = new StringBuilder(params.getBenchmark());
+      Collection<String> paramKeys = params.getParamsKeys();
+      if (!paramKeys.isEmpty()) {
+         sb.append('[');
+         boolean first = true;
+         for (String param : paramKeys) {
+            if (!first) {
+               sb.append(',');
+            }
+            first = false;
+            sb.append(param).append('/').append(params.getParam(param));
+         }
+         sb.append(']');
+      }
+      return sb.toString();
+   }
+}
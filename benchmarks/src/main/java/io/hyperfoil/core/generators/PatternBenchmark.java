@@ -0,0 +1,91 @@
+package io.hyperfoil.core.generators;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.session.IntAccess;
+import io.hyperfoil.api.session.ObjectAccess;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.test.TestUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Rendering a {@link Pattern} directly into a buffer, as used for request bodies and form inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternBenchmark {
+   @Param({ "plain", "urlencode", "base64encode", "format" })
+   String pattern;
+
+   private Pattern compiled;
+   private Session session;
+   private ByteBuf buffer;
+
+   @Setup
+   public void setup() {
+      ObjectAccess text = SessionFactory.objectAccess("text");
+      IntAccess number = SessionFactory.intAccess("number");
+      session = SessionFactory.forTesting(text, number);
+      text.setObject(session, "user:pässwörd & more");
+      number.setInt(session, 4242);
+      String template;
+      switch (pattern) {
+         case "plain":
+            template = "{ \"user\": \"${text}\", \"id\": ${number} }";
+            break;
+         case "urlencode":
+            template = "/search?q=${urlencode:text}&page=${number}";
+            break;
+         case "base64encode":
+            template = "Basic ${base64encode:text}";
+            break;
+         case "format":
+            template = "item-${%08x:number}";
+            break;
+         default:
+            throw new IllegalArgumentException(pattern);
+      }
+      Locator.push(TestUtil.locator());
+      try {
+         compiled = new Pattern(template, false);
+      } finally {
+         Locator.pop();
+      }
+      TestUtil.resolveAccess(session, compiled);
+      ResourceUtilizer.reserveForTesting(session, compiled);
+      buffer = ByteBufAllocator.DEFAULT.directBuffer(256);
+   }
+
+   @TearDown
+   public void tearDown() {
+      buffer.release();
+   }
+
+   @Benchmark
+   public ByteBuf render() {
+      buffer.clear();
+      compiled.accept(session, buffer);
+      return buffer;
+   }
+}
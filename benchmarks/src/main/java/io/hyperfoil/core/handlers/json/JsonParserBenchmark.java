@@ -0,0 +1,96 @@
+package io.hyperfoil.core.handlers.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Parsing a JSON response body through {@link JsonParser.Context#parse(ByteStream, Session, boolean)},
+ * optionally split into several fragments as it would arrive from the network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonParserBenchmark {
+   @Param({ "100", "10000" })
+   int items;
+
+   @Param({ "1", "8" })
+   int fragments;
+
+   @Param({ ".[].id", ".[5].name" })
+   String query;
+
+   private Session session;
+   private JsonHandler handler;
+   private ByteBuf data;
+   private Blackhole blackhole;
+
+   @Setup
+   public void setup(Blackhole blackhole) {
+      this.blackhole = blackhole;
+      StringBuilder sb = new StringBuilder("[");
+      for (int i = 0; i < items; ++i) {
+         if (i != 0) {
+            sb.append(",\n");
+         }
+         sb.append("{ \"id\": ").append(i)
+               .append(", \"name\": \"item-").append(i)
+               .append("\", \"tags\": [ \"foo\", \"bar\" ], \"nested\": { \"value\": ").append(i * 3).append(" } }");
+      }
+      sb.append("]");
+      data = Unpooled.directBuffer().writeBytes(sb.toString().getBytes(StandardCharsets.UTF_8));
+      handler = new JsonHandler(query, false, null, new ConsumingProcessor());
+      session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, handler);
+   }
+
+   @TearDown
+   public void tearDown() {
+      data.release();
+   }
+
+   @Benchmark
+   public void parse() {
+      int length = data.readableBytes();
+      int fragmentLength = length / fragments;
+      handler.before(session);
+      int offset = data.readerIndex();
+      for (int i = 1; i < fragments; ++i) {
+         handler.process(session, data, offset, fragmentLength, false);
+         offset += fragmentLength;
+      }
+      handler.process(session, data, offset, data.writerIndex() - offset, true);
+      handler.after(session);
+   }
+
+   private class ConsumingProcessor implements Processor {
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         blackhole.consume(length);
+      }
+   }
+}
@@ -0,0 +1,120 @@
+package io.hyperfoil.core.handlers.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Extracting several values from a ~1 MB JSON response with one {@link JsonHandler} per query
+ * versus a single {@link MultiJsonHandler} evaluating all queries in one pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiJsonBenchmark {
+   private static final String[] QUERIES = {
+         ".items[].id", ".items[].name", ".items[].nested.value", ".next", ".items[0].id",
+         ".items[].tags[0]", ".total", ".items[100].name", ".items[5000].nested.value", ".items[].tags[1]"
+   };
+
+   @Param({ "1", "5", "10" })
+   int queries;
+
+   @Param({ "1", "16" })
+   int fragments;
+
+   private Session session;
+   private Processor[] handlers;
+   private MultiJsonHandler multiHandler;
+   private ByteBuf data;
+   private Blackhole blackhole;
+
+   @Setup
+   public void setup(Blackhole blackhole) {
+      this.blackhole = blackhole;
+      StringBuilder sb = new StringBuilder("{ \"total\": 10000, \"items\": [");
+      for (int i = 0; i < 10000; ++i) {
+         if (i != 0) {
+            sb.append(",\n");
+         }
+         sb.append("{ \"id\": ").append(i)
+               .append(", \"name\": \"item-").append(i)
+               .append("\", \"tags\": [ \"foo\", \"bar\" ], \"nested\": { \"value\": ").append(i * 3).append(" } }");
+      }
+      sb.append("], \"next\": \"cursor-10000\" }");
+      data = Unpooled.directBuffer().writeBytes(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+      String[] selected = Arrays.copyOf(QUERIES, queries);
+      handlers = new Processor[queries];
+      Processor[] processors = new Processor[queries];
+      for (int i = 0; i < queries; ++i) {
+         handlers[i] = new JsonHandler(selected[i], false, null, new ConsumingProcessor());
+         processors[i] = new ConsumingProcessor();
+      }
+      multiHandler = new MultiJsonHandler(selected, processors);
+      session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, handlers);
+      ResourceUtilizer.reserveForTesting(session, multiHandler);
+   }
+
+   @TearDown
+   public void tearDown() {
+      data.release();
+   }
+
+   @Benchmark
+   public void perHandler() {
+      for (Processor handler : handlers) {
+         parse(handler);
+      }
+   }
+
+   @Benchmark
+   public void multiJson() {
+      parse(multiHandler);
+   }
+
+   private void parse(Processor handler) {
+      int length = data.readableBytes();
+      int fragmentLength = length / fragments;
+      handler.before(session);
+      int offset = data.readerIndex();
+      for (int i = 1; i < fragments; ++i) {
+         handler.process(session, data, offset, fragmentLength, false);
+         offset += fragmentLength;
+      }
+      handler.process(session, data, offset, data.writerIndex() - offset, true);
+      handler.after(session);
+   }
+
+   private class ConsumingProcessor implements Processor {
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         blackhole.consume(length);
+      }
+   }
+}
@@ -0,0 +1,54 @@
+package io.hyperfoil.core.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Acquire/release cycle of the pool holding sessions shared by all executors. The contended variant
+ * mimics sessions being released from several event loops at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElasticPoolBenchmark {
+   @Param({ "1024" })
+   int capacity;
+
+   private ElasticPoolImpl<Object> pool;
+
+   @Setup
+   public void setup() {
+      pool = new ElasticPoolImpl<>(Object::new, Object::new);
+      pool.reserve(capacity);
+   }
+
+   @Benchmark
+   public Object acquireRelease() {
+      Object object = pool.acquire();
+      pool.release(object);
+      return object;
+   }
+
+   @Benchmark
+   @Threads(4)
+   public Object acquireReleaseContended() {
+      Object object = pool.acquire();
+      pool.release(object);
+      return object;
+   }
+}
@@ -0,0 +1,147 @@
+package io.hyperfoil.core.impl;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+
+/**
+ * Request-response round trips over loopback, comparing the transports provided by {@link EventLoopFactory}.
+ * Both the client and the echo server use the same transport and the round trips are driven from
+ * the client event loop as it happens in Hyperfoil.
+ * <p>
+ * The io_uring transport is not bundled; to compare it against epoll add
+ * <code>netty-incubator-transport-native-io_uring</code> to the classpath and run {@link #main(String[])}, which
+ * includes every transport available on this machine (or use <code>-p transport=epoll,io_uring</code>).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportBenchmark {
+   private static final int ROUND_TRIPS = 1000;
+   private static final String[] TRANSPORTS = { "nio", "epoll", "kqueue", "io_uring" };
+
+   @Param({ "nio", "epoll" })
+   String transport;
+
+   @Param({ "64", "4096" })
+   int size;
+
+   private EventLoopGroup serverGroup;
+   private EventLoopGroup clientGroup;
+   private Channel server;
+   private Channel client;
+   private ByteBuf message;
+   private final Runnable start = this::start;
+   // Accessed only from the client event loop
+   private int remaining;
+   private int received;
+   private volatile boolean done;
+
+   public static void main(String[] args) throws RunnerException {
+      String[] transports = Stream.of(TRANSPORTS).filter(EventLoopFactory::isAvailable).toArray(String[]::new);
+      new Runner(new OptionsBuilder()
+            .include(TransportBenchmark.class.getName())
+            .param("transport", transports)
+            .build()).run();
+   }
+
+   @Setup
+   public void setup() throws InterruptedException {
+      EventLoopFactory factory = EventLoopFactory.forTransport(transport);
+      serverGroup = factory.create(1);
+      clientGroup = factory.create(1);
+      server = new ServerBootstrap().group(serverGroup).channel(factory.serverSocketChannel())
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childHandler(new EchoHandler())
+            .bind(InetAddress.getLoopbackAddress(), 0).sync().channel();
+      client = new Bootstrap().group(clientGroup).channel(factory.socketChannel())
+            .option(ChannelOption.TCP_NODELAY, true)
+            .handler(new ClientHandler())
+            .connect(server.localAddress()).sync().channel();
+      message = client.alloc().directBuffer(size).writeZero(size);
+   }
+
+   @TearDown
+   public void tearDown() throws InterruptedException {
+      client.close().sync();
+      server.close().sync();
+      message.release();
+      clientGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+      serverGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(ROUND_TRIPS)
+   public void roundTrip() {
+      done = false;
+      client.eventLoop().execute(start);
+      while (!done) {
+         Thread.onSpinWait();
+      }
+   }
+
+   private void start() {
+      remaining = ROUND_TRIPS;
+      send();
+   }
+
+   private void send() {
+      client.writeAndFlush(message.retainedDuplicate(), client.voidPromise());
+   }
+
+   @ChannelHandler.Sharable
+   private static class EchoHandler extends ChannelInboundHandlerAdapter {
+      @Override
+      public void channelRead(ChannelHandlerContext ctx, Object msg) {
+         ctx.writeAndFlush(msg, ctx.voidPromise());
+      }
+   }
+
+   private class ClientHandler extends ChannelInboundHandlerAdapter {
+      @Override
+      public void channelRead(ChannelHandlerContext ctx, Object msg) {
+         ByteBuf buf = (ByteBuf) msg;
+         received += buf.readableBytes();
+         buf.release();
+         if (received < size) {
+            return;
+         }
+         received -= size;
+         if (--remaining > 0) {
+            send();
+         } else {
+            done = true;
+         }
+      }
+   }
+}
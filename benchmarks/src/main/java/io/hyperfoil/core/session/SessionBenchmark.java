@@ -0,0 +1,78 @@
+package io.hyperfoil.core.session;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.impl.PhaseInstanceImpl;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+/**
+ * Overhead of {@link SessionImpl#runSession()} driving a sequence of non-blocking steps;
+ * the steps themselves do no work so this is the cost of the scheduling loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+   private static final String SEQUENCE = "benchmark";
+
+   @Param({ "1", "10" })
+   int steps;
+
+   @Param({ "1", "4" })
+   int concurrency;
+
+   private SessionImpl session;
+
+   @Setup
+   public void setup() {
+      Step[] noopSteps = new Step[steps];
+      Arrays.fill(noopSteps, (Step) s -> true);
+      Sequence sequence = new Sequence(SEQUENCE, 0, concurrency, 0, noopSteps);
+      Scenario scenario = new Scenario(new Sequence[0], new Sequence[]{ sequence }, 16, 16);
+      session = (SessionImpl) SessionFactory.create(scenario, 0, 0);
+      Phase phase = new Phase(io.hyperfoil.api.config.Benchmark::forTesting, 0, 0, "benchmark", scenario, 0,
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), 0, -1, null, false, () -> "benchmark", Collections.emptyMap(), null);
+      session.resetPhase(new PhaseInstanceImpl(phase, "benchmark", 0) {
+         @Override
+         public void proceed(EventExecutorGroup executorGroup) {
+         }
+
+         @Override
+         public void reserveSessions() {
+         }
+      });
+      session.attach(ImmediateEventExecutor.INSTANCE, null, null, null, null);
+      session.reserve(scenario);
+   }
+
+   @Benchmark
+   public void runSession() {
+      for (int i = 0; i < concurrency; ++i) {
+         session.startSequence(SEQUENCE, false, Session.ConcurrencyPolicy.FAIL);
+      }
+      session.runSession();
+   }
+}
@@ -0,0 +1,135 @@
+package io.hyperfoil.http.connection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.RecorderStatistics;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.http.BaseMockConnection;
+import io.hyperfoil.http.HttpRequestPool;
+import io.hyperfoil.http.HttpRunData;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpResponseHandlers;
+import io.hyperfoil.http.steps.HttpResponseHandlersImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Parsing canned HTTP/1.1 responses in {@link Http1xResponseHandler#channelRead(io.netty.channel.ChannelHandlerContext, Object)},
+ * including dispatch to (empty) response handlers and completion of the request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Http1xResponseHandlerBenchmark {
+   private static final String SMALL = "HTTP/1.1 200 OK\r\n" +
+         "Content-Length: 13\r\n" +
+         "Content-Type: text/plain\r\n" +
+         "\r\n" +
+         "Hello world!\n";
+   private static final String HEADERS = "HTTP/1.1 200 OK\r\n" +
+         "Date: Mon, 27 Jul 2009 12:28:53 GMT\r\n" +
+         "Server: Apache/2.2.14 (Win32)\r\n" +
+         "Last-Modified: Wed, 22 Jul 2009 19:15:56 GMT\r\n" +
+         "ETag: \"34aa387-d-1568eb00\"\r\n" +
+         "Vary: Authorization,Accept\r\n" +
+         "Accept-Ranges: bytes\r\n" +
+         "Cache-Control: no-cache\r\n" +
+         "X-Request-Id: 5f1e0bd2-8c6e-4b7f-a0c3-6f0c1bdf2a1e\r\n" +
+         "Content-Type: application/json; charset=utf-8\r\n" +
+         "Content-Length: 1024\r\n" +
+         "Connection: keep-alive\r\n" +
+         "\r\n" +
+         "x".repeat(1024);
+   private static final String CHUNKED = "HTTP/1.1 200 OK\r\n" +
+         "Content-Type: text/plain\r\n" +
+         "Transfer-Encoding: chunked\r\n" +
+         "\r\n" +
+         "100\r\n" + "a".repeat(256) + "\r\n" +
+         "100\r\n" + "b".repeat(256) + "\r\n" +
+         "100\r\n" + "c".repeat(256) + "\r\n" +
+         "100\r\n" + "d".repeat(256) + "\r\n" +
+         "0\r\n" +
+         "\r\n";
+
+   @Param({ "small", "headers", "chunked" })
+   String response;
+
+   private EmbeddedChannel channel;
+   private ByteBuf buffer;
+   private Session session;
+   private HttpResponseHandlers handlers;
+   private SequenceInstance sequence;
+   private Statistics statistics;
+   private HttpRequest current;
+
+   @Setup
+   public void setup() {
+      String content;
+      switch (response) {
+         case "small":
+            content = SMALL;
+            break;
+         case "headers":
+            content = HEADERS;
+            break;
+         case "chunked":
+            content = CHUNKED;
+            break;
+         default:
+            throw new IllegalArgumentException(response);
+      }
+      buffer = Unpooled.directBuffer().writeBytes(content.getBytes(StandardCharsets.US_ASCII));
+      session = SessionFactory.forTesting();
+      HttpRunData.initForTesting(session);
+      handlers = HttpResponseHandlersImpl.Builder.forTesting().build();
+      sequence = new SequenceInstance();
+      statistics = new RecorderStatistics(System.currentTimeMillis());
+      channel = new EmbeddedChannel(new Http1xResponseHandler(new BaseMockConnection() {
+         @Override
+         public HttpRequest peekRequest(int streamId) {
+            return current;
+         }
+      }));
+   }
+
+   @TearDown
+   public void tearDown() {
+      channel.finishAndReleaseAll();
+      buffer.release();
+   }
+
+   @Benchmark
+   public void channelRead() {
+      HttpRequest request = HttpRequestPool.get(session).acquire();
+      request.method = HttpMethod.GET;
+      request.authority = "localhost:8080";
+      request.path("/");
+      request.start(null, handlers, sequence, statistics);
+      current = request;
+      // the handler releases the buffer once it is parsed
+      channel.pipeline().fireChannelRead(buffer.retain().readerIndex(0));
+      current = null;
+   }
+}
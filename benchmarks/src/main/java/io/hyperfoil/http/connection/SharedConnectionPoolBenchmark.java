@@ -0,0 +1,161 @@
+package io.hyperfoil.http.connection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.http.BaseMockConnection;
+import io.hyperfoil.http.api.ConnectionConsumer;
+import io.hyperfoil.http.api.HttpConnection;
+import io.hyperfoil.http.api.HttpConnectionPool;
+import io.hyperfoil.http.api.HttpVersion;
+import io.hyperfoil.http.config.HttpBuilder;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoop;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Connection checkout and return in {@link SharedConnectionPool}, mirroring what
+ * {@link Http1xConnection} does around each request. The connections are mocked so that the benchmark
+ * runs in a single thread without any network traffic.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SharedConnectionPoolBenchmark {
+   @Param({ "1", "16" })
+   int connections;
+
+   private final List<EmbeddedChannel> channels = new ArrayList<>();
+   private final MockConnection[] acquired = new MockConnection[64];
+   private final ConnectionConsumer consumer = this::onAcquired;
+   private int numAcquired;
+   private EmbeddedChannel loopChannel;
+   private HttpClientPoolImpl clientPool;
+   private HttpConnectionPool pool;
+
+   @Setup
+   public void setup() throws SSLException {
+      loopChannel = new EmbeddedChannel();
+      EventLoop eventLoop = loopChannel.eventLoop();
+      HttpBuilder builder = HttpBuilder.forTesting().host("localhost").port(8080).sharedConnections(connections);
+      clientPool = new HttpClientPoolImpl(builder.build(true), new EventLoop[]{ eventLoop },
+            io.hyperfoil.api.config.Benchmark.forTesting(), 0) {
+         @Override
+         void connect(HttpConnectionPool pool, ConnectionReceiver handler) {
+            EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+            channels.add(channel);
+            handler.accept(new MockConnection(channel.pipeline().firstContext()), null);
+         }
+      };
+      pool = clientPool.next();
+      clientPool.start(result -> {
+         if (result.failed()) {
+            throw new IllegalStateException(result.cause());
+         }
+      });
+      loopChannel.runPendingTasks();
+      if (pool.connections().size() != connections) {
+         throw new IllegalStateException("Expected " + connections + " connections, got " + pool.connections().size());
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      clientPool.shutdown();
+      loopChannel.finishAndReleaseAll();
+      channels.forEach(EmbeddedChannel::finishAndReleaseAll);
+   }
+
+   @Benchmark
+   public void acquireRelease() {
+      for (int i = 0; i < connections; ++i) {
+         pool.acquire(false, consumer);
+      }
+      for (int i = 0; i < numAcquired; ++i) {
+         MockConnection connection = acquired[i];
+         connection.send();
+         pool.afterRequestSent(connection);
+      }
+      for (int i = 0; i < numAcquired; ++i) {
+         MockConnection connection = acquired[i];
+         acquired[i] = null;
+         connection.complete();
+         pool.release(connection, true, true);
+         pool.pulse();
+      }
+      numAcquired = 0;
+   }
+
+   private void onAcquired(HttpConnection connection) {
+      acquired[numAcquired++] = (MockConnection) connection;
+   }
+
+   private static class MockConnection extends BaseMockConnection {
+      private final ChannelHandlerContext ctx;
+      private int aboutToSend;
+      private int inFlight;
+
+      MockConnection(ChannelHandlerContext ctx) {
+         this.ctx = ctx;
+      }
+
+      void send() {
+         aboutToSend--;
+         inFlight++;
+      }
+
+      void complete() {
+         inFlight--;
+      }
+
+      @Override
+      public void onAcquire() {
+         aboutToSend++;
+      }
+
+      @Override
+      public boolean isAvailable() {
+         return inFlight() == 0;
+      }
+
+      @Override
+      public int inFlight() {
+         return inFlight + aboutToSend;
+      }
+
+      @Override
+      public boolean isOpen() {
+         return true;
+      }
+
+      @Override
+      public HttpVersion version() {
+         return HttpVersion.HTTP_1_1;
+      }
+
+      @Override
+      public ChannelHandlerContext context() {
+         return ctx;
+      }
+   }
+}
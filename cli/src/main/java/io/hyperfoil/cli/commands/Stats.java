@@ -34,6 +34,7 @@ public class Stats extends BaseRunIdCommand {
          .columnNanos("p99", r -> r.summary.percentileResponseTime.get(99d))
          .columnNanos("p99.9", r -> r.summary.percentileResponseTime.get(99.9))
          .columnNanos("p99.99", r -> r.summary.percentileResponseTime.get(99.99))
+         .columnNanos("CORRECTED p99", r -> r.summary.percentileCorrectedResponseTime == null ? 0 : r.summary.percentileCorrectedResponseTime.get(99d))
          .columnInt("TIMEOUTS", r -> r.summary.requestTimeouts)
          .columnInt("ERRORS", r -> r.summary.connectionErrors + r.summary.internalErrors)
          .columnNanos("BLOCKED", r -> r.summary.blockedTime);
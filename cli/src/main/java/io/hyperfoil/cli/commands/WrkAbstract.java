@@ -353,6 +353,13 @@ public abstract class WrkAbstract {
                Util.prettyPrintNanos((long) histogram.getStdDeviation(), "8", false) +
                Util.prettyPrintNanos(stats.maxResponseTime, "7", false) +
                String.format("%8.2f%%", statsWithinStdev(stats, histogram)));
+         if (stats.maxCorrectedResponseTime > stats.maxResponseTime) {
+            // Latency corrected for coordinated omission differs only when sessions could not be started on time
+            invocation.println("    Corrected " +
+                  Util.prettyPrintNanos(stats.meanCorrectedResponseTime, "6", false) +
+                  String.format("%10s", "") +
+                  Util.prettyPrintNanos(stats.maxCorrectedResponseTime, "7", false));
+         }
          // Note: wrk samples #requests every 100 ms, Hyperfoil every 1s
          DoubleSummaryStatistics requestsStats = series.stream().mapToDouble(s -> s.requestCount).summaryStatistics();
          double requestsStdDev = series.size() > 0 ? Math.sqrt(series.stream().mapToDouble(s -> Math.pow(s.requestCount - requestsStats.getAverage(), 2)).sum() / series.size()) : 0;
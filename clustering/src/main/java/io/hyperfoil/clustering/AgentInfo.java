@@ -14,6 +14,7 @@ class AgentInfo {
    Status status = Status.STARTING;
    Map<String, PhaseInstance.Status> phases = new HashMap<>();
    DeployedAgent deployedAgent;
+   String placement;
 
    AgentInfo(String name, int id) {
       this.name = name;
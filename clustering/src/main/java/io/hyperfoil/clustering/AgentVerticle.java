@@ -13,12 +13,14 @@ import io.hyperfoil.clustering.messages.AgentReadyMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.impl.SimulationRunner;
+import io.hyperfoil.core.impl.ThreadPlacement;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
 import io.hyperfoil.impl.Util;
 import io.hyperfoil.internal.Properties;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
@@ -45,6 +47,8 @@ public class AgentVerticle extends AbstractVerticle {
    private CountDown statisticsCountDown;
    private SessionStatsSender sessionStatsSender;
    private ConnectionStatsSender connectionStatsSender;
+   private ExecutorStatsSender executorStatsSender;
+   private boolean inVm;
 
    @Override
    public void start() {
@@ -68,6 +72,8 @@ public class AgentVerticle extends AbstractVerticle {
             throw new IllegalStateException("No run ID defined for this agent.");
          }
       }
+      // the in-vm agent shares the event loop with the controller
+      inVm = context.config().getBoolean("inVm", !vertx.isClustered());
       eb = vertx.eventBus();
 
       eb.consumer(deploymentId, message -> {
@@ -230,15 +236,18 @@ public class AgentVerticle extends AbstractVerticle {
             error -> eb.send(Feeds.RESPONSE, new ErrorMessage(deploymentId, runId, error, false)));
       controlFeedConsumer = listenOnControl();
       requestStatsSender = new RequestStatsSender(benchmark, eb, deploymentId, runId);
+      requestStatsSender.setListener(runner::feedback);
       statisticsCountDown = new CountDown(1);
       sessionStatsSender = new SessionStatsSender(eb, deploymentId, runId);
       connectionStatsSender = new ConnectionStatsSender(eb, deploymentId, runId);
+      executorStatsSender = new ExecutorStatsSender(eb, deploymentId, runId);
 
       runner.setControllerListener((phase, status, sessionLimitExceeded, error, globalData) -> {
          log.debug("{} changed phase {} to {}", deploymentId, phase, status);
          log.debug("New global data is {}", globalData);
          String cpuUsage = runner.getCpuUsage(phase.name());
-         eb.send(Feeds.RESPONSE, new PhaseChangeMessage(deploymentId, runId, phase.name(), status, sessionLimitExceeded, cpuUsage, error, globalData));
+         Double sustainableRate = runner.getSustainableRate(phase.name());
+         eb.send(Feeds.RESPONSE, new PhaseChangeMessage(deploymentId, runId, phase.name(), status, sessionLimitExceeded, cpuUsage, sustainableRate, error, globalData));
          if (status == PhaseInstance.Status.TERMINATED) {
             context.runOnContext(nil -> {
                if (runner != null) {
@@ -253,6 +262,17 @@ public class AgentVerticle extends AbstractVerticle {
       runner.init();
 
       assert context.isEventLoopContext();
+      ThreadPlacement placement = runner.placement();
+      Future<Void> executorsPlaced = runner.executorsPlaced();
+      // Statistics are collected in this context; the thread of in-vm agent belongs to the controller
+      Runnable auxiliaryPinning = inVm ? null : placement.auxiliaryThreadPinning();
+      if (auxiliaryPinning != null) {
+         // taskset would block the event loop
+         vertx.executeBlocking(promise -> {
+            auxiliaryPinning.run();
+            promise.complete();
+         }, false);
+      }
       statsTimerId = vertx.setPeriodic(benchmark.statisticsCollectionPeriod(), timerId -> {
          runner.visitStatistics(requestStatsSender);
          requestStatsSender.send(statisticsCountDown);
@@ -260,11 +280,17 @@ public class AgentVerticle extends AbstractVerticle {
          sessionStatsSender.send();
          runner.visitConnectionStats(connectionStatsSender);
          connectionStatsSender.send();
+         runner.visitExecutorStats(executorStatsSender);
+         executorStatsSender.send();
       });
 
       runner.openConnections(result -> {
          if (result.succeeded()) {
-            eb.send(Feeds.RESPONSE, new AgentReadyMessage(deploymentID(), runId));
+            executorsPlaced.onComplete(nil -> {
+               String description = placement.toString();
+               log.info("Thread placement: {}", description);
+               eb.send(Feeds.RESPONSE, new AgentReadyMessage(deploymentID(), runId, description));
+            });
          } else {
             eb.send(Feeds.RESPONSE, new ErrorMessage(deploymentID(), runId, result.cause(), true));
          }
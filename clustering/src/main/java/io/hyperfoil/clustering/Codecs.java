@@ -9,6 +9,7 @@ import io.hyperfoil.clustering.messages.AuxiliaryHello;
 import io.hyperfoil.clustering.messages.ConnectionStatsMessage;
 import io.hyperfoil.clustering.messages.DelayStatsCompletionMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.clustering.messages.ExecutorStatsMessage;
 import io.hyperfoil.clustering.messages.ObjectCodec;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
@@ -32,6 +33,7 @@ public final class Codecs {
       eb.registerDefaultCodec(ConnectionStatsMessage.class, new ConnectionStatsMessage.Codec());
       eb.registerDefaultCodec(DelayStatsCompletionMessage.class, new DelayStatsCompletionMessage.Codec());
       eb.registerDefaultCodec(ErrorMessage.class, new ErrorMessage.Codec());
+      eb.registerDefaultCodec(ExecutorStatsMessage.class, new ExecutorStatsMessage.Codec());
       eb.registerDefaultCodec(PhaseChangeMessage.class, new PhaseChangeMessage.Codec());
       eb.registerDefaultCodec(PhaseControlMessage.class, new PhaseControlMessage.Codec());
       eb.registerDefaultCodec(PhaseStatsCompleteMessage.class, new PhaseStatsCompleteMessage.Codec());
@@ -92,6 +92,7 @@ class ControllerServer implements ApiService {
    private static final String MIME_TYPE_SERIALIZED = "application/java-serialized-object";
    private static final String MIME_TYPE_TEXT_PLAIN = "text/plain";
    private static final String MIME_TYPE_YAML = "text/vnd.yaml";
+   private static final int SERIES_CHUNK_SIZE = 64 * 1024;
 
    private static final String KEYSTORE_PATH = Properties.get(Properties.CONTROLLER_KEYSTORE_PATH, null);
    private static final String KEYSTORE_PASSWORD = Properties.get(Properties.CONTROLLER_KEYSTORE_PASSWORD, null);
@@ -741,7 +742,7 @@ class ControllerServer implements ApiService {
                }).collect(Collectors.toList());
       }
       List<io.hyperfoil.controller.model.Agent> agents = run.agents.stream()
-            .map(ai -> new io.hyperfoil.controller.model.Agent(ai.name, ai.deploymentId, ai.status.toString()))
+            .map(ai -> new io.hyperfoil.controller.model.Agent(ai.name, ai.deploymentId, ai.status.toString(), ai.placement))
             .collect(Collectors.toList());
       return new io.hyperfoil.controller.model.Run(run.id, benchmark, started, terminated, run.cancelled, run.completed, run.description, phases, agents,
             run.errors.stream().map(Run.Error::toString).collect(Collectors.toList()));
@@ -955,6 +956,12 @@ class ControllerServer implements ApiService {
 
    @Override
    public void getTotalStats(RoutingContext ctx, String runId) {
+      Run indexed = controller.run(runId);
+      if (indexed != null && indexed.totalStats != null && !indexed.isLoaded()) {
+         // Serve persisted runs from the index without loading full statistics
+         respondWithJson(ctx, new JsonObject().put("status", "TERMINATED").put("statistics", indexed.totalStats));
+         return;
+      }
       withStats(ctx, runId, run -> {
          List<RequestStats> stats = run.statisticsStore().totalSummary();
          respondWithJson(ctx, false, statsToJson(run, stats));
@@ -972,8 +979,30 @@ class ControllerServer implements ApiService {
    @Override
    public void getSeries(RoutingContext ctx, String runId, String phase, int stepId, String metric) {
       withStats(ctx, runId, run -> {
-         List<StatisticsSummary> series = run.statisticsStore().series(phase, stepId, metric);
-         respondWithJson(ctx, false, series);
+         Iterable<StatisticsSummary> series = run.statisticsStore().series(phase, stepId, metric);
+         if (series == null) {
+            respondWithJson(ctx, false, null);
+            return;
+         }
+         // The series can be long and read from disk; encode it one summary at a time
+         HttpServerResponse response = ctx.response().setChunked(true)
+               .putHeader(HttpHeaders.CONTENT_TYPE, MIME_TYPE_JSON);
+         Buffer buffer = Buffer.buffer(SERIES_CHUNK_SIZE);
+         buffer.appendByte((byte) '[');
+         boolean first = true;
+         for (StatisticsSummary summary : series) {
+            if (!first) {
+               buffer.appendByte((byte) ',');
+            }
+            first = false;
+            buffer.appendString(Json.encode(summary));
+            if (buffer.length() >= SERIES_CHUNK_SIZE) {
+               response.write(buffer);
+               buffer = Buffer.buffer(SERIES_CHUNK_SIZE);
+            }
+         }
+         buffer.appendByte((byte) ']');
+         response.end(buffer);
       });
    }
 
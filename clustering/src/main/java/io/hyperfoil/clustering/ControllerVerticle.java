@@ -12,6 +12,7 @@ import io.hyperfoil.api.config.BenchmarkSource;
 import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.RunHook;
+import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.api.config.SessionLimitPolicy;
 import io.hyperfoil.api.deployment.DeployedAgent;
 import io.hyperfoil.api.deployment.Deployer;
@@ -25,6 +26,7 @@ import io.hyperfoil.clustering.messages.AuxiliaryHello;
 import io.hyperfoil.clustering.messages.ConnectionStatsMessage;
 import io.hyperfoil.clustering.messages.DelayStatsCompletionMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.clustering.messages.ExecutorStatsMessage;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
 import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
@@ -36,6 +38,7 @@ import io.hyperfoil.controller.JsonLoader;
 import io.hyperfoil.core.hooks.ExecRunHook;
 import io.hyperfoil.controller.CsvWriter;
 import io.hyperfoil.controller.JsonWriter;
+import io.hyperfoil.controller.StatisticsAggregator;
 import io.hyperfoil.controller.StatisticsStore;
 import io.hyperfoil.core.parser.BenchmarkParser;
 import io.hyperfoil.core.parser.ParserException;
@@ -53,6 +56,7 @@ import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -71,9 +75,9 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -83,12 +87,18 @@ import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ControllerVerticle extends AbstractVerticle implements NodeListener {
    private static final Logger log = LogManager.getLogger(ControllerVerticle.class);
    private static final int MAX_IN_MEMORY_RUNS = Properties.getInt(Properties.MAX_IN_MEMORY_RUNS, 20);
+   private static final boolean SERIES_FILE = Properties.getBoolean(Properties.CONTROLLER_SERIES_FILE);
+   private static final String SERIES_FILE_NAME = "series.jsonl";
    static final String DEFAULT_STATS_JSON = "all.json";
+   private static final int AGGREGATION_THREADS = Properties.getInt(Properties.CONTROLLER_AGGREGATION_THREADS,
+         Math.min(4, Runtime.getRuntime().availableProcessors()));
 
    private EventBus eb;
    private ControllerServer server;
@@ -96,7 +106,11 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
    private final AtomicInteger runIds = new AtomicInteger();
    private final Map<String, Benchmark> benchmarks = new HashMap<>();
    private final Map<String, BenchmarkSource> templates = new HashMap<>();
+   private final RunIndex runIndex = new RunIndex(Controller.RUN_DIR);
+   private final RunStatsCache statsCache = new RunStatsCache(MAX_IN_MEMORY_RUNS,
+         run -> loadStats(run.dir.resolve(DEFAULT_STATS_JSON), run.benchmark));
    private long timerId = -1;
+   private StatisticsAggregator aggregator;
 
    Map<String, Run> runs = new HashMap<>();
 
@@ -105,10 +119,13 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       log.info("Starting in directory {}...", Controller.ROOT_DIR);
       CountDown startCountDown = new CountDown(future, 2);
       server = new ControllerServer(this, startCountDown);
+      if (AGGREGATION_THREADS > 0) {
+         aggregator = new StatisticsAggregator(AGGREGATION_THREADS);
+      }
       vertx.exceptionHandler(throwable -> log.error("Uncaught error: ", throwable));
       if (Files.exists(Controller.RUN_DIR)) {
          try {
-            Files.list(Controller.RUN_DIR).forEach(this::updateRuns);
+            loadRuns();
          } catch (IOException e) {
             log.error("Could not list run dir contents", e);
          } catch (Exception e) {
@@ -157,6 +174,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                stopSimulation(run);
             }
          } else if (msg instanceof AgentReadyMessage) {
+            agent.placement = ((AgentReadyMessage) msg).placement();
             if (!run.validation) {
                agent.status = AgentInfo.Status.READY;
                if (run.agents.stream().allMatch(a -> a.status == AgentInfo.Status.READY)) {
@@ -184,19 +202,14 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                   .map(ai -> ai.name).findFirst().orElse("<unknown>");
             if (statsMessage instanceof RequestStatsMessage) {
                RequestStatsMessage rsm = (RequestStatsMessage) statsMessage;
-               String phase = run.phase(rsm.phaseId);
-               if (rsm.statistics != null) {
+               for (RequestStatsMessage.Entry entry : rsm.entries) {
+                  String phase = run.phase(entry.phaseId);
                   log.debug("Run {}: Received stats from {}({}): {}/{}/{}:{} ({} requests)",
-                        rsm.runId, agentName, rsm.address, phase, rsm.stepId, rsm.metric,
-                        rsm.statistics.sequenceId, rsm.statistics.requestCount);
-                  boolean added = run.statisticsStore().record(agentName, rsm.phaseId, rsm.stepId, rsm.metric, rsm.statistics);
-                  if (!added) {
-                     // warning already logged
-                     String errorMessage = String.format(
-                           "Received statistics for %s/%d/%s:%d with %d requests but the statistics are already completed; these statistics won't be reported.",
-                           phase, rsm.stepId, rsm.metric, rsm.statistics.sequenceId, rsm.statistics.requestCount);
-                     run.errors.add(new Run.Error(null, new BenchmarkExecutionException(errorMessage)));
-                  }
+                        rsm.runId, agentName, rsm.address, phase, entry.stepId, entry.metric,
+                        entry.statistics.sequenceId, entry.statistics.requestCount);
+                  // warning is already logged when the statistics are rejected
+                  run.statisticsStore().record(agentName, entry.phaseId, entry.stepId, entry.metric, entry.statistics,
+                        error -> context.runOnContext(nil -> run.errors.add(new Run.Error(null, new BenchmarkExecutionException(error)))));
                }
             } else if (statsMessage instanceof PhaseStatsCompleteMessage) {
                PhaseStatsCompleteMessage pscm = (PhaseStatsCompleteMessage) statsMessage;
@@ -229,6 +242,10 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                ConnectionStatsMessage connectionStatsMessage = (ConnectionStatsMessage) statsMessage;
                log.trace("Run {}: Received connection stats from {}", connectionStatsMessage.runId, connectionStatsMessage.address);
                run.statisticsStore().recordConnectionStats(agentName, connectionStatsMessage.timestamp, connectionStatsMessage.stats);
+            } else if (statsMessage instanceof ExecutorStatsMessage) {
+               ExecutorStatsMessage executorStatsMessage = (ExecutorStatsMessage) statsMessage;
+               log.trace("Run {}: Received executor stats from {}", executorStatsMessage.runId, executorStatsMessage.address);
+               run.statisticsStore().recordExecutorStats(agentName, executorStatsMessage.timestamp, executorStatsMessage.stats);
             } else if (statsMessage instanceof DelayStatsCompletionMessage) {
                DelayStatsCompletionMessage delayStatsCompletionMessage = (DelayStatsCompletionMessage) statsMessage;
                String phase = run.phase(delayStatsCompletionMessage.phaseId);
@@ -332,6 +349,10 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       if (phaseChange.cpuUsage() != null) {
          run.statisticsStore().recordCpuUsage(phaseChange.phase(), agent.name, phaseChange.cpuUsage());
       }
+      if (phaseChange.sustainableRate() != null && phaseChange.status().isFinished()) {
+         log.info("{} Phase {} on {} sustained {} users per second", run.id, phase, agent.name, phaseChange.sustainableRate());
+         run.statisticsStore().recordSustainableRate(phase, agent.name, phaseChange.sustainableRate());
+      }
       if (phaseChange.sessionLimitExceeded()) {
          Phase def = controllerPhase.definition();
          SessionLimitPolicy sessionLimitPolicy = def.model instanceof Model.OpenModel ?
@@ -380,16 +401,37 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
    }
 
-   private void updateRuns(Path runDir) {
-      File file = runDir.toFile();
-      if (!file.getName().matches("[0-9A-F][0-9A-F][0-9A-F][0-9A-F]")) {
-         return;
+   private void loadRuns() throws IOException {
+      Map<String, JsonObject> indexed = runIndex.load();
+      List<JsonObject> entries = new ArrayList<>();
+      boolean outdated = false;
+      try (Stream<Path> dirs = Files.list(Controller.RUN_DIR)) {
+         for (Path runDir : (Iterable<Path>) dirs.sorted()::iterator) {
+            String runId = runDir.getFileName().toString();
+            if (!runId.matches("[0-9A-F][0-9A-F][0-9A-F][0-9A-F]") || !Files.isDirectory(runDir)) {
+               continue;
+            }
+            JsonObject info = indexed.remove(runId);
+            if (info == null) {
+               // Run persisted by an older version, or the controller crashed before appending to the index
+               info = readInfo(runDir, runId);
+               if (info == null) {
+                  continue;
+               }
+               outdated = true;
+            }
+            entries.add(info);
+            addRun(runId, runDir, info);
+         }
       }
-      String runId = file.getName();
-      int id = Integer.parseInt(runId, 16);
-      if (id >= runIds.get()) {
-         runIds.set(id + 1);
+      if (outdated || !indexed.isEmpty()) {
+         log.info("Rewriting run index with {} runs", entries.size());
+         runIndex.rewrite(entries);
       }
+      log.info("Loaded {} runs", entries.size());
+   }
+
+   private JsonObject readInfo(Path runDir, String runId) {
       Path infoFile = runDir.resolve("info.json");
       JsonObject info = new JsonObject();
       if (infoFile.toFile().exists() && infoFile.toFile().isFile()) {
@@ -397,16 +439,25 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             info = new JsonObject(Files.readString(infoFile));
          } catch (Exception e) {
             log.error("Cannot read info for run {}", runId);
-            return;
+            return null;
          }
       }
+      return info.put("id", runId);
+   }
+
+   private void addRun(String runId, Path runDir, JsonObject info) {
+      int id = Integer.parseInt(runId, 16);
+      if (id >= runIds.get()) {
+         runIds.set(id + 1);
+      }
       String name = info.getString("benchmark", "<unknown>");
       JsonObject paramsObject = info.getJsonObject("params");
       Map<String, String> templateParams = paramsObject == null ? Collections.emptyMap() : paramsObject.getMap().entrySet().stream()
             .collect(Collectors.toMap(Map.Entry::getKey, entry -> String.valueOf(entry.getValue())));
       Benchmark benchmark = Benchmark.empty(name, templateParams);
       Run run = new Run(runId, runDir, benchmark);
-      run.statsSupplier = () -> loadStats(runDir.resolve(DEFAULT_STATS_JSON), benchmark);
+      run.statsCache = statsCache;
+      run.totalStats = info.getJsonArray("total");
       run.completed = true;
       run.startTime = info.getLong("startTime", 0L);
       run.terminateTime.complete(info.getLong("terminateTime", 0L));
@@ -444,6 +495,9 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       if (deployer != null) {
          deployer.close();
       }
+      if (aggregator != null) {
+         aggregator.shutdown();
+      }
       server.stop(stopFuture);
    }
 
@@ -492,14 +546,26 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
    }
 
    Run createRun(Benchmark benchmark, String description, Boolean validate) {
-      ensureMaxInMemoryRuns();
       String runId = String.format("%04X", runIds.getAndIncrement());
       Path runDir = Controller.RUN_DIR.resolve(runId);
       //noinspection ResultOfMethodCallIgnored
       runDir.toFile().mkdirs();
       Run run = new Run(runId, runDir, benchmark, validate);
-      run.initStore(new StatisticsStore(benchmark, failure -> log.warn("Failed verify SLA(s) for {}/{}: {}",
-            failure.phase(), failure.metric(), failure.message())));
+      Consumer<SLA.Failure> failureHandler = failure -> log.warn("Failed verify SLA(s) for {}/{}: {}",
+            failure.phase(), failure.metric(), failure.message());
+      StatisticsStore store = null;
+      if (SERIES_FILE) {
+         try {
+            store = new StatisticsStore(benchmark, failureHandler, runDir.resolve(SERIES_FILE_NAME));
+         } catch (IOException e) {
+            log.error("Cannot open series file in " + runDir + ", keeping statistics in memory.", e);
+         }
+      }
+      if (store == null) {
+         store = new StatisticsStore(benchmark, failureHandler);
+      }
+      store.setAggregator(aggregator);
+      run.initStore(store);
       run.description = description;
       runs.put(run.id, run);
       if (run.benchmark.source() != null) {
@@ -508,21 +574,6 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       return run;
    }
 
-   private void ensureMaxInMemoryRuns() {
-      List<Run> loadedRuns = runs.values().stream().filter(Run::isLoaded)
-            .sorted(Comparator.comparing(r -> r.id)).collect(Collectors.toList());
-      if (loadedRuns.size() + 1 > MAX_IN_MEMORY_RUNS) {
-         loadedRuns.stream().limit(loadedRuns.size() + 1 - MAX_IN_MEMORY_RUNS).forEach(r -> {
-            log.info("Unloading run {}", r.id);
-            r.unload();
-            r.statsSupplier = () -> {
-               Path statsPath = Controller.RUN_DIR.resolve(r.id).resolve(DEFAULT_STATS_JSON);
-               return loadStats(statsPath, r.benchmark);
-            };
-         });
-      }
-   }
-
    String startBenchmark(Run run, Boolean validation) {
       Set<String> activeAgents = new HashSet<>();
       for (Run r : runs.values()) {
@@ -551,7 +602,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             return "Server is started in clustered mode; benchmarks must define agents.";
          } else {
             run.agents.add(new AgentInfo("in-vm", 0));
-            JsonObject config = new JsonObject().put("runId", run.id).put("name", "in-vm");
+            JsonObject config = new JsonObject().put("runId", run.id).put("name", "in-vm").put("inVm", true);
             vertx.deployVerticle(AgentVerticle.class, new DeploymentOptions().setConfig(config));
          }
       } else {
@@ -759,6 +810,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             log.warn("Run {}: {}", run.id, error);
             run.errors.add(new Run.Error(null, new BenchmarkExecutionException(error)));
          });
+         run.statisticsStore().complete();
          persistRun(run);
          log.info("Run {} completed", run.id);
       }
@@ -782,6 +834,9 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                .put("terminateTime", run.terminateTime.future().result())
                .put("cancelled", run.cancelled)
                .put("description", run.description)
+               .put("agents", new JsonArray(run.agents.stream()
+                     .map(a -> new JsonObject().put("name", a.name).put("placement", a.placement))
+                     .collect(Collectors.toList())))
                .put("errors", new JsonArray(run.errors.stream()
                      .map(e -> {
                         JsonObject json = new JsonObject();
@@ -798,6 +853,13 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             log.error("Cannot write info file", e);
             future.fail(e);
          }
+         try {
+            JsonArray total = new JsonArray(Json.encode(run.statisticsStore().totalSummary()));
+            run.totalStats = total;
+            runIndex.append(info.copy().put("total", total));
+         } catch (Exception e) {
+            log.error("Cannot update run index", e);
+         }
          try (FileOutputStream stream = new FileOutputStream(run.dir.resolve(DEFAULT_STATS_JSON).toFile())) {
             JsonFactory jfactory = new JsonFactory();
             jfactory.setCodec(new ObjectMapper());
@@ -839,6 +901,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          future.tryComplete();
       }, result -> {
          run.completed = true;
+         run.moveToCache(statsCache);
          if (result.failed()) {
             log.error("Failed to persist run " + run.id, result.cause());
          } else {
@@ -0,0 +1,37 @@
+package io.hyperfoil.clustering;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.hyperfoil.clustering.messages.ExecutorStatsMessage;
+import io.hyperfoil.core.impl.ExecutorStatsConsumer;
+import io.hyperfoil.core.util.LowHigh;
+import io.vertx.core.eventbus.EventBus;
+
+public class ExecutorStatsSender implements ExecutorStatsConsumer {
+   private final EventBus eventBus;
+   private final String address;
+   private final String runId;
+   private Map<Integer, Map<String, LowHigh>> stats = new HashMap<>();
+
+   public ExecutorStatsSender(EventBus eb, String address, String runId) {
+      this.eventBus = eb;
+      this.address = address;
+      this.runId = runId;
+   }
+
+   public void send() {
+      // nothing is recorded when the executor watchdog is disabled
+      if (stats.isEmpty()) {
+         return;
+      }
+      eventBus.send(Feeds.STATS, new ExecutorStatsMessage(address, runId, System.currentTimeMillis(), stats));
+      // the eventBus may process this asynchronously so we can't reuse the map
+      stats = new HashMap<>();
+   }
+
+   @Override
+   public void accept(int executor, String metric, int min, int max) {
+      stats.computeIfAbsent(executor, e -> new HashMap<>()).put(metric, new LowHigh(min, max));
+   }
+}
@@ -19,6 +19,7 @@ public class RequestStatsSender extends StatisticsCollector {
    private final String runId;
    private final EventBus eb;
    private final StatisticsConsumer sendStats = this::sendStats;
+   private final RequestStatsMessage.Batch batch = new RequestStatsMessage.Batch();
 
    public RequestStatsSender(Benchmark benchmark, EventBus eb, String address, String runId) {
       super(benchmark);
@@ -29,18 +30,18 @@ public class RequestStatsSender extends StatisticsCollector {
 
    public void send(CountDown completion) {
       visitStatistics(sendStats, completion);
+      if (batch.size() > 0) {
+         completion.increment();
+         eb.request(Feeds.STATS, batch.build(address, runId), reply -> completion.countDown());
+      }
    }
 
    private void sendStats(Phase phase, int stepId, String metric, StatisticsSnapshot statistics, CountDown countDown) {
       if (statistics.histogram.getEndTimeStamp() >= statistics.histogram.getStartTimeStamp()) {
          log.debug("Sending stats for {} {}/{}, id {}: {} requests, {} responses", phase.name(), stepId, metric,
                statistics.sequenceId, statistics.requestCount, statistics.responseCount);
-         // On clustered eventbus, ObjectCodec is not called synchronously so we *must* do a copy here.
-         // (on a local eventbus we'd have to do a copy in transform() anyway)
-         StatisticsSnapshot copy = statistics.clone();
-         countDown.increment();
-         eb.request(Feeds.STATS, new RequestStatsMessage(address, runId, phase.id(), stepId, metric, copy),
-               reply -> countDown.countDown());
+         // The snapshot is reset after this call; the batch encodes it right away so we don't need a copy.
+         batch.add(phase.id(), stepId, metric, statistics);
       }
    }
 
@@ -49,10 +50,10 @@ public class RequestStatsSender extends StatisticsCollector {
          if (phase != null && phase != phases[phaseAndStepId >> 16]) {
             continue;
          }
-
+         // Empty message makes sure that the statistics sent before were processed
          countDown.increment();
-         eb.request(Feeds.STATS, new RequestStatsMessage(address, runId, phaseAndStepId >> 16, -1, null, null),
-               reply -> countDown.countDown());
+         eb.request(Feeds.STATS, RequestStatsMessage.empty(address, runId), reply -> countDown.countDown());
+         break;
       }
       if (phase == null) {
          // TODO: it would be better to not send this for those phases that are already complete
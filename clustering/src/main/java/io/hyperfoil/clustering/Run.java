@@ -5,7 +5,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
 
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
@@ -13,6 +12,7 @@ import io.hyperfoil.api.session.GlobalData;
 import io.hyperfoil.controller.StatisticsStore;
 import io.hyperfoil.impl.Util;
 import io.vertx.core.Promise;
+import io.vertx.core.json.JsonArray;
 
 class Run {
    final String id;
@@ -31,7 +31,10 @@ class Run {
    boolean cancelled;
    boolean completed;
    boolean validation;
-   Supplier<StatisticsStore> statsSupplier;
+   // Statistics of persisted runs are held in the cache rather than in the run itself
+   RunStatsCache statsCache;
+   // Total statistics from the run index, available without loading full statistics
+   JsonArray totalStats;
    private StatisticsStore statisticsStore;
    Map<String, GlobalData.Element> newGlobalData = new HashMap<>();
 
@@ -86,19 +89,26 @@ class Run {
    public StatisticsStore statisticsStore() {
       if (statisticsStore != null) {
          return statisticsStore;
-      } else if (statsSupplier != null) {
-         return statisticsStore = statsSupplier.get();
+      } else if (statsCache != null) {
+         return statsCache.get(this);
       } else {
          return null;
       }
    }
 
    public boolean isLoaded() {
-      return statisticsStore != null;
+      return statisticsStore != null || statsCache != null && statsCache.contains(id);
    }
 
-   public void unload() {
-      statisticsStore = null;
+   /**
+    * Hands over statistics of a persisted run to the cache; these might be evicted and reloaded later.
+    */
+   void moveToCache(RunStatsCache cache) {
+      if (statisticsStore != null) {
+         cache.put(id, statisticsStore);
+         statisticsStore = null;
+      }
+      statsCache = cache;
    }
 
    public static class Error {
@@ -0,0 +1,86 @@
+package io.hyperfoil.clustering;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Compact catalog of persisted runs. Each line in <code>index.jsonl</code> holds metadata of one run
+ * (the same as its <code>info.json</code>) and its total statistics, so that the controller does not need
+ * to open files in each run directory on startup. When a run is persisted more than once the last line wins.
+ */
+class RunIndex {
+   private static final Logger log = LogManager.getLogger(RunIndex.class);
+   static final String FILE_NAME = "index.jsonl";
+
+   private final Path file;
+
+   RunIndex(Path runDir) {
+      this.file = runDir.resolve(FILE_NAME);
+   }
+
+   /**
+    * @return Entries by run ID, in the order of appearance.
+    */
+   synchronized Map<String, JsonObject> load() {
+      Map<String, JsonObject> entries = new LinkedHashMap<>();
+      if (!Files.isRegularFile(file)) {
+         return entries;
+      }
+      try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+         String line;
+         while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+               continue;
+            }
+            try {
+               JsonObject entry = new JsonObject(line);
+               String id = entry.getString("id");
+               if (id != null) {
+                  entries.put(id, entry);
+               }
+            } catch (Exception e) {
+               // most likely the controller was killed while appending the last line
+               log.warn("Ignoring malformed line in {}", file);
+            }
+         }
+      } catch (IOException e) {
+         log.error("Cannot read run index " + file, e);
+      }
+      return entries;
+   }
+
+   synchronized void append(JsonObject entry) throws IOException {
+      Files.createDirectories(file.getParent());
+      try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+         writer.write(entry.encode());
+         writer.newLine();
+      }
+   }
+
+   synchronized void rewrite(Collection<JsonObject> entries) throws IOException {
+      Files.createDirectories(file.getParent());
+      Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+         for (JsonObject entry : entries) {
+            writer.write(entry.encode());
+            writer.newLine();
+         }
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+   }
+}
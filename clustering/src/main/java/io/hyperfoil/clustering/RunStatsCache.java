@@ -0,0 +1,58 @@
+package io.hyperfoil.clustering;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.controller.StatisticsStore;
+
+/**
+ * Keeps statistics of at most <code>maxSize</code> completed runs in memory, evicting the least recently used.
+ * Evicted statistics are loaded again from the run directory when needed.
+ */
+class RunStatsCache {
+   private static final Logger log = LogManager.getLogger(RunStatsCache.class);
+
+   private final int maxSize;
+   private final Function<Run, StatisticsStore> loader;
+   private final LinkedHashMap<String, StatisticsStore> stores = new LinkedHashMap<>(16, 0.75f, true);
+
+   RunStatsCache(int maxSize, Function<Run, StatisticsStore> loader) {
+      this.maxSize = Math.max(maxSize, 1);
+      this.loader = loader;
+   }
+
+   synchronized StatisticsStore get(Run run) {
+      StatisticsStore store = stores.get(run.id);
+      if (store == null) {
+         store = loader.apply(run);
+         if (store != null) {
+            put(run.id, store);
+         }
+      }
+      return store;
+   }
+
+   synchronized void put(String runId, StatisticsStore store) {
+      stores.put(runId, store);
+      Iterator<Map.Entry<String, StatisticsStore>> it = stores.entrySet().iterator();
+      while (stores.size() > maxSize && it.hasNext()) {
+         Map.Entry<String, StatisticsStore> eldest = it.next();
+         log.info("Unloading run {}", eldest.getKey());
+         eldest.getValue().close();
+         it.remove();
+      }
+   }
+
+   synchronized boolean contains(String runId) {
+      return stores.containsKey(runId);
+   }
+
+   synchronized int size() {
+      return stores.size();
+   }
+}
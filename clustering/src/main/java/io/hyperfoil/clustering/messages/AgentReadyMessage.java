@@ -1,8 +1,15 @@
 package io.hyperfoil.clustering.messages;
 
 public class AgentReadyMessage extends AgentStatusMessage {
-   public AgentReadyMessage(String senderId, String runId) {
+   private final String placement;
+
+   public AgentReadyMessage(String senderId, String runId, String placement) {
       super(senderId, runId);
+      this.placement = placement;
+   }
+
+   public String placement() {
+      return placement;
    }
 
    public static class Codec extends ObjectCodec<AgentReadyMessage> {}
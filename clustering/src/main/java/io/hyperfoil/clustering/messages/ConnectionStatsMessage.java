@@ -1,8 +1,10 @@
 package io.hyperfoil.clustering.messages;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import io.hyperfoil.core.util.LowHigh;
+import io.vertx.core.buffer.Buffer;
 
 public class ConnectionStatsMessage extends StatsMessage {
    public final long timestamp;
@@ -14,5 +16,33 @@ public class ConnectionStatsMessage extends StatsMessage {
       this.stats = stats;
    }
 
-   public static class Codec extends ObjectCodec<ConnectionStatsMessage> {}
+   public static class Codec extends StatsMessageCodec<ConnectionStatsMessage> {
+      @Override
+      protected void encodeBody(Buffer buffer, ConnectionStatsMessage message) {
+         writeLong(buffer, message.timestamp);
+         writeInt(buffer, message.stats.size());
+         for (Map.Entry<String, Map<String, LowHigh>> entry : message.stats.entrySet()) {
+            writeString(buffer, entry.getKey());
+            writeLowHighMap(buffer, entry.getValue());
+         }
+      }
+
+      @Override
+      protected ConnectionStatsMessage decodeBody(Input input, String address, String runId) {
+         long timestamp = input.readLong();
+         int size = input.readInt();
+         Map<String, Map<String, LowHigh>> stats = new HashMap<>();
+         for (int i = 0; i < size; ++i) {
+            String authority = input.readString();
+            stats.put(authority, readLowHighMap(input));
+         }
+         return new ConnectionStatsMessage(address, runId, timestamp, stats);
+      }
+
+      @Override
+      public ConnectionStatsMessage transform(ConnectionStatsMessage message) {
+         // The sender does not reuse the map
+         return message;
+      }
+   }
 }
@@ -0,0 +1,49 @@
+package io.hyperfoil.clustering.messages;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.hyperfoil.core.util.LowHigh;
+import io.vertx.core.buffer.Buffer;
+
+public class ExecutorStatsMessage extends StatsMessage {
+   public final long timestamp;
+   // executor index -> metric -> min/max
+   public final Map<Integer, Map<String, LowHigh>> stats;
+
+   public ExecutorStatsMessage(String address, String runId, long timestamp, Map<Integer, Map<String, LowHigh>> stats) {
+      super(address, runId);
+      this.timestamp = timestamp;
+      this.stats = stats;
+   }
+
+   public static class Codec extends StatsMessageCodec<ExecutorStatsMessage> {
+      @Override
+      protected void encodeBody(Buffer buffer, ExecutorStatsMessage message) {
+         writeLong(buffer, message.timestamp);
+         writeInt(buffer, message.stats.size());
+         for (Map.Entry<Integer, Map<String, LowHigh>> entry : message.stats.entrySet()) {
+            writeInt(buffer, entry.getKey());
+            writeLowHighMap(buffer, entry.getValue());
+         }
+      }
+
+      @Override
+      protected ExecutorStatsMessage decodeBody(Input input, String address, String runId) {
+         long timestamp = input.readLong();
+         int size = input.readInt();
+         Map<Integer, Map<String, LowHigh>> stats = new HashMap<>();
+         for (int i = 0; i < size; ++i) {
+            int executor = input.readInt();
+            stats.put(executor, readLowHighMap(input));
+         }
+         return new ExecutorStatsMessage(address, runId, timestamp, stats);
+      }
+
+      @Override
+      public ExecutorStatsMessage transform(ExecutorStatsMessage message) {
+         // The sender does not reuse the map
+         return message;
+      }
+   }
+}
@@ -31,15 +31,17 @@ public class PhaseChangeMessage extends AgentStatusMessage {
    private final PhaseInstance.Status status;
    private final boolean sessionLimitExceeded;
    private final String cpuUsage;
+   private final Double sustainableRate;
    private final Throwable error;
    private final Map<String, GlobalData.Element> globalData;
 
-   public PhaseChangeMessage(String senderId, String runId, String phase, PhaseInstance.Status status, boolean sessionLimitExceeded, String cpuUsage, Throwable error, Map<String, GlobalData.Element> globalData) {
+   public PhaseChangeMessage(String senderId, String runId, String phase, PhaseInstance.Status status, boolean sessionLimitExceeded, String cpuUsage, Double sustainableRate, Throwable error, Map<String, GlobalData.Element> globalData) {
       super(senderId, runId);
       this.phase = phase;
       this.status = status;
       this.sessionLimitExceeded = sessionLimitExceeded;
       this.cpuUsage = cpuUsage;
+      this.sustainableRate = sustainableRate;
       this.error = error;
       this.globalData = globalData;
    }
@@ -51,6 +53,7 @@ public class PhaseChangeMessage extends AgentStatusMessage {
       sb.append(", phase=").append(phase);
       sb.append(", status=").append(status);
       sb.append(", cpuUsage=").append(cpuUsage);
+      sb.append(", sustainableRate=").append(sustainableRate);
       sb.append(", error=").append(Util.explainCauses(error));
       sb.append(", globalData=").append(globalData);
       sb.append('}');
@@ -77,6 +80,13 @@ public class PhaseChangeMessage extends AgentStatusMessage {
       return cpuUsage;
    }
 
+   /**
+    * @return Highest sustainable users per second found by adaptive phase, or <code>null</code> for other phases.
+    */
+   public Double sustainableRate() {
+      return sustainableRate;
+   }
+
    public Map<String, GlobalData.Element> globalData() {
       return globalData;
    }
@@ -1,20 +1,248 @@
 package io.hyperfoil.clustering.messages;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.vertx.core.buffer.Buffer;
 
+/**
+ * Statistics for all metrics an agent has collected in one period.
+ */
 public class RequestStatsMessage extends StatsMessage {
-   public final int phaseId;
-   public final int stepId;
-   public final String metric;
-   public final StatisticsSnapshot statistics;
+   public final List<Entry> entries;
+   // The agent encodes the entries as soon as these are collected so that it does not need to copy the snapshots.
+   private final transient Buffer encoded;
 
-   public RequestStatsMessage(String address, String runId, int phaseId, int stepId, String metric, StatisticsSnapshot statistics) {
+   private RequestStatsMessage(String address, String runId, List<Entry> entries, Buffer encoded) {
       super(address, runId);
-      this.phaseId = phaseId;
-      this.stepId = stepId;
-      this.metric = metric;
-      this.statistics = statistics;
+      this.entries = entries;
+      this.encoded = encoded;
+   }
+
+   public static RequestStatsMessage empty(String address, String runId) {
+      return new RequestStatsMessage(address, runId, Collections.emptyList(), null);
+   }
+
+   public static class Entry {
+      public final int phaseId;
+      public final int stepId;
+      public final String metric;
+      public final StatisticsSnapshot statistics;
+
+      public Entry(int phaseId, int stepId, String metric, StatisticsSnapshot statistics) {
+         this.phaseId = phaseId;
+         this.stepId = stepId;
+         this.metric = metric;
+         this.statistics = statistics;
+      }
+   }
+
+   /**
+    * Encodes snapshots as these are added; the snapshots can be reset right after the call to {@link #add(int, int, String, StatisticsSnapshot)}.
+    * Counters use variable-length encoding and histograms use HdrHistogram's encoding with run-length encoded zeros.
+    */
+   public static class Batch {
+      private Buffer entries = Buffer.buffer();
+      private ByteArrayOutputStream extensionBytes;
+      private ObjectOutputStream extensions;
+      private ByteBuffer histogramBuffer;
+      private int size;
+
+      private void writeHistogram(Histogram histogram) {
+         if (histogram.getTotalCount() == 0) {
+            StatsMessageCodec.writeInt(entries, 0);
+         } else {
+            int capacity = histogram.getNeededByteBufferCapacity();
+            if (histogramBuffer == null || histogramBuffer.capacity() < capacity) {
+               histogramBuffer = ByteBuffer.allocate(capacity);
+            }
+            histogramBuffer.clear();
+            int length = histogram.encodeIntoByteBuffer(histogramBuffer);
+            StatsMessageCodec.writeInt(entries, length);
+            entries.appendBytes(histogramBuffer.array(), 0, length);
+         }
+      }
+
+      public void add(int phaseId, int stepId, String metric, StatisticsSnapshot snapshot) {
+         StatsMessageCodec.writeInt(entries, phaseId);
+         StatsMessageCodec.writeInt(entries, stepId);
+         StatsMessageCodec.writeString(entries, metric);
+         StatsMessageCodec.writeInt(entries, snapshot.sequenceId);
+         Histogram histogram = snapshot.histogram;
+         StatsMessageCodec.writeLong(entries, histogram.getStartTimeStamp());
+         StatsMessageCodec.writeLong(entries, histogram.getEndTimeStamp() - histogram.getStartTimeStamp());
+         StatsMessageCodec.writeInt(entries, snapshot.requestCount);
+         StatsMessageCodec.writeInt(entries, snapshot.responseCount);
+         StatsMessageCodec.writeInt(entries, snapshot.invalid);
+         StatsMessageCodec.writeInt(entries, snapshot.connectionErrors);
+         StatsMessageCodec.writeInt(entries, snapshot.requestTimeouts);
+         StatsMessageCodec.writeInt(entries, snapshot.internalErrors);
+         StatsMessageCodec.writeLong(entries, snapshot.blockedTime);
+         writeHistogram(histogram);
+         // Unless there was some coordinated omission the corrected histogram is identical
+         if (snapshot.correctedHistogram.equals(histogram)) {
+            StatsMessageCodec.writeInt(entries, -1);
+         } else {
+            writeHistogram(snapshot.correctedHistogram);
+         }
+         int numExtensions = 0;
+         for (StatsExtension extension : snapshot.extensions.values()) {
+            if (extension != null) {
+               ++numExtensions;
+            }
+         }
+         StatsMessageCodec.writeInt(entries, numExtensions);
+         if (numExtensions > 0) {
+            // Extensions are pluggable so we need to fall back to Java serialization; we use single stream
+            // for the whole message.
+            try {
+               if (extensions == null) {
+                  extensionBytes = new ByteArrayOutputStream();
+                  extensions = new ObjectOutputStream(extensionBytes);
+               }
+               for (Map.Entry<String, StatsExtension> entry : snapshot.extensions.entrySet()) {
+                  if (entry.getValue() != null) {
+                     extensions.writeUTF(entry.getKey());
+                     extensions.writeObject(entry.getValue());
+                  }
+               }
+               // The extensions are reset and reused after this call; without resetting the stream
+               // a later write of the same instance would be written only as a back-reference.
+               extensions.reset();
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+         }
+         ++size;
+      }
+
+      public int size() {
+         return size;
+      }
+
+      public RequestStatsMessage build(String address, String runId) {
+         Buffer body = Buffer.buffer(entries.length() + 16);
+         StatsMessageCodec.writeInt(body, size);
+         body.appendBuffer(entries);
+         if (extensions == null) {
+            StatsMessageCodec.writeInt(body, 0);
+         } else {
+            try {
+               extensions.close();
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+            StatsMessageCodec.writeInt(body, extensionBytes.size());
+            body.appendBytes(extensionBytes.toByteArray());
+         }
+         entries = Buffer.buffer();
+         extensions = null;
+         extensionBytes = null;
+         size = 0;
+         return new RequestStatsMessage(address, runId, null, body);
+      }
+   }
+
+   private static List<Entry> decodeEntries(StatsMessageCodec.Input input) {
+      int size = input.readInt();
+      List<Entry> entries = new ArrayList<>(size);
+      int[] numExtensions = new int[size];
+      for (int i = 0; i < size; ++i) {
+         int phaseId = input.readInt();
+         int stepId = input.readInt();
+         String metric = input.readString();
+         int sequenceId = input.readInt();
+         long startTimestamp = input.readLong();
+         long endTimestamp = startTimestamp + input.readLong();
+         int requestCount = input.readInt();
+         int responseCount = input.readInt();
+         int invalid = input.readInt();
+         int connectionErrors = input.readInt();
+         int requestTimeouts = input.readInt();
+         int internalErrors = input.readInt();
+         long blockedTime = input.readLong();
+         Histogram histogram = readHistogram(input, input.readInt());
+         int correctedLength = input.readInt();
+         Histogram correctedHistogram = correctedLength < 0 ? histogram.copy() : readHistogram(input, correctedLength);
+         StatisticsSnapshot snapshot = new StatisticsSnapshot(histogram, correctedHistogram);
+         snapshot.sequenceId = sequenceId;
+         snapshot.histogram.setStartTimeStamp(startTimestamp);
+         snapshot.histogram.setEndTimeStamp(endTimestamp);
+         snapshot.requestCount = requestCount;
+         snapshot.responseCount = responseCount;
+         snapshot.invalid = invalid;
+         snapshot.connectionErrors = connectionErrors;
+         snapshot.requestTimeouts = requestTimeouts;
+         snapshot.internalErrors = internalErrors;
+         snapshot.blockedTime = blockedTime;
+         numExtensions[i] = input.readInt();
+         entries.add(new Entry(phaseId, stepId, metric, snapshot));
+      }
+      int extensionsLength = input.readInt();
+      if (extensionsLength > 0) {
+         byte[] bytes = input.readBuffer(extensionsLength).getBytes();
+         try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            for (int i = 0; i < size; ++i) {
+               Map<String, StatsExtension> extensions = entries.get(i).statistics.extensions;
+               for (int j = 0; j < numExtensions[i]; ++j) {
+                  String key = stream.readUTF();
+                  extensions.put(key, (StatsExtension) stream.readObject());
+               }
+            }
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+         }
+      }
+      return entries;
    }
 
-   public static class Codec extends ObjectCodec<RequestStatsMessage> {}
+   private static Histogram readHistogram(StatsMessageCodec.Input input, int length) {
+      if (length == 0) {
+         return new Histogram(StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE, StatisticsSnapshot.PRECISION);
+      }
+      return Histogram.decodeFromByteBuffer(input.readBuffer(length).getByteBuf().nioBuffer(), 0);
+   }
+
+   public static class Codec extends StatsMessageCodec<RequestStatsMessage> {
+      @Override
+      protected void encodeBody(Buffer buffer, RequestStatsMessage message) {
+         if (message.encoded != null) {
+            buffer.appendBuffer(message.encoded);
+         } else {
+            Batch batch = new Batch();
+            for (Entry entry : message.entries) {
+               batch.add(entry.phaseId, entry.stepId, entry.metric, entry.statistics);
+            }
+            buffer.appendBuffer(batch.build(message.address, message.runId).encoded);
+         }
+      }
+
+      @Override
+      protected RequestStatsMessage decodeBody(Input input, String address, String runId) {
+         return new RequestStatsMessage(address, runId, decodeEntries(input), null);
+      }
+
+      @Override
+      public RequestStatsMessage transform(RequestStatsMessage message) {
+         if (message.encoded == null) {
+            return message;
+         }
+         return new RequestStatsMessage(message.address, message.runId, decodeEntries(new Input(message.encoded, 0)), null);
+      }
+   }
 }
@@ -3,6 +3,7 @@ package io.hyperfoil.clustering.messages;
 import java.util.Map;
 
 import io.hyperfoil.core.util.LowHigh;
+import io.vertx.core.buffer.Buffer;
 
 public class SessionStatsMessage extends StatsMessage {
    public final long timestamp;
@@ -14,5 +15,23 @@ public class SessionStatsMessage extends StatsMessage {
       this.sessionStats = sessionStats;
    }
 
-   public static class Codec extends ObjectCodec<SessionStatsMessage> {}
+   public static class Codec extends StatsMessageCodec<SessionStatsMessage> {
+      @Override
+      protected void encodeBody(Buffer buffer, SessionStatsMessage message) {
+         writeLong(buffer, message.timestamp);
+         writeLowHighMap(buffer, message.sessionStats);
+      }
+
+      @Override
+      protected SessionStatsMessage decodeBody(Input input, String address, String runId) {
+         long timestamp = input.readLong();
+         return new SessionStatsMessage(address, runId, timestamp, readLowHighMap(input));
+      }
+
+      @Override
+      public SessionStatsMessage transform(SessionStatsMessage message) {
+         // The sender does not reuse the map
+         return message;
+      }
+   }
 }
@@ -0,0 +1,156 @@
+package io.hyperfoil.clustering.messages;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.hyperfoil.core.util.LowHigh;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * Compact binary codec for {@link StatsMessage statistics messages}. These are sent by each agent every second
+ * so we avoid Java serialization and use variable-length encoding for all numbers.
+ * <p>
+ * The message starts with length of the encoded message and format version; the controller rejects
+ * messages from agents using a different version.
+ */
+public abstract class StatsMessageCodec<T extends StatsMessage> implements MessageCodec<T, T> {
+   static final byte VERSION = 2;
+
+   @Override
+   public void encodeToWire(Buffer buffer, T message) {
+      int lengthPosition = buffer.length();
+      buffer.appendInt(0);
+      buffer.appendByte(VERSION);
+      writeString(buffer, message.address);
+      writeString(buffer, message.runId);
+      encodeBody(buffer, message);
+      buffer.setInt(lengthPosition, buffer.length() - lengthPosition - 4);
+   }
+
+   @Override
+   public T decodeFromWire(int position, Buffer buffer) {
+      Input input = new Input(buffer, position + 4);
+      byte version = input.readByte();
+      if (version != VERSION) {
+         throw new IllegalStateException("Cannot decode " + name() + " with version " + version + ", expected version " + VERSION);
+      }
+      String address = input.readString();
+      String runId = input.readString();
+      return decodeBody(input, address, runId);
+   }
+
+   @Override
+   public String name() {
+      return getClass().getName();
+   }
+
+   @Override
+   public byte systemCodecID() {
+      return -1;
+   }
+
+   protected abstract void encodeBody(Buffer buffer, T message);
+
+   protected abstract T decodeBody(Input input, String address, String runId);
+
+   public static void writeInt(Buffer buffer, int value) {
+      writeLong(buffer, value);
+   }
+
+   public static void writeLong(Buffer buffer, long value) {
+      // ZigZag encoding maps small negative values to small positive values
+      long zigzag = (value << 1) ^ (value >> 63);
+      while ((zigzag & ~0x7FL) != 0) {
+         buffer.appendByte((byte) ((zigzag & 0x7F) | 0x80));
+         zigzag >>>= 7;
+      }
+      buffer.appendByte((byte) zigzag);
+   }
+
+   public static void writeString(Buffer buffer, String string) {
+      if (string == null) {
+         writeInt(buffer, -1);
+      } else {
+         byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+         writeInt(buffer, bytes.length);
+         buffer.appendBytes(bytes);
+      }
+   }
+
+   public static void writeLowHighMap(Buffer buffer, Map<String, LowHigh> map) {
+      writeInt(buffer, map.size());
+      for (Map.Entry<String, LowHigh> entry : map.entrySet()) {
+         writeString(buffer, entry.getKey());
+         writeInt(buffer, entry.getValue().low);
+         writeInt(buffer, entry.getValue().high);
+      }
+   }
+
+   public static Map<String, LowHigh> readLowHighMap(Input input) {
+      int size = input.readInt();
+      Map<String, LowHigh> map = new HashMap<>();
+      for (int i = 0; i < size; ++i) {
+         String key = input.readString();
+         int low = input.readInt();
+         int high = input.readInt();
+         map.put(key, new LowHigh(low, high));
+      }
+      return map;
+   }
+
+   public static final class Input {
+      private final Buffer buffer;
+      private int position;
+
+      public Input(Buffer buffer, int position) {
+         this.buffer = buffer;
+         this.position = position;
+      }
+
+      public int position() {
+         return position;
+      }
+
+      public byte readByte() {
+         return buffer.getByte(position++);
+      }
+
+      public int readInt() {
+         long value = readLong();
+         if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Value " + value + " at position " + position + " exceeds integer range.");
+         }
+         return (int) value;
+      }
+
+      public long readLong() {
+         long zigzag = 0;
+         for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.getByte(position++);
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+               return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+         }
+         throw new IllegalStateException("Malformed variable-length number ending at position " + position);
+      }
+
+      public String readString() {
+         int length = readInt();
+         if (length < 0) {
+            return null;
+         }
+         String string = buffer.getString(position, position + length, StandardCharsets.UTF_8.name());
+         position += length;
+         return string;
+      }
+
+      public Buffer readBuffer(int length) {
+         Buffer slice = buffer.slice(position, position + length);
+         position += length;
+         return slice;
+      }
+   }
+}
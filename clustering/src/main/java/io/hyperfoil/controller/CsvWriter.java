@@ -9,7 +9,6 @@ import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -168,6 +167,26 @@ public class CsvWriter {
             }
          }
       }
+      for (var agentEntry : store.executorStats.entrySet()) {
+         try (PrintWriter writer = new PrintWriter(dir + File.separator + sanitize(agentEntry.getKey()) + ".executors.csv")) {
+            writer.println("Timestamp,Executor,Metric,Min,Max");
+            for (var executorEntry : agentEntry.getValue().entrySet()) {
+               for (var metricEntry : executorEntry.getValue().entrySet()) {
+                  for (StatisticsStore.ExecutorStats record : metricEntry.getValue()) {
+                     writer.print(record.timestamp);
+                     writer.print(',');
+                     writer.print(executorEntry.getKey());
+                     writer.print(',');
+                     writer.print(metricEntry.getKey());
+                     writer.print(',');
+                     writer.print(record.low);
+                     writer.print(',');
+                     writer.println(record.high);
+                  }
+               }
+            }
+         }
+      }
       try (PrintWriter writer = new PrintWriter(dir + File.separator + "agentCpu.csv")) {
          String[] cpuAgents = store.cpuUsage.values().stream().flatMap(agentMap -> agentMap.keySet().stream()).sorted().distinct().toArray(String[]::new);
          writer.print("phase,");
@@ -187,13 +206,27 @@ public class CsvWriter {
             writer.println();
          }
       }
+      if (!store.sustainableRates.isEmpty()) {
+         try (PrintWriter writer = new PrintWriter(dir + File.separator + "sustainableRate.csv")) {
+            writer.println("phase,agent,usersPerSec");
+            for (var phaseEntry : store.sustainableRates.entrySet()) {
+               for (var agentEntry : phaseEntry.getValue().entrySet()) {
+                  writer.print(phaseEntry.getKey());
+                  writer.print(',');
+                  writer.print(agentEntry.getKey());
+                  writer.print(',');
+                  writer.println(agentEntry.getValue());
+               }
+            }
+         }
+      }
    }
 
    private static String sanitize(String phase) {
       return phase.replaceAll(File.separator, "_");
    }
 
-   private static void writeHistogramAndSeries(String filePrefix, StatisticsSnapshot total, List<StatisticsSummary> series) throws FileNotFoundException {
+   private static void writeHistogramAndSeries(String filePrefix, StatisticsSnapshot total, Series series) throws FileNotFoundException {
       if (total != null) {
          try (PrintStream stream = new PrintStream(new FileOutputStream(filePrefix + ".histogram.csv"))) {
             total.histogram.outputPercentileDistribution(stream, 5, 1000_000.0, true);
@@ -1,19 +1,27 @@
 package io.hyperfoil.controller;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Queue;
+import java.util.function.Consumer;
 
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.api.config.SLA;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
+import io.netty.util.internal.PlatformDependent;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+/**
+ * Statistics for single phase/step/metric. When the store uses {@link StatisticsAggregator} the data are
+ * recorded from one of its threads, therefore access from other threads must synchronize on this object.
+ * Statistics that were handed over to the aggregator but not merged yet are merged by the thread completing
+ * the data, so that completion does not need to wait for the aggregator.
+ */
 final class Data {
    private static final Logger log = LogManager.getLogger(Data.class);
 
@@ -30,13 +38,20 @@ final class Data {
    final StatisticsSnapshot total = new StatisticsSnapshot();
    final Map<String, StatisticsSnapshot> perAgent = new HashMap<>();
    final Map<String, IntObjectMap<StatisticsSnapshot>> lastStats = new HashMap<>();
-   final List<StatisticsSummary> series = new ArrayList<>();
-   final Map<String, List<StatisticsSummary>> agentSeries = new HashMap<>();
+   final Series series;
+   final Map<String, Series> agentSeries = new HashMap<>();
    // floating statistics for SLAs
    private final Map<SLA, StatisticsStore.Window> windowSlas;
    private final SLA[] totalSlas;
    private int highestSequenceId = 0;
-   private boolean completed;
+   private volatile boolean completed;
+   // Summaries are computed lazily and invalidated when new statistics arrive
+   private StatisticsSummary totalSummary;
+   private StatisticsSummary recentSummary;
+   // Used only when the data are recorded through aggregator
+   StatisticsAggregator.Shard shard;
+   // Consumed only while holding the lock on this object
+   private final Queue<Pending> pending = PlatformDependent.newMpscQueue();
 
    Data(StatisticsStore statisticsStore, String phase, boolean isWarmup, int stepId, String metric, Map<SLA, StatisticsStore.Window> periodSlas, SLA[] totalSlas) {
       this.statisticsStore = statisticsStore;
@@ -46,13 +61,37 @@ final class Data {
       this.metric = metric;
       this.windowSlas = periodSlas;
       this.totalSlas = totalSlas;
+      this.series = new Series(statisticsStore.seriesFile, phase, stepId, metric, null);
    }
 
-   boolean record(String agentName, StatisticsSnapshot stats) {
+   Series agentSeries(String agentName) {
+      return agentSeries.computeIfAbsent(agentName, a -> new Series(statisticsStore.seriesFile, phase, stepId, metric, a));
+   }
+
+   void enqueue(String agentName, StatisticsSnapshot stats, Consumer<String> rejectionHandler) {
+      pending.add(new Pending(agentName, stats, rejectionHandler));
+   }
+
+   synchronized void recordPending() {
+      Pending p;
+      while ((p = pending.poll()) != null) {
+         try {
+            if (!record(p.agentName, p.stats)) {
+               p.rejectionHandler.accept(StatisticsStore.rejectionMessage(this, p.stats));
+            }
+         } catch (Throwable t) {
+            log.error("Failed to record statistics for " + phase + "/" + stepId + "/" + metric, t);
+         }
+      }
+   }
+
+   synchronized boolean record(String agentName, StatisticsSnapshot stats) {
       if (completed) {
          log.warn("Ignoring statistics for completed {}/{}/{} (from {}, {} requests)", phase, stepId, metric, agentName, stats.requestCount);
          return false;
       }
+      totalSummary = null;
+      recentSummary = null;
       total.add(stats);
       perAgent.computeIfAbsent(agentName, a -> new StatisticsSnapshot()).add(stats);
       IntObjectMap<StatisticsSnapshot> partialSnapshots = lastStats.computeIfAbsent(agentName, a -> new IntObjectHashMap<>());
@@ -79,7 +118,7 @@ final class Data {
          StatisticsSnapshot snapshot = entry.getValue().remove(sequenceId);
          if (snapshot != null) {
             sum.add(snapshot);
-            agentSeries.computeIfAbsent(entry.getKey(), a -> new ArrayList<>()).add(snapshot.summary(StatisticsStore.PERCENTILES));
+            agentSeries(entry.getKey()).add(snapshot.summary(StatisticsStore.PERCENTILES));
          }
       }
       if (!sum.isEmpty()) {
@@ -99,15 +138,57 @@ final class Data {
       }
    }
 
-   void completePhase() {
+   synchronized StatisticsSummary totalSummary() {
+      if (totalSummary == null) {
+         totalSummary = total.summary(StatisticsStore.PERCENTILES);
+      }
+      return totalSummary;
+   }
+
+   /**
+    * @return Summary of the penultimate period from all agents (the last one is likely not completed yet)
+    *         or <code>null</code> if there are no statistics.
+    */
+   synchronized StatisticsSummary recentSummary() {
+      if (recentSummary != null) {
+         return recentSummary;
+      }
+      OptionalInt lastSequenceId = lastStats.values().stream()
+            .flatMapToInt(map -> map.keySet().stream().mapToInt(Integer::intValue)).max();
+      if (lastSequenceId.isEmpty()) {
+         return null;
+      }
+      int penultimateId = lastSequenceId.getAsInt() - 1;
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      for (IntObjectMap<StatisticsSnapshot> map : lastStats.values()) {
+         StatisticsSnapshot snapshot = map.get(penultimateId);
+         if (snapshot != null) {
+            sum.add(snapshot);
+         }
+      }
+      if (sum.isEmpty()) {
+         return null;
+      }
+      return recentSummary = sum.summary(StatisticsStore.PERCENTILES);
+   }
+
+   synchronized void adjustTimestamps(long start, long completion) {
+      recordPending();
+      total.histogram.setStartTimeStamp(Math.min(start, total.histogram.getStartTimeStamp()));
+      total.histogram.setEndTimeStamp(Math.max(completion, total.histogram.getEndTimeStamp()));
+      totalSummary = null;
+   }
+
+   synchronized void completePhase() {
+      recordPending();
       for (int i = Math.max(0, highestSequenceId - MERGE_DELAY); i <= highestSequenceId; ++i) {
          mergeSnapshots(i);
       }
       // Just sanity checks
-      if (series.stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (series.requestCount() != total.requestCount) {
          log.error("We lost some data (series) in phase {} metric {}", phase, metric);
       }
-      if (agentSeries.values().stream().flatMap(List::stream).mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (agentSeries.values().stream().mapToLong(Series::requestCount).sum() != total.requestCount) {
          log.error("We lost some data (agent series) in phase {} metric {}", phase, metric);
       }
       if (perAgent.values().stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
@@ -126,4 +207,16 @@ final class Data {
    boolean isCompleted() {
       return completed;
    }
+
+   private static final class Pending {
+      final String agentName;
+      final StatisticsSnapshot stats;
+      final Consumer<String> rejectionHandler;
+
+      Pending(String agentName, StatisticsSnapshot stats, Consumer<String> rejectionHandler) {
+         this.agentName = agentName;
+         this.stats = stats;
+         this.rejectionHandler = rejectionHandler;
+      }
+   }
 }
@@ -44,7 +44,7 @@ public class JsonLoader {
          loadSnapshot(stats.getJsonObject("total"), data.total);
          // We cannot use percentiles histogram since it always tells only upper bounds on the response time
          // and the results would be way of (at least for the first bucket)
-         loadHistogram(stats.getJsonObject("histogram").getJsonArray("linear"), data.total.histogram);
+         loadHistograms(stats.getJsonObject("histogram"), data.total);
          loadSeries(stats.getJsonArray("series"), data.series);
       }
 
@@ -75,9 +75,9 @@ public class JsonLoader {
                   .computeIfAbsent(metric, m -> new Data(store, phase, isWarmup, 0, metric, Collections.emptyMap(), new SLA[0]));
             StatisticsSnapshot snapshot = new StatisticsSnapshot();
             loadSnapshot(stats.getJsonObject("total"), snapshot);
-            loadHistogram(stats.getJsonObject("histogram").getJsonArray("linear"), snapshot.histogram);
+            loadHistograms(stats.getJsonObject("histogram"), snapshot);
             data.perAgent.put(name, snapshot);
-            loadSeries(stats.getJsonArray("series"), data.agentSeries.computeIfAbsent(name, a -> new ArrayList<>()));
+            loadSeries(stats.getJsonArray("series"), data.agentSeries(name));
          }
       }
 
@@ -95,6 +95,23 @@ public class JsonLoader {
          }
       }
 
+      JsonObject executors = object.getJsonObject("executors");
+      if (executors != null) {
+         for (var agentEntry : executors) {
+            var agentMap = store.executorStats.computeIfAbsent(agentEntry.getKey(), a -> new TreeMap<>());
+            for (var executorEntry : (JsonObject) agentEntry.getValue()) {
+               var executorMap = agentMap.computeIfAbsent(Integer.parseInt(executorEntry.getKey()), e -> new HashMap<>());
+               for (var metricEntry : (JsonObject) executorEntry.getValue()) {
+                  List<StatisticsStore.ExecutorStats> list = executorMap.computeIfAbsent(metricEntry.getKey(), m -> new ArrayList<>());
+                  for (Object item : (JsonArray) metricEntry.getValue()) {
+                     JsonObject record = (JsonObject) item;
+                     list.add(new StatisticsStore.ExecutorStats(record.getLong("timestamp"), record.getInteger("min"), record.getInteger("max")));
+                  }
+               }
+            }
+         }
+      }
+
       JsonObject agentCpu = object.getJsonObject("agentCpu");
       if (agentCpu != null) {
          for (var phaseEntry : agentCpu) {
@@ -106,6 +123,15 @@ public class JsonLoader {
          }
       }
 
+      JsonObject sustainableRate = object.getJsonObject("sustainableRate");
+      if (sustainableRate != null) {
+         for (var phaseEntry : sustainableRate) {
+            for (var agentEntry : (JsonObject) phaseEntry.getValue()) {
+               store.recordSustainableRate(phaseEntry.getKey(), agentEntry.getKey(), ((Number) agentEntry.getValue()).doubleValue());
+            }
+         }
+      }
+
       return store;
    }
 
@@ -126,6 +152,17 @@ public class JsonLoader {
       }
    }
 
+   private static void loadHistograms(JsonObject object, StatisticsSnapshot snapshot) {
+      loadHistogram(object.getJsonArray("linear"), snapshot.histogram);
+      JsonArray corrected = object.getJsonArray("correctedLinear");
+      if (corrected != null) {
+         loadHistogram(corrected, snapshot.correctedHistogram);
+      } else {
+         // Older reports don't contain the corrected histogram
+         snapshot.correctedHistogram.add(snapshot.histogram);
+      }
+   }
+
    private static void loadHistogram(JsonArray array, Histogram histogram) {
       for (Object item : array) {
          JsonObject bucket = (JsonObject) item;
@@ -138,7 +175,7 @@ public class JsonLoader {
       }
    }
 
-   private static void loadSeries(JsonArray array, List<StatisticsSummary> series) {
+   private static void loadSeries(JsonArray array, Series series) {
       for (Object item : array) {
          JsonObject object = (JsonObject) item;
          long startTime = object.getLong("startTime");
@@ -156,7 +193,14 @@ public class JsonLoader {
 
          SortedMap<String, StatsExtension> extensions = Collections.emptySortedMap(); // TODO
          SortedMap<Double, Long> percentiles = toMap(object.getJsonObject("percentileResponseTime"));
-         series.add(new StatisticsSummary(startTime, endTime, minResponseTime, meanResponseTime, maxResponseTime, percentiles, requestCount, responseCount, invalid, connectionErrors, requestTimeouts, internalErrors, blockedTime, extensions));
+         // Older reports don't contain corrected response times
+         long meanCorrectedResponseTime = object.getLong("meanCorrectedResponseTime", meanResponseTime);
+         long maxCorrectedResponseTime = object.getLong("maxCorrectedResponseTime", maxResponseTime);
+         JsonObject correctedPercentilesObject = object.getJsonObject("percentileCorrectedResponseTime");
+         SortedMap<Double, Long> correctedPercentiles = correctedPercentilesObject == null ? percentiles : toMap(correctedPercentilesObject);
+         series.add(new StatisticsSummary(startTime, endTime, minResponseTime, meanResponseTime, maxResponseTime, percentiles,
+               meanCorrectedResponseTime, maxCorrectedResponseTime, correctedPercentiles,
+               requestCount, responseCount, invalid, connectionErrors, requestTimeouts, internalErrors, blockedTime, extensions));
       }
    }
 
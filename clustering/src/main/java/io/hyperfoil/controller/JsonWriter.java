@@ -82,6 +82,8 @@ public class JsonWriter {
          histogramArray(jGenerator, data.total.histogram.percentiles(5).iterator(), 100);
          jGenerator.writeFieldName("linear");
          histogramArray(jGenerator, data.total.histogram.linearBucketValues(1_000_000).iterator(), 95);
+         jGenerator.writeFieldName("correctedLinear");
+         histogramArray(jGenerator, data.total.correctedHistogram.linearBucketValues(1_000_000).iterator(), 95);
          jGenerator.writeEndObject(); //histogram
 
          jGenerator.writeFieldName("series");
@@ -171,6 +173,9 @@ public class JsonWriter {
                jGenerator.writeFieldName("linear");
                histogramArray(jGenerator, data.perAgent.get(agent).histogram.linearBucketValues(1_000_000).iterator(), 95);
 
+               jGenerator.writeFieldName("correctedLinear");
+               histogramArray(jGenerator, data.perAgent.get(agent).correctedHistogram.linearBucketValues(1_000_000).iterator(), 95);
+
                jGenerator.writeEndObject(); // histograms
 
                jGenerator.writeFieldName("series");
@@ -204,6 +209,28 @@ public class JsonWriter {
       }
       jGenerator.writeEndObject(); // connections
 
+      jGenerator.writeObjectFieldStart("executors");
+      for (var agentEntry : store.executorStats.entrySet()) {
+         jGenerator.writeObjectFieldStart(agentEntry.getKey());
+         for (var executorEntry : agentEntry.getValue().entrySet()) {
+            jGenerator.writeObjectFieldStart(String.valueOf(executorEntry.getKey()));
+            for (var metricEntry : executorEntry.getValue().entrySet()) {
+               jGenerator.writeArrayFieldStart(metricEntry.getKey());
+               for (StatisticsStore.ExecutorStats record : metricEntry.getValue()) {
+                  jGenerator.writeStartObject();
+                  jGenerator.writeNumberField("timestamp", record.timestamp);
+                  jGenerator.writeNumberField("min", record.low);
+                  jGenerator.writeNumberField("max", record.high);
+                  jGenerator.writeEndObject();
+               }
+               jGenerator.writeEndArray(); // metric
+            }
+            jGenerator.writeEndObject(); // executor
+         }
+         jGenerator.writeEndObject(); // agent
+      }
+      jGenerator.writeEndObject(); // executors
+
       jGenerator.writeObjectFieldStart("agentCpu");
       for (var phaseEntry : store.cpuUsage.entrySet()) {
          jGenerator.writeObjectFieldStart(phaseEntry.getKey());
@@ -214,6 +241,18 @@ public class JsonWriter {
       }
       jGenerator.writeEndObject(); // agentCpu
 
+      if (!store.sustainableRates.isEmpty()) {
+         jGenerator.writeObjectFieldStart("sustainableRate");
+         for (var phaseEntry : store.sustainableRates.entrySet()) {
+            jGenerator.writeObjectFieldStart(phaseEntry.getKey());
+            for (var agentEntry : phaseEntry.getValue().entrySet()) {
+               jGenerator.writeNumberField(agentEntry.getKey(), agentEntry.getValue());
+            }
+            jGenerator.writeEndObject();
+         }
+         jGenerator.writeEndObject(); // sustainableRate
+      }
+
       jGenerator.writeEndObject(); //root of object
    }
 
@@ -311,7 +350,7 @@ public class JsonWriter {
       jGenerator.writeEndObject();
    }
 
-   private static void seriesArray(JsonGenerator jGenerator, List<StatisticsSummary> series) throws IOException {
+   private static void seriesArray(JsonGenerator jGenerator, Series series) throws IOException {
       jGenerator.writeStartArray(); //series
       if (series != null) {
          for (StatisticsSummary summary : series) {
@@ -0,0 +1,116 @@
+package io.hyperfoil.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.hyperfoil.api.statistics.StatisticsSummary;
+
+/**
+ * Summaries of statistics for each period in one phase/step/metric (and possibly agent).
+ * When the store uses {@link SeriesFile} the summaries are not kept in memory.
+ */
+final class Series implements Iterable<StatisticsSummary> {
+   private final SeriesFile file;
+   private final String phase;
+   private final int stepId;
+   private final String metric;
+   private final String agent;
+   private final List<StatisticsSummary> summaries;
+   private long[] positions;
+   private int[] lengths;
+   private int size;
+   private long requestCount;
+
+   Series(SeriesFile file, String phase, int stepId, String metric, String agent) {
+      this.file = file;
+      this.phase = phase;
+      this.stepId = stepId;
+      this.metric = metric;
+      this.agent = agent;
+      if (file == null) {
+         summaries = new ArrayList<>();
+      } else {
+         summaries = null;
+         positions = new long[16];
+         lengths = new int[16];
+      }
+   }
+
+   void add(StatisticsSummary summary) {
+      requestCount += summary.requestCount;
+      if (file == null) {
+         summaries.add(summary);
+         return;
+      }
+      if (size == positions.length) {
+         positions = Arrays.copyOf(positions, size * 2);
+         lengths = Arrays.copyOf(lengths, size * 2);
+      }
+      // the file is shared by all series and these can be written from different aggregator threads
+      synchronized (file) {
+         long position = file.append(phase, stepId, metric, agent, summary);
+         if (position < 0) {
+            return;
+         }
+         positions[size] = position;
+         lengths[size] = file.lastLength();
+      }
+      ++size;
+   }
+
+   long requestCount() {
+      return requestCount;
+   }
+
+   Stream<StatisticsSummary> stream() {
+      return StreamSupport.stream(spliterator(), false);
+   }
+
+   /**
+    * Must be invoked while holding the lock that guards {@link #add(StatisticsSummary)}; the returned view
+    * can be iterated later and without the lock, ignoring any records added in the meantime.
+    *
+    * @return Records added so far.
+    */
+   Iterable<StatisticsSummary> snapshot() {
+      if (file == null) {
+         return new ArrayList<>(summaries);
+      }
+      return iterable(positions, lengths, size);
+   }
+
+   @Override
+   public Iterator<StatisticsSummary> iterator() {
+      if (file == null) {
+         return summaries.iterator();
+      }
+      return iterable(positions, lengths, size).iterator();
+   }
+
+   private Iterable<StatisticsSummary> iterable(long[] positions, int[] lengths, int limit) {
+      // the arrays are only appended to or replaced by larger copies so we can read them without the lock
+      return () -> new Iterator<>() {
+         int index;
+
+         @Override
+         public boolean hasNext() {
+            return index < limit;
+         }
+
+         @Override
+         public StatisticsSummary next() {
+            if (index >= limit) {
+               throw new NoSuchElementException();
+            }
+            StatisticsSummary summary = file.read(positions[index], lengths[index]);
+            ++index;
+            return summary;
+         }
+      };
+   }
+}
@@ -0,0 +1,151 @@
+package io.hyperfoil.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+/**
+ * Append-only file with statistics for each period, written as soon as the period is merged.
+ * The file uses JSON lines format; each record identifies phase, step, metric and agent (missing for records
+ * aggregated over all agents), and contains the summary.
+ * <p>
+ * Only offsets of the records are kept in memory (see {@link Series}); the records are read back
+ * when generating reports or responding to REST API. When the run completes the file is flushed to disk
+ * and further reads use a read-only channel.
+ */
+final class SeriesFile implements Closeable {
+   private static final Logger log = LogManager.getLogger(SeriesFile.class);
+   private static final ObjectMapper MAPPER = DatabindCodec.mapper();
+
+   static {
+      StatsExtension.registerSubtypes();
+   }
+
+   private final Path path;
+   private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+   private FileChannel channel;
+   private boolean completed;
+   private long position;
+
+   SeriesFile(Path path) throws IOException {
+      this.path = path;
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+   }
+
+   Path path() {
+      return path;
+   }
+
+   /**
+    * @return Position of the record in the file (the length of the record is stored in {@link #lastLength()})
+    *         or -1 if the file was already completed.
+    */
+   synchronized long append(String phase, int stepId, String metric, String agent, StatisticsSummary summary) {
+      if (completed) {
+         log.error("Ignoring statistics for {}/{}/{} received after the run completed.", phase, stepId, metric);
+         return -1;
+      }
+      recordBytes.reset();
+      try (JsonGenerator generator = MAPPER.getFactory().createGenerator(recordBytes, JsonEncoding.UTF8)) {
+         generator.writeStartObject();
+         generator.writeStringField("phase", phase);
+         generator.writeNumberField("stepId", stepId);
+         generator.writeStringField("metric", metric);
+         if (agent != null) {
+            generator.writeStringField("agent", agent);
+         }
+         generator.writeObjectField("summary", summary);
+         generator.writeEndObject();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      recordBytes.write('\n');
+      long recordPosition = position;
+      ByteBuffer buffer = ByteBuffer.wrap(recordBytes.toByteArray());
+      try {
+         while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException("Cannot write to " + path, e);
+      }
+      return recordPosition;
+   }
+
+   synchronized int lastLength() {
+      return recordBytes.size();
+   }
+
+   /**
+    * Flushes the records to disk and closes the file for writing.
+    */
+   synchronized void complete() throws IOException {
+      if (completed) {
+         return;
+      }
+      completed = true;
+      try {
+         channel.force(false);
+      } finally {
+         channel.close();
+         channel = null;
+      }
+   }
+
+   synchronized StatisticsSummary read(long recordPosition, int length) {
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      try {
+         if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+         }
+         while (buffer.hasRemaining()) {
+            if (channel.read(buffer, recordPosition + buffer.position()) < 0) {
+               throw new IllegalStateException("Unexpected end of " + path);
+            }
+         }
+         try (JsonParser parser = MAPPER.getFactory().createParser(buffer.array())) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+               while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                  String field = parser.getCurrentName();
+                  parser.nextToken();
+                  if ("summary".equals(field)) {
+                     return MAPPER.readValue(parser, StatisticsSummary.class);
+                  }
+                  parser.skipChildren();
+               }
+            }
+         }
+         throw new IllegalStateException("Record at position " + recordPosition + " in " + path + " does not contain summary.");
+      } catch (IOException e) {
+         throw new UncheckedIOException("Cannot read from " + path, e);
+      }
+   }
+
+   @Override
+   public synchronized void close() throws IOException {
+      completed = true;
+      if (channel != null) {
+         channel.close();
+         channel = null;
+      }
+   }
+}
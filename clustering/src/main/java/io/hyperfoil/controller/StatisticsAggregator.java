@@ -0,0 +1,99 @@
+package io.hyperfoil.controller;
+
+import java.util.Queue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Merges statistics received from agents on several threads. Each phase/step/metric is assigned to one shard
+ * (single-threaded executor) so that its snapshots are merged in the order these were received; the statistics
+ * are handed over to the shard through a lock-free MPSC task queue. Completing the data merges any statistics
+ * still waiting for the shard in the completing thread.
+ * <p>
+ * The aggregator can be shared by stores of all runs.
+ */
+public class StatisticsAggregator {
+   private final Shard[] shards;
+   private final AtomicInteger counter = new AtomicInteger();
+
+   public StatisticsAggregator(int threads) {
+      if (threads <= 0) {
+         throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+      }
+      DefaultThreadFactory threadFactory = new DefaultThreadFactory("stats-aggregator", true);
+      shards = new Shard[threads];
+      for (int i = 0; i < threads; ++i) {
+         shards[i] = new Shard(threadFactory);
+      }
+   }
+
+   Shard nextShard() {
+      return shards[Math.floorMod(counter.getAndIncrement(), shards.length)];
+   }
+
+   public void shutdown() {
+      for (Shard shard : shards) {
+         shard.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+      }
+   }
+
+   /**
+    * Executor that parks when there are no tasks instead of blocking on a (locked) blocking queue.
+    */
+   static final class Shard extends SingleThreadEventExecutor {
+      // the thread checks for shutdown at least this often
+      private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+      private volatile Thread worker;
+      private volatile boolean parked;
+
+      private Shard(ThreadFactory threadFactory) {
+         // addTaskWakesUp = false: execute() calls wakeup()
+         super(null, threadFactory, false);
+      }
+
+      void record(Data data, String agentName, StatisticsSnapshot stats, Consumer<String> rejectionHandler) {
+         data.enqueue(agentName, stats, rejectionHandler);
+         execute(data::recordPending);
+      }
+
+      @Override
+      protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
+         return PlatformDependent.newMpscQueue();
+      }
+
+      @Override
+      protected void run() {
+         worker = Thread.currentThread();
+         for (;;) {
+            if (!runAllTasks()) {
+               parked = true;
+               // re-check after announcing that we're going to park to not miss a wakeup
+               if (!hasTasks()) {
+                  LockSupport.parkNanos(this, PARK_NANOS);
+               }
+               parked = false;
+            }
+            if (confirmShutdown()) {
+               break;
+            }
+         }
+      }
+
+      @Override
+      protected void wakeup(boolean inEventLoop) {
+         Thread worker = this.worker;
+         if (!inEventLoop && parked && worker != null) {
+            LockSupport.unpark(worker);
+         }
+      }
+   }
+}
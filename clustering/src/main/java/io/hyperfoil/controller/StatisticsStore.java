@@ -9,6 +9,8 @@ import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.core.util.LowHigh;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -17,32 +19,55 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 public class StatisticsStore {
+   private static final Logger log = LogManager.getLogger(StatisticsStore.class);
    static final double[] PERCENTILES = new double[]{ 0.5, 0.9, 0.99, 0.999, 0.9999 };
    private static final Comparator<RequestStats> REQUEST_STATS_COMPARATOR =
          Comparator.<RequestStats, Long>comparing(rs -> rs.summary.startTime)
                .thenComparing(rs -> rs.phase).thenComparing(rs -> rs.metric);
 
    private final Benchmark benchmark;
-   final Map<Integer, Map<String, Data>> data = new HashMap<>();
+   final Map<Integer, Map<String, Data>> data = new ConcurrentHashMap<>();
    private final Consumer<SLA.Failure> failureHandler;
-   final List<SLA.Failure> failures = new ArrayList<>();
+   // Failures can be added from aggregator threads
+   final List<SLA.Failure> failures = new CopyOnWriteArrayList<>();
    private final int maxFailures = 100;
    private final Map<Integer, SLA.Provider> slaProviders;
    final Map<String, SessionPoolStats> sessionPoolStats = new HashMap<>();
    final Map<String, Map<String, Map<String, List<ConnectionPoolStats>>>> connectionPoolStats = new HashMap<>();
+   // agent -> executor -> metric -> records
+   final Map<String, Map<Integer, Map<String, List<ExecutorStats>>>> executorStats = new HashMap<>();
    final Map<String, Map<String, String>> cpuUsage = new HashMap<>();
+   final Map<String, Map<String, Double>> sustainableRates = new HashMap<>();
+   final SeriesFile seriesFile;
+   private StatisticsAggregator aggregator;
 
    public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler) {
+      this(benchmark, failureHandler, (SeriesFile) null);
+   }
+
+   /**
+    * @param seriesPath Statistics for each period are appended to this file rather than kept in memory.
+    */
+   public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler, Path seriesPath) throws IOException {
+      this(benchmark, failureHandler, new SeriesFile(seriesPath));
+   }
+
+   private StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler, SeriesFile seriesFile) {
       this.benchmark = benchmark;
       this.failureHandler = failureHandler;
+      this.seriesFile = seriesFile;
       this.slaProviders = benchmark.steps()
             .filter(SLA.Provider.class::isInstance).map(SLA.Provider.class::cast)
             .collect(Collectors.toMap(SLA.Provider::id, Function.identity(), (s1, s2) -> {
@@ -53,8 +78,25 @@ public class StatisticsStore {
             }));
    }
 
-   public boolean record(String agentName, int phaseId, int stepId, String metric, StatisticsSnapshot stats) {
-      Map<String, Data> map = this.data.computeIfAbsent((phaseId << 16) + stepId, phaseStep -> new HashMap<>());
+   /**
+    * Statistics recorded after this call are merged in the aggregator threads; must be set before recording
+    * any statistics. Methods reading the statistics can be still invoked from any thread, but only single thread
+    * must record the statistics and complete phases.
+    */
+   public void setAggregator(StatisticsAggregator aggregator) {
+      this.aggregator = aggregator;
+   }
+
+   public void record(String agentName, int phaseId, int stepId, String metric, StatisticsSnapshot stats) {
+      record(agentName, phaseId, stepId, metric, stats, error -> { });
+   }
+
+   /**
+    * @param rejectionHandler Invoked with an error message when the statistics are rejected because the data are
+    *                         already completed. With aggregator this is invoked from the aggregator thread.
+    */
+   public void record(String agentName, int phaseId, int stepId, String metric, StatisticsSnapshot stats, Consumer<String> rejectionHandler) {
+      Map<String, Data> map = this.data.computeIfAbsent((phaseId << 16) + stepId, phaseStep -> new ConcurrentHashMap<>());
       Data data = map.get(metric);
       if (data == null) {
          long collectionPeriod = benchmark.statisticsCollectionPeriod();
@@ -71,8 +113,26 @@ public class StatisticsStore {
                      Collectors.toMap(Function.identity(), s -> new Window((int) (s.window() / collectionPeriod))));
          SLA[] total = sla == null ? new SLA[0] : Stream.of(sla).filter(s -> s.window() <= 0).toArray(SLA[]::new);
          map.put(metric, data = new Data(this, phase.name, phase.isWarmup, stepId, metric, rings, total));
+         if (aggregator != null) {
+            data.shard = aggregator.nextShard();
+         }
       }
-      return data.record(agentName, stats);
+      if (data.shard == null) {
+         if (!data.record(agentName, stats)) {
+            rejectionHandler.accept(rejectionMessage(data, stats));
+         }
+      } else if (data.isCompleted()) {
+         log.warn("Ignoring statistics for completed {}/{}/{} (from {}, {} requests)", data.phase, stepId, metric, agentName, stats.requestCount);
+         rejectionHandler.accept(rejectionMessage(data, stats));
+      } else {
+         data.shard.record(data, agentName, stats, rejectionHandler);
+      }
+   }
+
+   static String rejectionMessage(Data data, StatisticsSnapshot stats) {
+      return String.format(
+            "Received statistics for %s/%d/%s:%d with %d requests but the statistics are already completed; these statistics won't be reported.",
+            data.phase, data.stepId, data.metric, stats.sequenceId, stats.requestCount);
    }
 
    public void addFailure(String phase, String metric, long startTimestamp, long endTimestamp, String cause) {
@@ -112,8 +172,7 @@ public class StatisticsStore {
       for (Map<String, Data> m : this.data.values()) {
          for (Data data : m.values()) {
             if (data.phase.equals(phase)) {
-               data.total.histogram.setStartTimeStamp(Math.min(start, data.total.histogram.getStartTimeStamp()));
-               data.total.histogram.setEndTimeStamp(Math.max(completion, data.total.histogram.getEndTimeStamp()));
+               data.adjustTimestamps(start, completion);
             }
          }
       }
@@ -127,23 +186,14 @@ public class StatisticsStore {
       ArrayList<RequestStats> result = new ArrayList<>();
       for (Map<String, Data> m : this.data.values()) {
          for (Data data : m.values()) {
-            OptionalInt lastSequenceId = data.lastStats.values().stream()
-                  .flatMapToInt(map -> map.keySet().stream().mapToInt(Integer::intValue)).max();
-            if (lastSequenceId.isEmpty()) {
-               continue;
-            }
-            // We'll use one id before the last one since the last one is likely not completed yet
-            int penultimateId = lastSequenceId.getAsInt() - 1;
-            StatisticsSnapshot sum = new StatisticsSnapshot();
-            data.lastStats.values().stream().map(map -> map.get(penultimateId))
-                  .filter(Objects::nonNull).forEach(sum::add);
-            if (sum.isEmpty() || sum.histogram.getStartTimeStamp() < minValidTimestamp) {
+            StatisticsSummary recent = data.recentSummary();
+            if (recent == null || recent.startTime < minValidTimestamp) {
                continue;
             }
             List<String> failures = this.failures.stream()
                   .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
                   .map(SLA.Failure::message).collect(Collectors.toList());
-            result.add(new RequestStats(data.phase, data.stepId, data.metric, sum.summary(PERCENTILES), failures, data.isWarmup));
+            result.add(new RequestStats(data.phase, data.stepId, data.metric, recent, failures, data.isWarmup));
          }
       }
       result.sort(REQUEST_STATS_COMPARATOR);
@@ -154,7 +204,7 @@ public class StatisticsStore {
       ArrayList<RequestStats> result = new ArrayList<>();
       for (Map<String, Data> m : this.data.values()) {
          for (Data data : m.values()) {
-            StatisticsSummary last = data.total.summary(PERCENTILES);
+            StatisticsSummary last = data.totalSummary();
             List<String> failures = this.failures.stream()
                   .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
                   .map(SLA.Failure::message).collect(Collectors.toList());
@@ -170,15 +220,24 @@ public class StatisticsStore {
       if (data == null) {
          return null;
       }
-      return HistogramConverter.convert(phase, metric, data.total.histogram);
+      synchronized (data) {
+         return HistogramConverter.convert(phase, metric, data.total.histogram);
+      }
    }
 
-   public List<StatisticsSummary> series(String phase, int stepId, String metric) {
+   /**
+    * Records stored in the series file are read lazily when the result is iterated.
+    *
+    * @return Summaries for each period recorded so far, or <code>null</code> if there are no such statistics.
+    */
+   public Iterable<StatisticsSummary> series(String phase, int stepId, String metric) {
       Data data = getData(phase, stepId, metric);
       if (data == null) {
          return null;
       }
-      return data.series;
+      synchronized (data) {
+         return data.series.snapshot();
+      }
    }
 
    private Data getData(String phase, int stepId, String metric) {
@@ -284,6 +343,18 @@ public class StatisticsStore {
       return summary;
    }
 
+   public void recordExecutorStats(String address, long timestamp, Map<Integer, Map<String, LowHigh>> stats) {
+      var agentData = executorStats.computeIfAbsent(address, a -> new TreeMap<>());
+      for (var byExecutor : stats.entrySet()) {
+         var executorData = agentData.computeIfAbsent(byExecutor.getKey(), e -> new HashMap<>());
+         for (var byMetric : byExecutor.getValue().entrySet()) {
+            LowHigh value = byMetric.getValue();
+            executorData.computeIfAbsent(byMetric.getKey(), m -> new ArrayList<>())
+                  .add(new ExecutorStats(timestamp, value.low, value.high));
+         }
+      }
+   }
+
    public void recordCpuUsage(String phase, String agentName, String usage) {
       cpuUsage.computeIfAbsent(phase, p -> new HashMap<>()).putIfAbsent(agentName, usage);
    }
@@ -292,6 +363,17 @@ public class StatisticsStore {
       return cpuUsage;
    }
 
+   public void recordSustainableRate(String phase, String agentName, double usersPerSec) {
+      sustainableRates.computeIfAbsent(phase, p -> new HashMap<>()).put(agentName, usersPerSec);
+   }
+
+   /**
+    * @return Highest sustainable users per second found in adaptive phases, by phase and agent.
+    */
+   public Map<String, Map<String, Double>> sustainableRates() {
+      return sustainableRates;
+   }
+
    static final class Window {
       private final StatisticsSnapshot[] ring;
       private final StatisticsSnapshot sum = new StatisticsSnapshot();
@@ -341,6 +423,29 @@ public class StatisticsStore {
       return failures;
    }
 
+   /**
+    * Flushes the series file to disk and stops writing to it; the file can be still read.
+    */
+   public void complete() {
+      if (seriesFile != null) {
+         try {
+            seriesFile.complete();
+         } catch (IOException e) {
+            log.error("Cannot complete " + seriesFile.path(), e);
+         }
+      }
+   }
+
+   public void close() {
+      if (seriesFile != null) {
+         try {
+            seriesFile.close();
+         } catch (IOException e) {
+            log.error("Cannot close " + seriesFile.path(), e);
+         }
+      }
+   }
+
    static class SessionPoolStats {
       Map<String, List<SessionPoolRecord>> records = new HashMap<>();
 
@@ -380,4 +485,13 @@ public class StatisticsStore {
          this.timestamp = timestamp;
       }
    }
+
+   static class ExecutorStats extends LowHigh {
+      final long timestamp;
+
+      ExecutorStats(long timestamp, int low, int high) {
+         super(low, high);
+         this.timestamp = timestamp;
+      }
+   }
 }
@@ -131,5 +131,5 @@ public class Queue implements Session.Resource {
       }
    }
 
-   public static class Key implements Session.ResourceKey<Queue> {}
+   public static class Key extends Session.ResourceKey<Queue> {}
 }
@@ -0,0 +1,262 @@
+package io.hyperfoil.core.generators;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Immutable table of strings stored in a memory-mapped file, with O(1) access to any cell.
+ * Cells are kept as UTF-8 bytes and decoded only when {@link #get(int, int)} is called,
+ * therefore large data sets do not occupy heap.
+ * <p>
+ * File layout (big-endian):
+ * <ul>
+ * <li>header: magic (int), version (int), rows (int), columns (int), index position (long)</li>
+ * <li>UTF-8 data of all cells, row by row, padded to 8 bytes</li>
+ * <li>index: <code>rows * columns + 1</code> longs with start offset of each cell (and end of the last cell);
+ * the highest bit marks <code>null</code> cell</li>
+ * </ul>
+ * When the table is serialized (e.g. as a part of the benchmark sent to agents) the file content is streamed
+ * in chunks after the size; the receiving side writes it into a temporary file and maps it again.
+ */
+public final class IndexedTable implements Serializable {
+   private static final Logger log = LogManager.getLogger(IndexedTable.class);
+   private static final int MAGIC = 0x48465442; // HFTB
+   private static final int VERSION = 1;
+   private static final int HEADER_SIZE = 24;
+   private static final long NULL_FLAG = Long.MIN_VALUE;
+   private static final int SEGMENT_BITS = 30;
+   private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+   private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+   private transient long size;
+   private transient ByteBuffer[] segments;
+   private transient int rows;
+   private transient int columns;
+   private transient long indexPosition;
+
+   private IndexedTable(Path path) throws IOException {
+      size = Files.size(path);
+      map(path);
+   }
+
+   /**
+    * @param columns Number of columns in each row.
+    * @return Builder writing rows into a temporary file.
+    */
+   public static Builder builder(int columns) {
+      try {
+         return new Builder(columns);
+      } catch (IOException e) {
+         throw new UncheckedIOException("Cannot create temporary file for table data", e);
+      }
+   }
+
+   /**
+    * @return Size of the table file in bytes.
+    */
+   public long size() {
+      return size;
+   }
+
+   public int rows() {
+      return rows;
+   }
+
+   public int columns() {
+      return columns;
+   }
+
+   public String get(int row, int column) {
+      if (row < 0 || row >= rows || column < 0 || column >= columns) {
+         throw new IndexOutOfBoundsException("Cell " + row + ":" + column + " is out of table " + rows + "x" + columns);
+      }
+      long cell = (long) row * columns + column;
+      long start = getLong(indexPosition + 8 * cell);
+      if ((start & NULL_FLAG) != 0) {
+         return null;
+      }
+      long end = getLong(indexPosition + 8 * cell + 8) & ~NULL_FLAG;
+      byte[] bytes = new byte[(int) (end - start)];
+      read(start, bytes, 0, bytes.length);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Copies raw content of the table file.
+    *
+    * @param position Position in the file.
+    * @param dst      Destination array.
+    * @param offset   Offset in the destination array.
+    * @param length   Number of bytes to copy.
+    */
+   private void read(long position, byte[] dst, int offset, int length) {
+      if (position < 0 || length < 0 || position + length > size) {
+         throw new IndexOutOfBoundsException("Cannot read " + length + " bytes at " + position + " from table of size " + size);
+      }
+      while (length > 0) {
+         // the mapped buffers are shared between threads so we can't move their position
+         ByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)].duplicate();
+         segment.position((int) (position & (SEGMENT_SIZE - 1)));
+         int chunk = Math.min(length, segment.remaining());
+         segment.get(dst, offset, chunk);
+         position += chunk;
+         offset += chunk;
+         length -= chunk;
+      }
+   }
+
+   private long getLong(long position) {
+      // index is aligned to 8 bytes so the long never crosses segments
+      return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & (SEGMENT_SIZE - 1)));
+   }
+
+   private void map(Path path) throws IOException {
+      ByteBuffer[] segments;
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+         segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+         for (int i = 0; i < segments.length; ++i) {
+            long offset = i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, size - offset));
+         }
+      } finally {
+         try {
+            // The mapping stays valid after the file is removed
+            Files.deleteIfExists(path);
+         } catch (IOException e) {
+            log.debug("Cannot delete {}, will be deleted on exit.", path, e);
+            path.toFile().deleteOnExit();
+         }
+      }
+      if (size < HEADER_SIZE || segments[0].getInt(0) != MAGIC) {
+         throw new IllegalStateException("Invalid table file " + path);
+      }
+      if (segments[0].getInt(4) != VERSION) {
+         throw new IllegalStateException("Unsupported table version " + segments[0].getInt(4) + " in " + path);
+      }
+      rows = segments[0].getInt(8);
+      columns = segments[0].getInt(12);
+      indexPosition = segments[0].getLong(16);
+      this.segments = segments;
+   }
+
+   private static Path createTempFile() throws IOException {
+      return Files.createTempFile("hyperfoil-table-", ".bin");
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      out.defaultWriteObject();
+      out.writeLong(size);
+      byte[] buffer = new byte[COPY_BUFFER_SIZE];
+      for (long position = 0; position < size; position += buffer.length) {
+         int length = (int) Math.min(buffer.length, size - position);
+         read(position, buffer, 0, length);
+         out.write(buffer, 0, length);
+      }
+   }
+
+   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      size = in.readLong();
+      Path path = createTempFile();
+      try (OutputStream out = Files.newOutputStream(path)) {
+         byte[] buffer = new byte[COPY_BUFFER_SIZE];
+         for (long remaining = size; remaining > 0; ) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+               throw new IOException("Unexpected end of stream, " + remaining + " bytes of table data missing");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+         }
+      } catch (IOException e) {
+         Files.deleteIfExists(path);
+         throw e;
+      }
+      map(path);
+   }
+
+   public static class Builder {
+      private final int columns;
+      private final Path dataPath;
+      private final Path indexPath;
+      private final DataOutputStream data;
+      private final DataOutputStream index;
+      // DataOutputStream.size() would overflow after 2 GB
+      private long position = HEADER_SIZE;
+      private int rows;
+
+      private Builder(int columns) throws IOException {
+         this.columns = columns;
+         dataPath = createTempFile();
+         indexPath = createTempFile();
+         data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataPath)));
+         index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)));
+         // placeholder for the header
+         data.write(new byte[HEADER_SIZE]);
+      }
+
+      /**
+       * Adds a row; missing columns are stored as <code>null</code>.
+       *
+       * @param cells Cell values.
+       * @return Self.
+       */
+      public Builder addRow(String... cells) {
+         try {
+            for (int i = 0; i < columns; ++i) {
+               String cell = i < cells.length ? cells[i] : null;
+               if (cell == null) {
+                  index.writeLong(position | NULL_FLAG);
+               } else {
+                  index.writeLong(position);
+                  byte[] bytes = cell.getBytes(StandardCharsets.UTF_8);
+                  data.write(bytes);
+                  position += bytes.length;
+               }
+            }
+         } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write table data", e);
+         }
+         ++rows;
+         return this;
+      }
+
+      public IndexedTable build() {
+         try {
+            index.writeLong(position);
+            index.close();
+            int padding = (int) (-position & 7);
+            data.write(new byte[padding]);
+            long indexPosition = position + padding;
+            Files.copy(indexPath, data);
+            data.close();
+            Files.delete(indexPath);
+            try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.WRITE)) {
+               ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+               header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns).putLong(indexPosition).flip();
+               while (header.hasRemaining()) {
+                  channel.write(header, header.position());
+               }
+            }
+            return new IndexedTable(dataPath);
+         } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write table data", e);
+         }
+      }
+   }
+}
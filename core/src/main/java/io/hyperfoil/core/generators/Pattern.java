@@ -6,7 +6,9 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Formatter;
 import java.util.List;
+import java.util.regex.Matcher;
 
 import org.kohsuke.MetaInfServices;
 
@@ -17,6 +19,7 @@ import io.hyperfoil.api.config.Visitor;
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.processor.Transformer;
 import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.impl.Util;
@@ -28,6 +31,7 @@ import io.netty.buffer.ByteBuf;
 public class Pattern implements SerializableFunction<Session, String>, SerializableBiConsumer<Session, ByteBuf>, Transformer {
    private static final int VAR_LENGTH_ESTIMATE = 32;
    private static final String REPLACE = "replace";
+   private static final java.util.regex.Pattern SIMPLE_INT_FORMAT = java.util.regex.Pattern.compile("%([0-]?)([0-9]*)([doxX])");
    private final Component[] components;
    @Visitor.Ignore
    private int lengthEstimate;
@@ -64,18 +68,16 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
             if (colon >= 0 && colon < closePar) {
                String format = str.substring(openPar + 2, colon).trim();
                ReadAccess key = SessionFactory.readAccess(str.substring(colon + 1, closePar).trim());
-               // TODO: we can't pre-allocate formatters here but we could cache them in the session
                // TODO: find a better place for this hack
                if (format.equalsIgnoreCase("urlencode")) {
                   if (urlEncode) {
                      throw new BenchmarkDefinitionException("It seems you're trying to URL-encode value twice.");
                   }
-                  components.add(new VarComponent(key, allowUnset, Pattern::urlEncode));
-                  // TODO: More efficient encoding/decoding: we're converting object to string, then to byte array and then allocating another string
+                  components.add(new VarComponent(key, allowUnset, null, Encoding.URL));
                } else if (format.equalsIgnoreCase("base64encode")) {
-                  components.add(new VarComponent(key, allowUnset, s -> Base64.getEncoder().encodeToString(s.getBytes(StandardCharsets.UTF_8))));
+                  components.add(new VarComponent(key, allowUnset, null, Encoding.BASE64_ENCODE));
                } else if (format.equalsIgnoreCase("base64decode")) {
-                  components.add(new VarComponent(key, allowUnset, s -> new String(Base64.getDecoder().decode(s), StandardCharsets.UTF_8)));
+                  components.add(new VarComponent(key, allowUnset, null, Encoding.BASE64_DECODE));
                } else if (format.startsWith(REPLACE)) {
                   if (format.length() == REPLACE.length()) {
                      throw new BenchmarkDefinitionException(wrongReplaceSyntax(str, format));
@@ -98,9 +100,9 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
                      }
                   }
                   if (all) {
-                     components.add(new VarComponent(key, allowUnset, value -> regex.matcher(value).replaceAll(replacement)));
+                     components.add(new VarComponent(key, allowUnset, value -> regex.matcher(value).replaceAll(replacement), Encoding.NONE));
                   } else {
-                     components.add(new VarComponent(key, allowUnset, value -> regex.matcher(value).replaceFirst(replacement)));
+                     components.add(new VarComponent(key, allowUnset, value -> regex.matcher(value).replaceFirst(replacement), Encoding.NONE));
                   }
                } else if (format.endsWith("d") || format.endsWith("o") || format.endsWith("x") || format.endsWith("X")) {
                   components.add(new FormatIntComponent(format, key));
@@ -111,7 +113,7 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
                throw new BenchmarkDefinitionException("Missing closing parentheses (}) in '" + str + "'");
             } else {
                ReadAccess key = SessionFactory.readAccess(str.substring(openPar + 2, closePar).trim());
-               components.add(new VarComponent(key, allowUnset, urlEncode ? Pattern::urlEncode : null));
+               components.add(new VarComponent(key, allowUnset, null, urlEncode ? Encoding.URL : Encoding.NONE));
             }
             lastSearch = last = closePar + 1;
          }
@@ -145,6 +147,18 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
       return sb.toString();
    }
 
+   /**
+    * @return String this pattern always evaluates to, or <code>null</code> if it depends on session variables.
+    */
+   public String constantValue() {
+      if (components.length == 0) {
+         return "";
+      } else if (components.length == 1 && components[0] instanceof StringComponent) {
+         return ((StringComponent) components[0]).substring;
+      }
+      return null;
+   }
+
    @Override
    public void accept(Session session, ByteBuf byteBuf) {
       for (Component c : components) {
@@ -208,45 +222,227 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
       }
    }
 
-   private class FormatIntComponent implements Component {
+   /**
+    * Formats integer variable. Simple formats (<code>%[0|-][width](d|o|x|X)</code>) are compiled and the digits
+    * are written directly to the output; other formats use {@link Formatter} cached in the session.
+    */
+   private class FormatIntComponent implements Component, ResourceUtilizer {
       private final String format;
       private final ReadAccess key;
+      // conversion character of compiled format or 0 if the format is handled by Formatter
+      private final char conversion;
+      private final int width;
+      private final boolean zeroPad;
+      private final boolean leftJustify;
+      private final Session.ResourceKey<FormatterResource> formatterKey;
 
       FormatIntComponent(String format, ReadAccess key) {
          this.format = format;
          this.key = key;
-      }
-
-      private String string(Session session) {
-         return String.format(this.format, key.getInt(session));
+         Matcher matcher = SIMPLE_INT_FORMAT.matcher(format);
+         if (matcher.matches() && (matcher.group(1).isEmpty() || !matcher.group(2).isEmpty())) {
+            this.conversion = matcher.group(3).charAt(0);
+            this.width = matcher.group(2).isEmpty() ? 0 : Integer.parseInt(matcher.group(2));
+            this.zeroPad = matcher.group(1).equals("0");
+            this.leftJustify = matcher.group(1).equals("-");
+            this.formatterKey = null;
+         } else {
+            this.conversion = 0;
+            this.width = 0;
+            this.zeroPad = false;
+            this.leftJustify = false;
+            this.formatterKey = new Session.ResourceKey<>();
+         }
       }
 
       @Override
-      public void accept(Session s, StringBuilder sb) {
-         String str = string(s);
-         sb.append(urlEncode ? urlEncode(str) : str);
+      public void accept(Session session, StringBuilder sb) {
+         int value = key.getInt(session);
+         if (conversion == 0) {
+            CharSequence str = format(session, value);
+            if (urlEncode) {
+               Util.urlEncode(str, sb);
+            } else {
+               sb.append(str);
+            }
+            return;
+         }
+         long magnitude = magnitude(value);
+         int digits = digits(magnitude);
+         int length = length(value, digits);
+         for (int i = 0; i < length; ++i) {
+            char c = charAt(value, magnitude, digits, length, i);
+            sb.append(urlEncode && c == ' ' ? '+' : c);
+         }
       }
 
       @Override
       public void accept(Session session, ByteBuf buf) {
-         String str = string(session);
-         if (urlEncode) {
-            Util.urlEncode(str, buf);
+         int value = key.getInt(session);
+         if (conversion == 0) {
+            CharSequence str = format(session, value);
+            if (urlEncode) {
+               Util.urlEncode(str, buf);
+            } else {
+               Util.string2byteBuf(str, buf);
+            }
+            return;
+         }
+         long magnitude = magnitude(value);
+         int digits = digits(magnitude);
+         int length = length(value, digits);
+         for (int i = 0; i < length; ++i) {
+            char c = charAt(value, magnitude, digits, length, i);
+            buf.writeByte(urlEncode && c == ' ' ? '+' : c);
+         }
+      }
+
+      private CharSequence format(Session session, int value) {
+         FormatterResource resource = session.getResource(formatterKey);
+         resource.builder.setLength(0);
+         resource.formatter.format(format, value);
+         return resource.builder;
+      }
+
+      private int radix() {
+         return conversion == 'd' ? 10 : conversion == 'o' ? 8 : 16;
+      }
+
+      private long magnitude(int value) {
+         // like Formatter, octal and hexadecimal conversions treat the value as unsigned
+         return conversion == 'd' ? Math.abs((long) value) : Integer.toUnsignedLong(value);
+      }
+
+      private int digits(long magnitude) {
+         int radix = radix();
+         int digits = 1;
+         while (magnitude >= radix) {
+            magnitude /= radix;
+            ++digits;
+         }
+         return digits;
+      }
+
+      private int length(int value, int digits) {
+         int content = conversion == 'd' && value < 0 ? digits + 1 : digits;
+         return Math.max(width, content);
+      }
+
+      private char charAt(int value, long magnitude, int digits, int length, int index) {
+         boolean negative = conversion == 'd' && value < 0;
+         int content = negative ? digits + 1 : digits;
+         int padding = length - content;
+         if (leftJustify) {
+            if (index >= content) {
+               return ' ';
+            }
+         } else if (zeroPad) {
+            if (negative && index == 0) {
+               return '-';
+            } else if (index < length - digits) {
+               return '0';
+            }
+            return digit(magnitude, digits - 1 - (index - (length - digits)));
+         } else if (index < padding) {
+            return ' ';
          } else {
-            Util.string2byteBuf(str, buf);
+            index -= padding;
+         }
+         if (negative) {
+            if (index == 0) {
+               return '-';
+            }
+            --index;
+         }
+         return digit(magnitude, digits - 1 - index);
+      }
+
+      private char digit(long magnitude, int position) {
+         int radix = radix();
+         for (int i = 0; i < position; ++i) {
+            magnitude /= radix;
+         }
+         int digit = (int) (magnitude % radix);
+         char c = Character.forDigit(digit, radix);
+         return conversion == 'X' ? Character.toUpperCase(c) : c;
+      }
+
+      @Override
+      public void reserve(Session session) {
+         if (formatterKey != null) {
+            session.declareResource(formatterKey, FormatterResource::new);
          }
       }
    }
 
+   private static class FormatterResource implements Session.Resource {
+      private final StringBuilder builder = new StringBuilder();
+      private final Formatter formatter = new Formatter(builder);
+   }
+
+   private enum Encoding {
+      NONE {
+         @Override
+         void encode(CharSequence str, StringBuilder sb) {
+            sb.append(str);
+         }
+
+         @Override
+         void encode(CharSequence str, ByteBuf buf) {
+            Util.string2byteBuf(str, buf);
+         }
+      },
+      URL {
+         @Override
+         void encode(CharSequence str, StringBuilder sb) {
+            Util.urlEncode(str, sb);
+         }
+
+         @Override
+         void encode(CharSequence str, ByteBuf buf) {
+            Util.urlEncode(str, buf);
+         }
+      },
+      BASE64_ENCODE {
+         @Override
+         void encode(CharSequence str, StringBuilder sb) {
+            Util.base64Encode(str, sb);
+         }
+
+         @Override
+         void encode(CharSequence str, ByteBuf buf) {
+            Util.base64Encode(str, buf);
+         }
+      },
+      BASE64_DECODE {
+         @Override
+         void encode(CharSequence str, StringBuilder sb) {
+            sb.append(new String(Base64.getDecoder().decode(str.toString()), StandardCharsets.UTF_8));
+         }
+
+         @Override
+         void encode(CharSequence str, ByteBuf buf) {
+            // the decoded bytes are already UTF-8 encoded string
+            Util.base64Decode(str, buf);
+         }
+      };
+
+      abstract void encode(CharSequence str, StringBuilder sb);
+
+      abstract void encode(CharSequence str, ByteBuf buf);
+   }
+
    private static class VarComponent implements Component {
       private final ReadAccess key;
       private final boolean allowUnset;
       private final SerializableFunction<String, String> transform;
+      private final Encoding encoding;
 
-      VarComponent(ReadAccess key, boolean allowUnset, SerializableFunction<String, String> transform) {
+      VarComponent(ReadAccess key, boolean allowUnset, SerializableFunction<String, String> transform, Encoding encoding) {
          this.key = key;
          this.allowUnset = allowUnset;
          this.transform = transform;
+         this.encoding = encoding;
       }
 
       @Override
@@ -261,11 +457,7 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
          } else {
             switch (var.type()) {
                case OBJECT:
-                  String str = Util.prettyPrintObject(var.objectValue(session));
-                  if (transform != null) {
-                     str = transform.apply(str);
-                  }
-                  sb.append(str);
+                  encoding.encode(stringValue(var.objectValue(session)), sb);
                   break;
                case INTEGER:
                   sb.append(var.intValue(session));
@@ -286,11 +478,7 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
                case OBJECT:
                   Object o = var.objectValue(session);
                   if (o != null) {
-                     CharSequence str = o instanceof CharSequence ? (CharSequence) o : Util.prettyPrintObject(o);
-                     if (transform != null) {
-                        str = transform.apply(str.toString());
-                     }
-                     Util.string2byteBuf(str, buf);
+                     encoding.encode(stringValue(o), buf);
                   } else {
                      Util.string2byteBuf("null", buf);
                   }
@@ -303,6 +491,11 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
             }
          }
       }
+
+      private CharSequence stringValue(Object o) {
+         CharSequence str = o instanceof CharSequence ? (CharSequence) o : Util.prettyPrintObject(o);
+         return transform != null ? transform.apply(str.toString()) : str;
+      }
    }
 
    /**
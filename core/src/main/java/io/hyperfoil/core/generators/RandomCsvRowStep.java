@@ -28,15 +28,18 @@ import io.hyperfoil.core.session.SessionFactory;
 /**
  * A class that will initialise, build and randomly select a single row of data.
  * The row is exposed as columns.
+ * <p>
+ * Only the mapped columns are kept, in an {@link IndexedTable} that is memory-mapped both on the controller
+ * and on the agents; strings are created only for the selected row.
  */
 public class RandomCsvRowStep implements Step {
-   private final String[][] rows;
+   private final IndexedTable rows;
    private final ObjectAccess[] columnVars;
 
    // Use just for testing
    private final transient IntUnaryOperator rowSelector;
 
-   public RandomCsvRowStep(String[][] rows, ObjectAccess[] columnVars, IntUnaryOperator rowSelector) {
+   public RandomCsvRowStep(IndexedTable rows, ObjectAccess[] columnVars, IntUnaryOperator rowSelector) {
       this.rows = rows;
       this.columnVars = columnVars;
       this.rowSelector = rowSelector;
@@ -44,7 +47,13 @@ public class RandomCsvRowStep implements Step {
 
    // Visible for testing
    String[][] rows() {
-      return rows;
+      String[][] copy = new String[rows.rows()][rows.columns()];
+      for (int i = 0; i < copy.length; ++i) {
+         for (int j = 0; j < copy[i].length; ++j) {
+            copy[i][j] = rows.get(i, j);
+         }
+      }
+      return copy;
    }
 
    // Visible for testing
@@ -54,21 +63,21 @@ public class RandomCsvRowStep implements Step {
 
    @Override
    public boolean invoke(Session session) {
-      if (rows.length == 0) {
+      final int numRows = rows.rows();
+      if (numRows == 0) {
          throw new RuntimeException("No rows available - was the CSV file empty?");
       }
       // columns provided by csv
       final var rowSelector = this.rowSelector;
       final int rndRow;
       if (rowSelector == null) {
-         rndRow = ThreadLocalRandom.current().nextInt(rows.length);
+         rndRow = ThreadLocalRandom.current().nextInt(numRows);
       } else {
-         rndRow = rowSelector.applyAsInt(rows.length);
+         rndRow = rowSelector.applyAsInt(numRows);
       }
-      final var row = rows[rndRow];
       final var columnVars = this.columnVars;
       for (int i = 0; i < columnVars.length; i++) {
-         columnVars[i].setObject(session, row[i]);
+         columnVars[i].setObject(session, rows.get(rndRow, i));
       }
       return true;
    }
@@ -98,7 +107,7 @@ public class RandomCsvRowStep implements Step {
 
          try (InputStream inputStream = Locator.current().benchmark().data().readFile(file)) {
             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            ArrayList<String[]> records = new ArrayList<>();
+            IndexedTable.Builder table = IndexedTable.builder(srcIndex.length);
             String line;
             ArrayList<String> currentRecord = new ArrayList<>();
             StringBuilder sb = new StringBuilder();
@@ -161,11 +170,11 @@ public class RandomCsvRowStep implements Step {
                   String[] arr = new String[srcIndex.length];
                   Arrays.setAll(arr, i -> srcIndex[i] < currentRecord.size() ? currentRecord.get(srcIndex[i]) : null);
                   currentRecord.clear();
-                  records.add(arr);
+                  table.addRow(arr);
                }
                ++lineNumber;
             }
-            String[][] rows = records.toArray(new String[0][]);
+            IndexedTable rows = table.build();
             // We won't throw an error even if the CSV is empty - this can happen during edit in CLI when we expect
             // to reuse the data on server side.
 
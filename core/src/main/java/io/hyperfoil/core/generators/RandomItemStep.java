@@ -6,7 +6,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Array;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -33,11 +32,17 @@ import io.hyperfoil.core.session.SessionFactory;
 public class RandomItemStep implements Step {
    private final ReadAccess fromVar;
    private final WeightedGenerator generator;
+   private final IndexedTable table;
    private final ObjectAccess toVar;
 
    public RandomItemStep(ReadAccess fromVar, WeightedGenerator generator, ObjectAccess toVar) {
+      this(fromVar, generator, null, toVar);
+   }
+
+   public RandomItemStep(ReadAccess fromVar, WeightedGenerator generator, IndexedTable table, ObjectAccess toVar) {
       this.fromVar = fromVar;
       this.generator = generator;
+      this.table = table;
       this.toVar = toVar;
    }
 
@@ -48,6 +53,12 @@ public class RandomItemStep implements Step {
       if (generator != null) {
          assert fromVar == null;
          item = generator.randomItem();
+      } else if (table != null) {
+         assert fromVar == null;
+         if (table.rows() == 0) {
+            throw new IllegalStateException("No items available - was the file empty?");
+         }
+         item = table.get(random.nextInt(table.rows()), 0);
       } else {
          Object data = fromVar.getObject(session);
          if (data instanceof ObjectVar[]) {
@@ -126,32 +137,30 @@ public class RandomItemStep implements Step {
          } else if (usedProperties == 0) {
             throw new BenchmarkDefinitionException("randomItem must define one of: `fromVar`, `list` or `file`");
          }
-         WeightedGenerator generator;
+         WeightedGenerator generator = null;
+         IndexedTable table = null;
          if (weighted != null) {
             generator = weighted.build();
          } else if (file != null) {
-            List<String> list = new ArrayList<>();
+            IndexedTable.Builder builder = IndexedTable.builder(1);
             try (InputStream inputStream = Locator.current().benchmark().data().readFile(file)) {
                try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
                   String line;
                   while ((line = reader.readLine()) != null) {
                      if (!line.isEmpty()) {
-                        list.add(line);
+                        builder.addRow(line);
                      }
                   }
                }
             } catch (IOException e) {
                throw new BenchmarkDefinitionException("Cannot load file `" + file + "` for randomItem.", e);
             }
-            generator = new WeightedGenerator(null, list.toArray(new String[0]));
-         } else {
-            if (fromVar.isEmpty()) {
-               throw new BenchmarkDefinitionException("fromVar is empty");
-            }
-            generator = null;
+            table = builder.build();
+         } else if (fromVar.isEmpty()) {
+            throw new BenchmarkDefinitionException("fromVar is empty");
          }
 
-         return Collections.singletonList(new RandomItemStep(SessionFactory.readAccess(fromVar), generator,
+         return Collections.singletonList(new RandomItemStep(SessionFactory.readAccess(fromVar), generator, table,
                SessionFactory.objectAccess(toVar)));
       }
 
@@ -190,7 +199,7 @@ public class RandomItemStep implements Step {
       }
 
       /**
-       * This file will be loaded into memory and the step will choose on line as the item.
+       * This file will be loaded into a memory-mapped table and the step will choose one line as the item.
        *
        * @param file Path to the file.
        * @return Self.
@@ -0,0 +1,129 @@
+package io.hyperfoil.core.handlers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.decoder.DecoderJNI;
+
+import io.netty.buffer.ByteBuf;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Brotli decoder using the native <a href="https://github.com/hyperxpro/Brotli4j">Brotli4j</a> library.
+ * The library is an optional dependency: the decoder is available only when it is present on the classpath
+ * together with the native bindings for the platform.
+ */
+class BrotliStreamDecoder implements StreamDecoder {
+   private static final Logger log = LogManager.getLogger(BrotliStreamDecoder.class);
+   private static final int INPUT_BUFFER_SIZE = 8192;
+   private static final boolean AVAILABLE = checkAvailable();
+
+   private DecoderJNI.Wrapper wrapper;
+   private boolean used;
+   private boolean finished;
+
+   static boolean isAvailable() {
+      return AVAILABLE;
+   }
+
+   private static boolean checkAvailable() {
+      try {
+         if (Brotli4jLoader.isAvailable()) {
+            return true;
+         }
+         log.warn("Cannot load Brotli4j, 'br' content encoding is not supported.", Brotli4jLoader.getUnavailabilityCause());
+      } catch (LinkageError e) {
+         log.debug("Brotli4j is not on classpath, 'br' content encoding is not supported.");
+      }
+      return false;
+   }
+
+   BrotliStreamDecoder() {
+      if (!AVAILABLE) {
+         throw new IllegalStateException("Brotli4j is not available");
+      }
+      wrapper = create();
+   }
+
+   private static DecoderJNI.Wrapper create() {
+      try {
+         return new DecoderJNI.Wrapper(INPUT_BUFFER_SIZE);
+      } catch (IOException e) {
+         throw new IllegalStateException("Cannot create Brotli decoder", e);
+      }
+   }
+
+   @Override
+   public void decode(ByteBuf data, int offset, int length, ByteBuf output, Sink sink) throws Throwable {
+      used = true;
+      int end = offset + length;
+      while (!finished) {
+         DecoderJNI.Status status = wrapper.getStatus();
+         switch (status) {
+            case DONE:
+               finished = true;
+               sink.accept(output, 0, true);
+               break;
+            case OK:
+               wrapper.push(0);
+               break;
+            case NEEDS_MORE_INPUT:
+               if (wrapper.hasOutput()) {
+                  pull(output, sink);
+               }
+               if (offset >= end) {
+                  return;
+               }
+               ByteBuffer input = wrapper.getInputBuffer();
+               input.clear();
+               int read = Math.min(input.remaining(), end - offset);
+               input.limit(read);
+               data.getBytes(offset, input);
+               offset += read;
+               wrapper.push(read);
+               break;
+            case NEEDS_MORE_OUTPUT:
+               pull(output, sink);
+               break;
+            default:
+               throw new IllegalStateException("Brotli decoder failed with status " + status);
+         }
+      }
+      // trailing data after the end of stream are ignored
+   }
+
+   private void pull(ByteBuf output, Sink sink) throws Throwable {
+      // The buffer is a view of native memory, valid until next push/pull
+      ByteBuffer decoded = wrapper.pull();
+      int limit = decoded.limit();
+      while (decoded.hasRemaining()) {
+         int length = Math.min(decoded.remaining(), output.capacity());
+         decoded.limit(decoded.position() + length);
+         output.setBytes(0, decoded);
+         decoded.limit(limit);
+         sink.accept(output, length, false);
+      }
+   }
+
+   @Override
+   public void reset() {
+      finished = false;
+      if (used) {
+         // The decoder cannot be reused for another stream
+         destroy();
+         wrapper = create();
+         used = false;
+      }
+   }
+
+   @Override
+   public void destroy() {
+      if (wrapper != null) {
+         wrapper.destroy();
+         wrapper = null;
+      }
+   }
+}
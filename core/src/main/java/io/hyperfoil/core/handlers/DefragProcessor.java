@@ -9,9 +9,11 @@ import io.hyperfoil.api.session.ResourceUtilizer;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
-public class DefragProcessor extends Processor.BaseDelegating implements ResourceUtilizer, Session.ResourceKey<DefragProcessor.Context> {
+public class DefragProcessor extends Processor.BaseDelegating implements ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(DefragProcessor.class);
 
+   private final Session.ResourceKey<Context> key = new Session.ResourceKey<>();
+
    public static Processor of(Processor delegate, boolean fragmented) {
       return fragmented ? new DefragProcessor(delegate) : delegate;
    }
@@ -22,7 +24,7 @@ public class DefragProcessor extends Processor.BaseDelegating implements Resourc
 
    @Override
    public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       if (isLastPart && !ctx.isBuffering()) {
          delegate.process(session, data, offset, length, true);
          return;
@@ -40,7 +42,7 @@ public class DefragProcessor extends Processor.BaseDelegating implements Resourc
       // Note: contrary to the recommended pattern the Context won't reserve all objects ahead, the CompositeByteBuf
       // will be allocated only if needed (and only once). This is necessary since we don't know the type of allocator
       // that is used for the received buffers ahead.
-      session.declareResource(this, Context::new);
+      session.declareResource(key, Context::new);
    }
 
    static class Context implements Session.Resource {
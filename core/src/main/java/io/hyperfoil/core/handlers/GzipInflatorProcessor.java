@@ -1,6 +1,7 @@
 package io.hyperfoil.core.handlers;
 
 import java.nio.ByteBuffer;
+import java.util.Locale;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
@@ -22,7 +23,8 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 // Based on java.util.zip.GZIPInputStream
-public class GzipInflatorProcessor extends MultiProcessor implements ResourceUtilizer, Session.ResourceKey<GzipInflatorProcessor.InflaterResource> {
+// Besides gzip this handles other encodings, too, using a StreamDecoder
+public class GzipInflatorProcessor extends MultiProcessor implements ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(GzipInflatorProcessor.class);
    private static final int FHCRC = 2;    // Header CRC
    private static final int FEXTRA = 4;    // Extra field
@@ -30,50 +32,106 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
    private static final int FCOMMENT = 16;   // File comment
 
    private final ReadAccess encodingVar;
+   private final String transferSizeKey;
+   private final Session.ResourceKey<InflaterResource> key = new Session.ResourceKey<>();
 
    public GzipInflatorProcessor(Processor[] processors, ReadAccess encodingVar) {
+      this(processors, encodingVar, null);
+   }
+
+   public GzipInflatorProcessor(Processor[] processors, ReadAccess encodingVar, String transferSizeKey) {
       super(processors);
       this.encodingVar = encodingVar;
+      this.transferSizeKey = transferSizeKey;
+   }
+
+   /**
+    * @param encoding Value of <code>Content-Encoding</code> or <code>Transfer-Encoding</code> header.
+    * @return True if the encoding can be decoded by this processor.
+    */
+   public static boolean isSupported(String encoding) {
+      switch (encoding.toLowerCase(Locale.ROOT)) {
+         case "gzip":
+            return true;
+         case "br":
+            return BrotliStreamDecoder.isAvailable();
+         case "zstd":
+            return ZstdStreamDecoder.isAvailable();
+         default:
+            return false;
+      }
+   }
+
+   @Override
+   public void before(Session session) {
+      // the resource is reused for subsequent responses
+      session.getResource(key).state = State.UNINITIALIZED;
+      super.before(session);
    }
 
    @Override
    public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
       Session.Var var = encodingVar.getVar(session);
-      InflaterResource resource = session.getResource(this);
+      InflaterResource resource = session.getResource(key);
       switch (resource.state) {
          case NOT_ENCRYPTED:
+            recordDecoded(session, length);
             super.process(session, data, offset, length, isLastPart);
             // intentional fallthrough
          case INVALID:
             return;
          case UNINITIALIZED:
-            if (var.isSet() && "gzip".equalsIgnoreCase(var.objectValue(session).toString())) {
+            String encoding = var.isSet() ? var.objectValue(session).toString() : null;
+            if ("gzip".equalsIgnoreCase(encoding)) {
                resource.state = State.FIRST_4_BYTES;
                // make sure we're starting clear
                resource.inflater.reset();
+            } else if ("br".equalsIgnoreCase(encoding) || "zstd".equalsIgnoreCase(encoding)) {
+               if (!resource.selectDecoder(session, encoding)) {
+                  return;
+               }
             } else {
                resource.state = State.NOT_ENCRYPTED;
+               recordDecoded(session, length);
+               super.process(session, data, offset, length, isLastPart);
                return;
             }
       }
       resource.process(session, data, offset, length);
    }
 
+   private void recordDecoded(Session session, int length) {
+      if (transferSizeKey == null) {
+         return;
+      }
+      Request request = session.currentRequest();
+      if (request != null) {
+         request.statistics().update(transferSizeKey, request.startTimestampMillis(),
+               TransferSizeRecorder.Stats::new, (s, l) -> s.decoded += l, length);
+      }
+   }
+
    @Override
    public void reserve(Session session) {
-      session.declareResource(this, InflaterResource::new);
+      session.declareResource(key, InflaterResource::new);
    }
 
-   public class InflaterResource implements Session.Resource {
+   public class InflaterResource implements Session.Resource, StreamDecoder.Sink {
       private final Inflater inflater = new Inflater(true);
       private State state = State.UNINITIALIZED;
       private final byte[] buf = new byte[512];
       private int bufSize = 0;
       private final ByteBuf output;
       private final ByteBuffer nioOutput;
+      // Decoders are created lazily and at most one per encoding
+      private StreamDecoder brotliDecoder;
+      private StreamDecoder zstdDecoder;
+      private StreamDecoder decoder;
+      private Session session;
 
       private InflaterResource() {
-         output = ByteBufAllocator.DEFAULT.buffer(512);
+         // direct buffer can be passed to native decoders without copying
+         output = ByteBufAllocator.DEFAULT.directBuffer(512, 512);
          output.writerIndex(output.capacity());
          assert output.nioBufferCount() == 1;
          nioOutput = output.nioBuffer();
@@ -82,14 +140,62 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
       @Override
       public void destroy() {
          output.release();
+         if (brotliDecoder != null) {
+            brotliDecoder.destroy();
+         }
+         if (zstdDecoder != null) {
+            zstdDecoder.destroy();
+         }
+      }
+
+      private boolean selectDecoder(Session session, String encoding) {
+         boolean brotli = "br".equalsIgnoreCase(encoding);
+         if (!isSupported(encoding)) {
+            log.error("#{} Response uses {} encoding but the library for decoding it is not available.", session.uniqueId(), encoding);
+            invalidate(session);
+            return false;
+         }
+         if (brotli) {
+            if (brotliDecoder == null) {
+               brotliDecoder = new BrotliStreamDecoder();
+            }
+            decoder = brotliDecoder;
+         } else {
+            if (zstdDecoder == null) {
+               zstdDecoder = new ZstdStreamDecoder();
+            }
+            decoder = zstdDecoder;
+         }
+         decoder.reset();
+         state = State.DECODER;
+         return true;
+      }
+
+      @Override
+      public void accept(ByteBuf output, int length, boolean isLastPart) {
+         recordDecoded(session, length);
+         GzipInflatorProcessor.super.process(session, output, 0, length, isLastPart);
       }
 
       public void process(Session session, ByteBuf data, int offset, int length) {
          int read;
-         while (length > 0) {
+         // the inflater can hold more decompressed data even when all input was consumed
+         boolean pendingOutput = false;
+         while (length > 0 || pendingOutput) {
             switch (state) {
                case INVALID:
                   return;
+               case DECODER:
+                  this.session = session;
+                  try {
+                     decoder.decode(data, offset, length, output, this);
+                  } catch (Throwable t) {
+                     log.error(new FormattedMessage("#{} Failed to decode data.", session.uniqueId()), t);
+                     invalidate(session);
+                  } finally {
+                     this.session = null;
+                  }
+                  return;
                case FIRST_4_BYTES:
                   read = Math.min(length, 4 - bufSize);
                   data.getBytes(offset, buf, bufSize, read);
@@ -179,6 +285,7 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
                case DATA:
                   try {
                      int n;
+                     pendingOutput = false;
                      while ((n = inflater.inflate(nioOutput)) == 0) {
                         if (inflater.needsDictionary()) {
                            log.error("#{} decompression requires a pre-set dictionary but it is not available.", session.uniqueId());
@@ -209,6 +316,8 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
                      if (n != 0) {
                         nioOutput.position(0).limit(output.capacity());
                         boolean finished = inflater.finished();
+                        pendingOutput = !finished && n == output.capacity();
+                        recordDecoded(session, n);
                         GzipInflatorProcessor.super.process(session, output, 0, n, finished);
                         if (finished) {
                            offset -= inflater.getRemaining();
@@ -262,6 +371,7 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
       UNINITIALIZED,
       NOT_ENCRYPTED,
       INVALID,
+      DECODER,
       FIRST_4_BYTES,
       SKIP_6_BYTES,
       CHECK_EXTRA_FIELDS,
@@ -274,7 +384,8 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
    }
 
    /**
-    * Decompresses a GZIP data and pipes the output to delegated processors. <br>
+    * Decompresses a GZIP, Brotli (<code>br</code>) or Zstandard (<code>zstd</code>) data and pipes the output
+    * to delegated processors. Brotli and Zstandard use the native Brotli4j and zstd-jni libraries. <br>
     * If the data contains multiple concatenated GZIP streams it will pipe multiple decompressed objects
     * with <code>isLastPart</code> set to true at the end of each stream.
     */
@@ -282,6 +393,7 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
    @Name("gzipInflator")
    public static class Builder extends MultiProcessor.Builder<Void, Builder> implements Processor.Builder {
       private Object encodingVar;
+      private String transferSizeKey;
 
       public Builder() {
          super(null);
@@ -290,7 +402,7 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
       @Override
       public Processor build(boolean fragmented) {
          Processor[] processors = buildProcessors(fragmented);
-         return new GzipInflatorProcessor(processors, SessionFactory.readAccess(encodingVar));
+         return new GzipInflatorProcessor(processors, SessionFactory.readAccess(encodingVar), transferSizeKey);
       }
 
       /**
@@ -303,5 +415,16 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
          this.encodingVar = var;
          return this;
       }
+
+      /**
+       * Custom metric (shared with <code>transferSizeRecorder</code>) where the size of decoded response body is recorded.
+       *
+       * @param key Name of the custom metric.
+       * @return Self.
+       */
+      public Builder transferSizeKey(String key) {
+         this.transferSizeKey = key;
+         return this;
+      }
    }
 }
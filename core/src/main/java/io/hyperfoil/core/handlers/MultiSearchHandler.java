@@ -0,0 +1,267 @@
+package io.hyperfoil.core.handlers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.MappingListBuilder;
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.util.Trie;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ByteProcessor;
+
+/**
+ * Searches for multiple begin-end pairs in a single pass over the data, regardless of the number of pairs.
+ * Each pair behaves as in {@link SearchHandler}: the bytes between <code>begin</code> and <code>end</code>
+ * are passed to the pair's processor, and search for <code>begin</code> starts again after the <code>end</code>.
+ * Does not handle the intricacies of UTF-8 mapping same strings to different bytes.
+ */
+public class MultiSearchHandler extends Session.ResourceKey<MultiSearchHandler.Context> implements Processor, ResourceUtilizer {
+   private final Trie.Automaton automaton;
+   // indexed by term, values are indices of pairs
+   private final int[][] beginPairs;
+   private final int[][] endPairs;
+   private final Processor[] processors;
+
+   public MultiSearchHandler(String[] begin, String[] end, Processor[] processors) {
+      if (begin.length != end.length || begin.length != processors.length) {
+         throw new IllegalArgumentException("Mismatched number of patterns and processors");
+      }
+      Map<String, List<Integer>> beginTerms = new LinkedHashMap<>();
+      Map<String, List<Integer>> endTerms = new LinkedHashMap<>();
+      Map<String, Integer> terms = new LinkedHashMap<>();
+      for (int i = 0; i < begin.length; ++i) {
+         if (begin[i].isEmpty() || end[i].isEmpty()) {
+            throw new IllegalArgumentException("Patterns must not be empty");
+         }
+         beginTerms.computeIfAbsent(begin[i], t -> new ArrayList<>()).add(i);
+         endTerms.computeIfAbsent(end[i], t -> new ArrayList<>()).add(i);
+         terms.putIfAbsent(begin[i], terms.size());
+         terms.putIfAbsent(end[i], terms.size());
+      }
+      this.automaton = new Trie(terms.keySet().toArray(new String[0])).compile();
+      this.beginPairs = new int[terms.size()][];
+      this.endPairs = new int[terms.size()][];
+      beginTerms.forEach((term, pairs) -> beginPairs[terms.get(term)] = pairs.stream().mapToInt(Integer::intValue).toArray());
+      endTerms.forEach((term, pairs) -> endPairs[terms.get(term)] = pairs.stream().mapToInt(Integer::intValue).toArray());
+      this.processors = processors;
+   }
+
+   @Override
+   public void before(Session session) {
+      Context ctx = session.getResource(this);
+      ctx.reset();
+      for (Processor p : processors) {
+         p.before(session);
+      }
+   }
+
+   @Override
+   public void process(Session session, ByteBuf data, int offset, int length, boolean isLast) {
+      Context ctx = session.getResource(this);
+      ctx.add(data, offset, length);
+      ctx.session = session;
+      ctx.partStart = ctx.position;
+      data.forEachByte(offset, length, ctx);
+      ctx.session = null;
+   }
+
+   @Override
+   public void after(Session session) {
+      Context ctx = session.getResource(this);
+      // release buffers
+      ctx.reset();
+      for (Processor p : processors) {
+         p.after(session);
+      }
+   }
+
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(this, Context::new);
+   }
+
+   class Context extends BaseSearchContext implements ByteProcessor {
+      // absolute position in the input, after the last processed byte
+      long position;
+      long partStart;
+      int state;
+      Session session;
+      final boolean[] inside = new boolean[processors.length];
+      // matches starting before this position are ignored (these overlap with the previous match)
+      final long[] lookupStart = new long[processors.length];
+      final int[] markPart = new int[processors.length];
+      final int[] markPos = new int[processors.length];
+
+      @Override
+      public boolean process(byte value) {
+         state = automaton.next(state, value);
+         ++position;
+         int[] matches = automaton.matches(state);
+         if (matches != null) {
+            for (int term : matches) {
+               long matchStart = position - automaton.termLength(term);
+               int[] pairs = beginPairs[term];
+               if (pairs != null) {
+                  for (int pair : pairs) {
+                     if (!inside[pair] && matchStart >= lookupStart[pair]) {
+                        inside[pair] = true;
+                        lookupStart[pair] = position;
+                        markPart[pair] = currentPart;
+                        markPos[pair] = currentIndex();
+                     }
+                  }
+               }
+               pairs = endPairs[term];
+               if (pairs != null) {
+                  for (int pair : pairs) {
+                     if (inside[pair] && matchStart >= lookupStart[pair]) {
+                        inside[pair] = false;
+                        lookupStart[pair] = position;
+                        fireProcessor(pair, automaton.termLength(term));
+                     }
+                  }
+               }
+            }
+         }
+         return true;
+      }
+
+      private int currentIndex() {
+         return startIndices[currentPart] + (int) (position - partStart);
+      }
+
+      private void fireProcessor(int pair, int endLength) {
+         Processor processor = processors[pair];
+         int endPart = currentPart;
+         int endPos = currentIndex() - endLength;
+         while (endPos < startIndices[endPart]) {
+            if (endPart == 0) {
+               endPos = startIndices[0];
+               break;
+            }
+            int missing = startIndices[endPart] - endPos;
+            endPart--;
+            endPos = endIndices[endPart] - missing;
+         }
+         while (markPart[pair] < endPart) {
+            ByteBuf data = parts[markPart[pair]];
+            // if the begin ends with part, we'll skip the 0-length process call
+            int length = endIndices[markPart[pair]] - markPos[pair];
+            if (length > 0) {
+               processor.process(session, data, markPos[pair], length, false);
+            }
+            markPart[pair]++;
+            markPos[pair] = startIndices[markPart[pair]];
+         }
+         processor.process(session, parts[endPart], markPos[pair], endPos - markPos[pair], true);
+      }
+
+      @Override
+      void shiftParts() {
+         super.shiftParts();
+         for (int i = 0; i < markPart.length; ++i) {
+            --markPart[i];
+            if (markPart[i] < 0) {
+               // the beginning of the match is lost
+               markPart[i] = 0;
+               markPos[i] = startIndices[0];
+            }
+         }
+      }
+
+      @Override
+      void reset() {
+         super.reset();
+         position = 0;
+         state = automaton.initialState();
+         for (int i = 0; i < inside.length; ++i) {
+            inside[i] = false;
+            lookupStart[i] = 0;
+            markPart[i] = -1;
+            markPos[i] = -1;
+         }
+      }
+   }
+
+   /**
+    * Searches for multiple patterns in a single pass over the data. For each pair of <code>begin</code>
+    * and <code>end</code> the bytes between these are passed to the processors of that pair.
+    */
+   @MetaInfServices(Processor.Builder.class)
+   @Name("multiSearch")
+   public static class Builder implements Processor.Builder, MappingListBuilder<PatternBuilder> {
+      private final List<PatternBuilder> patterns = new ArrayList<>();
+
+      /**
+       * Pair of begin and end patterns with processors.
+       *
+       * @return Builder.
+       */
+      @Override
+      public PatternBuilder addItem() {
+         PatternBuilder pattern = new PatternBuilder();
+         patterns.add(pattern);
+         return pattern;
+      }
+
+      @Override
+      public Processor build(boolean fragmented) {
+         if (patterns.isEmpty()) {
+            throw new BenchmarkDefinitionException("No patterns defined.");
+         }
+         String[] begin = new String[patterns.size()];
+         String[] end = new String[patterns.size()];
+         Processor[] processors = new Processor[patterns.size()];
+         for (int i = 0; i < patterns.size(); ++i) {
+            PatternBuilder pattern = patterns.get(i);
+            if (pattern.begin == null || pattern.begin.isEmpty() || pattern.end == null || pattern.end.isEmpty()) {
+               throw new BenchmarkDefinitionException("Both begin and end must be set and not empty.");
+            }
+            begin[i] = pattern.begin;
+            end[i] = pattern.end;
+            // the matched data can span multiple parts even if the input is not fragmented
+            processors[i] = pattern.buildSingle(true);
+         }
+         return new MultiSearchHandler(begin, end, processors);
+      }
+   }
+
+   public static class PatternBuilder extends MultiProcessor.Builder<Void, PatternBuilder> {
+      private String begin;
+      private String end;
+
+      public PatternBuilder() {
+         super(null);
+      }
+
+      /**
+       * Pattern preceding the searched data.
+       *
+       * @param begin String, matched as UTF-8 bytes.
+       * @return Self.
+       */
+      public PatternBuilder begin(String begin) {
+         this.begin = begin;
+         return this;
+      }
+
+      /**
+       * Pattern following the searched data.
+       *
+       * @param end String, matched as UTF-8 bytes.
+       * @return Self.
+       */
+      public PatternBuilder end(String end) {
+         this.end = end;
+         return this;
+      }
+   }
+}
@@ -11,7 +11,7 @@ import io.hyperfoil.api.session.ResourceUtilizer;
  * Simple pattern (no regexp) search based on Rabin-Karp algorithm.
  * Does not handle the intricacies of UTF-8 mapping same strings to different bytes.
  */
-public class SearchHandler implements Processor, ResourceUtilizer, Session.ResourceKey<SearchHandler.Context> {
+public class SearchHandler extends Session.ResourceKey<SearchHandler.Context> implements Processor, ResourceUtilizer {
    private final byte[] begin, end;
    private final int beginHash, endHash;
    private final int beginCoef, endCoef;
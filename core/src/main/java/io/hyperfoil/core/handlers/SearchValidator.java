@@ -12,7 +12,7 @@ import io.hyperfoil.api.session.ResourceUtilizer;
  * Simple pattern (no regexp) search based on Rabin-Karp algorithm.
  * Does not handle the intricacies of UTF-8 mapping same strings to different bytes.
  */
-public class SearchValidator implements Processor, ResourceUtilizer, Session.ResourceKey<SearchValidator.Context> {
+public class SearchValidator extends Session.ResourceKey<SearchValidator.Context> implements Processor, ResourceUtilizer {
    private final byte[] text;
    private final int hash;
    private final int coef;
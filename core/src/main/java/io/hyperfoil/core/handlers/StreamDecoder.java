@@ -0,0 +1,40 @@
+package io.hyperfoil.core.handlers;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Streaming decoder for compressed response bodies. Decoded data is written into an output buffer
+ * owned by the caller, so that the memory used per session does not depend on the size of the response.
+ */
+interface StreamDecoder {
+   /**
+    * Decode all the input; the sink can be invoked several times with the same output buffer.
+    *
+    * @param data   Compressed data.
+    * @param offset First byte of compressed data.
+    * @param length Number of compressed bytes.
+    * @param output Buffer with constant capacity used for decoded data.
+    * @param sink   Receives decoded data.
+    * @throws Throwable When the data cannot be decoded.
+    */
+   void decode(ByteBuf data, int offset, int length, ByteBuf output, Sink sink) throws Throwable;
+
+   /**
+    * Prepare for decoding of another stream.
+    */
+   void reset();
+
+   /**
+    * Release native resources.
+    */
+   void destroy();
+
+   interface Sink {
+      /**
+       * @param output     Buffer passed to {@link #decode(ByteBuf, int, int, ByteBuf, Sink)}.
+       * @param length     Number of decoded bytes starting at index 0.
+       * @param isLastPart True if this is the last part of decoded stream.
+       */
+      void accept(ByteBuf output, int length, boolean isLastPart);
+   }
+}
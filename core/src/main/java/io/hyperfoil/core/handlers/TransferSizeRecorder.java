@@ -31,7 +31,8 @@ public class TransferSizeRecorder implements RawBytesHandler {
    }
 
    /**
-    * Accumulates request and response sizes into custom metrics.
+    * Accumulates request and response sizes into custom metrics. Sizes are recorded as bytes on the wire;
+    * use the same key in <code>compression.transferSizeKey</code> to record size of decoded response bodies, too.
     */
    @MetaInfServices(RawBytesHandler.Builder.class)
    @Name("transferSizeRecorder")
@@ -58,13 +59,16 @@ public class TransferSizeRecorder implements RawBytesHandler {
    @MetaInfServices(StatsExtension.class)
    @JsonTypeName("transfersize")
    public static class Stats implements StatsExtension {
-      private static final String[] HEADERS = { "sent", "received" };
+      private static final String[] HEADERS = { "sent", "received", "decoded" };
       public long sent;
+      // bytes on the wire
       public long received;
+      // response body after decompression
+      public long decoded;
 
       @Override
       public boolean isNull() {
-         return sent + received == 0;
+         return sent + received + decoded == 0;
       }
 
       @Override
@@ -73,6 +77,7 @@ public class TransferSizeRecorder implements RawBytesHandler {
             Stats o = (Stats) other;
             sent += o.sent;
             received += o.received;
+            decoded += o.decoded;
          } else {
             throw new IllegalArgumentException(other.toString());
          }
@@ -84,6 +89,7 @@ public class TransferSizeRecorder implements RawBytesHandler {
             Stats o = (Stats) other;
             sent -= o.sent;
             received -= o.received;
+            decoded -= o.decoded;
          } else {
             throw new IllegalArgumentException(other.toString());
          }
@@ -93,6 +99,7 @@ public class TransferSizeRecorder implements RawBytesHandler {
       public void reset() {
          sent = 0;
          received = 0;
+         decoded = 0;
       }
 
       @Override
@@ -100,6 +107,7 @@ public class TransferSizeRecorder implements RawBytesHandler {
          Stats copy = new Stats();
          copy.sent = sent;
          copy.received = received;
+         copy.decoded = decoded;
          return copy;
       }
 
@@ -115,6 +123,8 @@ public class TransferSizeRecorder implements RawBytesHandler {
                return String.valueOf(sent);
             case "received":
                return String.valueOf(received);
+            case "decoded":
+               return String.valueOf(decoded);
             default:
                return "<unknown header: " + header + ">";
          }
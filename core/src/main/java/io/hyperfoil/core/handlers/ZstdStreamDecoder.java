@@ -0,0 +1,100 @@
+package io.hyperfoil.core.handlers;
+
+import java.nio.ByteBuffer;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.util.Native;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Zstandard decoder using the native <a href="https://github.com/luben/zstd-jni">zstd-jni</a> library.
+ * The library is an optional dependency: the decoder is available only when it is present on the classpath.
+ * <p>
+ * The input is copied into a direct buffer of constant size; the decoder's own memory is limited by the window
+ * size of the frame.
+ */
+class ZstdStreamDecoder implements StreamDecoder {
+   private static final Logger log = LogManager.getLogger(ZstdStreamDecoder.class);
+   private static final int INPUT_BUFFER_SIZE = 8192;
+   private static final boolean AVAILABLE = checkAvailable();
+
+   private final ByteBuf input;
+   private final ByteBuffer nioInput;
+   private ZstdDecompressCtx context;
+   private ByteBuf output;
+   private ByteBuffer nioOutput;
+
+   static boolean isAvailable() {
+      return AVAILABLE;
+   }
+
+   private static boolean checkAvailable() {
+      try {
+         Native.load();
+         return true;
+      } catch (NoClassDefFoundError e) {
+         log.debug("zstd-jni is not on classpath, 'zstd' content encoding is not supported.");
+      } catch (LinkageError e) {
+         log.warn("Cannot load zstd-jni, 'zstd' content encoding is not supported.", e);
+      }
+      return false;
+   }
+
+   ZstdStreamDecoder() {
+      if (!AVAILABLE) {
+         throw new IllegalStateException("zstd-jni is not available");
+      }
+      context = new ZstdDecompressCtx();
+      input = ByteBufAllocator.DEFAULT.directBuffer(INPUT_BUFFER_SIZE, INPUT_BUFFER_SIZE);
+      input.writerIndex(input.capacity());
+      nioInput = input.nioBuffer();
+   }
+
+   @Override
+   public void decode(ByteBuf data, int offset, int length, ByteBuf output, Sink sink) throws Throwable {
+      if (output != this.output) {
+         assert output.isDirect() && output.nioBufferCount() == 1;
+         this.output = output;
+         this.nioOutput = output.nioBuffer(0, output.capacity());
+      }
+      while (length > 0) {
+         int read = Math.min(length, nioInput.capacity());
+         nioInput.clear().limit(read);
+         data.getBytes(offset, nioInput);
+         nioInput.flip();
+         offset += read;
+         length -= read;
+         boolean frameDone;
+         do {
+            nioOutput.clear();
+            frameDone = context.decompressDirectByteBufferStream(nioOutput, nioInput);
+            int decoded = nioOutput.position();
+            if (decoded > 0 || frameDone) {
+               sink.accept(output, decoded, frameDone);
+            }
+            // full output means that the decoder might hold more data
+         } while (nioInput.hasRemaining() || (!frameDone && !nioOutput.hasRemaining()));
+      }
+   }
+
+   @Override
+   public void reset() {
+      if (context != null) {
+         context.reset();
+      }
+   }
+
+   @Override
+   public void destroy() {
+      if (context != null) {
+         context.close();
+         context = null;
+      }
+      input.release();
+   }
+}
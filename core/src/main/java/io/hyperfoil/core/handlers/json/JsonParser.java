@@ -41,7 +41,10 @@ public abstract class JsonParser implements Serializable {
       this.delete = delete;
       this.replace = replace;
       this.processor = processor;
+      this.selectors = parseSelectors(query);
+   }
 
+   static Selector[] parseSelectors(String query) {
       byte[] queryBytes = query.getBytes(StandardCharsets.UTF_8);
       if (queryBytes.length == 0 || queryBytes[0] != '.') {
          throw new BenchmarkDefinitionException("Path should start with '.'");
@@ -63,7 +66,7 @@ public abstract class JsonParser implements Serializable {
             for (; i < queryBytes.length; ++i) {
                if (queryBytes[i] == ']') {
                   if (endIndex < i) {
-                     arraySelector.rangeEnd = bytesToInt(queryBytes, startIndex, i);
+                     arraySelector.rangeEnd = bytesToInt(queryBytes, endIndex, i);
                      if (startIndex == endIndex) {
                         arraySelector.rangeStart = arraySelector.rangeEnd;
                      }
@@ -84,7 +87,7 @@ public abstract class JsonParser implements Serializable {
          while (queryBytes[next] == '.') ++next;
          selectors.add(new AttribSelector(Arrays.copyOfRange(queryBytes, next, queryBytes.length)));
       }
-      this.selectors = selectors.toArray(new JsonParser.Selector[0]);
+      return selectors.toArray(new JsonParser.Selector[0]);
    }
 
    protected abstract void record(Context context, Session session, ByteStream data, int offset, int length, boolean isLastPart);
@@ -112,7 +115,7 @@ public abstract class JsonParser implements Serializable {
       }
    }
 
-   private static class AttribSelector implements JsonParser.Selector {
+   static class AttribSelector implements JsonParser.Selector {
       byte[] name;
 
       AttribSelector(byte[] name) {
@@ -121,8 +124,11 @@ public abstract class JsonParser implements Serializable {
 
       boolean match(StreamQueue stream, int start, int end) {
          assert start <= end;
+         if (end - start != name.length) {
+            return false;
+         }
          // TODO: move this to StreamQueue and optimize access
-         for (int i = 0; i < name.length && i < end - start; ++i) {
+         for (int i = 0; i < name.length; ++i) {
             if (name[i] != stream.getByte(start + i)) return false;
          }
          return true;
@@ -134,7 +140,7 @@ public abstract class JsonParser implements Serializable {
       }
    }
 
-   private static class ArraySelector implements Selector {
+   static class ArraySelector implements Selector {
       int rangeStart = 0;
       int rangeEnd = Integer.MAX_VALUE;
 
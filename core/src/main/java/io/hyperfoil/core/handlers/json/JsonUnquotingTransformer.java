@@ -9,7 +9,7 @@ import io.hyperfoil.api.session.Session;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
-public class JsonUnquotingTransformer implements Transformer, Processor, ResourceUtilizer, Session.ResourceKey<JsonUnquotingTransformer.Context> {
+public class JsonUnquotingTransformer extends Session.ResourceKey<JsonUnquotingTransformer.Context> implements Transformer, Processor, ResourceUtilizer {
    private static final ByteBuf NEWLINE = Unpooled.wrappedBuffer("\n".getBytes(StandardCharsets.UTF_8));
    private static final ByteBuf BACKSPACE = Unpooled.wrappedBuffer("\b".getBytes(StandardCharsets.UTF_8));
    private static final ByteBuf FORMFEED = Unpooled.wrappedBuffer("\f".getBytes(StandardCharsets.UTF_8));
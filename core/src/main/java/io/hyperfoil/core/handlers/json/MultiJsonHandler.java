@@ -0,0 +1,477 @@
+package io.hyperfoil.core.handlers.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.MappingListBuilder;
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Evaluates multiple JSON queries in a single pass over the data. The selectors of all queries are compiled
+ * into a trie (queries with common prefix share the nodes) and the input is tokenized only once; when a value
+ * selected by a node ends the processors of all queries ending in this node are invoked.
+ * <p>
+ * Unlike {@link JsonHandler} this does not support deleting or replacing the selected values.
+ */
+public class MultiJsonHandler extends Session.ResourceKey<MultiJsonHandler.Context> implements Processor, ResourceUtilizer {
+   private static final StreamQueue.Consumer<Processor, Session> RECORD =
+         (processor, session, data, offset, length, isLastPart) ->
+               processor.process(session, ((JsonHandler.ByteBufByteStream) data).buffer, offset, length, isLastPart);
+
+   private final String[] queries;
+   private final Processor[] processors;
+   // Trie of selectors, node 0 is the root (whole document). Nodes on depth N select values
+   // in containers on level N - 1; attribute selectors have the name set, array selectors the range.
+   private final int[][] children;
+   private final byte[][] names;
+   private final int[] rangeStart;
+   private final int[] rangeEnd;
+   // indexed by node, values are indices of queries ending in this node
+   private final int[][] terminals;
+   private final int[][] nodesByDepth;
+
+   public MultiJsonHandler(String[] queries, Processor[] processors) {
+      if (queries.length != processors.length) {
+         throw new IllegalArgumentException("Mismatched number of queries and processors");
+      }
+      this.queries = queries;
+      this.processors = processors;
+
+      List<JsonParser.Selector> selectors = new ArrayList<>();
+      List<List<Integer>> children = new ArrayList<>();
+      List<List<Integer>> terminals = new ArrayList<>();
+      List<Integer> depths = new ArrayList<>();
+      selectors.add(null);
+      children.add(new ArrayList<>());
+      terminals.add(new ArrayList<>());
+      depths.add(0);
+      for (int i = 0; i < queries.length; ++i) {
+         JsonParser.Selector[] path = JsonParser.parseSelectors(queries[i]);
+         if (path.length == 0) {
+            throw new BenchmarkDefinitionException("Query '" + queries[i] + "' does not select anything.");
+         }
+         int node = 0;
+         for (JsonParser.Selector selector : path) {
+            int child = -1;
+            for (int candidate : children.get(node)) {
+               if (sameSelector(selectors.get(candidate), selector)) {
+                  child = candidate;
+                  break;
+               }
+            }
+            if (child < 0) {
+               child = selectors.size();
+               selectors.add(selector);
+               children.add(new ArrayList<>());
+               terminals.add(new ArrayList<>());
+               depths.add(depths.get(node) + 1);
+               children.get(node).add(child);
+            }
+            node = child;
+         }
+         terminals.get(node).add(i);
+      }
+
+      int nodes = selectors.size();
+      int maxDepth = depths.stream().mapToInt(Integer::intValue).max().orElse(0);
+      this.children = new int[nodes][];
+      this.names = new byte[nodes][];
+      this.rangeStart = new int[nodes];
+      this.rangeEnd = new int[nodes];
+      this.terminals = new int[nodes][];
+      this.nodesByDepth = new int[maxDepth + 1][];
+      for (int i = 0; i < nodes; ++i) {
+         this.children[i] = children.get(i).stream().mapToInt(Integer::intValue).toArray();
+         this.terminals[i] = terminals.get(i).isEmpty() ? null : terminals.get(i).stream().mapToInt(Integer::intValue).toArray();
+         JsonParser.Selector selector = selectors.get(i);
+         if (selector instanceof JsonParser.AttribSelector) {
+            names[i] = ((JsonParser.AttribSelector) selector).name;
+         } else if (selector instanceof JsonParser.ArraySelector) {
+            rangeStart[i] = ((JsonParser.ArraySelector) selector).rangeStart;
+            rangeEnd[i] = ((JsonParser.ArraySelector) selector).rangeEnd;
+         }
+      }
+      for (int depth = 0; depth <= maxDepth; ++depth) {
+         int d = depth;
+         nodesByDepth[depth] = IntStream.range(0, nodes).filter(n -> depths.get(n) == d).toArray();
+      }
+   }
+
+   private static boolean sameSelector(JsonParser.Selector s1, JsonParser.Selector s2) {
+      if (s1 instanceof JsonParser.AttribSelector && s2 instanceof JsonParser.AttribSelector) {
+         return Arrays.equals(((JsonParser.AttribSelector) s1).name, ((JsonParser.AttribSelector) s2).name);
+      } else if (s1 instanceof JsonParser.ArraySelector && s2 instanceof JsonParser.ArraySelector) {
+         JsonParser.ArraySelector a1 = (JsonParser.ArraySelector) s1;
+         JsonParser.ArraySelector a2 = (JsonParser.ArraySelector) s2;
+         return a1.rangeStart == a2.rangeStart && a1.rangeEnd == a2.rangeEnd;
+      }
+      return false;
+   }
+
+   @Override
+   public void before(Session session) {
+      for (Processor p : processors) {
+         p.before(session);
+      }
+   }
+
+   @Override
+   public void process(Session session, ByteBuf data, int offset, int length, boolean isLast) {
+      Context ctx = session.getResource(this);
+      ctx.parse(ctx.wrap(data, offset, length), session, isLast);
+   }
+
+   @Override
+   public void after(Session session) {
+      for (Processor p : processors) {
+         p.after(session);
+      }
+      Context ctx = session.getResource(this);
+      ctx.reset();
+   }
+
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(this, Context::new);
+   }
+
+   @Override
+   public String toString() {
+      return "MultiJsonHandler{" +
+            "queries=" + Arrays.toString(queries) +
+            ", processors=" + Arrays.toString(processors) +
+            '}';
+   }
+
+   class Context implements Session.Resource {
+      final StreamQueue stream = new StreamQueue(JsonParser.MAX_PARTS);
+      final ByteStream[] pool = new ByteStream[JsonParser.MAX_PARTS];
+      final JsonHandler.ByteBufByteStream actualStream;
+      // indexed by node
+      final boolean[] active = new boolean[names.length];
+      final int[] valueStartIndex = new int[names.length];
+      // indexed by level, tracked only for levels where some node can match
+      final boolean[] inArray = new boolean[nodesByDepth.length - 1];
+      final int[] currentItem = new int[nodesByDepth.length - 1];
+      int level;
+      boolean inQuote;
+      boolean inKey;
+      boolean escaped;
+      int keyStartIndex;
+      int lastCharIndex; // end of key name
+
+      Context() {
+         for (int i = 0; i < pool.length; ++i) {
+            pool[i] = new JsonHandler.ByteBufByteStream(null, this::release);
+         }
+         actualStream = new JsonHandler.ByteBufByteStream(this::retain, null);
+         reset();
+      }
+
+      ByteStream wrap(ByteBuf data, int offset, int length) {
+         actualStream.buffer = data;
+         actualStream.readerIndex = offset;
+         actualStream.writerIndex = offset + length;
+         return actualStream;
+      }
+
+      void reset() {
+         Arrays.fill(active, false);
+         Arrays.fill(valueStartIndex, -1);
+         // root node selects the whole document
+         active[0] = true;
+         level = -1;
+         inQuote = false;
+         inKey = false;
+         escaped = false;
+         keyStartIndex = -1;
+         lastCharIndex = -1;
+         stream.reset();
+      }
+
+      @Override
+      public void destroy() {
+         stream.reset();
+      }
+
+      void parse(ByteStream data, Session session, boolean isLast) {
+         int readerIndex = stream.append(data);
+         PARSING:
+         while (true) {
+            int b = stream.getByte(readerIndex++);
+            switch (b) {
+               case -1:
+                  --readerIndex;
+                  break PARSING;
+               case ' ':
+               case '\n':
+               case '\t':
+               case '\r':
+                  // ignore whitespace
+                  break;
+               case '\\':
+                  escaped = !escaped;
+                  break;
+               case '{':
+                  if (!inQuote) {
+                     ++level;
+                     inKey = isTracked(level);
+                     if (inKey) {
+                        inArray[level] = false;
+                     }
+                  }
+                  break;
+               case '}':
+                  if (!inQuote) {
+                     endValue(session, readerIndex);
+                     --level;
+                  }
+                  break;
+               case '"':
+                  if (!escaped) {
+                     inQuote = !inQuote;
+                  }
+                  break;
+               case ':':
+                  if (!inQuote) {
+                     if (keyStartIndex >= 0) {
+                        startAttribute(readerIndex);
+                     }
+                     keyStartIndex = -1;
+                     inKey = false;
+                  }
+                  break;
+               case ',':
+                  if (!inQuote) {
+                     endValue(session, readerIndex);
+                     keyStartIndex = -1;
+                     inKey = false;
+                     if (isTracked(level)) {
+                        if (inArray[level]) {
+                           ++currentItem[level];
+                           startItem(readerIndex);
+                        } else {
+                           inKey = true;
+                        }
+                     }
+                  }
+                  break;
+               case '[':
+                  if (!inQuote) {
+                     ++level;
+                     inKey = false;
+                     if (isTracked(level)) {
+                        inArray[level] = true;
+                        currentItem[level] = 0;
+                        startItem(readerIndex);
+                     }
+                  }
+                  break;
+               case ']':
+                  if (!inQuote) {
+                     endValue(session, readerIndex);
+                     keyStartIndex = -1;
+                     inKey = false;
+                     --level;
+                  }
+                  break;
+               default:
+                  lastCharIndex = readerIndex;
+                  if (inKey && keyStartIndex < 0) {
+                     keyStartIndex = readerIndex - 1;
+                  }
+            }
+            if (b != '\\') {
+               escaped = false;
+            }
+         }
+         int releaseIndex = readerIndex;
+         if (keyStartIndex >= 0) {
+            releaseIndex = keyStartIndex;
+         }
+         for (int node = 0; node < active.length; ++node) {
+            if (active[node] && valueStartIndex[node] >= 0) {
+               releaseIndex = Math.min(releaseIndex, valueStartIndex[node]);
+            }
+         }
+         stream.release(releaseIndex);
+         if (isLast && releaseIndex < readerIndex) {
+            throw new IllegalStateException("End of input while the JSON is not complete.");
+         }
+      }
+
+      private boolean isTracked(int level) {
+         return level >= 0 && level < inArray.length;
+      }
+
+      private void startAttribute(int readerIndex) {
+         if (!isTracked(level)) {
+            return;
+         }
+         for (int parent : nodesByDepth[level]) {
+            if (!active[parent]) {
+               continue;
+            }
+            for (int node : children[parent]) {
+               if (names[node] != null && matchKey(names[node])) {
+                  activate(node, readerIndex);
+               }
+            }
+         }
+      }
+
+      private void startItem(int readerIndex) {
+         int item = currentItem[level];
+         for (int parent : nodesByDepth[level]) {
+            if (!active[parent]) {
+               continue;
+            }
+            for (int node : children[parent]) {
+               if (names[node] == null && item >= rangeStart[node] && item <= rangeEnd[node]) {
+                  activate(node, readerIndex);
+               }
+            }
+         }
+      }
+
+      private boolean matchKey(byte[] name) {
+         if (lastCharIndex - keyStartIndex != name.length) {
+            return false;
+         }
+         for (int i = 0; i < name.length; ++i) {
+            if (name[i] != stream.getByte(keyStartIndex + i)) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      private void activate(int node, int readerIndex) {
+         active[node] = true;
+         if (terminals[node] != null) {
+            valueStartIndex[node] = readerIndex;
+         }
+      }
+
+      private void endValue(Session session, int readerIndex) {
+         if (!isTracked(level)) {
+            return;
+         }
+         for (int node : nodesByDepth[level + 1]) {
+            if (!active[node]) {
+               continue;
+            }
+            active[node] = false;
+            if (terminals[node] != null) {
+               record(session, node, readerIndex - 1);
+               valueStartIndex[node] = -1;
+            }
+         }
+      }
+
+      private void record(Session session, int node, int end) {
+         int start = valueStartIndex[node];
+         while (isWhitespace(stream.getByte(start))) {
+            ++start;
+         }
+         while (end > start && isWhitespace(stream.getByte(end - 1))) {
+            --end;
+         }
+         if (start == end) {
+            // empty array
+            return;
+         }
+         for (int query : terminals[node]) {
+            stream.consume(start, end, RECORD, processors[query], session, true);
+         }
+      }
+
+      private boolean isWhitespace(int b) {
+         return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+      }
+
+      ByteStream retain(ByteStream stream) {
+         for (int i = 0; i < pool.length; ++i) {
+            ByteStream pooled = pool[i];
+            if (pooled != null) {
+               pool[i] = null;
+               stream.moveTo(pooled);
+               return pooled;
+            }
+         }
+         throw new IllegalStateException();
+      }
+
+      void release(ByteStream stream) {
+         for (int i = 0; i < pool.length; ++i) {
+            if (pool[i] == null) {
+               pool[i] = stream;
+               return;
+            }
+         }
+         throw new IllegalStateException();
+      }
+   }
+
+   /**
+    * Evaluates multiple JSON queries in a single pass over the response. Each query passes the selected
+    * values to its own processors.
+    */
+   @MetaInfServices(Processor.Builder.class)
+   @Name("multiJson")
+   public static class Builder implements Processor.Builder, MappingListBuilder<QueryBuilder> {
+      private final List<QueryBuilder> queries = new ArrayList<>();
+
+      /**
+       * Query with processors.
+       *
+       * @return Builder.
+       */
+      @Override
+      public QueryBuilder addItem() {
+         QueryBuilder query = new QueryBuilder();
+         queries.add(query);
+         return query;
+      }
+
+      @Override
+      public MultiJsonHandler build(boolean fragmented) {
+         if (queries.isEmpty()) {
+            throw new BenchmarkDefinitionException("No queries defined.");
+         }
+         String[] queryStrings = new String[queries.size()];
+         Processor[] processors = new Processor[queries.size()];
+         for (int i = 0; i < queries.size(); ++i) {
+            QueryBuilder query = queries.get(i);
+            query.validate();
+            queryStrings[i] = query.query.trim();
+            processors[i] = query.buildProcessor(fragmented);
+         }
+         return new MultiJsonHandler(queryStrings, processors);
+      }
+   }
+
+   public static class QueryBuilder extends JsonParser.BaseBuilder<QueryBuilder> {
+      @Override
+      protected void validate() {
+         super.validate();
+         if (delete || replace != null) {
+            throw new BenchmarkDefinitionException("Query '" + query + "' cannot delete or replace values in multiJson.");
+         }
+      }
+
+      private Processor buildProcessor(boolean fragmented) {
+         Processor processor = processors.build(fragmented || unquote);
+         return unquote ? new JsonUnquotingTransformer(processor) : processor;
+      }
+   }
+}
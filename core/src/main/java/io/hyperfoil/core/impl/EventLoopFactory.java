@@ -1,37 +1,39 @@
 package io.hyperfoil.core.impl;
 
+import java.lang.reflect.Constructor;
+
 import io.hyperfoil.internal.Properties;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.kqueue.KQueue;
+import io.netty.channel.kqueue.KQueueDatagramChannel;
 import io.netty.channel.kqueue.KQueueEventLoopGroup;
+import io.netty.channel.kqueue.KQueueServerSocketChannel;
 import io.netty.channel.kqueue.KQueueSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 
+/**
+ * Provides event loops and channels for the Netty transport selected through <code>io.hyperfoil.netty.transport</code>.
+ * Without this property the native transport for the platform (epoll or kqueue) is used when available, otherwise
+ * Hyperfoil falls back to NIO. The io_uring transport is never selected automatically.
+ */
 public abstract class EventLoopFactory {
    public static final EventLoopFactory INSTANCE;
 
    static {
       String transport = Properties.get(Properties.NETTY_TRANSPORT, null);
       if (transport != null) {
-         switch (transport.toLowerCase()) {
-            case "nio":
-               INSTANCE = new NioEventLoopFactory();
-               break;
-            case "epoll":
-               INSTANCE = new EpollEventLoopFactory();
-               break;
-            case "kqueue":
-               INSTANCE = new KqueueEventLoopFactory();
-               break;
-            // TODO: io_uring requires kernel >= 5.9
-            default:
-               throw new IllegalStateException("Unknown transport '" + transport + "', use either 'nio' or 'epoll'.");
-         }
+         INSTANCE = forTransport(transport);
       } else {
          if (Epoll.isAvailable()) {
             INSTANCE = new EpollEventLoopFactory();
@@ -43,10 +45,55 @@ public abstract class EventLoopFactory {
       }
    }
 
+   public static EventLoopFactory forTransport(String transport) {
+      switch (transport.toLowerCase()) {
+         case "nio":
+            return new NioEventLoopFactory();
+         case "epoll":
+            return new EpollEventLoopFactory();
+         case "kqueue":
+            return new KqueueEventLoopFactory();
+         case "io_uring":
+         case "iouring":
+            Throwable cause = IoUringEventLoopFactory.unavailabilityCause();
+            if (cause != null) {
+               throw new IllegalStateException("Transport io_uring is not available: it requires Linux kernel >= 5.9 " +
+                     "and netty-incubator-transport-native-io_uring on classpath.", cause);
+            }
+            return new IoUringEventLoopFactory();
+         default:
+            throw new IllegalStateException("Unknown transport '" + transport + "', use one of 'nio', 'epoll', 'kqueue' or 'io_uring'.");
+      }
+   }
+
+   /**
+    * @param transport One of <code>nio</code>, <code>epoll</code>, <code>kqueue</code> or <code>io_uring</code>.
+    * @return True if {@link #forTransport(String)} can create a factory for this transport.
+    */
+   public static boolean isAvailable(String transport) {
+      switch (transport.toLowerCase()) {
+         case "nio":
+            return true;
+         case "epoll":
+            return Epoll.isAvailable();
+         case "kqueue":
+            return KQueue.isAvailable();
+         case "io_uring":
+         case "iouring":
+            return IoUringEventLoopFactory.unavailabilityCause() == null;
+         default:
+            return false;
+      }
+   }
+
    public abstract EventLoopGroup create(int threads);
 
    public abstract Class<? extends SocketChannel> socketChannel();
 
+   public abstract Class<? extends ServerSocketChannel> serverSocketChannel();
+
+   public abstract Class<? extends DatagramChannel> datagramChannel();
+
    private static class NioEventLoopFactory extends EventLoopFactory {
       @Override
       public EventLoopGroup create(int threads) {
@@ -57,6 +104,16 @@ public abstract class EventLoopFactory {
       public Class<? extends SocketChannel> socketChannel() {
          return NioSocketChannel.class;
       }
+
+      @Override
+      public Class<? extends ServerSocketChannel> serverSocketChannel() {
+         return NioServerSocketChannel.class;
+      }
+
+      @Override
+      public Class<? extends DatagramChannel> datagramChannel() {
+         return NioDatagramChannel.class;
+      }
    }
 
    private static class EpollEventLoopFactory extends EventLoopFactory {
@@ -69,6 +126,16 @@ public abstract class EventLoopFactory {
       public Class<? extends SocketChannel> socketChannel() {
          return EpollSocketChannel.class;
       }
+
+      @Override
+      public Class<? extends ServerSocketChannel> serverSocketChannel() {
+         return EpollServerSocketChannel.class;
+      }
+
+      @Override
+      public Class<? extends DatagramChannel> datagramChannel() {
+         return EpollDatagramChannel.class;
+      }
    }
 
    private static class KqueueEventLoopFactory extends EventLoopFactory {
@@ -81,5 +148,71 @@ public abstract class EventLoopFactory {
       public Class<? extends SocketChannel> socketChannel() {
          return KQueueSocketChannel.class;
       }
+
+      @Override
+      public Class<? extends ServerSocketChannel> serverSocketChannel() {
+         return KQueueServerSocketChannel.class;
+      }
+
+      @Override
+      public Class<? extends DatagramChannel> datagramChannel() {
+         return KQueueDatagramChannel.class;
+      }
+   }
+
+   /**
+    * The io_uring transport is still in Netty incubator and it's not bundled with Hyperfoil; we load it reflectively
+    * when <code>io.netty.incubator:netty-incubator-transport-native-io_uring</code> is present on classpath.
+    */
+   private static class IoUringEventLoopFactory extends EventLoopFactory {
+      private static final String PACKAGE = "io.netty.incubator.channel.uring.";
+
+      private final Constructor<? extends EventLoopGroup> groupConstructor;
+      private final Class<? extends SocketChannel> socketChannel;
+      private final Class<? extends ServerSocketChannel> serverSocketChannel;
+      private final Class<? extends DatagramChannel> datagramChannel;
+
+      IoUringEventLoopFactory() {
+         try {
+            groupConstructor = Class.forName(PACKAGE + "IOUringEventLoopGroup").asSubclass(EventLoopGroup.class).getConstructor(int.class);
+            socketChannel = Class.forName(PACKAGE + "IOUringSocketChannel").asSubclass(SocketChannel.class);
+            serverSocketChannel = Class.forName(PACKAGE + "IOUringServerSocketChannel").asSubclass(ServerSocketChannel.class);
+            datagramChannel = Class.forName(PACKAGE + "IOUringDatagramChannel").asSubclass(DatagramChannel.class);
+         } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load io_uring transport", e);
+         }
+      }
+
+      static Throwable unavailabilityCause() {
+         try {
+            return (Throwable) Class.forName(PACKAGE + "IOUring").getMethod("unavailabilityCause").invoke(null);
+         } catch (ReflectiveOperationException | LinkageError e) {
+            return e;
+         }
+      }
+
+      @Override
+      public EventLoopGroup create(int threads) {
+         try {
+            return groupConstructor.newInstance(threads);
+         } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create io_uring event loop group", e);
+         }
+      }
+
+      @Override
+      public Class<? extends SocketChannel> socketChannel() {
+         return socketChannel;
+      }
+
+      @Override
+      public Class<? extends ServerSocketChannel> serverSocketChannel() {
+         return serverSocketChannel;
+      }
+
+      @Override
+      public Class<? extends DatagramChannel> datagramChannel() {
+         return datagramChannel;
+      }
    }
 }
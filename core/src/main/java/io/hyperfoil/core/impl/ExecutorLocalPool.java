@@ -0,0 +1,267 @@
+package io.hyperfoil.core.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import io.hyperfoil.api.collection.ElasticPool;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Pool keeping free objects separately for each executor. Each object belongs to one executor; when it is released
+ * in the thread of that executor it is pushed to a stack accessed only by this thread, without any synchronization.
+ * Objects released from other threads, and objects exceeding the executor's share of the pool, are offered
+ * to a bounded MPSC array queue of the executor, sized to the number of objects it owns, so that releasing
+ * does not allocate. These queues are polled by the owner when its stack is empty and by other threads
+ * (non-executor threads or executors that ran out of their own objects); as the queue supports only single
+ * consumer the polling threads take a lock of the executor's queue.
+ * <p>
+ * Usage counter is shared by all threads so that {@link #minUsed()} and {@link #maxUsed()} are accurate.
+ *
+ * @param <T> The type of elements in this pool.
+ */
+public class ExecutorLocalPool<T> implements ElasticPool<T> {
+   private final Local<T>[] locals;
+   private final ToIntFunction<T> executorIndex;
+   private final Supplier<T> initSupplier;
+   private final Supplier<T> depletionSupplier;
+   private final AtomicInteger used = new AtomicInteger();
+   private final AtomicInteger minUsed = new AtomicInteger();
+   private final AtomicInteger maxUsed = new AtomicInteger();
+   private int reserved;
+
+   /**
+    * @param executors         Executors the objects are bound to.
+    * @param executorIndex     Index of the executor (in <code>executors</code>) owning given object.
+    * @param initSupplier      Creates objects when the pool is reserved.
+    * @param depletionSupplier Invoked when there is no free object; may return <code>null</code>.
+    */
+   @SuppressWarnings("unchecked")
+   public ExecutorLocalPool(EventExecutor[] executors, ToIntFunction<T> executorIndex, Supplier<T> initSupplier, Supplier<T> depletionSupplier) {
+      this.locals = new Local[executors.length];
+      for (int i = 0; i < executors.length; ++i) {
+         locals[i] = new Local<>(executors[i]);
+      }
+      this.executorIndex = executorIndex;
+      this.initSupplier = initSupplier;
+      this.depletionSupplier = depletionSupplier;
+   }
+
+   @Override
+   public T acquire() {
+      Local<T> local = currentLocal();
+      T object = null;
+      if (local != null) {
+         object = local.pop();
+         if (object == null) {
+            object = local.poll();
+         }
+      }
+      if (object == null) {
+         object = steal(local);
+      }
+      if (object == null) {
+         object = depletionSupplier.get();
+      }
+      if (object != null) {
+         incrementUsed();
+      }
+      return object;
+   }
+
+   @Override
+   public void release(T object) {
+      decrementUsed();
+      Local<T> owner = locals[executorIndex.applyAsInt(object)];
+      if (!owner.executor.inEventLoop() || !owner.push(object)) {
+         owner.offer(object);
+      }
+   }
+
+   @Override
+   public synchronized void reserve(int capacity) {
+      List<T> objects = new ArrayList<>();
+      for (; reserved < capacity; ++reserved) {
+         T object = initSupplier.get();
+         locals[executorIndex.applyAsInt(object)].owned++;
+         objects.add(object);
+      }
+      for (Local<T> local : locals) {
+         local.ensureCapacity();
+      }
+      for (T object : objects) {
+         locals[executorIndex.applyAsInt(object)].offer(object);
+      }
+      int share = (reserved + locals.length - 1) / locals.length;
+      for (Local<T> local : locals) {
+         local.limit = Math.max(local.limit, share);
+      }
+   }
+
+   private Local<T> currentLocal() {
+      for (Local<T> local : locals) {
+         if (local.executor.inEventLoop()) {
+            return local;
+         }
+      }
+      return null;
+   }
+
+   private T steal(Local<T> thief) {
+      if (locals.length == 0) {
+         return null;
+      }
+      // start at random position to spread the stealing threads
+      int offset = ThreadLocalRandom.current().nextInt(locals.length);
+      for (int i = 0; i < locals.length; ++i) {
+         Local<T> victim = locals[(offset + i) % locals.length];
+         if (victim == thief) {
+            continue;
+         }
+         T object = victim.poll();
+         if (object != null) {
+            return object;
+         }
+      }
+      return null;
+   }
+
+   private void incrementUsed() {
+      updateMax(used.incrementAndGet());
+   }
+
+   private void decrementUsed() {
+      int current = used.decrementAndGet();
+      assert current >= 0;
+      updateMin(current);
+   }
+
+   private void updateMax(int current) {
+      int max = maxUsed.get();
+      while (current > max && !maxUsed.compareAndSet(max, current)) {
+         max = maxUsed.get();
+      }
+   }
+
+   private void updateMin(int current) {
+      int min = minUsed.get();
+      while (current < min && !minUsed.compareAndSet(min, current)) {
+         min = minUsed.get();
+      }
+   }
+
+   @Override
+   public int minUsed() {
+      return minUsed.get();
+   }
+
+   @Override
+   public int maxUsed() {
+      return maxUsed.get();
+   }
+
+   @Override
+   public void resetStats() {
+      int current = used.get();
+      minUsed.set(current);
+      maxUsed.set(current);
+      // objects acquired or released concurrently with the reset must not be missed
+      current = used.get();
+      updateMin(current);
+      updateMax(current);
+   }
+
+   public int current() {
+      return used.get();
+   }
+
+   private static final class Local<T> {
+      private static final int MIN_CAPACITY = 16;
+
+      private final EventExecutor executor;
+      // Objects can be offered by any thread; polling is guarded by this Local's lock
+      private volatile Queue<T> shared = PlatformDependent.newFixedMpscQueue(MIN_CAPACITY);
+      // number of reserved objects this executor owns and capacity of the queue, written under the pool's lock
+      private int owned;
+      private int capacity = MIN_CAPACITY;
+      // accessed only from the executor thread
+      private Object[] stack = new Object[16];
+      private int size;
+      // written under the pool's lock before the phase starts
+      private volatile int limit;
+
+      private Local(EventExecutor executor) {
+         this.executor = executor;
+      }
+
+      @SuppressWarnings("unchecked")
+      private T pop() {
+         if (size == 0) {
+            return null;
+         }
+         T object = (T) stack[--size];
+         stack[size] = null;
+         return object;
+      }
+
+      private synchronized T poll() {
+         return shared.poll();
+      }
+
+      private void offer(T object) {
+         Queue<T> queue = shared;
+         // The queue can overflow only with objects created on depletion; these are left to GC.
+         queue.offer(object);
+         if (queue != shared) {
+            // the queue was replaced concurrently; the object must not be stranded in the old one
+            synchronized (this) {
+               drain(queue);
+            }
+         }
+      }
+
+      /**
+       * Replaces the queue if it cannot hold all owned objects.
+       */
+      private void ensureCapacity() {
+         if (owned <= capacity) {
+            return;
+         }
+         capacity = owned;
+         synchronized (this) {
+            Queue<T> old = shared;
+            shared = PlatformDependent.newFixedMpscQueue(capacity);
+            drain(old);
+         }
+      }
+
+      private void drain(Queue<T> old) {
+         assert Thread.holdsLock(this);
+         Queue<T> current = shared;
+         if (old == current) {
+            return;
+         }
+         T object;
+         while ((object = old.poll()) != null) {
+            current.offer(object);
+         }
+      }
+
+      private boolean push(T object) {
+         if (size >= limit) {
+            return false;
+         }
+         if (size == stack.length) {
+            stack = Arrays.copyOf(stack, Math.min(limit, size * 2));
+         }
+         stack[size++] = object;
+         return true;
+      }
+   }
+}
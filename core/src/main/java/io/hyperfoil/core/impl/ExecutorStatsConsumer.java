@@ -0,0 +1,11 @@
+package io.hyperfoil.core.impl;
+
+public interface ExecutorStatsConsumer {
+   /**
+    * @param executor Index of the executor (event loop) within the agent.
+    * @param metric   Name of the metric, e.g. {@link ExecutorWatchdog#LOOP_LATENCY}.
+    * @param min      Minimum value since last visit.
+    * @param max      Maximum value since last visit.
+    */
+   void accept(int executor, String metric, int min, int max);
+}
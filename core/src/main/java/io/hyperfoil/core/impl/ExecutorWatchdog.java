@@ -0,0 +1,250 @@
+package io.hyperfoil.core.impl;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.BenchmarkExecutionException;
+import io.hyperfoil.internal.Properties;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+/**
+ * Watches saturation of each executor (event loop) separately: number of pending tasks, latency of the loop
+ * (delay between submitting a task and its execution), CPU time consumed by the thread and time spent running
+ * sessions. While {@link io.hyperfoil.core.util.CpuWatchdog} looks at the whole machine, a single saturated
+ * event loop is enough to skew the measured latencies.
+ * <p>
+ * Setting the period to zero or negative value disables the watchdog.
+ */
+public class ExecutorWatchdog implements Runnable {
+   private static final Logger log = LogManager.getLogger(ExecutorWatchdog.class);
+   private static final long PERIOD = Properties.getLong(Properties.EXECUTOR_WATCHDOG_PERIOD, 100);
+   public static final boolean ENABLED = PERIOD > 0;
+   public static final String QUEUE_DEPTH = "queue depth";
+   public static final String LOOP_LATENCY = "loop latency us";
+   public static final String CPU = "cpu %";
+   public static final String SESSIONS = "sessions %";
+   private static final double BUSY_THRESHOLD = Double.parseDouble(Properties.get(Properties.EXECUTOR_WATCHDOG_BUSY_THRESHOLD, "0.9"));
+   private static final long BUSY_PERIOD = TimeUnit.MILLISECONDS.toNanos(Properties.getLong(Properties.EXECUTOR_WATCHDOG_BUSY_PERIOD, 5000));
+   private static final boolean FAIL = Properties.getBoolean(Properties.EXECUTOR_WATCHDOG_FAIL);
+   private static final FastThreadLocal<Monitor> CURRENT = new FastThreadLocal<>();
+
+   private final Consumer<Throwable> errorHandler;
+   private final BooleanSupplier warmupTest;
+   private final Monitor[] monitors;
+   private final ThreadMXBean threadMXBean;
+   private final Thread thread;
+   private volatile boolean running = true;
+
+   public ExecutorWatchdog(EventExecutor[] executors, Consumer<Throwable> errorHandler, BooleanSupplier warmupTest) {
+      this(executors, errorHandler, warmupTest, Thread::new);
+   }
+
+   public ExecutorWatchdog(EventExecutor[] executors, Consumer<Throwable> errorHandler, BooleanSupplier warmupTest,
+         ThreadFactory threadFactory) {
+      this.errorHandler = errorHandler;
+      this.warmupTest = warmupTest;
+      this.monitors = new Monitor[executors.length];
+      for (int i = 0; i < executors.length; ++i) {
+         monitors[i] = new Monitor(executors[i], i);
+      }
+      ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      if (threadMXBean.isThreadCpuTimeSupported()) {
+         if (!threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+         }
+         this.threadMXBean = threadMXBean;
+      } else {
+         log.warn("Thread CPU time is not supported by this JVM, executor CPU usage won't be recorded.");
+         this.threadMXBean = null;
+      }
+      thread = threadFactory.newThread(this);
+      thread.setName("executor-watchdog");
+      thread.setDaemon(true);
+   }
+
+   /**
+    * @return Monitor of the executor running current thread, or <code>null</code> when not running in a watched executor.
+    */
+   public static Monitor current() {
+      return CURRENT.getIfExists();
+   }
+
+   public void start() {
+      thread.start();
+   }
+
+   public void stop() {
+      running = false;
+      thread.interrupt();
+   }
+
+   @Override
+   public void run() {
+      while (running) {
+         long now = System.nanoTime();
+         for (Monitor monitor : monitors) {
+            if (!sample(monitor, now)) {
+               log.info("Executor watchdog is terminating.");
+               return;
+            }
+         }
+         try {
+            Thread.sleep(PERIOD);
+         } catch (InterruptedException e) {
+            log.debug("Interrupted, terminating executor watchdog");
+            return;
+         }
+      }
+   }
+
+   private synchronized boolean sample(Monitor monitor, long now) {
+      long submitted = monitor.probeSubmitted;
+      long latency;
+      if (submitted == 0) {
+         latency = monitor.probeLatency;
+         monitor.probeSubmitted = now;
+         try {
+            monitor.executor.execute(monitor);
+         } catch (RejectedExecutionException e) {
+            return false;
+         }
+      } else {
+         // The previous probe has not been executed yet
+         latency = now - submitted;
+      }
+      if (latency >= 0) {
+         monitor.latency.record(TimeUnit.NANOSECONDS.toMicros(latency));
+      }
+      if (monitor.executor instanceof SingleThreadEventExecutor) {
+         monitor.queueDepth.record(((SingleThreadEventExecutor) monitor.executor).pendingTasks());
+      }
+      long threadId = monitor.threadId;
+      if (threadMXBean != null && threadId >= 0) {
+         long cpuTime = threadMXBean.getThreadCpuTime(threadId);
+         if (cpuTime >= 0 && monitor.lastCpuTime >= 0 && now > monitor.lastSample) {
+            double ratio = (double) (cpuTime - monitor.lastCpuTime) / (now - monitor.lastSample);
+            monitor.cpu.record(Math.round(100 * ratio));
+            checkBusy(monitor, ratio, now);
+         }
+         monitor.lastCpuTime = cpuTime;
+         monitor.lastSample = now;
+      }
+      return true;
+   }
+
+   private void checkBusy(Monitor monitor, double ratio, long now) {
+      if (ratio < BUSY_THRESHOLD) {
+         monitor.busySince = Long.MIN_VALUE;
+         monitor.busyReported = false;
+         return;
+      } else if (monitor.busySince == Long.MIN_VALUE) {
+         monitor.busySince = now;
+         return;
+      } else if (now - monitor.busySince < BUSY_PERIOD || monitor.busyReported) {
+         return;
+      }
+      monitor.busyReported = true;
+      String message = String.format("%s | Executor %s was busy for more than %.0f%% of CPU time during last %d ms; measured latencies may be skewed.",
+            new SimpleDateFormat("HH:mm:ss.SSS").format(new Date()), monitor.index, 100 * BUSY_THRESHOLD,
+            TimeUnit.NANOSECONDS.toMillis(now - monitor.busySince));
+      log.warn(message);
+      if (FAIL && warmupTest.getAsBoolean()) {
+         errorHandler.accept(new BenchmarkExecutionException(message));
+      }
+   }
+
+   /**
+    * Reports min/max values since the last invocation.
+    *
+    * @param consumer Consumer of the stats.
+    */
+   public synchronized void visitStats(ExecutorStatsConsumer consumer) {
+      long now = System.nanoTime();
+      for (Monitor monitor : monitors) {
+         monitor.queueDepth.report(consumer, monitor.index, QUEUE_DEPTH);
+         monitor.latency.report(consumer, monitor.index, LOOP_LATENCY);
+         monitor.cpu.report(consumer, monitor.index, CPU);
+         long sessionNanos = monitor.sessionNanos.get();
+         if (monitor.lastVisit != Long.MIN_VALUE && now > monitor.lastVisit) {
+            int sessions = (int) (100 * (sessionNanos - monitor.lastSessionNanos) / (now - monitor.lastVisit));
+            consumer.accept(monitor.index, SESSIONS, sessions, sessions);
+         }
+         monitor.lastSessionNanos = sessionNanos;
+         monitor.lastVisit = now;
+      }
+   }
+
+   public static final class Monitor implements Runnable {
+      private final EventExecutor executor;
+      private final int index;
+      // Time spent in running sessions, written by the executor thread only
+      private final AtomicLong sessionNanos = new AtomicLong();
+      private volatile long threadId = -1;
+      private volatile long probeSubmitted;
+      private volatile long probeLatency = -1;
+      // Following fields are accessed only from the watchdog
+      private final MinMax queueDepth = new MinMax();
+      private final MinMax latency = new MinMax();
+      private final MinMax cpu = new MinMax();
+      private long lastCpuTime = -1;
+      private long lastSample;
+      private long lastSessionNanos;
+      private long lastVisit = Long.MIN_VALUE;
+      private long busySince = Long.MIN_VALUE;
+      private boolean busyReported;
+
+      private Monitor(EventExecutor executor, int index) {
+         this.executor = executor;
+         this.index = index;
+      }
+
+      /**
+       * Executed as a probe in the event loop.
+       */
+      @Override
+      public void run() {
+         if (threadId < 0) {
+            threadId = Thread.currentThread().getId();
+            CURRENT.set(this);
+         }
+         probeLatency = System.nanoTime() - probeSubmitted;
+         probeSubmitted = 0;
+      }
+
+      public void addSessionTime(long nanos) {
+         // single writer, the watchdog only needs eventual visibility
+         sessionNanos.lazySet(sessionNanos.get() + nanos);
+      }
+   }
+
+   private static final class MinMax {
+      private long min = Long.MAX_VALUE;
+      private long max = Long.MIN_VALUE;
+
+      void record(long value) {
+         min = Math.min(min, value);
+         max = Math.max(max, value);
+      }
+
+      void report(ExecutorStatsConsumer consumer, int executor, String metric) {
+         if (min <= max) {
+            consumer.accept(executor, metric, (int) Math.min(min, Integer.MAX_VALUE), (int) Math.min(max, Integer.MAX_VALUE));
+         }
+         min = Long.MAX_VALUE;
+         max = Long.MIN_VALUE;
+      }
+   }
+}
@@ -23,7 +23,7 @@ public class LocalSimulationRunner extends SimulationRunner {
    private final Lock statusLock = new ReentrantLock();
    private final Condition statusCondition = statusLock.newCondition();
    private final StatisticsCollector statisticsCollector;
-   private final ScheduledExecutorService statsExecutor = Executors.newSingleThreadScheduledExecutor();
+   private final ScheduledExecutorService statsExecutor;
    private long startTime;
 
    public LocalSimulationRunner(Benchmark benchmark) {
@@ -32,7 +32,9 @@ public class LocalSimulationRunner extends SimulationRunner {
 
    public LocalSimulationRunner(Benchmark benchmark, StatisticsCollector.StatisticsConsumer statsConsumer, SessionStatsConsumer sessionPoolStatsConsumer, ConnectionStatsConsumer connectionsStatsConsumer) {
       super(benchmark, "local-run", 0, error -> { });
+      statsExecutor = Executors.newSingleThreadScheduledExecutor(placement.auxiliaryThreadFactory());
       statisticsCollector = new StatisticsCollector(benchmark);
+      statisticsCollector.setListener(this::feedback);
       this.statsConsumer = statsConsumer;
       this.sessionPoolStatsConsumer = sessionPoolStatsConsumer;
       this.connectionsStatsConsumer = connectionsStatsConsumer;
@@ -1,24 +1,29 @@
 package io.hyperfoil.core.impl;
 
 import io.hyperfoil.api.config.Model;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorGroup;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.collection.ElasticPool;
 import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.api.session.PhaseChangeHandler;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.session.TimerWheel;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.IntStream;
 
 public abstract class PhaseInstanceImpl implements PhaseInstance {
@@ -39,10 +44,14 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
    // Reads are done without locks
    protected volatile Status status = Status.NOT_STARTED;
    protected long absoluteStartTime;
+   // Same instant as absoluteStartTime, used as the base for intended start of sessions
+   protected long absoluteStartNanos;
    protected String absoluteStartTimeString;
    protected AtomicInteger activeSessions = new AtomicInteger(0);
    private volatile Throwable error;
    private volatile boolean sessionLimitExceeded;
+   // replaced in tests with a controlled clock
+   LongSupplier nanoClock = System::nanoTime;
 
    public static PhaseInstance newInstance(Phase def, String runId, int agentId) {
       PhaseCtor ctor = constructors.get(def.model.getClass());
@@ -59,6 +68,7 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
       constructors.put(Model.Always.class, Always::new);
       constructors.put(Model.RampRate.class, RampRate::new);
       constructors.put(Model.ConstantRate.class, ConstantRate::new);
+      constructors.put(Model.AdaptiveRate.class, AdaptiveRate::new);
       constructors.put(Model.Sequentially.class, Sequentially::new);
       //noinspection StaticInitializerReferencesSubClass
       constructors.put(Model.Noop.class, Noop::new);
@@ -99,6 +109,7 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
          status = Status.RUNNING;
       }
       absoluteStartTime = System.currentTimeMillis();
+      absoluteStartNanos = nanoClock.getAsLong();
       absoluteStartTimeString = String.valueOf(absoluteStartTime);
       log.debug("{} changing status to RUNNING", def.name);
       phaseChangeHandler.onChange(def, Status.RUNNING, false, error).thenRun(() -> proceed(executorGroup));
@@ -230,6 +241,14 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
    }
 
    protected boolean startNewSession() {
+      return startNewSession(Long.MIN_VALUE);
+   }
+
+   /**
+    * @param intendedStartNanos Time when the session was scheduled to start, or <code>Long.MIN_VALUE</code>.
+    * @return True if the session could not be started.
+    */
+   protected boolean startNewSession(long intendedStartNanos) {
       int numActive = activeSessions.incrementAndGet();
       if (numActive < 0) {
          // finished
@@ -250,7 +269,11 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
          notifyFinished(null);
          return true;
       }
-      session.start(this);
+      if (intendedStartNanos == Long.MIN_VALUE) {
+         session.start(this);
+      } else {
+         session.start(this, intendedStartNanos);
+      }
       return false;
    }
 
@@ -329,12 +352,24 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
       }
    }
 
+   /**
+    * Users arrive independently on each executor: with N executors each arrival generator starts every N-th user
+    * (when the arrivals are evenly spaced) or runs a Poisson process with 1/N of the intensity; superposition
+    * of these processes is a Poisson process with the intensity of the whole phase. Users are positioned on the axis
+    * of expected number of users started since the beginning of the phase, see {@link #cumulativeUsers(double)},
+    * and their scheduled start is kept with microsecond resolution.
+    */
    protected abstract static class OpenModelPhase extends PhaseInstanceImpl {
+      // Generators wake up at least this often to pick up rate changes
+      private static final long MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
       protected final int maxSessions;
-      protected final Random random = new Random();
-      protected double nextScheduled;
-      protected AtomicLong throttledUsers = new AtomicLong(0);
-      protected long startedOrThrottledUsers = 0;
+      // Users that should have been started but there was no free session; these are started
+      // as soon as some session finishes, and their scheduled start is used to correct response times.
+      protected final Backlog throttledUsers = new Backlog();
+      private Generator[] generators;
+      // replaced in tests with wheels driven by a controlled clock
+      Function<EventExecutor, TimerWheel> timerWheels = TimerWheel::get;
 
       protected OpenModelPhase(Phase def, String runId, int agentId) {
          super(def, runId, agentId);
@@ -343,46 +378,46 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
 
       @Override
       public void proceed(EventExecutorGroup executorGroup) {
-         if (status.isFinished()) {
+         if (status.isFinished() || generators != null) {
             return;
          }
-         long now = System.currentTimeMillis();
-         long delta = now - absoluteStartTime;
-         long nextDelta;
-         Model.OpenModel model = (Model.OpenModel) def.model;
-
-         if (model.variance) {
-            while (delta > nextScheduled) {
-               if (startNewSession()) {
-                  throttledUsers.incrementAndGet();
-               }
-               startedOrThrottledUsers++;
-               // TODO: after many iterations there will be some skew due to imprecise double calculations
-               // Maybe we could restart from the expected rate every 1000th session?
-               nextScheduled = nextSessionRandomized();
-            }
-         } else {
-            long required = nextSessionMetronome(delta);
-            for (long i = required - startedOrThrottledUsers; i > 0; --i) {
-               if (startNewSession()) {
-                  throttledUsers.addAndGet(i);
-                  break;
-               }
-            }
-            startedOrThrottledUsers = Math.max(required, startedOrThrottledUsers);
+         List<EventExecutor> executors = new ArrayList<>();
+         executorGroup.forEach(executors::add);
+         Generator[] generators = new Generator[executors.size()];
+         for (int i = 0; i < generators.length; ++i) {
+            generators[i] = new Generator(executors.get(i), i, generators.length);
          }
-         nextDelta = (long) Math.ceil(nextScheduled);
-
-         if (trace) {
-            log.trace("{}: {} after start, {} started ({} throttled), next user in {} ms", def.name, delta,
-                  startedOrThrottledUsers, throttledUsers.get(), nextDelta - delta);
+         this.generators = generators;
+         for (Generator generator : generators) {
+            generator.executor.execute(generator::proceed);
          }
-         executorGroup.schedule(() -> proceed(executorGroup), nextDelta - delta, TimeUnit.MILLISECONDS);
       }
 
-      protected abstract long nextSessionMetronome(long delta);
+      private long intendedStartNanos(double scheduledMicros) {
+         return absoluteStartNanos + (long) (scheduledMicros * 1000);
+      }
+
+      /**
+       * Invoked periodically by the first arrival generator, in its executor.
+       *
+       * @param delta Milliseconds since phase start.
+       */
+      protected void adjustRate(long delta) {
+      }
+
+      /**
+       * @param micros Microseconds since phase start.
+       * @return Expected number of users started on this agent since phase start.
+       */
+      protected abstract double cumulativeUsers(double micros);
 
-      protected abstract double nextSessionRandomized();
+      /**
+       * Inverse function to {@link #cumulativeUsers(double)}.
+       *
+       * @param users Expected number of users started on this agent since phase start.
+       * @return Microseconds since phase start, or positive infinity if this number of users is never reached.
+       */
+      protected abstract double scheduledTime(double users);
 
       @Override
       public void reserveSessions() {
@@ -393,56 +428,161 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
       @Override
       public void notifyFinished(Session session) {
          if (session != null && !status.isFinished()) {
-            long throttled = throttledUsers.get();
-            while (throttled != 0) {
-               if (throttledUsers.compareAndSet(throttled, throttled - 1)) {
-                  // TODO: it would be nice to compensate response times
-                  // in these invocations for the fact that we're applying
-                  // SUT feedback, but that would be imprecise anyway.
-                  session.start(this);
-                  return;
-               } else {
-                  throttled = throttledUsers.get();
-               }
+            long scheduled = throttledUsers.poll();
+            if (scheduled != Long.MIN_VALUE) {
+               session.start(this, intendedStartNanos(scheduled));
+               return;
             }
          }
          super.notifyFinished(session);
       }
+
+      private final class Generator {
+         private final EventExecutor executor;
+         private final int index;
+         private final int count;
+         private final boolean variance;
+         private final TimerWheel.Timer timer = new TimerWheel.Timer(this::proceed);
+         // Position of the next user on the cumulativeUsers axis
+         private double nextUser;
+         // Scheduled start of the next user, in microseconds since phase start
+         private double nextScheduled;
+         private long startedOrThrottledUsers;
+
+         private Generator(EventExecutor executor, int index, int count) {
+            this.executor = executor;
+            this.index = index;
+            this.count = count;
+            this.variance = ((Model.OpenModel) def.model).variance;
+            // Evenly spaced arrivals are interleaved: generator i starts users i, i + N, i + 2N...
+            nextUser = variance ? count * exponential() : index;
+            nextScheduled = scheduledTime(nextUser);
+         }
+
+         private double exponential() {
+            return -Math.log(Math.max(1e-20, ThreadLocalRandom.current().nextDouble()));
+         }
+
+         private void proceed() {
+            if (status.isFinished()) {
+               return;
+            }
+            double now = (nanoClock.getAsLong() - absoluteStartNanos) / 1000d;
+            if (index == 0) {
+               adjustRate((long) now / 1000);
+            }
+            // The rate might have changed since last invocation
+            nextScheduled = scheduledTime(nextUser);
+            boolean throttled = false;
+            while (nextScheduled <= now) {
+               // Once the pool is depleted the remaining users in this batch go straight to the backlog
+               if (throttled || (throttled = startNewSession(intendedStartNanos(nextScheduled)))) {
+                  throttledUsers.add((long) nextScheduled, 1);
+               }
+               startedOrThrottledUsers++;
+               nextUser += variance ? count * exponential() : count;
+               nextScheduled = scheduledTime(nextUser);
+            }
+            long delayNanos = Math.min(MAX_DELAY_NANOS, (long) Math.ceil((nextScheduled - now) * 1000));
+            if (trace) {
+               log.trace("{}: generator {} at {} us after start, {} started ({} throttled), next user in {} ns", def.name, index,
+                     now, startedOrThrottledUsers, throttledUsers.size(), delayNanos);
+            }
+            timerWheels.apply(executor).schedule(timer, delayNanos, TimeUnit.NANOSECONDS);
+         }
+      }
+   }
+
+   /**
+    * FIFO of scheduled start times (in microseconds since phase start) of throttled users.
+    * Users scheduled within the same microsecond share one entry.
+    */
+   protected static final class Backlog {
+      private long[] scheduled = new long[16];
+      private long[] counts = new long[16];
+      private int head;
+      private int tail;
+      private long size;
+
+      synchronized void add(long scheduledMicros, long count) {
+         size += count;
+         int last = (tail - 1) & (scheduled.length - 1);
+         if (head != tail && scheduled[last] == scheduledMicros) {
+            counts[last] += count;
+            return;
+         }
+         scheduled[tail] = scheduledMicros;
+         counts[tail] = count;
+         tail = (tail + 1) & (scheduled.length - 1);
+         if (tail == head) {
+            grow();
+         }
+      }
+
+      private void grow() {
+         int length = scheduled.length;
+         long[] newScheduled = new long[length * 2];
+         long[] newCounts = new long[length * 2];
+         System.arraycopy(scheduled, head, newScheduled, 0, length - head);
+         System.arraycopy(scheduled, 0, newScheduled, length - head, head);
+         System.arraycopy(counts, head, newCounts, 0, length - head);
+         System.arraycopy(counts, 0, newCounts, length - head, head);
+         scheduled = newScheduled;
+         counts = newCounts;
+         head = 0;
+         tail = length;
+      }
+
+      /**
+       * @return Scheduled start of the oldest user or <code>Long.MIN_VALUE</code> if there is none.
+       */
+      synchronized long poll() {
+         if (size == 0) {
+            return Long.MIN_VALUE;
+         }
+         --size;
+         long value = scheduled[head];
+         if (--counts[head] == 0) {
+            head = (head + 1) & (scheduled.length - 1);
+         }
+         return value;
+      }
+
+      synchronized long size() {
+         return size;
+      }
    }
 
    public static class RampRate extends OpenModelPhase {
-      private final double initialUsersPerSec;
-      private final double targetUsersPerSec;
+      // Rate at phase start and its change, in users per microsecond (squared)
+      private final double initialRate;
+      private final double acceleration;
 
       public RampRate(Phase def, String runId, int agentId) {
          super(def, runId, agentId);
          Model.RampRate model = (Model.RampRate) def.model;
-         initialUsersPerSec = def.benchmark().slice(model.initialUsersPerSec, agentId);
-         targetUsersPerSec = def.benchmark().slice(model.targetUsersPerSec, agentId);
-         nextScheduled = model.variance ? nextSessionRandomized() : 0;
+         double initialUsersPerSec = def.benchmark().slice(model.initialUsersPerSec, agentId);
+         double targetUsersPerSec = def.benchmark().slice(model.targetUsersPerSec, agentId);
+         initialRate = initialUsersPerSec / 1_000_000;
+         acceleration = (targetUsersPerSec - initialUsersPerSec) / 1_000_000 / (def.duration * 1000d);
       }
 
       @Override
-      protected long nextSessionMetronome(long delta) {
-         double progress = (targetUsersPerSec - initialUsersPerSec) / (def.duration * 1000);
-         long required = (long) ((progress * delta / 2 + initialUsersPerSec / 1000) * delta) + 1;
-         // Next time is the root of quadratic equation
-         double bCoef = initialUsersPerSec / 1000;
-         nextScheduled = Math.ceil((-bCoef + Math.sqrt(bCoef * bCoef + 2 * progress * required)) / progress);
-         return required;
+      protected double cumulativeUsers(double micros) {
+         return (initialRate + acceleration * micros / 2) * micros;
       }
 
       @Override
-      protected double nextSessionRandomized() {
-         // we're solving quadratic equation coming from t = (duration * -log(rand))/(((t + now) * (target - initial)) + initial * duration)
-         double aCoef = (targetUsersPerSec - initialUsersPerSec);
-         if (Math.abs(aCoef) < 0.000001) {
-            // prevent division 0f/0f
-            return nextScheduled + 1000 * -Math.log(Math.max(1e-20, random.nextDouble())) / initialUsersPerSec;
+      protected double scheduledTime(double users) {
+         if (users <= 0) {
+            return 0;
+         }
+         // Root of the quadratic equation, in a form that is stable when the acceleration is close to zero
+         double discriminant = initialRate * initialRate + 2 * acceleration * users;
+         if (discriminant < 0) {
+            return Double.POSITIVE_INFINITY;
          }
-         double bCoef = nextScheduled * (targetUsersPerSec - initialUsersPerSec) + initialUsersPerSec * def.duration;
-         double cCoef = def.duration * 1000 * Math.log(random.nextDouble());
-         return nextScheduled + (-bCoef + Math.sqrt(bCoef * bCoef - 4 * aCoef * cCoef)) / (2 * aCoef);
+         return 2 * users / (initialRate + Math.sqrt(discriminant));
       }
    }
 
@@ -453,19 +593,163 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
          super(def, runId, agentId);
          Model.ConstantRate model = (Model.ConstantRate) def.model;
          usersPerSec = def.benchmark().slice(model.usersPerSec, agentId);
-         nextScheduled = model.variance ? nextSessionRandomized() : 0;
       }
 
       @Override
-      protected long nextSessionMetronome(long delta) {
-         long required = (long) (delta * usersPerSec / 1000) + 1;
-         nextScheduled = 1000 * required / usersPerSec;
-         return required;
+      protected double cumulativeUsers(double micros) {
+         return micros * usersPerSec / 1_000_000;
+      }
+
+      @Override
+      protected double scheduledTime(double users) {
+         return users * 1_000_000 / usersPerSec;
+      }
+   }
+
+   public static class AdaptiveRate extends OpenModelPhase {
+      private final Model.AdaptiveRate model;
+      private final double minUsersPerSec;
+      private final double maxUsersPerSec;
+      // Statistics received since last adjustment; guarded by this
+      private final StatisticsSnapshot feedback = new StatisticsSnapshot();
+      // Rate is constant since the last change; generators on other executors read it without locks
+      private volatile Segment segment;
+      // Highest rate that met the limits and lowest one that did not
+      private volatile double sustainableUsersPerSec;
+      private double unsustainableUsersPerSec = Double.POSITIVE_INFINITY;
+      private long nextAdjustment;
+      private double periodUsers;
+
+      public AdaptiveRate(Phase def, String runId, int agentId) {
+         super(def, runId, agentId);
+         model = (Model.AdaptiveRate) def.model;
+         minUsersPerSec = def.benchmark().slice(model.minUsersPerSec, agentId);
+         maxUsersPerSec = def.benchmark().slice(model.maxUsersPerSec, agentId);
+         segment = new Segment(0, 0, def.benchmark().slice(model.initialUsersPerSec, agentId));
+         nextAdjustment = model.adjustmentPeriod;
+      }
+
+      /**
+       * Receives statistics recorded in this phase on the local agent; these are evaluated at the end of each
+       * adjustment period.
+       */
+      public void feedback(String metric, StatisticsSnapshot snapshot) {
+         if (model.metric == null || model.metric.equals(metric)) {
+            synchronized (this) {
+               feedback.add(snapshot);
+            }
+         }
+      }
+
+      @Override
+      protected void adjustRate(long delta) {
+         if (delta < nextAdjustment) {
+            return;
+         }
+         nextAdjustment = delta + model.adjustmentPeriod;
+         double now = delta * 1000d;
+         double currentUsers = cumulativeUsers(now);
+         double users = currentUsers - periodUsers;
+         // users waiting for a free session
+         long blocked = throttledUsers.size();
+         periodUsers = currentUsers;
+         double usersPerSec = segment.usersPerSec;
+
+         long requests;
+         long errors;
+         long responseTime;
+         synchronized (this) {
+            requests = feedback.requestCount;
+            errors = feedback.errors() + feedback.invalid;
+            responseTime = feedback.correctedHistogram.getTotalCount() == 0 ? 0 :
+                  feedback.correctedHistogram.getValueAtPercentile(model.percentile * 100);
+            feedback.reset();
+         }
+         if (requests == 0 && blocked == 0) {
+            log.debug("{}: no statistics received in last period, keeping {} users per second", def.name, usersPerSec);
+            return;
+         }
+         boolean sustainable = responseTime <= model.maxResponseTime &&
+               errors <= model.maxErrorRatio * requests &&
+               blocked <= model.maxBlockedRatio * users;
+         double next = nextRate(usersPerSec, sustainable);
+         log.debug("{}: {} users per second {} ({} requests, {} errors, {} percentile {} ns, {}/{} users blocked), changing to {}",
+               def.name, usersPerSec, sustainable ? "is sustainable" : "is not sustainable", requests, errors,
+               model.percentile * 100, responseTime, blocked, (long) users, next);
+         if (next != usersPerSec) {
+            segment = new Segment(now, currentUsers, next);
+         }
+      }
+
+      private double nextRate(double usersPerSec, boolean sustainable) {
+         double next;
+         if (sustainable) {
+            sustainableUsersPerSec = Math.max(sustainableUsersPerSec, usersPerSec);
+            if (unsustainableUsersPerSec == Double.POSITIVE_INFINITY) {
+               next = usersPerSec * model.increaseFactor;
+            } else if (unsustainableUsersPerSec - sustainableUsersPerSec <= model.precision * sustainableUsersPerSec) {
+               next = sustainableUsersPerSec;
+            } else {
+               next = (sustainableUsersPerSec + unsustainableUsersPerSec) / 2;
+            }
+         } else {
+            unsustainableUsersPerSec = usersPerSec;
+            if (sustainableUsersPerSec >= unsustainableUsersPerSec) {
+               // The system got slower; previously found rate is no longer valid
+               sustainableUsersPerSec = 0;
+            }
+            if (sustainableUsersPerSec <= 0) {
+               next = usersPerSec * model.decreaseFactor;
+            } else if (unsustainableUsersPerSec - sustainableUsersPerSec <= model.precision * sustainableUsersPerSec) {
+               // verify that the rate found before is still sustainable
+               next = sustainableUsersPerSec;
+            } else {
+               next = (sustainableUsersPerSec + unsustainableUsersPerSec) / 2;
+            }
+         }
+         return Math.max(minUsersPerSec, Math.min(maxUsersPerSec, next));
+      }
+
+      @Override
+      protected double cumulativeUsers(double micros) {
+         Segment segment = this.segment;
+         return segment.users + (micros - segment.start) * segment.usersPerSec / 1_000_000;
       }
 
       @Override
-      protected double nextSessionRandomized() {
-         return nextScheduled + (1000 * -Math.log(Math.max(1e-20, random.nextDouble())) / usersPerSec);
+      protected double scheduledTime(double users) {
+         Segment segment = this.segment;
+         return segment.start + (users - segment.users) * 1_000_000 / segment.usersPerSec;
+      }
+
+      public double usersPerSec() {
+         return segment.usersPerSec;
+      }
+
+      /**
+       * @return Highest arrival rate on this agent that met the limits, or 0 if none did.
+       */
+      public double sustainableUsersPerSec() {
+         return sustainableUsersPerSec;
+      }
+
+      @Override
+      public void finish() {
+         log.info("{}: highest sustainable rate is {} users per second", def.name, sustainableUsersPerSec);
+         super.finish();
+      }
+
+      private static final class Segment {
+         // Microseconds since phase start and expected number of users started until then
+         final double start;
+         final double users;
+         final double usersPerSec;
+
+         Segment(double start, double users, double usersPerSec) {
+            this.start = start;
+            this.users = users;
+            this.usersPerSec = usersPerSec;
+         }
       }
    }
 
@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -29,6 +30,7 @@ import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ThreadData;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.core.api.Plugin;
 import io.hyperfoil.core.api.PluginRunData;
 import io.hyperfoil.core.session.AgentDataImpl;
@@ -65,6 +67,8 @@ public class SimulationRunner {
    private final Map<String, SharedResources> sharedResources = new HashMap<>();
    protected final EventLoopGroup eventLoopGroup;
    protected final EventLoop[] executors;
+   protected final ThreadPlacement placement;
+   private final Future<Void> executorsPlaced;
    private final Queue<Phase> toPrune;
    private final PluginRunData[] runData;
    private ControllerListener controllerListener;
@@ -72,12 +76,17 @@ public class SimulationRunner {
    private boolean isDepletedMessageQuietened;
    private Thread jitterWatchdog;
    private CpuWatchdog cpuWatchdog;
+   private ExecutorWatchdog executorWatchdog;
+   private boolean globalIndicesRetained;
    private final GlobalDataImpl[] globalData;
    private final GlobalDataImpl.Collector globalCollector = new GlobalDataImpl.Collector();
 
    public SimulationRunner(Benchmark benchmark, String runId, int agentId, Consumer<Throwable> errorHandler) {
       this.eventLoopGroup = EventLoopFactory.INSTANCE.create(benchmark.threads(agentId));
       this.executors = StreamSupport.stream(eventLoopGroup.spliterator(), false).map(EventLoop.class::cast).toArray(EventLoop[]::new);
+      // pinning completes asynchronously; agents report being ready only after executorsPlaced()
+      this.placement = ThreadPlacement.of(benchmark, agentId);
+      this.executorsPlaced = this.placement.pinExecutors(executors);
       this.benchmark = benchmark;
       this.runId = runId;
       this.agentId = agentId;
@@ -97,6 +106,9 @@ public class SimulationRunner {
    }
 
    public void init() {
+      // sessions of this run can assign global indices to resource keys
+      Session.ResourceKey.retainGlobalIndices();
+      globalIndicesRetained = true;
       AgentData agentData = new AgentDataImpl();
       ThreadData[] threadData = new ThreadData[executors.length];
       Arrays.setAll(threadData, executorId -> new ThreadDataImpl());
@@ -129,7 +141,7 @@ public class SimulationRunner {
                return session;
             };
             SharedResources finalSharedResources = sharedResources;
-            sharedResources.sessionPool = new ElasticPoolImpl<>(sessionSupplier, () -> {
+            sharedResources.sessionPool = new ExecutorLocalPool<>(executors, Session::agentThreadId, sessionSupplier, () -> {
                if (!isDepletedMessageQuietened) {
                   log.warn("Pool depleted, throttling execution! Enable trace logging to see subsequent pool depletion messages.");
                   isDepletedMessageQuietened = true;
@@ -150,11 +162,20 @@ public class SimulationRunner {
       // hint the GC to tenure sessions
       System.gc();
 
-      jitterWatchdog = new Thread(this::observeJitter, "jitter-watchdog");
+      ThreadFactory auxiliaryThreadFactory = placement.auxiliaryThreadFactory();
+      jitterWatchdog = auxiliaryThreadFactory.newThread(this::observeJitter);
+      jitterWatchdog.setName("jitter-watchdog");
       jitterWatchdog.setDaemon(true);
 
-      cpuWatchdog = new CpuWatchdog(errorHandler, () -> instances.values().stream().anyMatch(p -> !p.definition().isWarmup));
+      cpuWatchdog = new CpuWatchdog(errorHandler, () -> instances.values().stream().anyMatch(p -> !p.definition().isWarmup),
+            auxiliaryThreadFactory);
       cpuWatchdog.start();
+      if (ExecutorWatchdog.ENABLED) {
+         executorWatchdog = new ExecutorWatchdog(executors, errorHandler,
+               () -> instances.values().stream().anyMatch(p -> !p.definition().isWarmup && p.status() == PhaseInstance.Status.RUNNING),
+               auxiliaryThreadFactory);
+         executorWatchdog.start();
+      }
    }
 
    public void openConnections(Handler<AsyncResult<Void>> handler) {
@@ -255,6 +276,20 @@ public class SimulationRunner {
       }
    }
 
+   /**
+    * @return Description of executor and auxiliary thread placement on CPUs.
+    */
+   public ThreadPlacement placement() {
+      return placement;
+   }
+
+   /**
+    * @return Future completed when the executors are pinned to CPUs (if this is configured).
+    */
+   public Future<Void> executorsPlaced() {
+      return executorsPlaced;
+   }
+
    public void shutdown() {
       if (jitterWatchdog != null) {
          jitterWatchdog.interrupt();
@@ -262,13 +297,21 @@ public class SimulationRunner {
       if (cpuWatchdog != null) {
          cpuWatchdog.stop();
       }
+      if (executorWatchdog != null) {
+         executorWatchdog.stop();
+      }
       for (PluginRunData plugin : runData) {
          plugin.shutdown();
       }
-      eventLoopGroup.shutdownGracefully(0, 10, TimeUnit.SECONDS);
+      io.netty.util.concurrent.Future<?> termination = eventLoopGroup.shutdownGracefully(0, 10, TimeUnit.SECONDS);
       for (Session session : sessions) {
          SessionFactory.destroy(session);
       }
+      if (globalIndicesRetained) {
+         globalIndicesRetained = false;
+         // sessions could still run until the executors terminate
+         termination.addListener(f -> Session.ResourceKey.releaseGlobalIndices());
+      }
    }
 
    public void visitSessions(Consumer<Session> consumer) {
@@ -334,7 +377,7 @@ public class SimulationRunner {
       }
    }
 
-   private void recordSessionStats(ElasticPoolImpl<Session> sessionPool, String phaseName, SessionStatsConsumer consumer) {
+   private void recordSessionStats(ExecutorLocalPool<Session> sessionPool, String phaseName, SessionStatsConsumer consumer) {
       int minUsed = sessionPool.minUsed();
       int maxUsed = sessionPool.maxUsed();
       sessionPool.resetStats();
@@ -349,6 +392,12 @@ public class SimulationRunner {
       }
    }
 
+   public void visitExecutorStats(ExecutorStatsConsumer consumer) {
+      if (executorWatchdog != null) {
+         executorWatchdog.visitStats(consumer);
+      }
+   }
+
    public void startPhase(String phase) {
       PhaseInstance phaseInstance = instances.get(phase);
       SharedResources sharedResources = this.sharedResources.get(phaseInstance.definition().sharedResources);
@@ -400,6 +449,27 @@ public class SimulationRunner {
       return cpuWatchdog.getCpuUsage(name);
    }
 
+   /**
+    * Passes statistics collected on this agent to phases that adapt their load to them.
+    */
+   public void feedback(Phase phase, String metric, StatisticsSnapshot snapshot) {
+      PhaseInstance instance = instances.get(phase.name());
+      if (instance instanceof PhaseInstanceImpl.AdaptiveRate) {
+         ((PhaseInstanceImpl.AdaptiveRate) instance).feedback(metric, snapshot);
+      }
+   }
+
+   /**
+    * @return Highest sustainable users per second found on this agent, or <code>null</code> if the phase does not adapt its rate.
+    */
+   public Double getSustainableRate(String name) {
+      PhaseInstance instance = instances.get(name);
+      if (instance instanceof PhaseInstanceImpl.AdaptiveRate) {
+         return ((PhaseInstanceImpl.AdaptiveRate) instance).sustainableUsersPerSec();
+      }
+      return null;
+   }
+
    public void addGlobalData(Map<String, GlobalData.Element> globalData) {
       for (int i = 0; i < executors.length; ++i) {
          GlobalDataImpl data = this.globalData[i];
@@ -413,7 +483,7 @@ public class SimulationRunner {
       static final SharedResources NONE = new SharedResources(0);
 
       PhaseInstance currentPhase;
-      ElasticPoolImpl<Session> sessionPool;
+      ExecutorLocalPool<Session> sessionPool;
       List<Session> sessions;
       SessionStatistics[] statistics;
 
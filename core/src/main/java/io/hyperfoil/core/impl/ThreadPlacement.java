@@ -0,0 +1,177 @@
+package io.hyperfoil.core.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.config.Agent;
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.core.util.CpuAffinity;
+import io.hyperfoil.internal.Properties;
+import io.netty.util.concurrent.EventExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+/**
+ * Placement of agent threads on CPUs, configured through agent properties <code>executorCpus</code>
+ * and <code>auxiliaryCpus</code> (or system properties {@value Properties#AGENT_EXECUTOR_CPUS} and
+ * {@value Properties#AGENT_AUXILIARY_CPUS}).
+ * <p>
+ * Each executor is pinned to a single CPU from the executor set, round-robin. This prevents the event loops
+ * from migrating between cores and sharing them with auxiliary threads; it does not control where the sessions
+ * and other memory are allocated. Watchdog and statistics threads are pinned to the auxiliary set; when this
+ * is not set explicitly they use all CPUs available to the process except those reserved for executors.
+ */
+public class ThreadPlacement {
+   private static final Logger log = LogManager.getLogger(ThreadPlacement.class);
+   private static final String NOT_PINNED = "not pinned";
+
+   private final int[] executorCpus;
+   private final int[] auxiliaryCpus;
+   private volatile String executorPlacement = NOT_PINNED;
+
+   ThreadPlacement(int[] executorCpus, int[] auxiliaryCpus) {
+      this.executorCpus = executorCpus;
+      this.auxiliaryCpus = auxiliaryCpus;
+   }
+
+   public static ThreadPlacement of(Benchmark benchmark, int agentId) {
+      Agent agent = benchmark.agents().length == 0 ? null : benchmark.agents()[agentId];
+      int[] executorCpus = parse("executorCpus", agent == null ? null : agent.executorCpus(), Properties.AGENT_EXECUTOR_CPUS);
+      int[] auxiliaryCpus = parse("auxiliaryCpus", agent == null ? null : agent.auxiliaryCpus(), Properties.AGENT_AUXILIARY_CPUS);
+      if (auxiliaryCpus == null && executorCpus != null) {
+         int[] allowed = CpuAffinity.allowedCpus();
+         if (allowed != null) {
+            int[] remaining = Arrays.stream(allowed).filter(cpu -> Arrays.binarySearch(executorCpus, cpu) < 0).toArray();
+            if (remaining.length > 0) {
+               auxiliaryCpus = remaining;
+            } else {
+               log.warn("All CPUs available to this agent ({}) are used by executors; auxiliary threads won't be pinned.",
+                     CpuAffinity.format(allowed));
+            }
+         }
+      }
+      return new ThreadPlacement(executorCpus, auxiliaryCpus);
+   }
+
+   private static int[] parse(String name, String agentValue, String property) {
+      String value = agentValue != null ? agentValue : Properties.get(property, null);
+      if (value == null || value.isBlank()) {
+         return null;
+      }
+      try {
+         return CpuAffinity.parse(value);
+      } catch (IllegalArgumentException e) {
+         throw new BenchmarkDefinitionException("Invalid " + name + ": " + e.getMessage());
+      }
+   }
+
+   /**
+    * Pins each executor to its CPU. The executors only publish their native thread ids; <code>taskset</code>
+    * is run from a separate thread as forking the process would block the event loops. The executors may run
+    * tasks before they are pinned.
+    *
+    * @return Future completed when all executors are placed.
+    */
+   public Future<Void> pinExecutors(EventExecutor[] executors) {
+      if (executorCpus == null) {
+         return Future.succeededFuture();
+      }
+      if (executors.length > executorCpus.length) {
+         log.warn("There are {} executors but only {} CPUs assigned to them; some executors will share a CPU.",
+               executors.length, executorCpus.length);
+      }
+      Promise<Void> promise = Promise.promise();
+      String[] tids = new String[executors.length];
+      String[] names = new String[executors.length];
+      AtomicInteger remaining = new AtomicInteger(executors.length);
+      for (int i = 0; i < executors.length; ++i) {
+         int executor = i;
+         executors[i].execute(() -> {
+            tids[executor] = CpuAffinity.currentThreadId();
+            names[executor] = Thread.currentThread().getName();
+            // the decrement publishes the id to the thread that completes the last one
+            if (remaining.decrementAndGet() == 0) {
+               Thread thread = new Thread(() -> {
+                  boolean[] pinned = new boolean[executors.length];
+                  for (int j = 0; j < executors.length; ++j) {
+                     pinned[j] = CpuAffinity.pinThread(tids[j], names[j], new int[]{ executorCpus[j % executorCpus.length] });
+                  }
+                  executorPlacement = describeExecutors(pinned);
+                  promise.complete();
+               }, "executor-placement");
+               thread.setDaemon(true);
+               thread.start();
+            }
+         });
+      }
+      return promise.future();
+   }
+
+   private String describeExecutors(boolean[] pinned) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < pinned.length; ++i) {
+         if (!pinned[i]) {
+            // details have been logged
+            return "failed to pin executor " + i;
+         }
+         if (i != 0) {
+            sb.append(", ");
+         }
+         sb.append(i).append("->").append(executorCpus[i % executorCpus.length]);
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Pins the current thread to auxiliary CPUs, if these are configured.
+    */
+   public void pinAuxiliaryThread() {
+      if (auxiliaryCpus != null) {
+         CpuAffinity.pinCurrentThread(auxiliaryCpus);
+      }
+   }
+
+   /**
+    * Prepares pinning of the current thread (e.g. an event loop) to auxiliary CPUs. The returned task
+    * blocks while <code>taskset</code> runs and therefore should be executed on a worker thread.
+    *
+    * @return Task pinning the current thread or <code>null</code> if auxiliary CPUs are not configured.
+    */
+   public Runnable auxiliaryThreadPinning() {
+      if (auxiliaryCpus == null) {
+         return null;
+      }
+      String tid = CpuAffinity.currentThreadId();
+      String name = Thread.currentThread().getName();
+      return () -> CpuAffinity.pinThread(tid, name, auxiliaryCpus);
+   }
+
+   /**
+    * @return Factory for threads that pin themselves to auxiliary CPUs before running.
+    */
+   public ThreadFactory auxiliaryThreadFactory() {
+      if (auxiliaryCpus == null) {
+         return Thread::new;
+      }
+      return runnable -> new Thread(() -> {
+         pinAuxiliaryThread();
+         runnable.run();
+      });
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("executors: ").append(executorPlacement).append("; auxiliary: ");
+      if (auxiliaryCpus == null) {
+         sb.append(NOT_PINNED);
+      } else {
+         sb.append(CpuAffinity.format(auxiliaryCpus));
+      }
+      return sb.toString();
+   }
+}
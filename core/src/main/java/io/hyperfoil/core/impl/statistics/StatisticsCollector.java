@@ -23,11 +23,19 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
 
    protected final Phase[] phases;
    protected IntObjectMap<Map<String, IntObjectMap<StatisticsSnapshot>>> aggregated = new IntObjectHashMap<>();
+   private SnapshotListener listener;
 
    public StatisticsCollector(Benchmark benchmark) {
       this.phases = benchmark.phasesById();
    }
 
+   /**
+    * @param listener Invoked with each snapshot taken from session statistics, before it is aggregated.
+    */
+   public void setListener(SnapshotListener listener) {
+      this.listener = listener;
+   }
+
    @Override
    public void accept(SessionStatistics statistics) {
       for (int i = 0; i < statistics.size(); ++i) {
@@ -39,6 +47,7 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
             aggregated.put(phaseAndStepId, metricMap);
          }
 
+         Phase phase = statistics.phase(i);
          for (Map.Entry<String, Statistics> entry : statistics.stats(i).entrySet()) {
             String metric = entry.getKey();
             IntObjectMap<StatisticsSnapshot> snapshots = metricMap.computeIfAbsent(metric, k -> new IntObjectHashMap<>());
@@ -51,6 +60,9 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
                   snapshots.put(snapshot.sequenceId, existing);
                }
                existing.add(snapshot);
+               if (listener != null) {
+                  listener.onSnapshot(phase, metric, snapshot);
+               }
             });
          }
       }
@@ -92,4 +104,8 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
    public interface StatisticsConsumer {
       void accept(Phase phase, int stepId, String metric, StatisticsSnapshot snapshot, CountDown countDown);
    }
+
+   public interface SnapshotListener {
+      void onSnapshot(Phase phase, String metric, StatisticsSnapshot snapshot);
+   }
 }
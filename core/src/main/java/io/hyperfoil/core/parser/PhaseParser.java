@@ -114,6 +114,28 @@ abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBui
       }
    }
 
+   static class AdaptiveRate extends OpenModel {
+      AdaptiveRate() {
+         register("initialUsersPerSec", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.AdaptiveRate) builder).initialUsersPerSec(rate)));
+         register("minUsersPerSec", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.AdaptiveRate) builder).minUsersPerSec(rate)));
+         register("maxUsersPerSec", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.AdaptiveRate) builder).maxUsersPerSec(rate)));
+         register("adjustmentPeriod", new PropertyParser.TimeMillis<>((builder, period) -> ((PhaseBuilder.AdaptiveRate) builder).adjustmentPeriod(period)));
+         register("increaseFactor", new PropertyParser.Double<>((builder, factor) -> ((PhaseBuilder.AdaptiveRate) builder).increaseFactor(factor)));
+         register("decreaseFactor", new PropertyParser.Double<>((builder, factor) -> ((PhaseBuilder.AdaptiveRate) builder).decreaseFactor(factor)));
+         register("precision", new PropertyParser.Double<>((builder, precision) -> ((PhaseBuilder.AdaptiveRate) builder).precision(precision)));
+         register("metric", new PropertyParser.String<>((builder, metric) -> ((PhaseBuilder.AdaptiveRate) builder).metric(metric)));
+         register("percentile", new PropertyParser.Double<>((builder, percentile) -> ((PhaseBuilder.AdaptiveRate) builder).percentile(percentile)));
+         register("maxResponseTime", new PropertyParser.String<>((builder, time) -> ((PhaseBuilder.AdaptiveRate) builder).maxResponseTime(time)));
+         register("maxErrorRatio", new PropertyParser.Double<>((builder, ratio) -> ((PhaseBuilder.AdaptiveRate) builder).maxErrorRatio(ratio)));
+         register("maxBlockedRatio", new PropertyParser.Double<>((builder, ratio) -> ((PhaseBuilder.AdaptiveRate) builder).maxBlockedRatio(ratio)));
+      }
+
+      @Override
+      protected PhaseBuilder.AdaptiveRate type(PhaseBuilder.Catalog catalog) {
+         return catalog.adaptiveRate(-1);
+      }
+   }
+
    static class CustomSLAParser implements Parser<PhaseBuilder<?>> {
       @Override
       public void parse(Context ctx, PhaseBuilder<?> target) throws ParserException {
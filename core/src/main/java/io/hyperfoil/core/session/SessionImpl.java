@@ -15,6 +15,7 @@ import io.hyperfoil.api.config.Scenario;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.impl.ExecutorWatchdog;
 import io.hyperfoil.api.session.PhaseInstance;
 
 import org.apache.logging.log4j.Logger;
@@ -22,10 +23,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.message.FormattedMessage;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -34,7 +34,9 @@ class SessionImpl implements Session {
    private static final boolean trace = log.isTraceEnabled();
 
    private final Var[] vars;
-   private final Map<ResourceKey<?>, Object> resources = new HashMap<>();
+   // Singleton resources are stored in an array with single element
+   private Resource[][] resources;
+   private Resource[][] globalResources = new Resource[0][];
    private final List<Var> allVars = new ArrayList<>();
    private final List<Resource> allResources = new ArrayList<>();
    private final LimitedPool<SequenceInstance> sequencePool;
@@ -47,6 +49,8 @@ class SessionImpl implements Session {
    private Request currentRequest;
    private boolean scheduled;
    private boolean resetting = true;
+   private long intendedStartNanos = Long.MIN_VALUE;
+   private long startLagNanos;
 
    private EventExecutor executor;
    private ThreadData threadData;
@@ -68,6 +72,7 @@ class SessionImpl implements Session {
       this.usedSequences = new BitSet(scenario.sumConcurrency());
       this.uniqueId = uniqueId;
       this.vars = scenario.createVars(this);
+      this.resources = new Resource[scenario.uniqueResources()][];
    }
 
    @Override
@@ -170,46 +175,69 @@ class SessionImpl implements Session {
 
    @Override
    public <R extends Resource> void declareResource(ResourceKey<R> key, Supplier<R> resourceSupplier, boolean singleton) {
-      if (resources.containsKey(key)) {
+      if (getSlot(key) != null) {
          return;
       }
       // Current sequence should be null only during unit testing
       int concurrency = currentSequence == null ? 0 : currentSequence.definition().concurrency();
-      if (!singleton && concurrency > 0) {
-         Resource[] array = new Resource[concurrency];
-         for (int i = 0; i < concurrency; ++i) {
-            R resource = resourceSupplier.get();
-            array[i] = resource;
-            allResources.add(resource);
-         }
-         resources.put(key, array);
-      } else {
+      // With concurrency 1 the array has single element as well, this is fine as the sequence index is 0
+      Resource[] array = new Resource[!singleton && concurrency > 0 ? concurrency : 1];
+      for (int i = 0; i < array.length; ++i) {
          R resource = resourceSupplier.get();
-         resources.put(key, resource);
+         array[i] = resource;
          allResources.add(resource);
       }
+      setSlot(key, array);
    }
 
    @Override
    public <R extends Resource> void declareSingletonResource(ResourceKey<R> key, R resource) {
-      if (resources.containsKey(key)) {
+      if (getSlot(key) != null) {
          return;
       }
-      resources.put(key, resource);
+      setSlot(key, new Resource[]{ resource });
       allResources.add(resource);
    }
 
    @SuppressWarnings("unchecked")
    @Override
    public <R extends Resource> R getResource(ResourceKey<R> key) {
-      Object res = resources.get(key);
-      if (res == null) {
+      Resource[] slot = getSlot(key);
+      if (slot == null) {
+         return null;
+      } else if (slot.length == 1) {
+         return (R) slot[0];
+      } else {
+         return (R) slot[currentSequence.index()];
+      }
+   }
+
+   private Resource[] getSlot(ResourceKey<?> key) {
+      int index = key.index();
+      if (index >= 0) {
+         // Keys from other scenarios should not be used but unit tests might do that
+         return index < resources.length ? resources[index] : null;
+      } else if (index == ResourceKey.UNASSIGNED) {
          return null;
-      } else if (res.getClass().isArray() && res instanceof Resource[]) {
-         Resource[] array = (Resource[]) res;
-         return (R) array[currentSequence.index()];
       } else {
-         return (R) res;
+         int globalIndex = ResourceKey.globalIndex(index);
+         return globalIndex < globalResources.length ? globalResources[globalIndex] : null;
+      }
+   }
+
+   private void setSlot(ResourceKey<?> key, Resource[] slot) {
+      int index = key.ensureIndex();
+      if (index >= 0) {
+         if (index >= resources.length) {
+            resources = Arrays.copyOf(resources, index + 1);
+         }
+         resources[index] = slot;
+      } else {
+         int globalIndex = ResourceKey.globalIndex(index);
+         if (globalIndex >= globalResources.length) {
+            globalResources = Arrays.copyOf(globalResources, globalIndex + 1);
+         }
+         globalResources[globalIndex] = slot;
       }
    }
 
@@ -229,6 +257,9 @@ class SessionImpl implements Session {
 
    private void run() {
       scheduled = false;
+      // constant-folded when the watchdog is disabled
+      ExecutorWatchdog.Monitor monitor = ExecutorWatchdog.ENABLED ? ExecutorWatchdog.current() : null;
+      long startNanos = monitor != null ? System.nanoTime() : 0;
       try {
          runSession();
       } catch (SessionStopException e) {
@@ -239,6 +270,10 @@ class SessionImpl implements Session {
          if (phase != null) {
             phase.fail(t);
          }
+      } finally {
+         if (monitor != null) {
+            monitor.addSessionTime(System.nanoTime() - startNanos);
+         }
       }
    }
 
@@ -345,15 +380,29 @@ class SessionImpl implements Session {
 
    @Override
    public void start(PhaseInstance phase) {
+      start(phase, Long.MIN_VALUE);
+   }
+
+   @Override
+   public void start(PhaseInstance phase, long intendedStartNanos) {
       if (trace) {
          log.trace("#{} Session starting in {}", uniqueId, phase.definition().name);
       }
       resetPhase(phase);
+      this.intendedStartNanos = intendedStartNanos;
       executor.execute(deferredStart);
    }
 
+   @Override
+   public long takeStartLagNanos() {
+      long lag = startLagNanos;
+      startLagNanos = 0;
+      return lag;
+   }
+
    private Void deferredStart() {
       resetting = false;
+      startLagNanos = intendedStartNanos == Long.MIN_VALUE ? 0 : Math.max(0, System.nanoTime() - intendedStartNanos);
       for (Sequence sequence : phase.definition().scenario().initialSequences()) {
          startSequence(sequence, false, ConcurrencyPolicy.FAIL);
       }
@@ -15,7 +15,7 @@ import org.apache.logging.log4j.LogManager;
 
 public class DelaySessionStartStep implements Step, ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(DelaySessionStartStep.class);
-   public static final Session.ResourceKey<Holder> KEY = new Session.ResourceKey<>() {};
+   public static final Session.ResourceKey<Holder> KEY = new Session.ResourceKey<>();
 
    private final String[] sequences;
    private final double targetRate;
@@ -36,7 +36,7 @@ public class JsonStep implements Step {
    public boolean invoke(Session session) {
       Object object = fromVar.getObject(session);
       if (object instanceof byte[]) {
-         ByteArrayParser.Context ctx = session.getResource(byteArrayParser);
+         ByteArrayParser.Context ctx = session.getResource(byteArrayParser.key);
          byteArrayParser.before(session);
          ctx.parse(ctx.wrap((byte[]) object), session, true);
          byteArrayParser.after(session);
@@ -92,14 +92,16 @@ public class JsonStep implements Step {
       }
    }
 
-   private static class ByteArrayParser extends JsonParser implements ResourceUtilizer, Session.ResourceKey<ByteArrayParser.Context> {
+   private static class ByteArrayParser extends JsonParser implements ResourceUtilizer {
+      private final Session.ResourceKey<Context> key = new Session.ResourceKey<>();
+
       ByteArrayParser(String query, boolean delete, Transformer replace, Processor processor) {
          super(query, delete, replace, processor);
       }
 
       @Override
       public void reserve(Session session) {
-         session.declareResource(this, Context::new);
+         session.declareResource(key, Context::new);
       }
 
       @Override
@@ -17,6 +17,7 @@ import io.hyperfoil.api.config.StepBuilder;
 import io.hyperfoil.api.session.ObjectAccess;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.TimerWheel;
 import io.hyperfoil.api.config.BaseSequenceBuilder;
 import io.hyperfoil.core.builders.BaseStepBuilder;
 import io.hyperfoil.core.session.SessionFactory;
@@ -63,7 +64,7 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
       long delay = blockedUntil.timestamp - now;
       if (delay > 0) {
          log.trace("Scheduling #{} to run in {}", session.uniqueId(), delay);
-         session.executor().schedule(session.runTask(), delay, TimeUnit.MILLISECONDS);
+         TimerWheel.get(session.executor()).schedule(blockedUntil.timer, delay, TimeUnit.MILLISECONDS);
       } else {
          log.trace("Continuing, duration {} resulted in delay {}", duration, delay);
       }
@@ -72,7 +73,7 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
 
    @Override
    public void reserve(Session session) {
-      key.setObject(session, new Timestamp());
+      key.setObject(session, new Timestamp(session));
    }
 
    public enum Type {
@@ -97,7 +98,13 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
    }
 
    static class Timestamp {
+      // The session needs to wake up only at the latest timestamp, therefore we can reuse the timer
+      final TimerWheel.Timer timer;
       long timestamp = Long.MAX_VALUE;
+
+      Timestamp(Session session) {
+         timer = new TimerWheel.Timer(session.runTask());
+      }
    }
 
    /**
@@ -153,7 +153,7 @@ public class SetAction implements Action {
       }
    }
 
-   private abstract static class ValueSupplier<T> implements SerializableFunction<Session, Object>, Session.ResourceKey<ValueResource<T>>, ResourceUtilizer {
+   private abstract static class ValueSupplier<T> extends Session.ResourceKey<ValueResource<T>> implements SerializableFunction<Session, Object>, ResourceUtilizer {
       @Override
       public T apply(Session session) {
          return session.getResource(this).object;
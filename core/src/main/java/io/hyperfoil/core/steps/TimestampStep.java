@@ -54,7 +54,7 @@ public class TimestampStep implements Step, ResourceUtilizer {
       }
    }
 
-   private static final class FormatterKey implements Session.ResourceKey<FormatterResource> {}
+   private static final class FormatterKey extends Session.ResourceKey<FormatterResource> {}
 
    private static class FormatterResource implements Session.Resource {
       private final SimpleDateFormat format;
@@ -0,0 +1,181 @@
+package io.hyperfoil.core.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Best-effort placement of threads on Linux. Java does not expose thread affinity so the thread
+ * finds its native thread id through <code>/proc/thread-self</code> and the affinity is set using
+ * <code>taskset</code> (util-linux). Forking the process blocks, therefore event loops should only find
+ * their id and let another thread run {@link #pinThread(String, String, int[])}. On other systems,
+ * or when <code>taskset</code> is not installed, the threads are not pinned and a warning is logged.
+ * <p>
+ * CPU sets use the Linux <code>cpulist</code> format, e.g. <code>0-3,8,10-11</code>.
+ */
+public final class CpuAffinity {
+   private static final Logger log = LogManager.getLogger(CpuAffinity.class);
+   private static final Path THREAD_SELF = Path.of("/proc/thread-self");
+   private static final Path THREAD_SELF_STATUS = THREAD_SELF.resolve("status");
+   private static final Path PROC_SELF_STATUS = Path.of("/proc/self/status");
+   private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+
+   private CpuAffinity() {
+   }
+
+   /**
+    * @param cpuList List of CPUs in the <code>cpulist</code> format.
+    * @return Sorted array of distinct CPU numbers.
+    * @throws IllegalArgumentException when the list cannot be parsed or it is empty.
+    */
+   public static int[] parse(String cpuList) {
+      BitSet cpus = new BitSet();
+      for (String part : cpuList.split(",")) {
+         part = part.trim();
+         if (part.isEmpty()) {
+            continue;
+         }
+         int dash = part.indexOf('-');
+         try {
+            if (dash < 0) {
+               cpus.set(parseCpu(part));
+            } else {
+               int from = parseCpu(part.substring(0, dash).trim());
+               int to = parseCpu(part.substring(dash + 1).trim());
+               if (from > to) {
+                  throw new IllegalArgumentException("Invalid CPU range '" + part + "' in '" + cpuList + "'");
+               }
+               cpus.set(from, to + 1);
+            }
+         } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cannot parse CPU list '" + cpuList + "'", e);
+         }
+      }
+      if (cpus.isEmpty()) {
+         throw new IllegalArgumentException("CPU list '" + cpuList + "' is empty");
+      }
+      return cpus.stream().toArray();
+   }
+
+   private static int parseCpu(String cpu) {
+      int value = Integer.parseInt(cpu);
+      if (value < 0) {
+         throw new NumberFormatException("Negative CPU number: " + cpu);
+      }
+      return value;
+   }
+
+   /**
+    * @param cpus Sorted CPU numbers.
+    * @return List of CPUs in the <code>cpulist</code> format.
+    */
+   public static String format(int[] cpus) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < cpus.length; ++i) {
+         int start = cpus[i];
+         while (i + 1 < cpus.length && cpus[i + 1] == cpus[i] + 1) {
+            ++i;
+         }
+         if (sb.length() > 0) {
+            sb.append(',');
+         }
+         sb.append(start);
+         if (cpus[i] != start) {
+            sb.append('-').append(cpus[i]);
+         }
+      }
+      return sb.toString();
+   }
+
+   /**
+    * @return CPUs this process is allowed to run on (e.g. when the agent was started through <code>taskset</code>)
+    * or <code>null</code> when this information is not available.
+    */
+   public static int[] allowedCpus() {
+      return readAllowedCpus(PROC_SELF_STATUS);
+   }
+
+   /**
+    * @return CPUs the current thread is allowed to run on or <code>null</code> when this information is not available.
+    */
+   public static int[] currentThreadCpus() {
+      return readAllowedCpus(THREAD_SELF_STATUS);
+   }
+
+   private static int[] readAllowedCpus(Path status) {
+      try {
+         for (String line : Files.readAllLines(status)) {
+            if (line.startsWith(CPUS_ALLOWED_LIST)) {
+               return parse(line.substring(CPUS_ALLOWED_LIST.length()));
+            }
+         }
+      } catch (IOException | IllegalArgumentException e) {
+         log.debug("Cannot read allowed CPUs from {}", status, e);
+      }
+      return null;
+   }
+
+   /**
+    * @return Native id of the current thread or <code>null</code> when this is not available.
+    */
+   public static String currentThreadId() {
+      try {
+         // resolves to <pid>/task/<tid> of the calling thread
+         return Files.readSymbolicLink(THREAD_SELF).getFileName().toString();
+      } catch (IOException | UnsupportedOperationException e) {
+         log.debug("Cannot read native thread id", e);
+         return null;
+      }
+   }
+
+   /**
+    * Restricts the current thread to given CPUs.
+    *
+    * @return <code>true</code> if the affinity was set.
+    */
+   public static boolean pinCurrentThread(int[] cpus) {
+      return pinThread(currentThreadId(), Thread.currentThread().getName(), cpus);
+   }
+
+   /**
+    * Restricts a thread to given CPUs; this method blocks until <code>taskset</code> completes.
+    *
+    * @param tid  Native thread id as returned from {@link #currentThreadId()}.
+    * @param name Thread name used in log messages.
+    * @param cpus CPUs the thread should run on.
+    * @return <code>true</code> if the affinity was set.
+    */
+   public static boolean pinThread(String tid, String name, int[] cpus) {
+      String cpuList = format(cpus);
+      if (tid == null) {
+         log.warn("Cannot pin thread {} to CPUs {}: native thread id is not available.", name, cpuList);
+         return false;
+      }
+      try {
+         Process process = new ProcessBuilder("taskset", "-p", "-c", cpuList, tid).redirectErrorStream(true).start();
+         String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+         if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            log.warn("Cannot pin thread {} to CPUs {}: taskset did not complete.", name, cpuList);
+            return false;
+         } else if (process.exitValue() != 0) {
+            log.warn("Cannot pin thread {} to CPUs {}: {}", name, cpuList, output);
+            return false;
+         }
+      } catch (IOException e) {
+         log.warn("Cannot pin thread {} to CPUs {}: taskset is not available.", name, cpuList, e);
+         return false;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return false;
+      }
+      log.debug("Pinned thread {} ({}) to CPUs {}", name, tid, cpuList);
+      return true;
+   }
+}
@@ -8,6 +8,7 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
@@ -39,6 +40,10 @@ public class CpuWatchdog implements Runnable {
    private final Map<String, String> phaseUsage = new HashMap<>();
 
    public CpuWatchdog(Consumer<Throwable> errorHandler, BooleanSupplier warmupTest) {
+      this(errorHandler, warmupTest, Thread::new);
+   }
+
+   public CpuWatchdog(Consumer<Throwable> errorHandler, BooleanSupplier warmupTest, ThreadFactory threadFactory) {
       this.errorHandler = errorHandler;
       this.warmupTest = warmupTest;
       File stat = PROC_STAT.toFile();
@@ -50,7 +55,8 @@ public class CpuWatchdog implements Runnable {
          idleTime = null;
          return;
       }
-      thread = new Thread(this, "cpu-watchdog");
+      thread = threadFactory.newThread(this);
+      thread.setName("cpu-watchdog");
       thread.setDaemon(true);
       AtomicInteger counter = new AtomicInteger();
       if (readProcStat(ignored -> counter.incrementAndGet())) {
@@ -43,6 +43,7 @@ public class Trie implements Serializable {
                if (s.length == index + 1) {
                   assert terminal < 0 : "Duplicate strings";
                   terminal = i;
+                  matching.add(null);
                } else {
                   matching.add(s);
                }
@@ -60,6 +61,16 @@ public class Trie implements Serializable {
       return new State();
    }
 
+   /**
+    * Compiles the trie into an Aho-Corasick automaton that finds occurrences of all the terms
+    * (including overlapping ones) in a single pass over the input.
+    *
+    * @return Automaton.
+    */
+   public Automaton compile() {
+      return new Automaton(firstNodes);
+   }
+
    public class State {
       Node[] current = firstNodes;
 
@@ -84,6 +95,97 @@ public class Trie implements Serializable {
       }
    }
 
+   /**
+    * Deterministic automaton with a dense transition table; each step is a single array lookup
+    * regardless of the number of terms.
+    */
+   public static class Automaton implements Serializable {
+      @Visitor.Ignore
+      private final int[] transitions;
+      @Visitor.Ignore
+      private final int[][] matches;
+      @Visitor.Ignore
+      private final int[] termLengths;
+
+      private Automaton(Node[] firstNodes) {
+         List<Node> nodes = new ArrayList<>();
+         // root node is represented by null
+         nodes.add(null);
+         int maxTerminal = -1;
+         for (int i = 0; i < nodes.size(); ++i) {
+            Node node = nodes.get(i);
+            Node[] children = node == null ? firstNodes : node.nextNodes;
+            if (children != null) {
+               nodes.addAll(Arrays.asList(children));
+            }
+            if (node != null) {
+               maxTerminal = Math.max(maxTerminal, node.terminal);
+            }
+         }
+         transitions = new int[nodes.size() << 8];
+         matches = new int[nodes.size()][];
+         termLengths = new int[maxTerminal + 1];
+         int[] fail = new int[nodes.size()];
+         int[] depth = new int[nodes.size()];
+         // Nodes are in BFS order so the child's index is known and the fail state
+         // of a node (shallower) is complete before the node is processed.
+         int nextChild = 1;
+         for (int state = 0; state < nodes.size(); ++state) {
+            Node node = nodes.get(state);
+            Node[] children = node == null ? firstNodes : node.nextNodes;
+            int base = state << 8;
+            int failBase = fail[state] << 8;
+            if (state != 0) {
+               System.arraycopy(transitions, failBase, transitions, base, 256);
+            }
+            if (children != null) {
+               for (Node child : children) {
+                  int childState = nextChild++;
+                  int b = child.b & 0xFF;
+                  // for root's children the fail state is root; the transition is not set yet
+                  fail[childState] = state == 0 ? 0 : transitions[failBase | b];
+                  depth[childState] = depth[state] + 1;
+                  transitions[base | b] = childState;
+               }
+            }
+            if (node != null) {
+               int[] inherited = matches[fail[state]];
+               if (node.terminal >= 0) {
+                  termLengths[node.terminal] = depth[state];
+                  int[] own = new int[inherited == null ? 1 : inherited.length + 1];
+                  own[0] = node.terminal;
+                  if (inherited != null) {
+                     System.arraycopy(inherited, 0, own, 1, inherited.length);
+                  }
+                  matches[state] = own;
+               } else {
+                  matches[state] = inherited;
+               }
+            }
+         }
+      }
+
+      public int initialState() {
+         return 0;
+      }
+
+      public int next(int state, byte b) {
+         return transitions[(state << 8) | (b & 0xFF)];
+      }
+
+      /**
+       * @param state Current state.
+       * @return Indices of terms ending with the last byte, longest first, or <code>null</code> if there's no match.
+       */
+      public int[] matches(int state) {
+         return matches[state];
+      }
+
+      public int termLength(int term) {
+         return termLengths[term];
+      }
+   }
+
    private static class Node implements Serializable {
       final byte b;
       final int terminal;
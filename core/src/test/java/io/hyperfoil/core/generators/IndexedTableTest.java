@@ -0,0 +1,85 @@
+package io.hyperfoil.core.generators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class IndexedTableTest {
+   @Test
+   public void testLookup() {
+      IndexedTable table = IndexedTable.builder(3)
+            .addRow("a", "", "ččč")
+            .addRow("multi\nline", null, "x")
+            .addRow("short")
+            .build();
+      assertThat(table.rows()).isEqualTo(3);
+      assertThat(table.columns()).isEqualTo(3);
+      assertThat(table.get(0, 0)).isEqualTo("a");
+      assertThat(table.get(0, 1)).isEmpty();
+      assertThat(table.get(0, 2)).isEqualTo("ččč");
+      assertThat(table.get(1, 0)).isEqualTo("multi\nline");
+      assertThat(table.get(1, 1)).isNull();
+      assertThat(table.get(1, 2)).isEqualTo("x");
+      assertThat(table.get(2, 0)).isEqualTo("short");
+      assertThat(table.get(2, 1)).isNull();
+      assertThat(table.get(2, 2)).isNull();
+      assertThatThrownBy(() -> table.get(3, 0)).isInstanceOf(IndexOutOfBoundsException.class);
+   }
+
+   @Test
+   public void testEmpty() {
+      IndexedTable table = IndexedTable.builder(2).build();
+      assertThat(table.rows()).isZero();
+   }
+
+   @Test
+   public void testSerialization() throws IOException, ClassNotFoundException {
+      IndexedTable table = table(10_000);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+         out.writeObject(table);
+         out.writeObject("trailer");
+      }
+      // the content travels with the table
+      assertThat(bytes.size()).isGreaterThan((int) table.size());
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+         IndexedTable copy = (IndexedTable) in.readObject();
+         assertThat(in.readObject()).isEqualTo("trailer");
+         assertThat(copy).isNotSameAs(table);
+         assertThat(copy.size()).isEqualTo(table.size());
+         assertThat(copy.rows()).isEqualTo(10_000);
+         assertThat(copy.columns()).isEqualTo(2);
+         for (int i = 0; i < 10_000; ++i) {
+            assertThat(copy.get(i, 0)).isEqualTo("user" + i);
+            assertThat(copy.get(i, 1)).isEqualTo(i % 7 == 0 ? null : "token" + i);
+         }
+      }
+   }
+
+   @Test
+   public void testTruncatedStream() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+         out.writeObject(table(100));
+      }
+      byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() / 2);
+      assertThatThrownBy(() -> new ObjectInputStream(new ByteArrayInputStream(truncated)).readObject())
+            .isInstanceOf(IOException.class);
+   }
+
+   private static IndexedTable table(int rows) {
+      IndexedTable.Builder builder = IndexedTable.builder(2);
+      for (int i = 0; i < rows; ++i) {
+         builder.addRow("user" + i, i % 7 == 0 ? null : "token" + i);
+      }
+      return builder.build();
+   }
+}
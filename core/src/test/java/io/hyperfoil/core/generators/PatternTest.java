@@ -1,8 +1,10 @@
 package io.hyperfoil.core.generators;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 import org.junit.After;
 import org.junit.Before;
@@ -11,6 +13,7 @@ import org.junit.Test;
 import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.session.ObjectAccess;
 import io.hyperfoil.api.session.IntAccess;
+import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.test.TestUtil;
@@ -70,6 +73,70 @@ public class PatternTest {
       test(pattern, session, "foo+%40%2B%C4%9B%C5%A1%C4%8D%C5%99+");
    }
 
+   @Test
+   public void testUrlEncodeSurrogates() {
+      Pattern pattern = new Pattern("${urlencode:var}", false);
+      Session session = setObject("var", "a\uD83D\uDE00b\uD83Dc");
+      test(pattern, session, "a%F0%9F%98%80b%3Fc");
+   }
+
+   @Test
+   public void testFormatVariants() {
+      testFormat("${%d:var}", -42, "-42");
+      testFormat("${%05d:var}", -42, "-0042");
+      testFormat("${%-5d:var}|", 42, "42   |");
+      testFormat("${%5d:var}|", -42, "  -42|");
+      testFormat("${%x:var}", -1, "ffffffff");
+      testFormat("${%o:var}", 8, "10");
+      testFormat("${%2X:var}", 255, "FF");
+      testFormat("${%d:var}", Integer.MIN_VALUE, String.valueOf(Integer.MIN_VALUE));
+      // not compiled, uses cached Formatter
+      testFormat("${%+d:var}", 42, "+42");
+   }
+
+   @Test
+   public void testFormatterReuse() {
+      Pattern pattern = new Pattern("${%+d:var}", false);
+      IntAccess var = SessionFactory.intAccess("var");
+      Session session = SessionFactory.forTesting(var);
+      var.setInt(session, 12345);
+      test(pattern, session, "+12345");
+      // the Formatter cached in the session must not leak the previous (longer) output
+      var.setInt(session, 7);
+      assertThat(pattern.apply(session)).isEqualTo("+7");
+   }
+
+   @Test
+   public void testFormatUrlEncoded() {
+      Pattern pattern = new Pattern("${%3d:var}&${%+d:var}", true);
+      Session session = setInt("var", 7);
+      test(pattern, session, "++7%26%2B7");
+   }
+
+   @Test
+   public void testBase64() {
+      for (String value : new String[]{ "", "a", "ab", "abc", "abcd", "user:pa$$wörd", "ěščř\uD83D\uDE00" }) {
+         String encoded = Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+         test(new Pattern("Basic ${base64encode:var}", false), setObject("var", value), "Basic " + encoded);
+         test(new Pattern("${base64decode:var}", false), setObject("var", encoded), value);
+      }
+   }
+
+   @Test
+   public void testBase64DecodeInvalid() {
+      Pattern pattern = new Pattern("${base64decode:var}", false);
+      for (String invalid : new String[]{ "a", "ab=c", "a===", "ab?d" }) {
+         Session session = setObject("var", invalid);
+         TestUtil.resolveAccess(session, pattern);
+         ByteBuf buf = ByteBufAllocator.DEFAULT.buffer();
+         try {
+            assertThatThrownBy(() -> pattern.accept(session, buf)).isInstanceOf(IllegalArgumentException.class);
+         } finally {
+            buf.release();
+         }
+      }
+   }
+
    @Test
    public void testEscape() {
       Pattern pattern = new Pattern("foo${var}$${var}${var}$$${var}", false);
@@ -105,8 +172,13 @@ public class PatternTest {
       return session;
    }
 
+   private void testFormat(String format, int value, String expected) {
+      test(new Pattern(format, false), setInt("var", value), expected);
+   }
+
    private void test(Pattern pattern, Session session, String expected) {
       TestUtil.resolveAccess(session, pattern);
+      ResourceUtilizer.reserveForTesting(session, pattern);
       String str = pattern.apply(session);
       assertThat(str).isEqualTo(expected);
       ByteBuf buf = ByteBufAllocator.DEFAULT.buffer();
@@ -120,6 +120,8 @@ public class RandomCsvRowStepTest {
          var deserializedStep = (Step) objectInputStream.readObject();
          assertThat(deserializedStep).isInstanceOf(step.getClass());
          assertThat(((RandomCsvRowStep) deserializedStep).rowSelector()).isNull();
+         // the table content travels with the step
+         assertThat(((RandomCsvRowStep) deserializedStep).rows()).isEqualTo(DATA);
       }
    }
 
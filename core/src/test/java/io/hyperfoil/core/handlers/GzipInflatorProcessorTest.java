@@ -0,0 +1,165 @@
+package io.hyperfoil.core.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.github.luben.zstd.Zstd;
+
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ObjectAccess;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.test.TestUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class GzipInflatorProcessorTest {
+   private static final String TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(100);
+
+   @Before
+   public void before() {
+      Locator.push(TestUtil.locator());
+   }
+
+   @After
+   public void after() {
+      Locator.pop();
+   }
+
+   @Test
+   public void testGzip() throws IOException {
+      ObjectAccess encoding = SessionFactory.objectAccess("encoding");
+      Session session = SessionFactory.forTesting(encoding);
+      CollectingProcessor collector = new CollectingProcessor();
+      GzipInflatorProcessor processor = new GzipInflatorProcessor(new Processor[]{ collector }, encoding);
+      ResourceUtilizer.reserveForTesting(session, processor);
+
+      encoding.setObject(session, "gzip");
+      run(session, processor, gzip(TEXT.getBytes(StandardCharsets.UTF_8)), 100);
+      assertThat(collector.text()).isEqualTo(TEXT);
+      assertThat(collector.lastParts).isEqualTo(1);
+   }
+
+   @Test
+   public void testResetBetweenResponses() throws IOException {
+      ObjectAccess encoding = SessionFactory.objectAccess("encoding");
+      Session session = SessionFactory.forTesting(encoding);
+      CollectingProcessor collector = new CollectingProcessor();
+      GzipInflatorProcessor processor = new GzipInflatorProcessor(new Processor[]{ collector }, encoding);
+      ResourceUtilizer.reserveForTesting(session, processor);
+
+      encoding.setObject(session, "gzip");
+      run(session, processor, gzip(TEXT.getBytes(StandardCharsets.UTF_8)), 1000);
+      assertThat(collector.text()).isEqualTo(TEXT);
+
+      collector.reset();
+      encoding.setObject(session, "identity");
+      run(session, processor, "plain".getBytes(StandardCharsets.UTF_8), 1000);
+      assertThat(collector.text()).isEqualTo("plain");
+   }
+
+   @Test
+   public void testBrotli() throws IOException {
+      assumeTrue(BrotliStreamDecoder.isAvailable());
+      testRoundTrip("br", Encoder.compress(TEXT.getBytes(StandardCharsets.UTF_8)));
+   }
+
+   @Test
+   public void testZstd() {
+      assumeTrue(ZstdStreamDecoder.isAvailable());
+      testRoundTrip("zstd", Zstd.compress(TEXT.getBytes(StandardCharsets.UTF_8)));
+   }
+
+   private void testRoundTrip(String enc, byte[] compressed) {
+      ObjectAccess encoding = SessionFactory.objectAccess("encoding");
+      Session session = SessionFactory.forTesting(encoding);
+      CollectingProcessor collector = new CollectingProcessor();
+      GzipInflatorProcessor processor = new GzipInflatorProcessor(new Processor[]{ collector }, encoding);
+      ResourceUtilizer.reserveForTesting(session, processor);
+
+      assertThat(GzipInflatorProcessor.isSupported(enc)).isTrue();
+      // the same decoder is reused for subsequent responses, with the input split at arbitrary points
+      for (int chunkSize : new int[]{ 1, 7, 100, compressed.length }) {
+         collector.reset();
+         encoding.setObject(session, enc);
+         run(session, processor, compressed, chunkSize);
+         assertThat(collector.text()).as("chunk size %d", chunkSize).isEqualTo(TEXT);
+         assertThat(collector.lastParts).isEqualTo(1);
+      }
+   }
+
+   @Test
+   public void testUnavailableDecoder() {
+      ObjectAccess encoding = SessionFactory.objectAccess("encoding");
+      Session session = SessionFactory.forTesting(encoding);
+      CollectingProcessor collector = new CollectingProcessor();
+      GzipInflatorProcessor processor = new GzipInflatorProcessor(new Processor[]{ collector }, encoding);
+      ResourceUtilizer.reserveForTesting(session, processor);
+
+      for (String enc : new String[]{ "br", "zstd" }) {
+         collector.reset();
+         encoding.setObject(session, enc);
+         assertThat(GzipInflatorProcessor.isSupported(enc)).isEqualTo(enc.equals("br") ?
+               BrotliStreamDecoder.isAvailable() : ZstdStreamDecoder.isAvailable());
+         if (!GzipInflatorProcessor.isSupported(enc)) {
+            // garbage in the body must not be passed through
+            run(session, processor, "not compressed".getBytes(StandardCharsets.UTF_8), 1000);
+            assertThat(collector.text()).isEmpty();
+         }
+      }
+   }
+
+   private static void run(Session session, Processor processor, byte[] data, int chunkSize) {
+      processor.before(session);
+      ByteBuf buf = Unpooled.wrappedBuffer(data);
+      for (int offset = 0; offset < data.length; offset += chunkSize) {
+         int length = Math.min(chunkSize, data.length - offset);
+         processor.process(session, buf, offset, length, offset + length == data.length);
+      }
+      processor.after(session);
+   }
+
+   private static byte[] gzip(byte[] data) throws IOException {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+         gzip.write(data);
+      }
+      return bos.toByteArray();
+   }
+
+   private static class CollectingProcessor implements Processor {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      int lastParts;
+
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         byte[] bytes = new byte[length];
+         data.getBytes(offset, bytes);
+         output.write(bytes, 0, length);
+         if (isLastPart) {
+            lastParts++;
+         }
+      }
+
+      String text() {
+         return output.toString(StandardCharsets.UTF_8);
+      }
+
+      void reset() {
+         output.reset();
+         lastParts = 0;
+      }
+   }
+}
@@ -249,7 +249,7 @@ public class JsonHandlerTest {
       }
    }
 
-   private static class ObscuringTransformer implements Transformer, ResourceUtilizer, Session.ResourceKey<ObscuringTransformer.Context> {
+   private static class ObscuringTransformer extends Session.ResourceKey<ObscuringTransformer.Context> implements Transformer, ResourceUtilizer {
       @Override
       public void transform(Session session, ByteBuf in, int offset, int length, boolean lastFragment, ByteBuf out) {
          Context ctx = session.getResource(this);
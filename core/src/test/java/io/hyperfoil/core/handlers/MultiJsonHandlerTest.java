@@ -0,0 +1,124 @@
+package io.hyperfoil.core.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.json.JsonHandler;
+import io.hyperfoil.core.handlers.json.JsonUnquotingTransformer;
+import io.hyperfoil.core.handlers.json.MultiJsonHandler;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class MultiJsonHandlerTest {
+   private static final byte[] JSON = ("{\n" +
+         "  \"total\" : 3, \"next\": \"cursor-\\\"3\\\"\",\n" +
+         "  \"items\" : [\n" +
+         "      { \"id\" : 418, \"product\" : \"Teapots\", \"tags\": [ \"a\", \"b\" ], \"units\" : 123 },\n" +
+         "      { \"id\" : 420, \"product\" : \"Various herbs\", \"tags\": [], \"units\" : 321  },\n" +
+         "      { \"identifier\": 0, \"id\" : 450, \"product\" : \"Magazines\", \"units\": 456 }\n" +
+         "  ],\n" +
+         "  \"nested\": { \"items\": [ { \"id\": 1 } ] }\n" +
+         "}").getBytes(StandardCharsets.UTF_8);
+   private static final String[] QUERIES = {
+         ".total", ".next", ".items[].id", ".items[].product", ".items[1].units", ".items[].tags[]",
+         ".items[1:2].id", ".nested.items[0].id", ".nested", ".missing"
+   };
+
+   @Test
+   public void testMatchesSingleQueries() {
+      List<List<String>> expected = new ArrayList<>();
+      for (String query : QUERIES) {
+         Collector collector = new Collector();
+         JsonHandler handler = new JsonHandler(query, false, null, new JsonUnquotingTransformer(new DefragProcessor(collector)));
+         Session session = SessionFactory.forTesting();
+         ResourceUtilizer.reserveForTesting(session, handler);
+         handleSplit(handler, session, JSON.length);
+         expected.add(collector.values);
+      }
+      assertThat(expected.get(2)).containsExactly("418", "420", "450");
+      assertThat(expected.get(8)).containsExactly("{ \"items\": [ { \"id\": 1 } ] }");
+      assertThat(expected.get(9)).isEmpty();
+
+      Collector[] collectors = new Collector[QUERIES.length];
+      Processor[] processors = new Processor[QUERIES.length];
+      for (int i = 0; i < QUERIES.length; ++i) {
+         collectors[i] = new Collector();
+         processors[i] = new JsonUnquotingTransformer(new DefragProcessor(collectors[i]));
+      }
+      MultiJsonHandler handler = new MultiJsonHandler(QUERIES, processors);
+      Session session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, handler);
+      for (int position = 0; position <= JSON.length; ++position) {
+         handleSplit(handler, session, position);
+         for (int i = 0; i < QUERIES.length; ++i) {
+            assertThat(collectors[i].values).as("Query %s split at %d", QUERIES[i], position).isEqualTo(expected.get(i));
+         }
+      }
+   }
+
+   @Test
+   public void testExactKeyMatch() {
+      Collector collector = new Collector();
+      MultiJsonHandler handler = new MultiJsonHandler(new String[]{ ".items[].id" }, new Processor[]{ new DefragProcessor(collector) });
+      Session session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, handler);
+      handleSplit(handler, session, JSON.length);
+      // the 'identifier' key must not be selected
+      assertThat(collector.values).containsExactly("418", "420", "450");
+   }
+
+   @Test
+   public void testIncomplete() {
+      MultiJsonHandler handler = new MultiJsonHandler(new String[]{ ".foo" }, new Processor[]{ new Collector() });
+      Session session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, handler);
+      ByteBuf data = Unpooled.wrappedBuffer("{ \"foo\": 42".getBytes(StandardCharsets.UTF_8));
+      handler.before(session);
+      assertThatThrownBy(() -> handler.process(session, data, data.readerIndex(), data.readableBytes(), true))
+            .isInstanceOf(IllegalStateException.class);
+      handler.after(session);
+   }
+
+   @Test
+   public void testNoDelete() {
+      MultiJsonHandler.Builder builder = new MultiJsonHandler.Builder();
+      builder.addItem().query(".foo").delete(true).storeShortcuts().toVar("foo");
+      assertThatThrownBy(() -> builder.build(false)).isInstanceOf(BenchmarkDefinitionException.class);
+   }
+
+   private void handleSplit(Processor handler, Session session, int position) {
+      ByteBuf data1 = Unpooled.wrappedBuffer(JSON, 0, position);
+      ByteBuf data2 = Unpooled.wrappedBuffer(JSON, position, JSON.length - position);
+
+      handler.before(session);
+      handler.process(session, data1, data1.readerIndex(), data1.readableBytes(), false);
+      handler.process(session, data2, data2.readerIndex(), data2.readableBytes(), true);
+      handler.after(session);
+   }
+
+   private static class Collector implements Processor {
+      private List<String> values = new ArrayList<>();
+
+      @Override
+      public void before(Session session) {
+         values = new ArrayList<>();
+      }
+
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         assertThat(isLastPart).isTrue();
+         values.add(data.toString(offset, length, StandardCharsets.UTF_8));
+      }
+   }
+}
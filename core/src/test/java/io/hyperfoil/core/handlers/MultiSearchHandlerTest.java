@@ -0,0 +1,84 @@
+package io.hyperfoil.core.handlers;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class MultiSearchHandlerTest {
+   @Test
+   public void testSimple() {
+      ExpectProcessor processor = new ExpectProcessor();
+      processor.expect(6, 3, true);
+      runHandler(new String[]{ "foo" }, new String[]{ "bar" }, new ExpectProcessor[]{ processor }, "yyyfooxxxbaryyy");
+   }
+
+   @Test
+   public void testEmpty() {
+      ExpectProcessor processor = new ExpectProcessor();
+      processor.expect(3, 0, true);
+      runHandler(new String[]{ "foo" }, new String[]{ "bar" }, new ExpectProcessor[]{ processor }, "foobar");
+   }
+
+   @Test
+   public void testGreedy() {
+      ExpectProcessor processor = new ExpectProcessor();
+      processor.expect(3, 6, true);
+      runHandler(new String[]{ "foo" }, new String[]{ "bar" }, new ExpectProcessor[]{ processor }, "foofooxxxbar");
+   }
+
+   @Test
+   public void testSplitMany() {
+      ExpectProcessor processor = new ExpectProcessor();
+      processor.expect(1, 3, true);
+      processor.expect(0, 1, false);
+      processor.expect(0, 2, true);
+      runHandler(new String[]{ "foo" }, new String[]{ "bar" }, new ExpectProcessor[]{ processor },
+            "fo", "oxxxb", "aryyyfoo", "x", "xxbar");
+   }
+
+   @Test
+   public void testMultiplePairs() {
+      ExpectProcessor a = new ExpectProcessor().expect(3, 4, true);
+      ExpectProcessor b = new ExpectProcessor().expect(14, 2, true);
+      ExpectProcessor quoted = new ExpectProcessor().expect(5, 1, true);
+      runHandler(new String[]{ "<a>", "<b>", "\"" }, new String[]{ "</a>", "</b>", "\"" },
+            new ExpectProcessor[]{ a, b, quoted }, "<a>x\"q\"</a><b>yy</b>");
+   }
+
+   @Test
+   public void testOverlappingPatterns() {
+      ExpectProcessor first = new ExpectProcessor().expect(2, 1, true);
+      ExpectProcessor second = new ExpectProcessor().expect(2, 0, true);
+      runHandler(new String[]{ "ab", "b" }, new String[]{ "c", "bc" }, new ExpectProcessor[]{ first, second }, "abbc");
+   }
+
+   @Test
+   public void testMultiplePairsSplit() {
+      ExpectProcessor a = new ExpectProcessor().expect(1, 2, true);
+      ExpectProcessor b = new ExpectProcessor().expect(5, 1, false).expect(0, 0, true);
+      runHandler(new String[]{ "<a>", "<b>" }, new String[]{ "</a>", "</b>" }, new ExpectProcessor[]{ a, b },
+            "<a", ">xx</", "a><b>y", "</b>");
+   }
+
+   private void runHandler(String[] begin, String[] end, ExpectProcessor[] processors, String... text) {
+      MultiSearchHandler handler = new MultiSearchHandler(begin, end, processors);
+      Session session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, handler);
+      handler.before(session);
+
+      for (String t : text) {
+         ByteBuf data = Unpooled.wrappedBuffer(t.getBytes(StandardCharsets.UTF_8));
+         handler.process(session, data, data.readerIndex(), data.readableBytes(), false);
+      }
+      handler.after(session);
+      for (ExpectProcessor processor : processors) {
+         processor.validate();
+      }
+   }
+}
@@ -0,0 +1,82 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+
+public class AdaptiveRateTest {
+   private static final long PERIOD = 1000;
+
+   @Test
+   public void testConvergesToSustainableRate() {
+      PhaseInstanceImpl.AdaptiveRate phase = phase();
+      assertThat(phase.usersPerSec()).isEqualTo(100);
+      for (int i = 1; i <= 30; ++i) {
+         // the system can handle up to 300 users per second
+         boolean overloaded = phase.usersPerSec() > 300;
+         phase.feedback("test", snapshot(overloaded ? 50 : 1, overloaded ? 10 : 0));
+         phase.adjustRate(i * PERIOD);
+      }
+      assertThat(phase.sustainableUsersPerSec()).isBetween(285.0, 300.0);
+      assertThat(phase.usersPerSec()).isEqualTo(phase.sustainableUsersPerSec());
+   }
+
+   @Test
+   public void testRespectsLimits() {
+      PhaseInstanceImpl.AdaptiveRate phase = phase();
+      // no feedback, no change
+      phase.adjustRate(PERIOD);
+      assertThat(phase.usersPerSec()).isEqualTo(100);
+      // other metrics are ignored
+      phase.feedback("other", snapshot(1, 0));
+      phase.adjustRate(2 * PERIOD);
+      assertThat(phase.usersPerSec()).isEqualTo(100);
+      // adjustment happens only once per period
+      phase.feedback("test", snapshot(1, 0));
+      phase.adjustRate(2 * PERIOD + 1);
+      assertThat(phase.usersPerSec()).isEqualTo(100);
+      phase.adjustRate(3 * PERIOD);
+      assertThat(phase.usersPerSec()).isEqualTo(200);
+      // too many errors
+      phase.feedback("test", snapshot(1, 5));
+      phase.adjustRate(4 * PERIOD);
+      assertThat(phase.usersPerSec()).isEqualTo(150);
+      for (int i = 5; i < 20; ++i) {
+         phase.feedback("test", snapshot(50, 0));
+         phase.adjustRate(i * PERIOD);
+      }
+      // the system got slower than the rate found before
+      assertThat(phase.sustainableUsersPerSec()).isZero();
+      assertThat(phase.usersPerSec()).isEqualTo(10);
+   }
+
+   private static PhaseInstanceImpl.AdaptiveRate phase() {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test");
+      builder.addPhase("test").adaptiveRate(100)
+            .minUsersPerSec(10).maxUsersPerSec(1000)
+            .adjustmentPeriod(PERIOD).increaseFactor(2).decreaseFactor(0.5).precision(0.05)
+            .metric("test").maxResponseTime(10, TimeUnit.MILLISECONDS)
+            .duration(60_000)
+            .scenario().initialSequence("test").step(s -> true);
+      Benchmark benchmark = builder.build();
+      return (PhaseInstanceImpl.AdaptiveRate) PhaseInstanceImpl.newInstance(benchmark.phases().iterator().next(), "run", 0);
+   }
+
+   private static StatisticsSnapshot snapshot(long responseTimeMillis, int errors) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      for (int i = 0; i < 100; ++i) {
+         snapshot.histogram.recordValue(TimeUnit.MILLISECONDS.toNanos(responseTimeMillis));
+         snapshot.correctedHistogram.recordValue(TimeUnit.MILLISECONDS.toNanos(responseTimeMillis));
+      }
+      snapshot.requestCount = 100;
+      snapshot.responseCount = 100;
+      snapshot.connectionErrors = errors;
+      return snapshot;
+   }
+}
@@ -0,0 +1,41 @@
+package io.hyperfoil.core.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class BacklogTest {
+   @Test
+   public void testFifo() {
+      PhaseInstanceImpl.Backlog backlog = new PhaseInstanceImpl.Backlog();
+      assertEquals(Long.MIN_VALUE, backlog.poll());
+      long expectedSize = 0;
+      for (int i = 0; i < 100; ++i) {
+         backlog.add(i, i % 3 + 1);
+         // same millisecond is merged into the previous entry
+         backlog.add(i, 1);
+         expectedSize += i % 3 + 2;
+      }
+      assertEquals(expectedSize, backlog.size());
+      for (int i = 0; i < 50; ++i) {
+         for (int j = i % 3 + 2; j > 0; --j) {
+            assertEquals(i, backlog.poll());
+         }
+      }
+      // wrap around the ring
+      for (int i = 100; i < 200; ++i) {
+         backlog.add(i, 2);
+      }
+      for (int i = 50; i < 100; ++i) {
+         for (int j = i % 3 + 2; j > 0; --j) {
+            assertEquals(i, backlog.poll());
+         }
+      }
+      for (int i = 100; i < 200; ++i) {
+         assertEquals(i, backlog.poll());
+         assertEquals(i, backlog.poll());
+      }
+      assertEquals(0, backlog.size());
+      assertEquals(Long.MIN_VALUE, backlog.poll());
+   }
+}
@@ -0,0 +1,141 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.util.concurrent.EventExecutor;
+
+public class ExecutorLocalPoolTest {
+   @Test
+   public void testLocalReuseAndStealing() throws Exception {
+      EventExecutor[] executors = { new DefaultEventLoop(), new DefaultEventLoop() };
+      try {
+         AtomicInteger counter = new AtomicInteger();
+         AtomicInteger depleted = new AtomicInteger();
+         ExecutorLocalPool<Item> pool = new ExecutorLocalPool<>(executors, item -> item.owner,
+               () -> new Item(counter.getAndIncrement() % executors.length), () -> {
+                  depleted.incrementAndGet();
+                  return null;
+               });
+         pool.reserve(4);
+         pool.resetStats();
+
+         // executor 0 gets its own object and reuses it after release
+         Item first = run(executors[0], pool::acquire);
+         assertThat(first.owner).isEqualTo(0);
+         run(executors[0], () -> {
+            pool.release(first);
+            return null;
+         });
+         assertThat(run(executors[0], pool::acquire)).isSameAs(first);
+
+         // executor 0 steals objects of executor 1 when it runs out of its own
+         Item second = run(executors[0], pool::acquire);
+         Item third = run(executors[0], pool::acquire);
+         Item fourth = run(executors[0], pool::acquire);
+         assertThat(second.owner).isEqualTo(0);
+         assertThat(third.owner).isEqualTo(1);
+         assertThat(fourth.owner).isEqualTo(1);
+         assertThat(run(executors[0], pool::acquire)).isNull();
+         assertThat(depleted.get()).isEqualTo(1);
+         assertThat(pool.current()).isEqualTo(4);
+
+         // stolen object is returned to its owner
+         run(executors[0], () -> {
+            pool.release(third);
+            return null;
+         });
+         assertThat(run(executors[1], pool::acquire)).isSameAs(third);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+         }
+      }
+   }
+
+   @Test
+   public void testMinMaxUsed() throws Exception {
+      EventExecutor[] executors = { new DefaultEventLoop(), new DefaultEventLoop() };
+      try {
+         AtomicInteger counter = new AtomicInteger();
+         ExecutorLocalPool<Item> pool = new ExecutorLocalPool<>(executors, item -> item.owner,
+               () -> new Item(counter.getAndIncrement() % executors.length), () -> null);
+         pool.reserve(10);
+         pool.resetStats();
+         Item[] items = new Item[5];
+         for (int i = 0; i < items.length; ++i) {
+            items[i] = run(executors[i % executors.length], pool::acquire);
+         }
+         for (int i = 0; i < 3; ++i) {
+            pool.release(items[i]);
+         }
+         assertThat(pool.minUsed()).isEqualTo(0);
+         assertThat(pool.maxUsed()).isEqualTo(5);
+
+         pool.resetStats();
+         assertThat(pool.minUsed()).isEqualTo(2);
+         assertThat(pool.maxUsed()).isEqualTo(2);
+         pool.release(items[3]);
+         run(executors[1], pool::acquire);
+         run(executors[1], pool::acquire);
+         assertThat(pool.minUsed()).isEqualTo(1);
+         assertThat(pool.maxUsed()).isEqualTo(3);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+         }
+      }
+   }
+
+   @Test
+   public void testGrowingReservation() throws Exception {
+      EventExecutor[] executors = { new DefaultEventLoop(), new DefaultEventLoop() };
+      try {
+         AtomicInteger counter = new AtomicInteger();
+         AtomicInteger depleted = new AtomicInteger();
+         ExecutorLocalPool<Item> pool = new ExecutorLocalPool<>(executors, item -> item.owner,
+               () -> new Item(counter.getAndIncrement() % executors.length), () -> {
+                  depleted.incrementAndGet();
+                  return null;
+               });
+         pool.reserve(10);
+         // queues must grow to hold all objects
+         pool.reserve(100);
+         Item[] items = new Item[100];
+         for (int round = 0; round < 2; ++round) {
+            // this thread does not belong to any executor so all objects pass through the queues
+            for (int i = 0; i < items.length; ++i) {
+               items[i] = pool.acquire();
+            }
+            assertThat(items).doesNotContainNull().doesNotHaveDuplicates();
+            assertThat(pool.acquire()).isNull();
+            for (Item item : items) {
+               pool.release(item);
+            }
+         }
+         assertThat(depleted.get()).isEqualTo(2);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+         }
+      }
+   }
+
+   private static <T> T run(EventExecutor executor, Callable<T> task) throws Exception {
+      return executor.submit(task).get(10, TimeUnit.SECONDS);
+   }
+
+   private static class Item {
+      final int owner;
+
+      Item(int owner) {
+         this.owner = owner;
+      }
+   }
+}
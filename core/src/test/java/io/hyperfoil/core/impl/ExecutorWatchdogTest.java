@@ -0,0 +1,58 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.hyperfoil.core.util.LowHigh;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.util.concurrent.EventExecutor;
+
+public class ExecutorWatchdogTest {
+   @Test
+   public void testBlockedLoop() throws Exception {
+      DefaultEventLoop eventLoop = new DefaultEventLoop();
+      ExecutorWatchdog watchdog = new ExecutorWatchdog(new EventExecutor[]{ eventLoop }, t -> { }, () -> false);
+      try {
+         watchdog.start();
+         // wait until the first probe installs the monitor
+         CompletableFuture<ExecutorWatchdog.Monitor> monitor = new CompletableFuture<>();
+         while (!monitor.isDone()) {
+            Thread.sleep(50);
+            eventLoop.execute(() -> {
+               if (ExecutorWatchdog.current() != null) {
+                  monitor.complete(ExecutorWatchdog.current());
+               }
+            });
+         }
+         eventLoop.execute(() -> {
+            long start = System.nanoTime();
+            while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500)) {
+               // busy loop
+               Thread.onSpinWait();
+            }
+            monitor.join().addSessionTime(TimeUnit.MILLISECONDS.toNanos(500));
+         });
+         Thread.sleep(700);
+
+         Map<String, LowHigh> stats = new HashMap<>();
+         watchdog.visitStats((executor, metric, min, max) -> {
+            assertThat(executor).isEqualTo(0);
+            stats.put(metric, new LowHigh(min, max));
+         });
+         assertThat(stats.get(ExecutorWatchdog.LOOP_LATENCY).high).isGreaterThanOrEqualTo(300_000);
+         assertThat(stats.get(ExecutorWatchdog.QUEUE_DEPTH)).isNotNull();
+         assertThat(stats.get(ExecutorWatchdog.CPU).high).isGreaterThanOrEqualTo(50);
+         // the first visit does not know the interval
+         assertThat(stats).doesNotContainKey(ExecutorWatchdog.SESSIONS);
+      } finally {
+         watchdog.stop();
+         eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+      }
+   }
+}
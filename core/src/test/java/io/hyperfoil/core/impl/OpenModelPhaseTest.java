@@ -0,0 +1,348 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.PhaseBuilder;
+import io.hyperfoil.api.session.TimerWheel;
+import io.netty.util.concurrent.AbstractEventExecutor;
+import io.netty.util.concurrent.AbstractEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ScheduledFuture;
+
+public class OpenModelPhaseTest {
+   private static final double MICROS_PER_SEC = 1_000_000;
+
+   @Test
+   public void testConstantRate() {
+      PhaseInstanceImpl.OpenModelPhase phase = phase(catalog -> catalog.constantRate(50_000));
+      assertThat(phase.cumulativeUsers(MICROS_PER_SEC)).isCloseTo(50_000, within(1e-6));
+      // sub-millisecond spacing
+      assertThat(phase.scheduledTime(1)).isCloseTo(20, within(1e-9));
+      assertInverse(phase, 50_000);
+   }
+
+   @Test
+   public void testIncreasingRate() {
+      PhaseInstanceImpl.OpenModelPhase phase = phase(catalog -> catalog.rampRate(0, 200));
+      // average rate is 100 users per second over 10 seconds
+      assertThat(phase.cumulativeUsers(10 * MICROS_PER_SEC)).isCloseTo(1000, within(1e-6));
+      assertThat(phase.scheduledTime(250)).isCloseTo(5 * MICROS_PER_SEC, within(1e-3));
+      assertInverse(phase, 1000);
+   }
+
+   @Test
+   public void testDecreasingRate() {
+      PhaseInstanceImpl.OpenModelPhase phase = phase(catalog -> catalog.rampRate(200, 0));
+      assertThat(phase.cumulativeUsers(10 * MICROS_PER_SEC)).isCloseTo(1000, within(1e-6));
+      assertInverse(phase, 999);
+      // the rate would become negative after the end of the phase
+      assertThat(phase.scheduledTime(1001)).isEqualTo(Double.POSITIVE_INFINITY);
+   }
+
+   @Test
+   public void testRampWithEqualRates() {
+      PhaseInstanceImpl.OpenModelPhase phase = phase(catalog -> catalog.rampRate(100, 100));
+      assertThat(phase.scheduledTime(100)).isCloseTo(MICROS_PER_SEC, within(1e-6));
+      assertInverse(phase, 1000);
+   }
+
+   @Test
+   public void testEvenlySpacedGenerators() {
+      VirtualTime time = new VirtualTime(4);
+      RecordingPhase phase = new RecordingPhase(definition(catalog -> catalog.constantRate(1000).variance(false)), time);
+      phase.start(time);
+      time.runUntil(TimeUnit.MILLISECONDS.toNanos(2000) + 500_000);
+
+      // users scheduled at 0, 1, ... 2000 ms
+      assertThat(phase.intendedStarts.size()).isEqualTo(2001);
+      assertThat(phase.throttledUsers.size()).isZero();
+      for (int i = 0; i < phase.intendedStarts.size(); ++i) {
+         assertThat(phase.intendedStarts.get(i)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(i));
+         // generators take turns: user i is started by generator i % 4
+         assertThat(phase.startedBy.get(i)).isEqualTo(i % 4);
+      }
+      // only the first generator adjusts the rate
+      assertThat(phase.adjustedBy).isNotEmpty().containsOnly(0);
+   }
+
+   @Test
+   public void testPoissonArrivals() {
+      VirtualTime time = new VirtualTime(4);
+      RecordingPhase phase = new RecordingPhase(definition(catalog -> catalog.constantRate(1000).variance(true)), time);
+      phase.start(time);
+      time.runUntil(TimeUnit.SECONDS.toNanos(20));
+
+      long[] starts = phase.intendedStarts.stream().mapToLong(Long::longValue).sorted().toArray();
+      assertThat(starts.length).isCloseTo(20_000, within(1_000));
+      double[] intervals = new double[starts.length - 1];
+      for (int i = 0; i < intervals.length; ++i) {
+         intervals[i] = (starts[i + 1] - starts[i]) / 1_000_000d;
+      }
+      double mean = Arrays.stream(intervals).average().orElseThrow();
+      double variance = Arrays.stream(intervals).map(x -> (x - mean) * (x - mean)).sum() / (intervals.length - 1);
+      // superposition of the generators is a Poisson process: exponential inter-arrival times with mean 1 ms
+      assertThat(mean).isCloseTo(1, within(0.05));
+      assertThat(variance).isCloseTo(1, within(0.1));
+      for (int generator = 0; generator < 4; ++generator) {
+         int g = generator;
+         assertThat(phase.startedBy.stream().filter(index -> index == g).count()).isCloseTo(5_000, within(500L));
+      }
+   }
+
+   @Test
+   public void testThrottledUsers() {
+      VirtualTime time = new VirtualTime(2);
+      RecordingPhase phase = new RecordingPhase(definition(catalog -> catalog.constantRate(1000).variance(false)), time);
+      phase.availableSessions = 10;
+      phase.start(time);
+      time.runUntil(TimeUnit.MILLISECONDS.toNanos(19) + 500_000);
+
+      assertThat(phase.intendedStarts).hasSize(10);
+      // users 10 - 19 wait for a free session in the order of their scheduled start
+      assertThat(phase.throttledUsers.size()).isEqualTo(10);
+      for (int i = 10; i < 20; ++i) {
+         assertThat(phase.throttledUsers.poll()).isEqualTo(TimeUnit.MILLISECONDS.toMicros(i));
+      }
+      assertThat(phase.throttledUsers.poll()).isEqualTo(Long.MIN_VALUE);
+   }
+
+   @Test
+   public void testBacklog() {
+      PhaseInstanceImpl.Backlog backlog = new PhaseInstanceImpl.Backlog();
+      for (int i = 0; i < 100; ++i) {
+         // users scheduled within the same microsecond share an entry
+         backlog.add(i, i % 3 + 1);
+      }
+      assertThat(backlog.size()).isEqualTo(199);
+      for (int i = 0; i < 100; ++i) {
+         for (int j = 0; j <= i % 3; ++j) {
+            assertThat(backlog.poll()).isEqualTo(i);
+         }
+      }
+      assertThat(backlog.size()).isZero();
+      assertThat(backlog.poll()).isEqualTo(Long.MIN_VALUE);
+   }
+
+   private static void assertInverse(PhaseInstanceImpl.OpenModelPhase phase, int users) {
+      for (int i = 0; i <= users; i += Math.max(1, users / 100)) {
+         assertThat(phase.cumulativeUsers(phase.scheduledTime(i))).isCloseTo(i, within(1e-6));
+      }
+   }
+
+   private static PhaseInstanceImpl.OpenModelPhase phase(Function<PhaseBuilder.Catalog, PhaseBuilder<?>> model) {
+      return (PhaseInstanceImpl.OpenModelPhase) PhaseInstanceImpl.newInstance(definition(model), "run", 0);
+   }
+
+   private static Phase definition(Function<PhaseBuilder.Catalog, PhaseBuilder<?>> model) {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test");
+      model.apply(builder.addPhase("test")).duration(10_000)
+            .scenario().initialSequence("test").step(s -> true);
+      Benchmark benchmark = builder.build();
+      return benchmark.phases().iterator().next();
+   }
+
+   /**
+    * Records sessions started by the generators instead of starting them.
+    */
+   private static class RecordingPhase extends PhaseInstanceImpl.ConstantRate {
+      private final VirtualTime time;
+      final List<Long> intendedStarts = new ArrayList<>();
+      final List<Integer> startedBy = new ArrayList<>();
+      final List<Integer> adjustedBy = new ArrayList<>();
+      int availableSessions = Integer.MAX_VALUE;
+
+      RecordingPhase(Phase def, VirtualTime time) {
+         super(def, "run", 0);
+         this.time = time;
+         nanoClock = () -> time.now;
+         timerWheels = executor -> ((VirtualExecutor) executor).wheel;
+         setComponents(null, null, (phase, status, sessionLimitExceeded, error) -> CompletableFuture.completedFuture(null));
+      }
+
+      @Override
+      protected boolean startNewSession(long intendedStartNanos) {
+         if (availableSessions == 0) {
+            return true;
+         }
+         --availableSessions;
+         intendedStarts.add(intendedStartNanos - absoluteStartNanos);
+         startedBy.add(time.current.index);
+         return false;
+      }
+
+      @Override
+      protected void adjustRate(long delta) {
+         adjustedBy.add(time.current.index);
+      }
+   }
+
+   /**
+    * Group of executors that run the tasks in a single thread, in the order of their deadlines on a virtual clock.
+    */
+   private static class VirtualTime extends AbstractEventExecutorGroup {
+      private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+      private final List<EventExecutor> executors = new ArrayList<>();
+      private long now;
+      private long sequence;
+      private VirtualExecutor current;
+
+      VirtualTime(int executors) {
+         for (int i = 0; i < executors; ++i) {
+            this.executors.add(new VirtualExecutor(this, i));
+         }
+      }
+
+      void runUntil(long deadline) {
+         while (!tasks.isEmpty() && tasks.peek().deadline <= deadline) {
+            Task task = tasks.poll();
+            now = Math.max(now, task.deadline);
+            current = task.executor;
+            task.runnable.run();
+         }
+         now = deadline;
+      }
+
+      @Override
+      public EventExecutor next() {
+         return executors.get(0);
+      }
+
+      @Override
+      public Iterator<EventExecutor> iterator() {
+         return executors.iterator();
+      }
+
+      @Override
+      public boolean isShuttingDown() {
+         return false;
+      }
+
+      @Override
+      public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Future<?> terminationFuture() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void shutdown() {
+      }
+
+      @Override
+      public boolean isShutdown() {
+         return false;
+      }
+
+      @Override
+      public boolean isTerminated() {
+         return false;
+      }
+
+      @Override
+      public boolean awaitTermination(long timeout, TimeUnit unit) {
+         return false;
+      }
+   }
+
+   private static class Task implements Comparable<Task> {
+      final long deadline;
+      final long sequence;
+      final VirtualExecutor executor;
+      final Runnable runnable;
+
+      Task(long deadline, long sequence, VirtualExecutor executor, Runnable runnable) {
+         this.deadline = deadline;
+         this.sequence = sequence;
+         this.executor = executor;
+         this.runnable = runnable;
+      }
+
+      @Override
+      public int compareTo(Task o) {
+         int result = Long.compare(deadline, o.deadline);
+         return result != 0 ? result : Long.compare(sequence, o.sequence);
+      }
+   }
+
+   private static class VirtualExecutor extends AbstractEventExecutor {
+      private final VirtualTime time;
+      final int index;
+      final TimerWheel wheel;
+
+      VirtualExecutor(VirtualTime time, int index) {
+         super(time);
+         this.time = time;
+         this.index = index;
+         this.wheel = TimerWheel.forTesting(this, () -> time.now);
+      }
+
+      @Override
+      public void execute(Runnable command) {
+         time.tasks.add(new Task(time.now, time.sequence++, this, command));
+      }
+
+      @Override
+      public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+         time.tasks.add(new Task(time.now + unit.toNanos(delay), time.sequence++, this, command));
+         return null;
+      }
+
+      @Override
+      public boolean inEventLoop(Thread thread) {
+         return true;
+      }
+
+      @Override
+      public boolean isShuttingDown() {
+         return false;
+      }
+
+      @Override
+      public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Future<?> terminationFuture() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void shutdown() {
+      }
+
+      @Override
+      public boolean isShutdown() {
+         return false;
+      }
+
+      @Override
+      public boolean isTerminated() {
+         return false;
+      }
+
+      @Override
+      public boolean awaitTermination(long timeout, TimeUnit unit) {
+         return false;
+      }
+   }
+}
@@ -0,0 +1,37 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import io.hyperfoil.core.util.CpuAffinity;
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.EventExecutor;
+
+public class ThreadPlacementTest {
+   @Test
+   public void testPinExecutors() throws Exception {
+      int[] allowed = CpuAffinity.allowedCpus();
+      Assume.assumeTrue("Thread affinity is not available", allowed != null);
+      int[] cpu = { allowed[allowed.length - 1] };
+      ThreadPlacement placement = new ThreadPlacement(cpu, null);
+      EventExecutor[] executors = { new DefaultEventExecutor(), new DefaultEventExecutor() };
+      try {
+         var placed = placement.pinExecutors(executors);
+         // the executors keep running tasks while these are being pinned
+         assertThat(executors[1].submit(() -> true).get(10, TimeUnit.SECONDS)).isTrue();
+         placed.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+         int[] executorCpus = executors[1].submit(CpuAffinity::currentThreadCpus).get(10, TimeUnit.SECONDS);
+         Assume.assumeFalse("Cannot set thread affinity", placement.toString().contains("failed"));
+         assertThat(executorCpus).containsExactly(cpu);
+         assertThat(placement.toString()).startsWith("executors: 0->" + cpu[0]);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+         }
+      }
+   }
+}
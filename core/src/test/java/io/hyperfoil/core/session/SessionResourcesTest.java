@@ -0,0 +1,83 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+
+public class SessionResourcesTest {
+   private static final Session.ResourceKey<Counter> GLOBAL_KEY = new Session.ResourceKey<>();
+
+   @Test
+   public void testIndexedResources() {
+      ReservingStep first = new ReservingStep(false);
+      ReservingStep second = new ReservingStep(true);
+      Sequence sequence = new Sequence("test", 0, 3, 0, new Step[]{ first, second });
+      Scenario scenario = new Scenario(new Sequence[]{ sequence }, new Sequence[]{ sequence }, 16, 16);
+      assertThat(scenario.uniqueResources()).isEqualTo(2);
+      assertThat(first.key.index()).isBetween(0, 1);
+      assertThat(second.key.index()).isBetween(0, 1).isNotEqualTo(first.key.index());
+
+      SessionImpl session = (SessionImpl) SessionFactory.create(scenario, 0, 0);
+      assertThat(session.getResource(first.key)).isNull();
+      session.reserve(scenario);
+      assertThat(GLOBAL_KEY.index()).isLessThan(Session.ResourceKey.UNASSIGNED);
+
+      Counter[] perSequence = new Counter[3];
+      for (int i = 0; i < 3; ++i) {
+         session.currentSequence(new SequenceInstance().reset(sequence, i, sequence.steps(), null));
+         perSequence[i] = session.getResource(first.key);
+         assertThat(session.getResource(second.key)).isSameAs(session.getResource(GLOBAL_KEY));
+      }
+      assertThat(perSequence).doesNotContainNull().doesNotHaveDuplicates();
+   }
+
+   @Test
+   public void testGlobalIndicesReset() {
+      Session.ResourceKey<Counter> key = new Session.ResourceKey<>();
+      Session.ResourceKey.retainGlobalIndices();
+      Session.ResourceKey.retainGlobalIndices();
+      int index = key.ensureIndex();
+      assertThat(index).isLessThan(Session.ResourceKey.UNASSIGNED);
+      Session.ResourceKey.releaseGlobalIndices();
+      assertThat(key.index()).isEqualTo(index);
+      Session.ResourceKey.releaseGlobalIndices();
+      assertThat(key.index()).isEqualTo(Session.ResourceKey.UNASSIGNED);
+      // indices don't grow over runs
+      assertThat(new Session.ResourceKey<>().ensureIndex()).isEqualTo(Session.ResourceKey.globalIndex(0));
+   }
+
+   private static class Counter implements Session.Resource {
+      int value;
+   }
+
+   private static class ReservingStep implements Step, ResourceUtilizer {
+      final Session.ResourceKey<Counter> key = new Session.ResourceKey<>();
+      final boolean singleton;
+
+      ReservingStep(boolean singleton) {
+         this.singleton = singleton;
+      }
+
+      @Override
+      public boolean invoke(Session session) {
+         session.getResource(key).value++;
+         return true;
+      }
+
+      @Override
+      public void reserve(Session session) {
+         session.declareResource(key, Counter::new, singleton);
+         if (singleton) {
+            Counter shared = session.getResource(key);
+            session.declareSingletonResource(GLOBAL_KEY, shared);
+         }
+      }
+   }
+}
@@ -0,0 +1,46 @@
+package io.hyperfoil.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class CpuAffinityTest {
+   @Test
+   public void testParseAndFormat() {
+      assertThat(CpuAffinity.parse("0")).containsExactly(0);
+      assertThat(CpuAffinity.parse("0-3,8, 10-11,2")).containsExactly(0, 1, 2, 3, 8, 10, 11);
+      assertThat(CpuAffinity.parse("5,4\n")).containsExactly(4, 5);
+      assertThat(CpuAffinity.format(new int[]{ 0, 1, 2, 3, 8, 10, 11 })).isEqualTo("0-3,8,10-11");
+      assertThat(CpuAffinity.format(new int[]{ 1, 3, 5 })).isEqualTo("1,3,5");
+   }
+
+   @Test
+   public void testParseInvalid() {
+      assertThatThrownBy(() -> CpuAffinity.parse("")).isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> CpuAffinity.parse("3-1")).isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> CpuAffinity.parse("1-x")).isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> CpuAffinity.parse("-1")).isInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void testPinCurrentThread() throws Exception {
+      int[] allowed = CpuAffinity.allowedCpus();
+      Assume.assumeTrue("Thread affinity is not available", allowed != null);
+      CompletableFuture<int[]> pinned = new CompletableFuture<>();
+      // use a separate thread to not affect other tests
+      Thread thread = new Thread(() -> {
+         int[] cpu = { allowed[allowed.length - 1] };
+         pinned.complete(CpuAffinity.pinCurrentThread(cpu) ? CpuAffinity.currentThreadCpus() : null);
+      });
+      thread.start();
+      int[] cpus = pinned.get(10, TimeUnit.SECONDS);
+      Assume.assumeTrue("Cannot set thread affinity", cpus != null);
+      assertThat(cpus).containsExactly(allowed[allowed.length - 1]);
+      assertThat(CpuAffinity.allowedCpus()).isEqualTo(allowed);
+   }
+}
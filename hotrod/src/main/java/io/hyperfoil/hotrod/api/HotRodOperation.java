@@ -8,5 +8,54 @@ public enum HotRodOperation {
    /**
     * Get specified entry in the remote cache.
     */
-   GET
-}
\ No newline at end of file
+   GET,
+   /**
+    * Removes specified entry from the remote cache.
+    */
+   REMOVE,
+   /**
+    * Replaces the value of specified entry only if it is present in the remote cache.
+    */
+   REPLACE,
+   /**
+    * Adds specified entry only if it is not present in the remote cache.
+    */
+   PUT_IF_ABSENT,
+   /**
+    * Checks if the remote cache contains specified entry.
+    */
+   CONTAINS_KEY,
+   /**
+    * Gets multiple entries from the remote cache in a single request.
+    */
+   GET_ALL,
+   /**
+    * Adds or overrides multiple entries in the remote cache in a single request.
+    */
+   PUT_ALL;
+
+   /**
+    * @return Name of the operation as used in benchmark definitions, e.g. <code>putIfAbsent</code>.
+    */
+   public String camelCaseName() {
+      StringBuilder sb = new StringBuilder(name().length());
+      boolean upper = false;
+      for (char c : name().toCharArray()) {
+         if (c == '_') {
+            upper = true;
+         } else {
+            sb.append(upper ? c : Character.toLowerCase(c));
+            upper = false;
+         }
+      }
+      return sb.toString();
+   }
+
+   public boolean isBulk() {
+      return this == GET_ALL || this == PUT_ALL;
+   }
+
+   public boolean requiresValue() {
+      return this == PUT || this == REPLACE || this == PUT_IF_ABSENT || this == PUT_ALL;
+   }
+}
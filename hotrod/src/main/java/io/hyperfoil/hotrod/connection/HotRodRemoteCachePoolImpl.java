@@ -4,6 +4,7 @@ import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
@@ -102,6 +103,30 @@ public class HotRodRemoteCachePoolImpl implements HotRodRemoteCachePool {
       public CompletableFuture<V> getAsync(K key) {
          return remoteCache.getAsync(key);
       }
+
+      public CompletableFuture<V> removeAsync(K key) {
+         return remoteCache.removeAsync(key);
+      }
+
+      public CompletableFuture<V> replaceAsync(K key, V value) {
+         return remoteCache.replaceAsync(key, value);
+      }
+
+      public CompletableFuture<V> putIfAbsentAsync(K key, V value) {
+         return remoteCache.putIfAbsentAsync(key, value);
+      }
+
+      public CompletableFuture<Boolean> containsKeyAsync(K key) {
+         return remoteCache.containsKeyAsync(key);
+      }
+
+      public CompletableFuture<Map<K, V>> getAllAsync(Set<K> keys) {
+         return remoteCache.getAllAsync(keys);
+      }
+
+      public CompletableFuture<Void> putAllAsync(Map<K, V> entries) {
+         return remoteCache.putAllAsync(entries);
+      }
    }
 
    /**
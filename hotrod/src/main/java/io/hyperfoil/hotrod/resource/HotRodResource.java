@@ -1,34 +1,61 @@
 package io.hyperfoil.hotrod.resource;
 
-import java.util.concurrent.CompletableFuture;
-
 import io.hyperfoil.api.session.Session;
 
+/**
+ * Tracks operations issued by single invocation of the request step; with pipelining there can be
+ * more operations in flight at once.
+ */
 public class HotRodResource implements Session.Resource {
 
-   private long startTimestampNanos;
-   private long startTimestampMillis;
-   private CompletableFuture future;
+   private String key;
+   private Object value;
+   private int issued;
+   private int completed;
+   private int inFlight;
+
+   public void start(String key, Object value) {
+      this.key = key;
+      this.value = value;
+      this.issued = 0;
+      this.completed = 0;
+      this.inFlight = 0;
+   }
+
+   public String key() {
+      return key;
+   }
+
+   public Object value() {
+      return value;
+   }
+
+   /**
+    * @return Index of the issued operation.
+    */
+   public int issue() {
+      inFlight++;
+      return issued++;
+   }
 
-   public void set(CompletableFuture future, long startTimestampNanos, long startTimestampMillis) {
-      this.future = future;
-      this.startTimestampNanos = startTimestampNanos;
-      this.startTimestampMillis = startTimestampMillis;
+   public void complete() {
+      inFlight--;
+      completed++;
    }
 
-   public boolean isComplete() {
-      return this.future.isDone();
+   public int issued() {
+      return issued;
    }
 
-   public long getStartTimestampMillis() {
-      return startTimestampMillis;
+   public int inFlight() {
+      return inFlight;
    }
 
-   public long getStartTimestampNanos() {
-      return startTimestampNanos;
+   public boolean isComplete(int operations) {
+      return completed >= operations;
    }
 
-   public static class Key implements Session.ResourceKey<HotRodResource> {
+   public static class Key extends Session.ResourceKey<HotRodResource> {
 
    }
 }
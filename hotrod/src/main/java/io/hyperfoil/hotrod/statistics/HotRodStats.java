@@ -0,0 +1,138 @@
+package io.hyperfoil.hotrod.statistics;
+
+import java.util.Arrays;
+
+import org.kohsuke.MetaInfServices;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.hotrod.api.HotRodOperation;
+
+@MetaInfServices(StatsExtension.class)
+@JsonTypeName("hotrod")
+public class HotRodStats implements StatsExtension {
+   public static final String HOTROD = "hotrod";
+
+   private static final HotRodOperation[] OPERATIONS = HotRodOperation.values();
+   private static final Statistics.LongUpdater<HotRodStats> ADD_RESPONSE = (s, operation) -> s.responses[(int) operation]++;
+   private static final Statistics.LongUpdater<HotRodStats> ADD_HITS = (s, hits) -> s.hits += hits;
+   private static final Statistics.LongUpdater<HotRodStats> ADD_MISSES = (s, misses) -> s.misses += misses;
+   private static final String[] HEADERS;
+
+   static {
+      HEADERS = new String[OPERATIONS.length + 2];
+      for (int i = 0; i < OPERATIONS.length; ++i) {
+         HEADERS[i] = OPERATIONS[i].name();
+      }
+      HEADERS[OPERATIONS.length] = "Hits";
+      HEADERS[OPERATIONS.length + 1] = "Misses";
+   }
+
+   // indexed by operation ordinal
+   public long[] responses = new long[OPERATIONS.length];
+   public long hits;
+   public long misses;
+
+   public static void addResponse(Statistics statistics, long timestamp, HotRodOperation operation) {
+      statistics.update(HOTROD, timestamp, HotRodStats::new, ADD_RESPONSE, operation.ordinal());
+   }
+
+   public static void addHits(Statistics statistics, long timestamp, int hits, int misses) {
+      if (hits > 0) {
+         statistics.update(HOTROD, timestamp, HotRodStats::new, ADD_HITS, hits);
+      }
+      if (misses > 0) {
+         statistics.update(HOTROD, timestamp, HotRodStats::new, ADD_MISSES, misses);
+      }
+   }
+
+   public static HotRodStats get(StatisticsSnapshot snapshot) {
+      StatsExtension stats = snapshot.extensions.get(HOTROD);
+      if (stats == null) {
+         // return empty to prevent NPEs
+         return new HotRodStats();
+      }
+      return (HotRodStats) stats;
+   }
+
+   public long responses(HotRodOperation operation) {
+      return responses[operation.ordinal()];
+   }
+
+   @Override
+   public boolean isNull() {
+      return hits + misses == 0 && Arrays.stream(responses).allMatch(r -> r == 0);
+   }
+
+   @Override
+   public void add(StatsExtension other) {
+      if (other instanceof HotRodStats) {
+         HotRodStats o = (HotRodStats) other;
+         for (int i = 0; i < responses.length; ++i) {
+            responses[i] += o.responses[i];
+         }
+         hits += o.hits;
+         misses += o.misses;
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public void subtract(StatsExtension other) {
+      if (other instanceof HotRodStats) {
+         HotRodStats o = (HotRodStats) other;
+         for (int i = 0; i < responses.length; ++i) {
+            responses[i] -= o.responses[i];
+         }
+         hits -= o.hits;
+         misses -= o.misses;
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public void reset() {
+      Arrays.fill(responses, 0);
+      hits = 0;
+      misses = 0;
+   }
+
+   @Override
+   public HotRodStats clone() {
+      HotRodStats copy = new HotRodStats();
+      copy.add(this);
+      return copy;
+   }
+
+   @Override
+   public String[] headers() {
+      return HEADERS;
+   }
+
+   @Override
+   public String byHeader(String header) {
+      switch (header) {
+         case "Hits":
+            return String.valueOf(hits);
+         case "Misses":
+            return String.valueOf(misses);
+         default:
+            for (int i = 0; i < OPERATIONS.length; ++i) {
+               if (OPERATIONS[i].name().equals(header)) {
+                  return String.valueOf(responses[i]);
+               }
+            }
+            return "<unknown header: " + header + ">";
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "{responses=" + Arrays.toString(responses) + ", hits=" + hits + ", misses=" + misses + '}';
+   }
+}
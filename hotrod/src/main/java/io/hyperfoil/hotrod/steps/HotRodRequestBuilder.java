@@ -2,6 +2,7 @@ package io.hyperfoil.hotrod.steps;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.kohsuke.MetaInfServices;
 
@@ -32,31 +33,59 @@ public class HotRodRequestBuilder extends BaseStepBuilder<HotRodRequestBuilder>
    private HotRodOperationBuilder operation;
    private StringGeneratorBuilder cacheName;
    private MetricSelector metricSelector;
+   private String[] operationMetrics;
    private StringGeneratorBuilder key;
    private StringGeneratorBuilder value;
+   private int valueSize;
+   private int batchSize = 1;
+   private int pipeline = 1;
+   private int operations;
 
    @Override
    public void prepareBuild() {
       if (metricSelector == null) {
+         // Each operation gets its own metric (and response-time histogram), e.g. mySequence/get
          String sequenceName = Locator.current().sequence().name();
-         metricSelector = new ProvidedMetricSelector(sequenceName);
+         operationMetrics = Stream.of(HotRodOperation.values())
+               .map(op -> sequenceName + "/" + op.camelCaseName()).toArray(String[]::new);
       }
    }
 
    @Override
    public List<Step> build() {
+      if (operation == null) {
+         throw new BenchmarkDefinitionException("Operation must be set.");
+      } else if (key == null) {
+         throw new BenchmarkDefinitionException("Key must be set.");
+      } else if (value != null && valueSize > 0) {
+         throw new BenchmarkDefinitionException("Set either value or valueSize, not both.");
+      }
+      SerializableFunction<Session, HotRodOperation> operation = this.operation.build();
+      if (operation instanceof HotRodOperationBuilder.Provided) {
+         HotRodOperation op = operation.apply(null);
+         if (op.requiresValue() && value == null && valueSize <= 0) {
+            throw new BenchmarkDefinitionException("Operation " + op + " requires value or valueSize.");
+         } else if (batchSize > 1 && !op.isBulk()) {
+            throw new BenchmarkDefinitionException("Batch size can be set only for bulk operations (getAll, putAll).");
+         }
+      }
+      int operations = this.operations > 0 ? this.operations : pipeline;
+      if (operations < pipeline) {
+         throw new BenchmarkDefinitionException("Number of operations must not be lower than pipeline.");
+      }
       int stepId = StatisticsStep.nextId();
       HotRodResource.Key key = new HotRodResource.Key();
-      SerializableFunction<Session, String> keyGenerator = this.key != null ? this.key.build() : null;
+      SerializableFunction<Session, String> keyGenerator = this.key.build();
       SerializableFunction<Session, String> valueGenerator = this.value != null ? this.value.build() : null;
-      HotRodRequestStep step = new HotRodRequestStep(stepId, key, operation.build(), cacheName.build(), metricSelector,
-            keyGenerator, valueGenerator);
-      HotRodResponseStep secondHotRodStep = new HotRodResponseStep(key);
+      HotRodRequestStep step = new HotRodRequestStep(stepId, key, operation, cacheName.build(), metricSelector, operationMetrics,
+            keyGenerator, valueGenerator, valueSize, batchSize, pipeline, operations);
+      HotRodResponseStep secondHotRodStep = new HotRodResponseStep(step);
       return Arrays.asList(step, secondHotRodStep);
    }
 
    /**
-    * Requests statistics will use this metric name.
+    * Requests statistics will use this metric name. By default the metric is the sequence name followed
+    * by <code>/</code> and the operation, e.g. <code>mySequence/get</code>.
     *
     * @param name Metric name.
     * @return Self.
@@ -71,7 +100,7 @@ public class HotRodRequestBuilder extends BaseStepBuilder<HotRodRequestBuilder>
    }
 
    /**
-    * Allows categorizing request statistics into metrics based on the request path.
+    * Allows categorizing request statistics into metrics based on the cache name.
     *
     * @return Builder.
     */
@@ -162,6 +191,67 @@ public class HotRodRequestBuilder extends BaseStepBuilder<HotRodRequestBuilder>
       return value().pattern(pattern).end();
    }
 
+   /**
+    * Use binary value (<code>byte[]</code>) of given size with random content, instead of a string <code>value</code>.
+    * The same value is used in all requests.
+    *
+    * @param size Size of the value in bytes.
+    * @return Self.
+    */
+   public HotRodRequestBuilder valueSize(int size) {
+      if (size <= 0) {
+         throw new BenchmarkDefinitionException("Value size must be positive.");
+      }
+      this.valueSize = size;
+      return this;
+   }
+
+   /**
+    * Number of entries in bulk operations (<code>getAll</code>, <code>putAll</code>).
+    * The key of each entry is the generated key followed by <code>-</code> and index of the entry.
+    *
+    * @param batchSize Number of entries.
+    * @return Self.
+    */
+   public HotRodRequestBuilder batchSize(int batchSize) {
+      if (batchSize <= 0) {
+         throw new BenchmarkDefinitionException("Batch size must be positive.");
+      }
+      this.batchSize = batchSize;
+      return this;
+   }
+
+   /**
+    * Maximum number of operations in flight issued by this step. The step issues <code>operations</code>
+    * operations in total, and completes when all of them complete.
+    *
+    * @param pipeline Number of concurrent operations.
+    * @return Self.
+    */
+   public HotRodRequestBuilder pipeline(int pipeline) {
+      if (pipeline <= 0) {
+         throw new BenchmarkDefinitionException("Pipeline must be positive.");
+      }
+      this.pipeline = pipeline;
+      return this;
+   }
+
+   /**
+    * Number of operations issued by one execution of this step, defaults to <code>pipeline</code>.
+    * When there are more operations the key of each operation is the generated key followed by
+    * <code>-</code> and index of the operation.
+    *
+    * @param operations Number of operations.
+    * @return Self.
+    */
+   public HotRodRequestBuilder operations(int operations) {
+      if (operations <= 0) {
+         throw new BenchmarkDefinitionException("Number of operations must be positive.");
+      }
+      this.operations = operations;
+      return this;
+   }
+
    /**
     * Adds or overrides each specified entry in the remote cache.
     *
@@ -181,4 +271,64 @@ public class HotRodRequestBuilder extends BaseStepBuilder<HotRodRequestBuilder>
    public HotRodRequestBuilder get(String cacheName) {
       return operation(HotRodOperation.GET).cacheName(cacheName);
    }
+
+   /**
+    * Removes specified entry from the remote cache.
+    *
+    * @param cacheName Name of cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder remove(String cacheName) {
+      return operation(HotRodOperation.REMOVE).cacheName(cacheName);
+   }
+
+   /**
+    * Replaces the value of specified entry only if it is present in the remote cache.
+    *
+    * @param cacheName Name of cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder replace(String cacheName) {
+      return operation(HotRodOperation.REPLACE).cacheName(cacheName);
+   }
+
+   /**
+    * Adds specified entry only if it is not present in the remote cache.
+    *
+    * @param cacheName Name of cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder putIfAbsent(String cacheName) {
+      return operation(HotRodOperation.PUT_IF_ABSENT).cacheName(cacheName);
+   }
+
+   /**
+    * Checks if the remote cache contains specified entry.
+    *
+    * @param cacheName Name of cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder containsKey(String cacheName) {
+      return operation(HotRodOperation.CONTAINS_KEY).cacheName(cacheName);
+   }
+
+   /**
+    * Gets <code>batchSize</code> entries from the remote cache in a single request.
+    *
+    * @param cacheName Name of cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder getAll(String cacheName) {
+      return operation(HotRodOperation.GET_ALL).cacheName(cacheName);
+   }
+
+   /**
+    * Adds or overrides <code>batchSize</code> entries in the remote cache in a single request.
+    *
+    * @param cacheName Name of cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder putAll(String cacheName) {
+      return operation(HotRodOperation.PUT_ALL).cacheName(cacheName);
+   }
 }
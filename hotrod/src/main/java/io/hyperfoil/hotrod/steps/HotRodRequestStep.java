@@ -1,6 +1,11 @@
 package io.hyperfoil.hotrod.steps;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeoutException;
 
 import org.infinispan.client.hotrod.exceptions.HotRodTimeoutException;
@@ -16,6 +21,7 @@ import io.hyperfoil.hotrod.api.HotRodOperation;
 import io.hyperfoil.hotrod.api.HotRodRemoteCachePool;
 import io.hyperfoil.hotrod.connection.HotRodRemoteCachePoolImpl;
 import io.hyperfoil.hotrod.resource.HotRodResource;
+import io.hyperfoil.hotrod.statistics.HotRodStats;
 
 public class HotRodRequestStep extends StatisticsStep implements ResourceUtilizer, SLA.Provider {
 
@@ -23,22 +29,36 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
    final SerializableFunction<Session, HotRodOperation> operation;
    final SerializableFunction<Session, String> cacheName;
    final MetricSelector metricSelector;
+   // Metric names indexed by operation ordinal, used when metric selector is not set
+   final String[] operationMetrics;
    final SerializableFunction<Session, String> keyGenerator;
    final SerializableFunction<Session, String> valueGenerator;
+   final int valueSize;
+   final int batchSize;
+   final int pipeline;
+   final int operations;
+   // Binary value is shared by all sessions; it is never modified.
+   private transient byte[] binaryValue;
 
    protected HotRodRequestStep(int id, HotRodResource.Key futureWrapperKey,
                                SerializableFunction<Session, HotRodOperation> operation,
                                SerializableFunction<Session, String> cacheName,
-                               MetricSelector metricSelector,
+                               MetricSelector metricSelector, String[] operationMetrics,
                                SerializableFunction<Session, String> keyGenerator,
-                               SerializableFunction<Session, String> valueGenerator) {
+                               SerializableFunction<Session, String> valueGenerator,
+                               int valueSize, int batchSize, int pipeline, int operations) {
       super(id);
       this.futureWrapperKey = futureWrapperKey;
       this.operation = operation;
       this.cacheName = cacheName;
       this.metricSelector = metricSelector;
+      this.operationMetrics = operationMetrics;
       this.keyGenerator = keyGenerator;
       this.valueGenerator = valueGenerator;
+      this.valueSize = valueSize;
+      this.batchSize = batchSize;
+      this.pipeline = pipeline;
+      this.operations = operations;
    }
 
    @Override
@@ -48,42 +68,108 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
 
    @Override
    public boolean invoke(Session session) {
-
-      String cacheName = this.cacheName.apply(session);
-      HotRodOperation operation = this.operation.apply(session);
-      Object key = keyGenerator.apply(session);
+      String key = keyGenerator.apply(session);
       Object value = null;
       if (valueGenerator != null) {
          value = valueGenerator.apply(session);
+      } else if (valueSize > 0) {
+         value = binaryValue();
+      }
+      HotRodResource resource = session.getResource(futureWrapperKey);
+      resource.start(key, value);
+      issueOperations(session, resource);
+      return true;
+   }
+
+   boolean isComplete(Session session) {
+      return session.getResource(futureWrapperKey).isComplete(operations);
+   }
+
+   private byte[] binaryValue() {
+      byte[] value = binaryValue;
+      if (value == null) {
+         value = new byte[valueSize];
+         ThreadLocalRandom.current().nextBytes(value);
+         binaryValue = value;
       }
+      return value;
+   }
+
+   private void issueOperations(Session session, HotRodResource resource) {
+      while (resource.inFlight() < pipeline && resource.issued() < operations) {
+         issueOperation(session, resource, resource.issue());
+      }
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   private void issueOperation(Session session, HotRodResource resource, int index) {
+      String cacheName = this.cacheName.apply(session);
+      HotRodOperation operation = this.operation.apply(session);
       HotRodRemoteCachePool pool = HotRodRemoteCachePool.get(session);
       HotRodRemoteCachePoolImpl.RemoteCacheWithoutToString remoteCache = pool.getRemoteCache(cacheName);
-      String metric = metricSelector.apply(null, cacheName);
+      String metric = operationMetrics != null ? operationMetrics[operation.ordinal()] : metricSelector.apply(null, cacheName);
       Statistics statistics = session.statistics(id(), metric);
 
       long startTimestampMs = System.currentTimeMillis();
       long startTimestampNanos = System.nanoTime();
+      long startLagNanos = session.takeStartLagNanos();
+      Object value = resource.value();
       CompletableFuture future;
-      if (HotRodOperation.PUT.equals(operation)) {
-         future = remoteCache.putAsync(key, value);
-      } else if (HotRodOperation.GET.equals(operation)) {
-         future = remoteCache.getAsync(key);
-      } else {
-         throw new IllegalArgumentException(String.format("HotRodOperation %s not implemented", operation));
+      switch (operation) {
+         case PUT:
+            future = remoteCache.putAsync(key(resource, index, 0), value);
+            break;
+         case GET:
+            future = remoteCache.getAsync(key(resource, index, 0));
+            break;
+         case REMOVE:
+            future = remoteCache.removeAsync(key(resource, index, 0));
+            break;
+         case REPLACE:
+            future = remoteCache.replaceAsync(key(resource, index, 0), value);
+            break;
+         case PUT_IF_ABSENT:
+            future = remoteCache.putIfAbsentAsync(key(resource, index, 0), value);
+            break;
+         case CONTAINS_KEY:
+            future = remoteCache.containsKeyAsync(key(resource, index, 0));
+            break;
+         case GET_ALL:
+            Set<Object> keys = new HashSet<>();
+            for (int i = 0; i < batchSize; ++i) {
+               keys.add(key(resource, index, i));
+            }
+            future = remoteCache.getAllAsync(keys);
+            break;
+         case PUT_ALL:
+            Map<Object, Object> entries = new HashMap<>();
+            for (int i = 0; i < batchSize; ++i) {
+               entries.put(key(resource, index, i), value);
+            }
+            future = remoteCache.putAllAsync(entries);
+            break;
+         default:
+            throw new IllegalArgumentException(String.format("HotRodOperation %s not implemented", operation));
       }
       statistics.incrementRequests(startTimestampMs);
       future.exceptionally(t -> {
          trackResponseError(session, metric, t);
          return null;
       });
-      future.thenRun(() -> {
-         trackResponseSuccess(session, metric);
+      future.thenAccept(result -> {
+         trackResponseSuccess(session, metric, operation, result, startTimestampMs, startTimestampNanos, startLagNanos);
          assert session.executor().inEventLoop();
+         resource.complete();
+         issueOperations(session, resource);
          session.proceed();
       });
-      session.getResource(futureWrapperKey).set(future, startTimestampNanos, startTimestampMs);
+   }
 
-      return true;
+   private String key(HotRodResource resource, int operationIndex, int entryIndex) {
+      if (operations == 1 && batchSize == 1) {
+         return resource.key();
+      }
+      return resource.key() + "-" + (operationIndex * batchSize + entryIndex);
    }
 
    @Override
@@ -101,13 +187,28 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       session.stop();
    }
 
-   private void trackResponseSuccess(Session session, String metric) {
-      HotRodResource resource = session.getResource(futureWrapperKey);
-      long startTimestampMillis = resource.getStartTimestampMillis();
-      long startTimestampNanos = resource.getStartTimestampNanos();
+   private void trackResponseSuccess(Session session, String metric, HotRodOperation operation, Object result,
+                                     long startTimestampMillis, long startTimestampNanos, long startLagNanos) {
       long endTimestampNanos = System.nanoTime();
 
       Statistics statistics = session.statistics(id(), metric);
-      statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos);
+      long responseTime = endTimestampNanos - startTimestampNanos;
+      statistics.recordResponse(startTimestampMillis, responseTime, responseTime + startLagNanos);
+      HotRodStats.addResponse(statistics, startTimestampMillis, operation);
+      switch (operation) {
+         case GET:
+            HotRodStats.addHits(statistics, startTimestampMillis, result != null ? 1 : 0, result == null ? 1 : 0);
+            break;
+         case CONTAINS_KEY:
+            boolean contains = Boolean.TRUE.equals(result);
+            HotRodStats.addHits(statistics, startTimestampMillis, contains ? 1 : 0, contains ? 0 : 1);
+            break;
+         case GET_ALL:
+            int found = result == null ? 0 : ((Map<?, ?>) result).size();
+            HotRodStats.addHits(statistics, startTimestampMillis, found, batchSize - found);
+            break;
+         default:
+            // no hits or misses
+      }
    }
 }
@@ -2,20 +2,17 @@ package io.hyperfoil.hotrod.steps;
 
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.session.Session;
-import io.hyperfoil.hotrod.resource.HotRodResource;
 
 public class HotRodResponseStep implements Step {
 
-   final HotRodResource.Key futureWrapperKey;
+   final HotRodRequestStep requestStep;
 
-   protected HotRodResponseStep(HotRodResource.Key futureWrapperKey) {
-      this.futureWrapperKey = futureWrapperKey;
+   protected HotRodResponseStep(HotRodRequestStep requestStep) {
+      this.requestStep = requestStep;
    }
 
    @Override
    public boolean invoke(Session session) {
-      HotRodResource resource = session.getResource(futureWrapperKey);
-      boolean complete = resource.isComplete();
-      return complete;
+      return requestStep.isComplete(session);
    }
-}
\ No newline at end of file
+}
@@ -24,8 +24,8 @@ public class HotRodFailuresTest extends BaseHotRodTest {
    public void testHotRodFailures() {
       Benchmark benchmark = loadScenario("scenarios/HotRodPutTest.hf.yaml");
       Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
-      assertTrue(stats.get("example").requestCount > 0);
-      assertTrue(stats.get("example").connectionErrors > 0);
+      assertTrue(stats.get("example/put").requestCount > 0);
+      assertTrue(stats.get("example/put").connectionErrors > 0);
    }
 
    @Override
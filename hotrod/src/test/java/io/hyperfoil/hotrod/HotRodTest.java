@@ -12,6 +12,8 @@ import org.junit.runner.RunWith;
 
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.hotrod.api.HotRodOperation;
+import io.hyperfoil.hotrod.statistics.HotRodStats;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 
 @RunWith(VertxUnitRunner.class)
@@ -21,16 +23,43 @@ public class HotRodTest extends BaseHotRodTest {
    public void testHotRodPut() {
       Benchmark benchmark = loadScenario("scenarios/HotRodPutTest.hf.yaml");
       Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
-      assertTrue(stats.get("example").requestCount > 0);
-      assertEquals(0, stats.get("example").connectionErrors);
+      assertTrue(stats.get("example/put").requestCount > 0);
+      assertEquals(0, stats.get("example/put").connectionErrors);
    }
 
    @Test
    public void testHotRodGet() {
       Benchmark benchmark = loadScenario("scenarios/HotRodTestGet.hf.yaml");
       Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
-      assertTrue(stats.get("example").requestCount > 0);
-      assertEquals(0, stats.get("example").connectionErrors);
+      assertTrue(stats.get("example/get").requestCount > 0);
+      assertEquals(0, stats.get("example/get").connectionErrors);
+   }
+
+   @Test
+   public void testHotRodOperations() {
+      Benchmark benchmark = loadScenario("scenarios/HotRodOperationsTest.hf.yaml");
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      for (String metric : new String[]{ "putIfAbsent", "replace", "containsKey", "remove", "putAll", "getAll" }) {
+         assertEquals(metric, 1, stats.get(metric).requestCount);
+         assertEquals(metric, 1, stats.get(metric).responseCount);
+      }
+      assertEquals(1, HotRodStats.get(stats.get("replace")).responses(HotRodOperation.REPLACE));
+      assertEquals(1, HotRodStats.get(stats.get("containsKey")).hits);
+      HotRodStats getAll = HotRodStats.get(stats.get("getAll"));
+      assertEquals(10, getAll.hits);
+      assertEquals(10, getAll.misses);
+
+      assertEquals(10, stats.get("pipelinedPut").responseCount);
+      assertEquals(10, HotRodStats.get(stats.get("pipelinedPut")).responses(HotRodOperation.PUT));
+      HotRodStats pipelinedGet = HotRodStats.get(stats.get("pipelinedGet"));
+      assertEquals(12, pipelinedGet.responses(HotRodOperation.GET));
+      assertEquals(10, pipelinedGet.hits);
+      assertEquals(2, pipelinedGet.misses);
+
+      // without explicit metric each operation has its own metric
+      assertEquals(1, stats.get("operations/put").responseCount);
+      assertEquals(1, stats.get("operations/get").responseCount);
+      assertEquals(1, HotRodStats.get(stats.get("operations/get")).hits);
    }
 
    @Override
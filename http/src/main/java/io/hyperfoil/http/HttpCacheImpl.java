@@ -70,7 +70,7 @@ public class HttpCacheImpl implements HttpCache {
       if (authorityRecords == null) {
          return;
       }
-      List<Record> pathRecords = authorityRecords.get(request.path);
+      List<Record> pathRecords = authorityRecords.get(request.path());
       if (pathRecords == null || pathRecords.isEmpty()) {
          return;
       }
@@ -317,7 +317,7 @@ public class HttpCacheImpl implements HttpCache {
          return;
       }
       Map<CharSequence, List<Record>> authorityRecords = records.computeIfAbsent(request.authority, a -> new HashMap<>());
-      List<Record> pathRecords = authorityRecords.computeIfAbsent(request.path, newList);
+      List<Record> pathRecords = authorityRecords.computeIfAbsent(request.path(), newList);
       if (cc.responseEtag != null) {
          boolean weak = false;
          if (AsciiString.regionMatches(cc.responseEtag, false, 0, "W/", 0, 2)) {
@@ -10,7 +10,7 @@ import io.hyperfoil.function.SerializableBiConsumer;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.util.AsciiString;
 
-public class UserAgentAppender implements SerializableBiConsumer<Session, HttpRequestWriter>, ResourceUtilizer, Session.ResourceKey<UserAgentAppender.SessionId> {
+public class UserAgentAppender extends Session.ResourceKey<UserAgentAppender.SessionId> implements SerializableBiConsumer<Session, HttpRequestWriter>, ResourceUtilizer {
    private static final String HOSTNAME;
 
    static {
@@ -1,9 +1,10 @@
 package io.hyperfoil.http.api;
 
 import io.hyperfoil.api.session.Session;
+import io.netty.handler.codec.http.HttpHeaderNames;
 
 public interface HttpCache extends Session.Resource {
-   Session.ResourceKey<HttpCache> KEY = new Session.ResourceKey<>() {};
+   Session.ResourceKey<HttpCache> KEY = new Session.ResourceKey<>();
 
    void beforeRequestHeaders(HttpRequest request);
 
@@ -27,4 +28,15 @@ public interface HttpCache extends Session.Resource {
    static HttpCache get(Session session) {
       return session.getResource(KEY);
    }
+
+   /**
+    * @param header Request header name.
+    * @return True if the value of this request header can affect the cache, see {@link #requestHeader(HttpRequest, CharSequence, CharSequence)}.
+    */
+   static boolean isRequestHeaderRelevant(CharSequence header) {
+      return HttpHeaderNames.CACHE_CONTROL.contentEqualsIgnoreCase(header) ||
+            HttpHeaderNames.PRAGMA.contentEqualsIgnoreCase(header) ||
+            HttpHeaderNames.IF_MATCH.contentEqualsIgnoreCase(header) ||
+            HttpHeaderNames.IF_NONE_MATCH.contentEqualsIgnoreCase(header);
+   }
 }
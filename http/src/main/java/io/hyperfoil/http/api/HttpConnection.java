@@ -15,7 +15,15 @@ public interface HttpConnection extends Connection {
 
    void attach(HttpConnectionPool pool);
 
+   /**
+    * @param request Request that should be sent.
+    * @param template Pre-encoded constant parts of the request, or <code>null</code>.
+    * @param headerAppenders Appenders for headers that are not part of the template.
+    * @param injectHostHeader Add <code>Host</code> header.
+    * @param bodyGenerator Request body generator.
+    */
    void request(HttpRequest request,
+                HttpRequestTemplate template,
                 BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                 boolean injectHostHeader,
                 BiFunction<Session, Connection, ByteBuf> bodyGenerator);
@@ -1,5 +1,6 @@
 package io.hyperfoil.http.api;
 
+import java.nio.charset.StandardCharsets;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
@@ -12,6 +13,8 @@ import io.hyperfoil.http.statistics.HttpStats;
 import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.http.HttpRequestPool;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.buffer.UnpooledHeapByteBuf;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -23,7 +26,10 @@ public class HttpRequest extends Request {
    public HttpResponseHandlers handlers;
    public HttpMethod method;
    public String authority;
-   public String path;
+   private String path;
+   // Path rendered directly from a pattern; the String form is decoded only when needed
+   private ByteBuf pathBytes;
+   private boolean pathRendered;
    public CacheControl cacheControl = new CacheControl();
    private HttpConnectionPool pool;
 
@@ -50,6 +56,14 @@ public class HttpRequest extends Request {
                     BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                     boolean injectHostHeader,
                     BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      send(connection, null, headerAppenders, injectHostHeader, bodyGenerator);
+   }
+
+   public void send(HttpConnection connection,
+                    HttpRequestTemplate template,
+                    BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
+                    boolean injectHostHeader,
+                    BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
       if (session.currentRequest() != null) {
          // Refuse to fire request from other request's handler as the other handlers
          // would have messed up current request in session.
@@ -62,7 +76,7 @@ public class HttpRequest extends Request {
 
       attach(connection);
       connection.attach(pool);
-      connection.request(this, headerAppenders, injectHostHeader, bodyGenerator);
+      connection.request(this, template, headerAppenders, injectHostHeader, bodyGenerator);
    }
 
    @Override
@@ -77,17 +91,58 @@ public class HttpRequest extends Request {
       this.method = null;
       this.authority = null;
       this.path = null;
+      this.pathRendered = false;
       this.pool = null;
       cacheControl.reset();
    }
 
+   /**
+    * @return Request path including query, without the authority.
+    */
+   public String path() {
+      if (path == null && pathRendered) {
+         path = pathBytes.toString(StandardCharsets.UTF_8);
+      }
+      return path;
+   }
+
+   public void path(String path) {
+      this.path = path;
+      this.pathRendered = false;
+   }
+
+   /**
+    * Sets the path to whatever gets written into the returned buffer (encoded as UTF-8). The buffer is owned
+    * by this request and valid until it completes.
+    *
+    * @return Empty buffer.
+    */
+   public ByteBuf pathBuffer() {
+      if (pathBytes == null) {
+         // Not leak-aware on purpose: the buffer is reused with this pooled request and garbage-collected with it.
+         pathBytes = new UnpooledHeapByteBuf(UnpooledByteBufAllocator.DEFAULT, 64, Integer.MAX_VALUE);
+      } else {
+         pathBytes.clear();
+      }
+      path = null;
+      pathRendered = true;
+      return pathBytes;
+   }
+
+   /**
+    * @return Path written into {@link #pathBuffer()}, or <code>null</code> if the path was set as a String.
+    */
+   public ByteBuf pathBytes() {
+      return pathRendered ? pathBytes : null;
+   }
+
    public HttpResponseHandlers handlers() {
       return handlers;
    }
 
    @Override
    public String toString() {
-      return super.toString() + " " + method + " " + authority + path;
+      return super.toString() + " " + method + " " + authority + path();
    }
 
    @Override
@@ -0,0 +1,247 @@
+package io.hyperfoil.http.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.impl.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Parts of the request that are known when the benchmark is built and do not change between requests
+ * issued by the same step. For HTTP/1.x the request line and headers are compiled into constant byte slices
+ * separated by variable slots (method, path and header appenders); the slices are copied into the outgoing
+ * buffer as-is and only the slots are rendered for each request.
+ * <p>
+ * The template also records where the headers added by appenders belong among the constant headers,
+ * so that the headers are sent in the order these were declared.
+ */
+public class HttpRequestTemplate implements Serializable {
+   private static final byte[] HTTP1_1 = { ' ', 'H', 'T', 'T', 'P', '/', '1', '.', '1', '\r', '\n' };
+   private static final byte SLOT_METHOD = 0;
+   private static final byte SLOT_PATH = 1;
+
+   private final HttpMethod method;
+   private final String path;
+   private final String[] headerNames;
+   private final String[] headerValues;
+   private final int[] appenderPositions;
+   // constant slices of the request line; between slices i and i + 1 the slot lineSlots[i] is written
+   @Visitor.Ignore
+   private final byte[][] lineSlices;
+   @Visitor.Ignore
+   private final byte[] lineSlots;
+   // constant slices of the headers; between slices i and i + 1 the header appender i is invoked
+   @Visitor.Ignore
+   private final byte[][] headerSlices;
+
+   /**
+    * @param method Method used by all requests, or <code>null</code> if it is not constant.
+    * @param path Path used by all requests, or <code>null</code> if it is not constant.
+    * @param headerNames Names of headers with constant values.
+    * @param headerValues Values of headers with constant values.
+    * @param appenderPositions For each header appender the number of constant headers declared before it.
+    */
+   public HttpRequestTemplate(HttpMethod method, String path, List<String> headerNames, List<String> headerValues,
+                              int[] appenderPositions) {
+      assert headerNames.size() == headerValues.size();
+      this.method = method;
+      this.path = path;
+      this.headerNames = headerNames.toArray(new String[0]);
+      this.headerValues = headerValues.toArray(new String[0]);
+      this.appenderPositions = appenderPositions;
+
+      List<byte[]> lineSlices = new ArrayList<>();
+      ByteArrayOutputStream line = new ByteArrayOutputStream();
+      byte[] lineSlots = new byte[2];
+      int numSlots = 0;
+      if (method != null) {
+         line.writeBytes(method.netty.asciiName().array());
+      } else {
+         lineSlices.add(line.toByteArray());
+         line.reset();
+         lineSlots[numSlots++] = SLOT_METHOD;
+      }
+      line.write(' ');
+      if (path != null) {
+         ByteBuf encoded = Unpooled.buffer(path.length());
+         writePath(encoded, path);
+         line.write(encoded.array(), encoded.arrayOffset(), encoded.readableBytes());
+      } else {
+         lineSlices.add(line.toByteArray());
+         line.reset();
+         lineSlots[numSlots++] = SLOT_PATH;
+      }
+      line.writeBytes(HTTP1_1);
+      lineSlices.add(line.toByteArray());
+      this.lineSlices = lineSlices.toArray(new byte[0][]);
+      this.lineSlots = Arrays.copyOf(lineSlots, numSlots);
+
+      this.headerSlices = new byte[appenderPositions.length + 1][];
+      ByteArrayOutputStream headers = new ByteArrayOutputStream();
+      int slice = 0;
+      for (int i = 0; i <= this.headerNames.length; ++i) {
+         while (slice < appenderPositions.length && appenderPositions[slice] == i) {
+            headerSlices[slice++] = headers.toByteArray();
+            headers.reset();
+         }
+         if (i == this.headerNames.length) {
+            break;
+         }
+         // header name CANNOT be anything but US-ASCII: latin is already wider
+         headers.writeBytes(this.headerNames[i].getBytes(StandardCharsets.ISO_8859_1));
+         headers.write(':');
+         headers.write(' ');
+         String value = this.headerValues[i];
+         headers.writeBytes(value.getBytes(Util.isLatin(value) ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8));
+         headers.write('\r');
+         headers.write('\n');
+      }
+      headerSlices[slice] = headers.toByteArray();
+   }
+
+   /**
+    * Writes HTTP/1.1 request line: constant parts are copied from the template, method and path that were
+    * not constant when the template was built are taken from the request.
+    *
+    * @param request Request that is being sent.
+    * @param buf Target buffer.
+    */
+   public void writeRequestLine(HttpRequest request, ByteBuf buf) {
+      assert method == null || method == request.method;
+      assert path == null || path.equals(request.path());
+      for (int i = 0; i < lineSlots.length; ++i) {
+         buf.writeBytes(lineSlices[i]);
+         if (lineSlots[i] == SLOT_METHOD) {
+            buf.writeBytes(request.method.netty.asciiName().array());
+         } else {
+            writePath(buf, request);
+         }
+      }
+      buf.writeBytes(lineSlices[lineSlots.length]);
+   }
+
+   /**
+    * Writes path of the request into the request line, using the rendered bytes when available.
+    *
+    * @param buf Target buffer.
+    * @param request Request that is being sent.
+    */
+   public static void writePath(ByteBuf buf, HttpRequest request) {
+      ByteBuf pathBytes = request.pathBytes();
+      if (pathBytes != null) {
+         writePath(buf, pathBytes);
+      } else {
+         writePath(buf, request.path());
+      }
+   }
+
+   /**
+    * Copies path rendered as bytes into the request line, encoding spaces.
+    *
+    * @param buf Target buffer.
+    * @param path UTF-8 encoded request path; reader index is not modified.
+    */
+   public static void writePath(ByteBuf buf, ByteBuf path) {
+      int index = path.readerIndex();
+      int end = path.writerIndex();
+      boolean beforeQuestion = true;
+      while (index < end) {
+         int space = path.indexOf(index, end, (byte) ' ');
+         int segmentEnd = space < 0 ? end : space;
+         if (beforeQuestion && path.indexOf(index, segmentEnd, (byte) '?') >= 0) {
+            beforeQuestion = false;
+         }
+         buf.writeBytes(path, index, segmentEnd - index);
+         if (space >= 0) {
+            if (beforeQuestion) {
+               buf.writeByte('%');
+               buf.writeByte('2');
+               buf.writeByte('0');
+            } else {
+               buf.writeByte('+');
+            }
+         }
+         index = segmentEnd + 1;
+      }
+   }
+
+   /**
+    * Writes path into the request line, encoding spaces.
+    *
+    * @param buf Target buffer.
+    * @param path Request path.
+    */
+   public static void writePath(ByteBuf buf, String path) {
+      boolean beforeQuestion = true;
+      for (int i = 0; i < path.length(); ++i) {
+         char c = path.charAt(i);
+         if (c == ' ') {
+            if (beforeQuestion) {
+               buf.writeByte('%');
+               buf.writeByte('2');
+               buf.writeByte('0');
+            } else {
+               buf.writeByte('+');
+            }
+         } else {
+            if (c == '?') {
+               beforeQuestion = false;
+            }
+            buf.writeByte(0xFF & c);
+         }
+      }
+   }
+
+   /**
+    * Writes constant headers in the HTTP/1.x format (including the CRLF after each header), invoking
+    * the header appenders in between as these were declared.
+    *
+    * @param buf Target buffer.
+    * @param session Session issuing the request.
+    * @param headerAppenders Appenders for headers that are not part of the template.
+    * @param writer Request writer passed to the appenders.
+    */
+   public void writeHeaders(ByteBuf buf, Session session, BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
+                            HttpRequestWriter writer) {
+      if (headerAppenders != null) {
+         assert headerAppenders.length == appenderPositions.length;
+         for (int i = 0; i < headerAppenders.length; ++i) {
+            buf.writeBytes(headerSlices[i]);
+            headerAppenders[i].accept(session, writer);
+         }
+      }
+      buf.writeBytes(headerSlices[headerSlices.length - 1]);
+   }
+
+   /**
+    * Passes constant headers to the writer, invoking the header appenders in between as these were declared;
+    * used by protocols where the headers cannot be pre-encoded.
+    *
+    * @param session Session issuing the request.
+    * @param headerAppenders Appenders for headers that are not part of the template.
+    * @param writer Request writer.
+    */
+   public void putHeaders(Session session, BiConsumer<Session, HttpRequestWriter>[] headerAppenders, HttpRequestWriter writer) {
+      int written = 0;
+      if (headerAppenders != null) {
+         assert headerAppenders.length == appenderPositions.length;
+         for (int i = 0; i < headerAppenders.length; ++i) {
+            for (; written < appenderPositions[i]; ++written) {
+               writer.putHeader(headerNames[written], headerValues[written]);
+            }
+            headerAppenders[i].accept(session, writer);
+         }
+      }
+      for (; written < headerNames.length; ++written) {
+         writer.putHeader(headerNames[written], headerValues[written]);
+      }
+   }
+}
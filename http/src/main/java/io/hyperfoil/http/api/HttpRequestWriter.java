@@ -1,9 +1,24 @@
 package io.hyperfoil.http.api;
 
+import io.hyperfoil.core.generators.Pattern;
+
 public interface HttpRequestWriter {
    HttpConnection connection();
 
    HttpRequest request();
 
    void putHeader(CharSequence header, CharSequence value);
+
+   /**
+    * Adds header with value rendered from the pattern; HTTP/1.x connections write the value directly into
+    * the request buffer, without creating a String. The value is not passed to {@link HttpCache},
+    * therefore this must not be used for headers {@link HttpCache#isRequestHeaderRelevant(CharSequence) relevant}
+    * to caching.
+    *
+    * @param header Header name.
+    * @param value Pattern producing the header value.
+    */
+   default void putHeader(CharSequence header, Pattern value) {
+      putHeader(header, value.apply(request().session));
+   }
 }
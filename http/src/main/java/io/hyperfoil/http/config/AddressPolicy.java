@@ -0,0 +1,25 @@
+package io.hyperfoil.http.config;
+
+/**
+ * Selects one of the {@link Http#addresses() addresses} when a new connection is opened.
+ * Addresses that reached their connection quota are skipped by all policies.
+ */
+public enum AddressPolicy {
+   /**
+    * Pick an address randomly.
+    */
+   RANDOM,
+   /**
+    * Cycle through the addresses in the order these were defined.
+    */
+   ROUND_ROBIN,
+   /**
+    * Pick the address with the lowest number of open connections relative to its weight.
+    */
+   LEAST_CONNECTIONS,
+   /**
+    * Smooth weighted round-robin: address with weight 3 gets three times more connections
+    * than address with weight 1, and these are interleaved rather than opened in bursts.
+    */
+   WEIGHTED
+}
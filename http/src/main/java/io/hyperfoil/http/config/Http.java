@@ -35,9 +35,12 @@ public class Http implements Serializable {
    private final Protocol protocol;
    private final String host;
    private final int port;
-   private final String[] addresses;
+   private final Address[] addresses;
+   private final AddressPolicy addressPolicy;
    private final HttpVersion[] versions;
    private final int maxHttp2Streams;
+   private final int http2ConnectionWindowSize;
+   private final int http2StreamWindowSize;
    private final int pipeliningLimit;
    private final ConnectionPoolConfig sharedConnections;
    private final boolean directHttp2;
@@ -46,11 +49,13 @@ public class Http implements Serializable {
    private final KeyManager keyManager;
    private final TrustManager trustManager;
    private final ConnectionStrategy connectionStrategy;
+   private final long dnsRefreshPeriod;
 
-   public Http(String name, boolean isDefault, String originalDestination, Protocol protocol, String host, int port, String[] addresses,
-               HttpVersion[] versions, int maxHttp2Streams, int pipeliningLimit, ConnectionPoolConfig sharedConnections,
+   public Http(String name, boolean isDefault, String originalDestination, Protocol protocol, String host, int port, Address[] addresses,
+               AddressPolicy addressPolicy, HttpVersion[] versions, int maxHttp2Streams,
+               int http2ConnectionWindowSize, int http2StreamWindowSize, int pipeliningLimit, ConnectionPoolConfig sharedConnections,
                boolean directHttp2, long requestTimeout, boolean rawBytesHandlers,
-               KeyManager keyManager, TrustManager trustManager, ConnectionStrategy connectionStrategy) {
+               KeyManager keyManager, TrustManager trustManager, ConnectionStrategy connectionStrategy, long dnsRefreshPeriod) {
       this.name = name;
       this.isDefault = isDefault;
       this.originalDestination = originalDestination;
@@ -58,8 +63,11 @@ public class Http implements Serializable {
       this.host = host;
       this.port = port;
       this.addresses = addresses;
+      this.addressPolicy = addressPolicy;
       this.versions = versions;
       this.maxHttp2Streams = maxHttp2Streams;
+      this.http2ConnectionWindowSize = http2ConnectionWindowSize;
+      this.http2StreamWindowSize = http2StreamWindowSize;
       this.pipeliningLimit = pipeliningLimit;
       this.sharedConnections = sharedConnections;
       this.directHttp2 = directHttp2;
@@ -68,6 +76,7 @@ public class Http implements Serializable {
       this.keyManager = keyManager;
       this.trustManager = trustManager;
       this.connectionStrategy = connectionStrategy;
+      this.dnsRefreshPeriod = dnsRefreshPeriod;
    }
 
    public String name() {
@@ -103,6 +112,20 @@ public class Http implements Serializable {
       return maxHttp2Streams;
    }
 
+   /**
+    * @return Flow-control window for all streams in one HTTP/2 connection.
+    */
+   public int http2ConnectionWindowSize() {
+      return http2ConnectionWindowSize;
+   }
+
+   /**
+    * @return Initial flow-control window for each HTTP/2 stream (the <code>SETTINGS_INITIAL_WINDOW_SIZE</code>).
+    */
+   public int http2StreamWindowSize() {
+      return http2StreamWindowSize;
+   }
+
    public int pipeliningLimit() {
       return pipeliningLimit;
    }
@@ -123,10 +146,14 @@ public class Http implements Serializable {
       return requestTimeout;
    }
 
-   public String[] addresses() {
+   public Address[] addresses() {
       return addresses;
    }
 
+   public AddressPolicy addressPolicy() {
+      return addressPolicy;
+   }
+
    public boolean rawBytesHandlers() {
       return rawBytesHandlers;
    }
@@ -143,6 +170,43 @@ public class Http implements Serializable {
       return connectionStrategy;
    }
 
+   /**
+    * @return Period in milliseconds of re-resolving hostnames of this endpoint, or non-positive value to re-resolve only when DNS TTL expires.
+    */
+   public long dnsRefreshPeriod() {
+      return dnsRefreshPeriod;
+   }
+
+   public static class Address implements Serializable {
+      private final String address;
+      private final int weight;
+      private final int maxConnections;
+
+      public Address(String address, int weight, int maxConnections) {
+         this.address = address;
+         this.weight = weight;
+         this.maxConnections = maxConnections;
+      }
+
+      /**
+       * @return IP address or hostname, optionally with port.
+       */
+      public String address() {
+         return address;
+      }
+
+      public int weight() {
+         return weight;
+      }
+
+      /**
+       * @return Maximum number of connections to this address opened by one agent, or negative value if unlimited.
+       */
+      public int maxConnections() {
+         return maxConnections;
+      }
+   }
+
    public static class KeyManager implements Serializable {
       private final String storeType;
       private final byte[] storeBytes;
@@ -46,11 +46,14 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
    private Protocol protocol;
    private String host;
    private int port = -1;
-   private List<String> addresses = new ArrayList<>();
+   private List<Http.Address> addresses = new ArrayList<>();
+   private AddressPolicy addressPolicy = AddressPolicy.RANDOM;
    private boolean allowHttp1x = true;
    private boolean allowHttp2 = true;
    private ConnectionPoolConfig.Builder sharedConnections = new ConnectionPoolConfig.Builder(this);
    private int maxHttp2Streams = 100;
+   private int http2ConnectionWindowSize = 1073676288;
+   private int http2StreamWindowSize = 65535;
    private int pipeliningLimit = 1;
    private boolean directHttp2 = false;
    private long requestTimeout = 30000;
@@ -58,6 +61,7 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
    private KeyManagerBuilder keyManager = new KeyManagerBuilder(this);
    private TrustManagerBuilder trustManager = new TrustManagerBuilder(this);
    private ConnectionStrategy connectionStrategy = ConnectionStrategy.SHARED_POOL;
+   private long dnsRefreshPeriod = -1;
 
    public static HttpBuilder forTesting() {
       return new HttpBuilder(null);
@@ -178,6 +182,23 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
       return this;
    }
 
+   public HttpBuilder http2ConnectionWindowSize(int windowSize) {
+      // The connection window can only grow from the default set by the protocol
+      if (windowSize < 65535) {
+         throw new BenchmarkDefinitionException("HTTP/2 connection window size must be at least 65535 bytes.");
+      }
+      this.http2ConnectionWindowSize = windowSize;
+      return this;
+   }
+
+   public HttpBuilder http2StreamWindowSize(int windowSize) {
+      if (windowSize <= 0) {
+         throw new BenchmarkDefinitionException("HTTP/2 stream window size must be positive.");
+      }
+      this.http2StreamWindowSize = windowSize;
+      return this;
+   }
+
    public HttpBuilder pipeliningLimit(int limit) {
       this.pipeliningLimit = limit;
       return this;
@@ -207,7 +228,19 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
    }
 
    public HttpBuilder addAddress(String address) {
-      addresses.add(address);
+      return addAddress(address, 1, -1);
+   }
+
+   public HttpBuilder addAddress(String address, int weight, int maxConnections) {
+      if (weight <= 0) {
+         throw new BenchmarkDefinitionException("Weight of address " + address + " must be positive.");
+      }
+      addresses.add(new Http.Address(address, weight, maxConnections));
+      return this;
+   }
+
+   public HttpBuilder addressPolicy(AddressPolicy addressPolicy) {
+      this.addressPolicy = addressPolicy;
       return this;
    }
 
@@ -233,6 +266,20 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
       return connectionStrategy;
    }
 
+   public HttpBuilder dnsRefreshPeriod(long dnsRefreshPeriod) {
+      this.dnsRefreshPeriod = dnsRefreshPeriod;
+      return this;
+   }
+
+   public HttpBuilder dnsRefreshPeriod(String dnsRefreshPeriod) {
+      if ("none".equals(dnsRefreshPeriod)) {
+         this.dnsRefreshPeriod = -1;
+      } else {
+         this.dnsRefreshPeriod = Util.parseToMillis(dnsRefreshPeriod);
+      }
+      return this;
+   }
+
    public void prepareBuild() {
    }
 
@@ -262,10 +309,10 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
          }
       }
       Protocol protocol = this.protocol != null ? this.protocol : Protocol.fromPort(port);
-      return http = new Http(name, isDefault, originalDestination, protocol, host, protocol.portOrDefault(port), addresses.toArray(new String[0]),
-            httpVersions.toArray(new HttpVersion[0]), maxHttp2Streams, pipeliningLimit,
-            sharedConnections.build(), directHttp2, requestTimeout, rawBytesHandlers, keyManager.build(), trustManager.build(),
-            connectionStrategy);
+      return http = new Http(name, isDefault, originalDestination, protocol, host, protocol.portOrDefault(port),
+            addresses.toArray(new Http.Address[0]), addressPolicy, httpVersions.toArray(new HttpVersion[0]), maxHttp2Streams,
+            http2ConnectionWindowSize, http2StreamWindowSize, pipeliningLimit, sharedConnections.build(), directHttp2, requestTimeout, rawBytesHandlers, keyManager.build(), trustManager.build(),
+            connectionStrategy, dnsRefreshPeriod);
    }
 
    public static class KeyManagerBuilder implements BuilderBase<KeyManagerBuilder> {
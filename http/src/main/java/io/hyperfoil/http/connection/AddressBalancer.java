@@ -0,0 +1,179 @@
+package io.hyperfoil.http.connection;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.hyperfoil.http.config.AddressPolicy;
+import io.hyperfoil.http.config.Http;
+import io.hyperfoil.impl.Util;
+import io.netty.util.AttributeKey;
+
+/**
+ * Selects target address for new connections according to {@link AddressPolicy} and enforces per-address
+ * connection quotas. This instance is shared by all executors; connections are counted from the moment
+ * the address is selected until the connection is closed (or the attempt fails).
+ */
+class AddressBalancer {
+   static final AttributeKey<Target> TARGET = AttributeKey.valueOf("io.hyperfoil.http.connection.target");
+
+   private final AddressPolicy policy;
+   private final Target[] targets;
+   private final AtomicInteger counter = new AtomicInteger();
+
+   AddressBalancer(Http.Address[] addresses, AddressPolicy policy, int defaultPort) {
+      this.policy = policy;
+      this.targets = new Target[addresses.length];
+      for (int i = 0; i < addresses.length; ++i) {
+         targets[i] = new Target(addresses[i], defaultPort);
+      }
+   }
+
+   /**
+    * @return Target with a reserved connection slot, or <code>null</code> if all targets reached their quota.
+    */
+   Target acquire() {
+      switch (policy) {
+         case RANDOM:
+            return firstAvailable(ThreadLocalRandom.current().nextInt(targets.length));
+         case ROUND_ROBIN:
+            return firstAvailable(Math.floorMod(counter.getAndIncrement(), targets.length));
+         case LEAST_CONNECTIONS:
+            return leastConnections();
+         case WEIGHTED:
+            return weighted();
+         default:
+            throw new IllegalStateException("Unknown policy " + policy);
+      }
+   }
+
+   Target[] targets() {
+      return targets;
+   }
+
+   List<String> hosts() {
+      return Stream.of(targets).map(target -> target.host).collect(Collectors.toList());
+   }
+
+   private Target firstAvailable(int start) {
+      for (int i = 0; i < targets.length; ++i) {
+         Target target = targets[(start + i) % targets.length];
+         if (target.tryAcquire()) {
+            return target;
+         }
+      }
+      return null;
+   }
+
+   private Target leastConnections() {
+      // Rotating the start spreads the connections among targets with equal load
+      int start = Math.floorMod(counter.getAndIncrement(), targets.length);
+      for (; ; ) {
+         Target best = null;
+         int bestConnections = 0;
+         for (int i = 0; i < targets.length; ++i) {
+            Target target = targets[(start + i) % targets.length];
+            int connections = target.connections.get();
+            if (target.isFull(connections)) {
+               continue;
+            }
+            if (best == null || (long) connections * best.weight < (long) bestConnections * target.weight) {
+               best = target;
+               bestConnections = connections;
+            }
+         }
+         if (best == null) {
+            return null;
+         } else if (best.tryAcquire()) {
+            return best;
+         }
+         // Another executor has taken the last slot; full target will be skipped in next round
+      }
+   }
+
+   private synchronized Target weighted() {
+      // Smooth weighted round-robin as implemented in Nginx
+      Target best = null;
+      int totalWeight = 0;
+      for (Target target : targets) {
+         if (target.isFull(target.connections.get())) {
+            continue;
+         }
+         target.currentWeight += target.weight;
+         totalWeight += target.weight;
+         if (best == null || target.currentWeight > best.currentWeight) {
+            best = target;
+         }
+      }
+      if (best == null) {
+         return null;
+      }
+      best.currentWeight -= totalWeight;
+      // Other policies are not used concurrently and releases can only lower the counter
+      best.connections.incrementAndGet();
+      return best;
+   }
+
+   static final class Target {
+      final String label;
+      final String host;
+      final int port;
+      final int weight;
+      final int maxConnections;
+      final AtomicInteger connections = new AtomicInteger();
+      // guarded by the balancer
+      private int currentWeight;
+
+      Target(Http.Address address, int defaultPort) {
+         String value = address.address();
+         this.label = value;
+         this.weight = address.weight();
+         this.maxConnections = address.maxConnections();
+         // This code must handle addresses in form ipv4address, ipv4address:port, [ipv6address]:port, ipv6address
+         int bracketIndex = value.lastIndexOf(']');
+         int firstColonIndex = value.indexOf(':');
+         int lastColonIndex = value.lastIndexOf(':');
+         if (lastColonIndex >= 0 && ((bracketIndex >= 0 && lastColonIndex > bracketIndex) || (bracketIndex < 0 && lastColonIndex == firstColonIndex))) {
+            this.host = stripBrackets(value.substring(0, lastColonIndex));
+            this.port = (int) Util.parseLong(value, lastColonIndex + 1, value.length(), defaultPort);
+         } else {
+            this.host = stripBrackets(value);
+            this.port = defaultPort;
+         }
+      }
+
+      private static String stripBrackets(String host) {
+         // InetAddress.getByName accepts IPv6 address in brackets but we don't want to rely on the resolver
+         if (host.startsWith("[") && host.endsWith("]")) {
+            return host.substring(1, host.length() - 1);
+         }
+         return host;
+      }
+
+      private boolean isFull(int connections) {
+         return maxConnections >= 0 && connections >= maxConnections;
+      }
+
+      private boolean tryAcquire() {
+         for (; ; ) {
+            int current = connections.get();
+            if (isFull(current)) {
+               return false;
+            } else if (connections.compareAndSet(current, current + 1)) {
+               return true;
+            }
+         }
+      }
+
+      void release() {
+         connections.decrementAndGet();
+      }
+
+      @Override
+      public String toString() {
+         return label;
+      }
+   }
+}
@@ -52,7 +52,7 @@ class ConnectionAllocator extends ConnectionPoolStats implements HttpConnectionP
             conn.context().channel().closeFuture().addListener(v -> {
                conn.setClosed();
                log.debug("Closed {} to {}", conn, authority);
-               typeStats.get(tagConnection(conn)).decrementUsed();
+               decrementTypeStats(conn);
                usedConnections.decrementUsed();
             });
             consumer.accept(conn);
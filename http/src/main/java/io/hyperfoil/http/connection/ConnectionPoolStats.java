@@ -12,11 +12,20 @@ import org.apache.logging.log4j.LogManager;
 
 class ConnectionPoolStats {
    private static final Logger log = LogManager.getLogger(ConnectionPoolStats.class);
+   private static final String[] HTTP2_STREAMS_TAGS = {
+         "HTTP 2 acquired at 0-25% streams", "HTTP 2 acquired at 25-50% streams",
+         "HTTP 2 acquired at 50-75% streams", "HTTP 2 acquired at 75-100% streams"
+   };
    protected final String authority;
    protected final Watermarks usedConnections = new Watermarks();
    protected final Watermarks inFlight = new Watermarks();
    protected final Watermarks blockedSessions = new Watermarks();
    protected final Map<String, Watermarks> typeStats = new HashMap<>();
+   protected final Map<String, Watermarks> addressStats = new HashMap<>();
+   // Streams on HTTP/2 connections when these are acquired; the histogram splits the stream limit into quarters
+   private final int[] http2StreamsHistogram = new int[HTTP2_STREAMS_TAGS.length];
+   private int http2StreamsMin = Integer.MAX_VALUE;
+   private int http2StreamsMax = Integer.MIN_VALUE;
 
    ConnectionPoolStats(String authority) {
       this.authority = authority;
@@ -30,6 +39,13 @@ class ConnectionPoolStats {
       inFlight.decrementUsed();
    }
 
+   protected void recordHttp2Streams(int streams, int maxStreams) {
+      http2StreamsMin = Math.min(http2StreamsMin, streams);
+      http2StreamsMax = Math.max(http2StreamsMax, streams);
+      int bucket = maxStreams <= 0 ? 0 : (int) ((streams - 1L) * http2StreamsHistogram.length / maxStreams);
+      http2StreamsHistogram[Math.max(0, Math.min(bucket, http2StreamsHistogram.length - 1))]++;
+   }
+
    public void visitConnectionStats(ConnectionStatsConsumer consumer) {
       consumer.accept(authority, "in-flight requests", inFlight.minUsed(), inFlight.maxUsed());
       inFlight.resetStats();
@@ -43,6 +59,22 @@ class ConnectionPoolStats {
          entry.getValue().resetStats();
          consumer.accept(authority, entry.getKey(), min, max);
       }
+      for (var entry : addressStats.entrySet()) {
+         int min = entry.getValue().minUsed();
+         int max = entry.getValue().maxUsed();
+         entry.getValue().resetStats();
+         consumer.accept(authority, "connections to " + entry.getKey(), min, max);
+      }
+      if (http2StreamsMin <= http2StreamsMax) {
+         consumer.accept(authority, "HTTP 2 streams per connection", http2StreamsMin, http2StreamsMax);
+         for (int i = 0; i < http2StreamsHistogram.length; ++i) {
+            int count = http2StreamsHistogram[i];
+            http2StreamsHistogram[i] = 0;
+            consumer.accept(authority, HTTP2_STREAMS_TAGS[i], count, count);
+         }
+         http2StreamsMin = Integer.MAX_VALUE;
+         http2StreamsMax = Integer.MIN_VALUE;
+      }
    }
 
    protected String tagConnection(HttpConnection connection) {
@@ -58,5 +90,17 @@ class ConnectionPoolStats {
 
    protected void incrementTypeStats(HttpConnection conn) {
       typeStats.computeIfAbsent(tagConnection(conn), t -> new Watermarks()).incrementUsed();
+      AddressBalancer.Target target = conn.context().channel().attr(AddressBalancer.TARGET).get();
+      if (target != null) {
+         addressStats.computeIfAbsent(target.label, a -> new Watermarks()).incrementUsed();
+      }
+   }
+
+   protected void decrementTypeStats(HttpConnection conn) {
+      typeStats.get(tagConnection(conn)).decrementUsed();
+      AddressBalancer.Target target = conn.context().channel().attr(AddressBalancer.TARGET).get();
+      if (target != null) {
+         addressStats.get(target.label).decrementUsed();
+      }
    }
 }
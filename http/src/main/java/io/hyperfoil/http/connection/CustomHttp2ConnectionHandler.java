@@ -12,6 +12,7 @@ import io.hyperfoil.http.api.HttpConnection;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.HttpClientUpgradeHandler;
+import io.netty.handler.codec.http2.Http2CodecUtil;
 import io.netty.handler.codec.http2.Http2ConnectionDecoder;
 import io.netty.handler.codec.http2.Http2ConnectionEncoder;
 import io.netty.handler.codec.http2.Http2Settings;
@@ -71,8 +72,10 @@ class CustomHttp2ConnectionHandler extends io.netty.handler.codec.http2.Http2Con
    private void checkActivated(ChannelHandlerContext ctx) {
       if (connection == null) {
          connection = new Http2Connection(ctx, connection(), encoder(), decoder(), clientPool);
-         // Use a very large stream window size
-         connection.incrementConnectionWindowSize(1073676288 - 65535);
+         int windowIncrement = clientPool.config().http2ConnectionWindowSize() - Http2CodecUtil.DEFAULT_WINDOW_SIZE;
+         if (windowIncrement > 0) {
+            connection.incrementConnectionWindowSize(windowIncrement);
+         }
          if (clientPool.config().rawBytesHandlers()) {
             String customeHandlerName = generateName(CustomHttp2ConnectionHandler.class);
             ctx.pipeline().addBefore(customeHandlerName, null, new Http2RawResponseHandler(connection));
@@ -0,0 +1,98 @@
+package io.hyperfoil.http.connection;
+
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.hyperfoil.core.impl.EventLoopFactory;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.DnsServerAddressStreamProvider;
+import io.netty.resolver.dns.DnsServerAddressStreamProviders;
+import io.netty.resolver.dns.RoundRobinDnsAddressResolverGroup;
+import io.netty.util.NetUtil;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Asynchronous DNS resolver for a single HTTP endpoint. Resolved addresses are cached respecting DNS TTL;
+ * when the hostname resolves to multiple addresses these are used in round-robin fashion.
+ * <p>
+ * With a positive refresh period the hostnames are periodically resolved again even if the TTL did not expire,
+ * so that connections opened during long runs spread over new addresses returned by DNS-based load balancers.
+ * Each endpoint has its own cache, therefore the refresh period does not affect other endpoints.
+ */
+public class EndpointResolver {
+   private static final Logger log = LogManager.getLogger(EndpointResolver.class);
+
+   private final long refreshPeriod;
+   private final DefaultDnsCache cache = new DefaultDnsCache();
+   private final AddressResolverGroup<InetSocketAddress> group;
+   private ScheduledFuture<?> refreshTask;
+
+   /**
+    * @param refreshPeriod Period of re-resolution in milliseconds; non-positive value disables re-resolution.
+    */
+   public EndpointResolver(long refreshPeriod) {
+      this(refreshPeriod, DnsServerAddressStreamProviders.platformDefault());
+   }
+
+   EndpointResolver(long refreshPeriod, DnsServerAddressStreamProvider nameServers) {
+      this.refreshPeriod = refreshPeriod;
+      DnsNameResolverBuilder builder = new DnsNameResolverBuilder()
+            .channelType(EventLoopFactory.INSTANCE.datagramChannel())
+            .nameServerProvider(nameServers)
+            // The cache is shared by resolvers in all event loops
+            .resolveCache(cache);
+      this.group = new RoundRobinDnsAddressResolverGroup(builder);
+   }
+
+   AddressResolverGroup<InetSocketAddress> group() {
+      return group;
+   }
+
+   /**
+    * Starts periodic re-resolution of the hostnames, if the refresh period is set.
+    *
+    * @param executor  Executor running the re-resolution.
+    * @param hostnames Hostnames or IP addresses used by the endpoint; IP addresses are ignored.
+    */
+   void startRefresh(EventExecutor executor, Collection<String> hostnames) {
+      List<String> names = hostnames.stream()
+            .filter(host -> !NetUtil.isValidIpV4Address(host) && !NetUtil.isValidIpV6Address(host))
+            .distinct().collect(Collectors.toList());
+      if (refreshPeriod <= 0 || names.isEmpty() || refreshTask != null) {
+         return;
+      }
+      refreshTask = executor.scheduleAtFixedRate(() -> refresh(executor, names), refreshPeriod, refreshPeriod, TimeUnit.MILLISECONDS);
+   }
+
+   private void refresh(EventExecutor executor, List<String> hostnames) {
+      AddressResolver<InetSocketAddress> resolver = group.getResolver(executor);
+      for (String hostname : hostnames) {
+         // Without the cached entry the name is queried again; concurrent lookups share the query
+         cache.clear(hostname);
+         resolver.resolveAll(InetSocketAddress.createUnresolved(hostname, 0)).addListener(future -> {
+            if (future.isSuccess()) {
+               log.debug("Refreshed addresses of {}: {}", hostname, future.getNow());
+            } else {
+               log.warn("Failed to refresh addresses of {}", hostname, future.cause());
+            }
+         });
+      }
+   }
+
+   public void close() {
+      if (refreshTask != null) {
+         refreshTask.cancel(false);
+      }
+      group.close();
+   }
+}
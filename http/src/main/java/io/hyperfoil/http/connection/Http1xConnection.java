@@ -9,11 +9,13 @@ import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.http.api.HttpVersion;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
+import io.hyperfoil.core.generators.Pattern;
 import io.hyperfoil.impl.Util;
 import io.hyperfoil.http.api.HttpCache;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.config.Http;
 import io.netty.buffer.ByteBuf;
@@ -37,6 +39,7 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    private static final byte[] HTTP1_1 = { ' ', 'H', 'T', 'T', 'P', '/', '1', '.', '1', '\r', '\n' };
 
    private final Deque<HttpRequest> inflights;
+   private final HttpRequestWriterImpl writer = new HttpRequestWriterImpl();
    private final BiConsumer<HttpConnection, Throwable> activationHandler;
    private final boolean secure;
    private final int pipeliningLimit;
@@ -115,32 +118,18 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
 
    @Override
    public void request(HttpRequest request,
+                       HttpRequestTemplate template,
                        BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                        boolean injectHostHeader,
                        BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
       assert aboutToSend > 0;
       aboutToSend--;
       ByteBuf buf = ctx.alloc().buffer();
-      buf.writeBytes(request.method.netty.asciiName().array());
-      buf.writeByte(' ');
-      boolean beforeQuestion = true;
-      for (int i = 0; i < request.path.length(); ++i) {
-         if (request.path.charAt(i) == ' ') {
-            if (beforeQuestion) {
-               buf.writeByte(0xFF & '%');
-               buf.writeByte(0xFF & '2');
-               buf.writeByte(0xFF & '0');
-            } else {
-               buf.writeByte(0xFF & '+');
-            }
-         } else {
-            if (request.path.charAt(i) == '?') {
-               beforeQuestion = false;
-            }
-            buf.writeByte(0xFF & request.path.charAt(i));
-         }
+      if (template != null) {
+         template.writeRequestLine(request, buf);
+      } else {
+         writeRequestLine(buf, request);
       }
-      buf.writeBytes(HTTP1_1);
 
       if (injectHostHeader) {
          writeHeader(buf, HttpHeaderNames.HOST.array(), pool.clientPool().originalDestinationBytes());
@@ -161,17 +150,21 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
 
       HttpCache httpCache = HttpCache.get(request.session);
       httpCache.beforeRequestHeaders(request);
-      // TODO: if headers are strings, UTF-8 conversion creates a lot of trash
-      HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, buf);
-      if (headerAppenders != null) {
-         // TODO: allocation, if it's not eliminated we could store a reusable object
+      // The writer is reused for all requests on this connection; we're always running in the event loop.
+      HttpRequestWriterImpl writer = this.writer;
+      writer.reset(request, buf);
+      if (template != null) {
+         template.writeHeaders(buf, request.session, headerAppenders, writer);
+      } else if (headerAppenders != null) {
          for (BiConsumer<Session, HttpRequestWriter> headerAppender : headerAppenders) {
             headerAppender.accept(request.session, writer);
          }
       }
       buf.writeByte('\r').writeByte('\n');
       assert ctx.executor().inEventLoop();
-      if (httpCache.isCached(request, writer)) {
+      boolean cached = httpCache.isCached(request, writer);
+      writer.reset(null, null);
+      if (cached) {
          if (trace) {
             log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
@@ -195,6 +188,13 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       pool.afterRequestSent(this);
    }
 
+   private void writeRequestLine(ByteBuf buf, HttpRequest request) {
+      buf.writeBytes(request.method.netty.asciiName().array());
+      buf.writeByte(' ');
+      HttpRequestTemplate.writePath(buf, request);
+      buf.writeBytes(HTTP1_1);
+   }
+
    private void writeHeader(ByteBuf buf, byte[] name, byte[] value) {
       buf.writeBytes(name).writeByte(':').writeByte(' ').writeBytes(value).writeByte('\r').writeByte('\n');
    }
@@ -321,10 +321,10 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    }
 
    private class HttpRequestWriterImpl implements HttpRequestWriter {
-      private final HttpRequest request;
-      private final ByteBuf buf;
+      private HttpRequest request;
+      private ByteBuf buf;
 
-      HttpRequestWriterImpl(HttpRequest request, ByteBuf buf) {
+      void reset(HttpRequest request, ByteBuf buf) {
          this.request = request;
          this.buf = buf;
       }
@@ -343,16 +343,7 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       public void putHeader(CharSequence header, CharSequence value) {
          final ByteBuf buf = this.buf;
          buf.ensureWritable(header.length() + value.length() + 4);
-         if (header instanceof AsciiString) {
-            final AsciiString ascii = (AsciiString) header;
-            // remove this when https://github.com/netty/netty/pull/13197 will be merged
-            buf.writeBytes(ascii.array(), ascii.arrayOffset(), ascii.length());
-         } else {
-            // header name CANNOT be anything but US-ASCII: latin is already wider
-            buf.writeCharSequence(header, CharsetUtil.ISO_8859_1);
-         }
-         buf.writeByte(':');
-         buf.writeByte(' ');
+         writeHeaderName(buf, header);
          if (value instanceof AsciiString) {
             final AsciiString ascii = (AsciiString) value;
             // remove this when https://github.com/netty/netty/pull/13197 will be merged
@@ -368,5 +359,27 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
          buf.writeByte('\n');
          HttpCache.get(request.session).requestHeader(request, header, value);
       }
+
+      @Override
+      public void putHeader(CharSequence header, Pattern value) {
+         final ByteBuf buf = this.buf;
+         writeHeaderName(buf, header);
+         value.accept(request.session, buf);
+         buf.writeByte('\r');
+         buf.writeByte('\n');
+      }
+
+      private void writeHeaderName(ByteBuf buf, CharSequence header) {
+         if (header instanceof AsciiString) {
+            final AsciiString ascii = (AsciiString) header;
+            // remove this when https://github.com/netty/netty/pull/13197 will be merged
+            buf.writeBytes(ascii.array(), ascii.arrayOffset(), ascii.length());
+         } else {
+            // header name CANNOT be anything but US-ASCII: latin is already wider
+            buf.writeCharSequence(header, CharsetUtil.ISO_8859_1);
+         }
+         buf.writeByte(':');
+         buf.writeByte(' ');
+      }
    }
 }
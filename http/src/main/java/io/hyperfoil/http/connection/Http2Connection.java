@@ -15,6 +15,7 @@ import io.hyperfoil.http.api.HttpClientPool;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.api.HttpResponseHandlers;
 import io.hyperfoil.http.config.Http;
@@ -49,6 +50,7 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    private final io.netty.handler.codec.http2.Http2Connection connection;
    private final Http2ConnectionEncoder encoder;
    private final IntObjectMap<HttpRequest> streams = new IntObjectHashMap<>();
+   private final HttpRequestWriterImpl writer = new HttpRequestWriterImpl();
    private final long clientMaxStreams;
    private final boolean secure;
 
@@ -126,6 +128,7 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    }
 
    public void request(HttpRequest request,
+                       HttpRequestTemplate template,
                        BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                        boolean injectHostHeader,
                        BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
@@ -135,12 +138,13 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
 
       ByteBuf buf = bodyGenerator != null ? bodyGenerator.apply(request.session, this) : null;
 
-      if (request.path.contains(" ")) {
-         int length = request.path.length();
+      String path = request.path();
+      if (path.contains(" ")) {
+         int length = path.length();
          AppendableCharSequence temp = new AppendableCharSequence(length);
          boolean beforeQuestion = true;
          for (int i = 0; i < length; ++i) {
-            if (request.path.charAt(i) == ' ') {
+            if (path.charAt(i) == ' ') {
                if (beforeQuestion) {
                   temp.append('%');
                   temp.append('2');
@@ -149,17 +153,18 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
                   temp.append('+');
                }
             } else {
-               if (request.path.charAt(i) == '?') {
+               if (path.charAt(i) == '?') {
                   beforeQuestion = false;
                }
-               temp.append(request.path.charAt(i));
+               temp.append(path.charAt(i));
             }
          }
-         request.path = temp.toString();
+         path = temp.toString();
+         request.path(path);
       }
 
       Http2Headers headers = new DefaultHttp2Headers().method(request.method.name()).scheme(httpClientPool.scheme())
-            .path(request.path).authority(httpClientPool.authority());
+            .path(path).authority(httpClientPool.authority());
       // HTTPS selects host via SNI headers, duplicate Host header could confuse the server/proxy
       if (injectHostHeader && !pool.clientPool().config().protocol().secure()) {
          headers.add(HttpHeaderNames.HOST, httpClientPool.config().originalDestination());
@@ -168,13 +173,19 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          headers.add(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
       }
 
-      HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, headers);
-      if (headerAppenders != null) {
+      // The writer is reused for all requests on this connection; we're always running in the event loop.
+      HttpRequestWriterImpl writer = this.writer;
+      writer.reset(request, headers);
+      if (template != null) {
+         template.putHeaders(request.session, headerAppenders, writer);
+      } else if (headerAppenders != null) {
          for (BiConsumer<Session, HttpRequestWriter> headerAppender : headerAppenders) {
             headerAppender.accept(request.session, writer);
          }
       }
-      if (HttpCache.get(request.session).isCached(request, writer)) {
+      boolean cached = HttpCache.get(request.session).isCached(request, writer);
+      writer.reset(null, null);
+      if (cached) {
          if (trace) {
             log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
@@ -292,7 +303,18 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          if (settings.maxConcurrentStreams() != null) {
             // The settings frame may be sent at any moment, e.g. when the connection
             // does not have ongoing request and therefore the pool == null
+            boolean wasAvailable = isAvailable();
             maxStreams = Math.min(clientMaxStreams, settings.maxConcurrentStreams());
+            if (trace) {
+               log.trace("{} peer allows {} concurrent streams, using {}", Http2Connection.this, settings.maxConcurrentStreams(), maxStreams);
+            }
+            // When the limit is lowered the pool skips this connection until enough streams complete;
+            // when it is raised for a full connection we need to return it to the pool.
+            HttpConnectionPool pool = Http2Connection.this.pool;
+            if (!wasAvailable && isAvailable() && pool != null && !isClosed()) {
+               pool.release(Http2Connection.this, true, false);
+               pool.pulse();
+            }
          }
       }
 
@@ -411,10 +433,10 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    }
 
    private class HttpRequestWriterImpl implements HttpRequestWriter {
-      private final HttpRequest request;
-      private final Http2Headers headers;
+      private HttpRequest request;
+      private Http2Headers headers;
 
-      HttpRequestWriterImpl(HttpRequest request, Http2Headers headers) {
+      void reset(HttpRequest request, Http2Headers headers) {
          this.request = request;
          this.headers = headers;
       }
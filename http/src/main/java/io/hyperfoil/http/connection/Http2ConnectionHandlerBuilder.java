@@ -5,6 +5,7 @@ import java.util.function.BiConsumer;
 import io.hyperfoil.http.api.HttpClientPool;
 import io.hyperfoil.http.api.HttpConnection;
 import io.netty.handler.codec.http2.AbstractHttp2ConnectionHandlerBuilder;
+import io.netty.handler.codec.http2.Http2CodecUtil;
 import io.netty.handler.codec.http2.Http2ConnectionDecoder;
 import io.netty.handler.codec.http2.Http2ConnectionEncoder;
 import io.netty.handler.codec.http2.Http2EventAdapter;
@@ -20,6 +21,10 @@ class Http2ConnectionHandlerBuilder extends AbstractHttp2ConnectionHandlerBuilde
       this.clientPool = clientPool;
       this.isUpgrade = isUpgrade;
       this.requestHandler = requestHandler;
+      int streamWindowSize = clientPool.config().http2StreamWindowSize();
+      if (streamWindowSize != Http2CodecUtil.DEFAULT_WINDOW_SIZE) {
+         initialSettings(Http2Settings.defaultSettings().initialWindowSize(streamWindowSize));
+      }
    }
 
    @Override
@@ -2,6 +2,7 @@ package io.hyperfoil.http.connection;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.ConnectException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -16,7 +17,7 @@ import java.security.cert.CertificateFactory;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.Base64;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
@@ -31,7 +32,6 @@ import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.core.impl.ConnectionStatsConsumer;
 import io.hyperfoil.core.impl.EventLoopFactory;
-import io.hyperfoil.impl.Util;
 import io.hyperfoil.http.config.ConnectionPoolConfig;
 import io.hyperfoil.http.config.Http;
 import io.hyperfoil.http.api.HttpVersion;
@@ -63,8 +63,6 @@ public class HttpClientPoolImpl implements HttpClientPool {
    private static final Logger log = LogManager.getLogger(HttpClientPoolImpl.class);
 
    final Http http;
-   final String[] addressHosts;
-   final int[] addressPorts;
    final int port;
    final String host;
    final String scheme;
@@ -75,6 +73,8 @@ public class HttpClientPoolImpl implements HttpClientPool {
    private final HttpConnectionPool[] children;
    private final AtomicInteger idx = new AtomicInteger();
    private final Supplier<HttpConnectionPool> nextSupplier;
+   private final EndpointResolver resolver;
+   private final AddressBalancer balancer;
 
    public static HttpClientPoolImpl forTesting(Http http, int threads) throws SSLException {
       EventLoopGroup eventLoopGroup = EventLoopFactory.INSTANCE.create(threads);
@@ -90,7 +90,12 @@ public class HttpClientPoolImpl implements HttpClientPool {
    }
 
    public HttpClientPoolImpl(Http http, EventLoop[] executors, Benchmark benchmark, int agentId) throws SSLException {
+      this(http, executors, benchmark, agentId, new EndpointResolver(http.dnsRefreshPeriod()));
+   }
+
+   HttpClientPoolImpl(Http http, EventLoop[] executors, Benchmark benchmark, int agentId, EndpointResolver resolver) throws SSLException {
       this.http = http;
+      this.resolver = resolver;
       this.sslContext = http.protocol().secure() ? createSslContext() : null;
       this.host = http.host();
       this.port = http.port();
@@ -160,23 +165,7 @@ public class HttpClientPoolImpl implements HttpClientPool {
          nextSupplier = () -> children[idx.getAndIncrement() % children.length];
       }
 
-      addressHosts = new String[http.addresses().length];
-      addressPorts = new int[http.addresses().length];
-      String[] addresses = http.addresses();
-      for (int i = 0; i < addresses.length; i++) {
-         final String address = addresses[i];
-         // This code must handle addresses in form ipv4address, ipv4address:port, [ipv6address]:port, ipv6address
-         int bracketIndex = address.lastIndexOf(']');
-         int firstColonIndex = address.indexOf(':');
-         int lastColonIndex = address.lastIndexOf(':');
-         if (lastColonIndex >= 0 && ((bracketIndex >= 0 && lastColonIndex > bracketIndex) || (bracketIndex < 0 && lastColonIndex == firstColonIndex))) {
-            addressHosts[i] = address.substring(0, lastColonIndex);
-            addressPorts[i] = (int) Util.parseLong(address, lastColonIndex + 1, address.length(), port);
-         } else {
-            addressHosts[i] = address;
-            addressPorts[i] = port;
-         }
-      }
+      balancer = http.addresses().length > 0 ? new AddressBalancer(http.addresses(), http.addressPolicy(), port) : null;
    }
 
    private SslContext createSslContext() throws SSLException {
@@ -300,6 +289,7 @@ public class HttpClientPoolImpl implements HttpClientPool {
 
    @Override
    public void start(Handler<AsyncResult<Void>> completionHandler) {
+      resolver.startRefresh(children[0].executor(), balancer != null ? balancer.hosts() : List.of(host));
       AtomicInteger countDown = new AtomicInteger(children.length);
       for (HttpConnectionPool child : children) {
          child.start(result -> {
@@ -318,6 +308,7 @@ public class HttpClientPoolImpl implements HttpClientPool {
       for (HttpConnectionPool child : children) {
          child.shutdown();
       }
+      resolver.close();
    }
 
    void connect(final HttpConnectionPool pool, ConnectionReceiver handler) {
@@ -328,16 +319,34 @@ public class HttpClientPoolImpl implements HttpClientPool {
       bootstrap.option(ChannelOption.SO_REUSEADDR, true);
 
       bootstrap.handler(new HttpChannelInitializer(this, handler));
+      bootstrap.resolver(resolver.group());
 
       String address = this.host;
       int port = this.port;
-      if (addressHosts.length > 0) {
-         int index = ThreadLocalRandom.current().nextInt(addressHosts.length);
-         address = addressHosts[index];
-         port = addressPorts[index];
+      AddressBalancer.Target target = null;
+      if (balancer != null) {
+         target = balancer.acquire();
+         if (target == null) {
+            handler.accept(null, new ConnectException("All addresses for " + authority + " reached their connection limit"));
+            return;
+         }
+         address = target.host;
+         port = target.port;
+         bootstrap.attr(AddressBalancer.TARGET, target);
       }
 
-      ChannelFuture fut = bootstrap.connect(new InetSocketAddress(address, port));
+      // Unresolved address is resolved asynchronously (and cached) by the resolver
+      ChannelFuture fut = bootstrap.connect(InetSocketAddress.createUnresolved(address, port));
+      if (target != null) {
+         AddressBalancer.Target reserved = target;
+         fut.addListener(f -> {
+            if (f.isSuccess()) {
+               fut.channel().closeFuture().addListener(v -> reserved.release());
+            } else {
+               reserved.release();
+            }
+         });
+      }
       fut.addListener(handler);
    }
 
@@ -4,6 +4,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -11,6 +12,7 @@ import io.hyperfoil.http.api.ConnectionConsumer;
 import io.hyperfoil.http.api.HttpClientPool;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
+import io.hyperfoil.http.api.HttpVersion;
 import io.hyperfoil.http.config.ConnectionPoolConfig;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.EventLoop;
@@ -71,6 +73,10 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
       assert eventLoop.inEventLoop();
       try {
          for (; ; ) {
+            HttpConnection first = available.peekFirst();
+            if (first != null && first.version() == HttpVersion.HTTP_2_0) {
+               return acquireLeastLoaded(exclusiveConnection);
+            }
             HttpConnection connection = available.pollFirst();
             if (connection == null) {
                log.debug("No connection to {} available, currently used {}", authority, usedConnections.current());
@@ -100,6 +106,43 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
       }
    }
 
+   /**
+    * HTTP/2 connections multiplex requests; rather than cycling through the queue we pick the connection
+    * with the lowest number of streams to keep the load even.
+    */
+   private HttpConnection acquireLeastLoaded(boolean exclusiveConnection) {
+      HttpConnection connection = null;
+      for (Iterator<HttpConnection> it = available.iterator(); it.hasNext(); ) {
+         HttpConnection c = it.next();
+         if (c.isClosed()) {
+            it.remove();
+            availableClosed--;
+            log.trace("Connection {} to {} is already closed", c, authority);
+         } else if (!c.isAvailable()) {
+            // The peer has lowered SETTINGS_MAX_CONCURRENT_STREAMS; the connection will be released
+            // back to the pool when enough streams complete.
+            it.remove();
+         } else if (connection == null || c.inFlight() < connection.inFlight()) {
+            connection = c;
+            if (c.inFlight() == 0) {
+               break;
+            }
+         }
+      }
+      if (connection == null || exclusiveConnection && connection.inFlight() > 0) {
+         log.debug("No connection to {} available, currently used {}", authority, usedConnections.current());
+         return null;
+      }
+      available.removeFirstOccurrence(connection);
+      inFlight.incrementUsed();
+      if (connection.inFlight() == 0) {
+         usedConnections.incrementUsed();
+      }
+      connection.onAcquire();
+      recordHttp2Streams(connection.inFlight(), clientPool.config().maxHttp2Streams());
+      return connection;
+   }
+
    @Override
    public void acquire(boolean exclusiveConnection, ConnectionConsumer consumer) {
       HttpConnection connection = acquireNow(exclusiveConnection);
@@ -291,7 +334,7 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
             if (available.contains(conn)) {
                availableClosed++;
             }
-            typeStats.get(tagConnection(conn)).decrementUsed();
+            decrementTypeStats(conn);
             if (!shutdown) {
                if (closed >= sizeConfig.max()) {
                   // do cleanup
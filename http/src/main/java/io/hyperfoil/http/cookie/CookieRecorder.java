@@ -11,7 +11,7 @@ public class CookieRecorder implements HeaderHandler, ResourceUtilizer {
    public void handleHeader(HttpRequest request, CharSequence header, CharSequence value) {
       if (HttpHeaderNames.SET_COOKIE.regionMatches(true, 0, header, 0, Math.min(header.length(), HttpHeaderNames.SET_COOKIE.length()))) {
          CookieStore cookies = request.session.getResource(CookieStore.COOKIES);
-         cookies.setCookie(request.connection().host(), request.path, value);
+         cookies.setCookie(request.connection().host(), request.path(), value);
       }
    }
 
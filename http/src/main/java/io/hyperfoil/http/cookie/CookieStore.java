@@ -14,7 +14,7 @@ class CookieStore implements Session.Resource {
    private static final Logger log = LogManager.getLogger(CookieRecorder.class);
 
    // We need only single object for all cookies
-   public static final Session.ResourceKey<CookieStore> COOKIES = new Session.ResourceKey<CookieStore>() {};
+   public static final Session.ResourceKey<CookieStore> COOKIES = new Session.ResourceKey<>();
 
    private static final Attribute[] ATTRIBUTES = Attribute.values();
    private static final int MAX_SITES = 16;
@@ -158,7 +158,8 @@ class CookieStore implements Session.Resource {
 
    public void appendCookies(HttpRequestWriter requestWriter) {
       CharSequence domain = requestWriter.connection().host();
-      CharSequence path = requestWriter.request().path;
+      // decoding the path of a rendered request is deferred until a cookie matches the domain
+      CharSequence path = null;
       long now = System.currentTimeMillis();
       for (int i = 0; i < cookies.length; ++i) {
          Cookie c = cookies[i];
@@ -167,8 +168,13 @@ class CookieStore implements Session.Resource {
          } else if (c.name.length() == 0) {
             // continue
          } else if (((!c.exactDomain && isSubdomain(domain, c.domain)) || AsciiString.contentEquals(domain, c.domain)) &&
-               isSubpath(path, path.length(), c.path, c.path.length()) &&
                (!c.secure || requestWriter.connection().isSecure())) {
+            if (path == null) {
+               path = requestWriter.request().path();
+            }
+            if (!isSubpath(path, path.length(), c.path, c.path.length())) {
+               continue;
+            }
             if (now >= c.expires) {
                c.name = "";
             } else {
@@ -22,7 +22,7 @@ public class LogInvalidHandler implements Processor, HeaderHandler {
       if (request != null && !request.isValid()) {
          if (request instanceof HttpRequest) {
             HttpRequest httpRequest = (HttpRequest) request;
-            log.debug("#{}: {} {}/{}, {} bytes: {}", session.uniqueId(), httpRequest.method, httpRequest.authority, httpRequest.path, data.readableBytes(),
+            log.debug("#{}: {} {}/{}, {} bytes: {}", session.uniqueId(), httpRequest.method, httpRequest.authority, httpRequest.path(), data.readableBytes(),
                   Util.toString(data, data.readerIndex(), data.readableBytes()));
          } else {
             log.debug("#{}: {} bytes: {}", session.uniqueId(), data.readableBytes(),
@@ -34,7 +34,7 @@ public class LogInvalidHandler implements Processor, HeaderHandler {
    @Override
    public void handleHeader(HttpRequest request, CharSequence header, CharSequence value) {
       if (!request.isValid()) {
-         log.debug("#{}: {} {}/{}, {}: {}", request.session.uniqueId(), request.method, request.authority, request.path, header, value);
+         log.debug("#{}: {} {}/{}, {}: {}", request.session.uniqueId(), request.method, request.authority, request.path(), header, value);
       }
    }
 
@@ -104,13 +104,14 @@ class EmbeddedResourceProcessor extends Processor.BaseDelegating {
          if (trace) {
             log.trace("#{} Matched URL {}", session.uniqueId(), Util.toString(data, offset, length));
          }
+         String path = request.path();
          if (fetchResource != null) {
-            AppendableCharSequence newPath = new AppendableCharSequence(request.path.length() + length);
-            int end = request.path.lastIndexOf('/');
+            AppendableCharSequence newPath = new AppendableCharSequence(path.length() + length);
+            int end = path.lastIndexOf('/');
             if (end < 0) {
-               newPath.append(request.path).append('/');
+               newPath.append(path).append('/');
             } else {
-               newPath.append(request.path, 0, end + 1);
+               newPath.append(path, 0, end + 1);
             }
             // TODO allocation
             newPath.append(Util.toString(data, offset, length));
@@ -120,9 +121,9 @@ class EmbeddedResourceProcessor extends Processor.BaseDelegating {
             fetchResource.handle(session, request.authority, newPath);
          }
          if (delegate != null) {
-            ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer(request.path.length() + length);
+            ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer(path.length() + length);
             try {
-               Util.string2byteBuf(request.path, buffer);
+               Util.string2byteBuf(path, buffer);
                for (int i = buffer.writerIndex() - 1; i >= 0; --i) {
                   if (buffer.getByte(i) == '/') {
                      buffer.writerIndex(i + 1);
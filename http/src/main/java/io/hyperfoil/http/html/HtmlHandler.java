@@ -24,7 +24,7 @@ import io.netty.buffer.ByteBufAllocator;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
-public class HtmlHandler implements Processor, ResourceUtilizer, Session.ResourceKey<HtmlHandler.Context> {
+public class HtmlHandler extends Session.ResourceKey<HtmlHandler.Context> implements Processor, ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(HtmlHandler.class);
    private static final boolean trace = log.isTraceEnabled();
    private static final byte[] SCRIPT = "script".getBytes(StandardCharsets.UTF_8);
@@ -103,7 +103,7 @@ public class RefreshHandler implements Processor, ResourceUtilizer {
          if (url == null) {
 
             coords.authority = request.authority;
-            coords.path = request.path;
+            coords.path = request.path();
          } else if (url.startsWith(HttpUtil.HTTP_PREFIX) || url.startsWith(HttpUtil.HTTPS_PREFIX)) {
             coords.authority = null;
             coords.path = url;
@@ -112,12 +112,12 @@ public class RefreshHandler implements Processor, ResourceUtilizer {
             if (url.startsWith("/")) {
                coords.path = url;
             } else {
-               int lastSlash = request.path.lastIndexOf('/');
+               int lastSlash = request.path().lastIndexOf('/');
                if (lastSlash < 0) {
-                  log.warn("#{} Did the request have a relative path? {}", session.uniqueId(), request.path);
+                  log.warn("#{} Did the request have a relative path? {}", session.uniqueId(), request.path());
                   coords.path = "/" + url;
                } else {
-                  coords.path = request.path.substring(0, lastSlash + 1) + url;
+                  coords.path = request.path().substring(0, lastSlash + 1) + url;
                }
             }
          }
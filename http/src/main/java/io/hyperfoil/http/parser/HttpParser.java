@@ -1,16 +1,18 @@
 package io.hyperfoil.http.parser;
 
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
 import org.yaml.snakeyaml.events.ScalarEvent;
 import org.yaml.snakeyaml.events.SequenceStartEvent;
 
 import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.http.config.AddressPolicy;
 import io.hyperfoil.http.config.ConnectionStrategy;
 import io.hyperfoil.http.config.HttpBuilder;
 import io.hyperfoil.http.config.HttpPluginBuilder;
 import io.hyperfoil.http.config.Protocol;
 import io.hyperfoil.core.parser.AbstractParser;
 import io.hyperfoil.core.parser.Context;
-import io.hyperfoil.core.parser.Parser;
 import io.hyperfoil.core.parser.ParserException;
 import io.hyperfoil.core.parser.PropertyParser;
 import io.hyperfoil.core.parser.ReflectionParser;
@@ -26,15 +28,19 @@ public class HttpParser extends AbstractParser<BenchmarkBuilder, HttpBuilder> {
       register("allowHttp1x", new PropertyParser.Boolean<>(HttpBuilder::allowHttp1x));
       register("allowHttp2", new PropertyParser.Boolean<>(HttpBuilder::allowHttp2));
       register("maxHttp2Streams", new PropertyParser.Int<>(HttpBuilder::maxHttp2Streams));
+      register("http2ConnectionWindowSize", new PropertyParser.Int<>(HttpBuilder::http2ConnectionWindowSize));
+      register("http2StreamWindowSize", new PropertyParser.Int<>(HttpBuilder::http2StreamWindowSize));
       register("sharedConnections", new ConnectionPoolConfigParser());
       register("pipeliningLimit", new PropertyParser.Int<>(HttpBuilder::pipeliningLimit));
       register("directHttp2", new PropertyParser.Boolean<>(HttpBuilder::directHttp2));
       register("requestTimeout", new PropertyParser.String<>(HttpBuilder::requestTimeout));
       register("addresses", HttpParser::parseAddresses);
+      register("addressPolicy", new PropertyParser.Enum<>(AddressPolicy.values(), HttpBuilder::addressPolicy));
       register("rawBytesHandlers", new PropertyParser.Boolean<>(HttpBuilder::rawBytesHandlers));
       register("keyManager", new ReflectionParser<>(HttpBuilder::keyManager));
       register("trustManager", new ReflectionParser<>(HttpBuilder::trustManager));
       register("connectionStrategy", new PropertyParser.Enum<>(ConnectionStrategy.values(), HttpBuilder::connectionStrategy));
+      register("dnsRefreshPeriod", new PropertyParser.String<>(HttpBuilder::dnsRefreshPeriod));
    }
 
    @Override
@@ -62,11 +68,34 @@ public class HttpParser extends AbstractParser<BenchmarkBuilder, HttpBuilder> {
       }
    }
 
-   private static class AddressParser implements Parser<HttpBuilder> {
+   private static class AddressParser extends AbstractParser<HttpBuilder, AddressParser.Address> {
+      AddressParser() {
+         register("address", new PropertyParser.String<>((a, value) -> a.address = value));
+         register("weight", new PropertyParser.Int<>((a, value) -> a.weight = value));
+         register("maxConnections", new PropertyParser.Int<>((a, value) -> a.maxConnections = value));
+      }
+
       @Override
       public void parse(Context ctx, HttpBuilder target) throws ParserException {
-         ScalarEvent event = ctx.expectEvent(ScalarEvent.class);
-         target.addAddress(event.getValue());
+         Event event = ctx.peek();
+         if (event instanceof ScalarEvent) {
+            target.addAddress(ctx.expectEvent(ScalarEvent.class).getValue());
+         } else if (event instanceof MappingStartEvent) {
+            Address address = new Address();
+            callSubBuilders(ctx, address);
+            if (address.address == null) {
+               throw new ParserException(event, "Missing 'address'.");
+            }
+            target.addAddress(address.address, address.weight, address.maxConnections);
+         } else {
+            throw ctx.unexpectedEvent(event);
+         }
+      }
+
+      private static class Address {
+         String address;
+         int weight = 1;
+         int maxConnections = -1;
       }
    }
 }
@@ -5,7 +5,7 @@ import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.util.BitSetResource;
 
-class BeforeSyncRequestStep implements Step, ResourceUtilizer, Session.ResourceKey<BitSetResource> {
+class BeforeSyncRequestStep extends Session.ResourceKey<BitSetResource> implements Step, ResourceUtilizer {
    @Override
    public boolean invoke(Session s) {
       BitSetResource resource = s.getResource(this);
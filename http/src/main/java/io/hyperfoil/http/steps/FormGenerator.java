@@ -190,7 +190,7 @@ public class FormGenerator implements SerializableBiFunction<Session, Connection
                } else if (o instanceof byte[]) {
                   buf.writeBytes((byte[]) o);
                } else {
-                  Util.urlEncode(o.toString(), buf);
+                  Util.urlEncode(o instanceof CharSequence ? (CharSequence) o : o.toString(), buf);
                }
             } else {
                throw new IllegalStateException();
@@ -53,5 +53,5 @@ class HttpRequestContext implements Session.Resource, ConnectionConsumer {
       }
    }
 
-   public static final class Key implements Session.ResourceKey<HttpRequestContext> {}
+   public static final class Key extends Session.ResourceKey<HttpRequestContext> {}
 }
@@ -50,8 +50,10 @@ import io.hyperfoil.function.SerializableBiConsumer;
 import io.hyperfoil.function.SerializableBiFunction;
 import io.hyperfoil.function.SerializableFunction;
 import io.hyperfoil.http.UserAgentAppender;
+import io.hyperfoil.http.api.HttpCache;
 import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.config.ConnectionStrategy;
 import io.hyperfoil.http.config.HttpBuilder;
@@ -514,7 +516,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
    /**
     * Request server to respond with compressed entity using specified content encoding.
     *
-    * @param encoding Encoding. Currently supports only <code>gzip</code>.
+    * @param encoding Encoding: <code>gzip</code>, <code>br</code> or <code>zstd</code>, or a comma-separated list of these.
     * @return Self.
     */
    public HttpRequestStepBuilder compression(String encoding) {
@@ -630,17 +632,46 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       if (sla == null && http != null && (http.connectionStrategy() == ConnectionStrategy.OPEN_ON_REQUEST || http.connectionStrategy() == ConnectionStrategy.ALWAYS_NEW)) {
          this.sla = new SLABuilder.ListBuilder<>(this).addItem().blockedRatio(1.01).endSLA();
       }
+      SerializableFunction<Session, HttpMethod> methodFunction = method.build();
+      // Constant headers are pre-encoded in the template; headers that could affect the cache
+      // must go through the writer to be noticed by HttpCache.
+      List<String> staticHeaderNames = new ArrayList<>();
+      List<String> staticHeaderValues = new ArrayList<>();
+      List<SerializableBiConsumer<Session, HttpRequestWriter>> dynamicAppenders = new ArrayList<>();
+      // the template interleaves constant headers with the appenders to keep the declared order
+      int[] appenderPositions = new int[this.headerAppenders.size()];
+      for (Supplier<SerializableBiConsumer<Session, HttpRequestWriter>> supplier : this.headerAppenders) {
+         SerializableBiConsumer<Session, HttpRequestWriter> appender = supplier.get();
+         CharSequence header = null, value = null;
+         if (appender instanceof StaticHeaderWriter) {
+            header = ((StaticHeaderWriter) appender).header;
+            value = ((StaticHeaderWriter) appender).value;
+         } else if (appender instanceof PartialHeadersBuilder.PatternHeaderWriter) {
+            header = ((PartialHeadersBuilder.PatternHeaderWriter) appender).header;
+            value = ((PartialHeadersBuilder.PatternHeaderWriter) appender).pattern.constantValue();
+         }
+         if (value != null && !HttpCache.isRequestHeaderRelevant(header)) {
+            staticHeaderNames.add(header.toString());
+            staticHeaderValues.add(value.toString());
+         } else {
+            appenderPositions[dynamicAppenders.size()] = staticHeaderNames.size();
+            dynamicAppenders.add(appender);
+         }
+      }
       @SuppressWarnings("unchecked")
       SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders =
-            this.headerAppenders.isEmpty() ? null :
-                  this.headerAppenders.stream().map(Supplier::get).toArray(SerializableBiConsumer[]::new);
+            dynamicAppenders.isEmpty() ? null : dynamicAppenders.toArray(new SerializableBiConsumer[0]);
+      HttpRequestTemplate template = new HttpRequestTemplate(
+            methodFunction instanceof HttpMethod.Provided ? methodFunction.apply(null) : null,
+            pathGenerator instanceof Pattern ? ((Pattern) pathGenerator).constantValue() : null,
+            staticHeaderNames, staticHeaderValues, Arrays.copyOf(appenderPositions, dynamicAppenders.size()));
 
       SLA[] sla = this.sla != null ? this.sla.build() : SLABuilder.DEFAULT;
       SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator = this.body != null ? this.body.build() : null;
 
       HttpRequestContext.Key contextKey = new HttpRequestContext.Key();
-      PrepareHttpRequestStep prepare = new PrepareHttpRequestStep(stepId, contextKey, method.build(), endpoint, authority, pathGenerator, metricSelector, handler.build());
-      SendHttpRequestStep step = new SendHttpRequestStep(stepId, contextKey, bodyGenerator, headerAppenders, injectHostHeader, timeout, sla);
+      PrepareHttpRequestStep prepare = new PrepareHttpRequestStep(stepId, contextKey, methodFunction, endpoint, authority, pathGenerator, metricSelector, handler.build());
+      SendHttpRequestStep step = new SendHttpRequestStep(stepId, contextKey, bodyGenerator, template, headerAppenders, injectHostHeader, timeout, sla);
       return Arrays.asList(prepare, step);
    }
 
@@ -806,15 +837,22 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       private static class PatternHeaderWriter implements SerializableBiConsumer<Session, HttpRequestWriter> {
          private final String header;
          private final Pattern pattern;
+         // The cache needs to see the value of some headers; others can be rendered directly into the request
+         private final boolean direct;
 
          PatternHeaderWriter(String header, Pattern pattern) {
             this.header = header;
             this.pattern = pattern;
+            this.direct = !HttpCache.isRequestHeaderRelevant(header);
          }
 
          @Override
          public void accept(Session session, HttpRequestWriter writer) {
-            writer.putHeader(header, pattern.apply(session));
+            if (direct) {
+               writer.putHeader(header, pattern);
+            } else {
+               writer.putHeader(header, pattern.apply(session));
+            }
          }
       }
    }
@@ -938,7 +976,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
          if (request == null) {
             return;
          }
-         String metric = metricSelector.apply(request.authority, request.path);
+         String metric = metricSelector.apply(request.authority, request.path());
          Statistics statistics = session.statistics(stepId, metric);
 
          DelaySessionStartStep.Holder holder = session.getResource(DelaySessionStartStep.KEY);
@@ -977,6 +1015,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       private final HttpRequestStepBuilder parent;
       private String encoding;
       private CompressionType type = CompressionType.CONTENT_ENCODING;
+      private String transferSizeKey;
 
       public CompressionBuilder() {
          this(null);
@@ -987,7 +1026,10 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       }
 
       /**
-       * Encoding used for <code>Accept-Encoding</code>/<code>TE</code> header. The only currently supported is <code>gzip</code>.
+       * Encoding used for <code>Accept-Encoding</code>/<code>TE</code> header. Supported encodings are <code>gzip</code>,
+       * Decoding <code>br</code> and <code>zstd</code> uses native libraries bundled for Linux and macOS; on other
+       * platforms the benchmark is rejected when these encodings are used.
+       * Decoding <code>br</code> and <code>zstd</code> requires Brotli4j and zstd-jni libraries on agents' classpath.
        *
        * @param encoding Content encoding.
        * @return Self.
@@ -1008,6 +1050,18 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
          return this;
       }
 
+      /**
+       * Name of custom metric recording size of decoded response body. When the same key is used
+       * in <code>transferSizeRecorder</code> the metric contains both bytes on the wire and decoded bytes.
+       *
+       * @param key Name of the custom metric.
+       * @return Self.
+       */
+      public CompressionBuilder transferSizeKey(String key) {
+         this.transferSizeKey = key;
+         return this;
+      }
+
       public HttpRequestStepBuilder end() {
          return parent;
       }
@@ -1015,9 +1069,17 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       public void prepareBuild() {
          if (encoding == null) {
             // ignore
-         } else if (!encoding.equalsIgnoreCase("gzip")) {
-            throw new BenchmarkDefinitionException("The only supported compression encoding is 'gzip'");
          } else {
+            for (String item : encoding.split(",")) {
+               int semicolon = item.indexOf(';');
+               String name = (semicolon < 0 ? item : item.substring(0, semicolon)).trim();
+               if (!name.equalsIgnoreCase("gzip") && !name.equalsIgnoreCase("br") && !name.equalsIgnoreCase("zstd")) {
+                  throw new BenchmarkDefinitionException("Unsupported compression encoding '" + name + "'; supported are 'gzip', 'br' and 'zstd'");
+               }
+               if (!GzipInflatorProcessor.isSupported(name)) {
+                  throw new BenchmarkDefinitionException("Compression encoding '" + name + "' requires a native library that is not available on this platform");
+               }
+            }
             Unique encoding = new Unique(Locator.current().sequence().rootSequence().concurrency() > 0);
             AsciiString expectedHeader;
             if (type == CompressionType.CONTENT_ENCODING) {
@@ -1032,7 +1094,8 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
             parent.handler.header(new FilterHeaderHandler.Builder()
                   .header().equalTo(expectedHeader.toString()).end()
                   .processor(new StoreProcessor.Builder().toVar(encoding)));
-            parent.handler.wrapBodyHandlers(handlers -> new GzipInflatorProcessor.Builder().processors(handlers).encodingVar(encoding));
+            parent.handler.wrapBodyHandlers(handlers -> new GzipInflatorProcessor.Builder()
+                  .processors(handlers).encodingVar(encoding).transferSizeKey(transferSizeKey));
          }
       }
    }
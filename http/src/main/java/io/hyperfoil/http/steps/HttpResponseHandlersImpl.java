@@ -114,7 +114,7 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
             case DELETE:
             case PATCH:
                if (status >= 200 && status <= 399) {
-                  HttpCache.get(request.session).invalidate(request.authority, request.path);
+                  HttpCache.get(request.session).invalidate(request.authority, request.path());
                   request.cacheControl.invalidate = true;
                }
                request.cacheControl.noStore = true;
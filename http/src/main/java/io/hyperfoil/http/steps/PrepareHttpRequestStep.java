@@ -6,7 +6,9 @@ import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.generators.Pattern;
 import io.hyperfoil.core.metric.MetricSelector;
+import io.hyperfoil.core.metric.ProvidedMetricSelector;
 import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.function.SerializableFunction;
 import io.hyperfoil.http.HttpRequestPool;
@@ -15,6 +17,7 @@ import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpDestinationTable;
 import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.http.api.HttpRequest;
+import io.netty.buffer.ByteBuf;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -27,7 +30,10 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
    final SerializableFunction<Session, String> endpoint;
    final SerializableFunction<Session, String> authority;
    final SerializableFunction<Session, String> pathGenerator;
+   // Non-constant patterns are rendered directly into the request as bytes
+   final Pattern pathPattern;
    final MetricSelector metricSelector;
+   final boolean metricUsesPath;
    final HttpResponseHandlersImpl handler;
 
    public PrepareHttpRequestStep(int stepId, HttpRequestContext.Key contextKey,
@@ -43,7 +49,10 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
       this.endpoint = endpoint;
       this.authority = authority;
       this.pathGenerator = pathGenerator;
+      this.pathPattern = pathGenerator instanceof Pattern && ((Pattern) pathGenerator).constantValue() == null ?
+            (Pattern) pathGenerator : null;
       this.metricSelector = metricSelector;
+      this.metricUsesPath = !(metricSelector instanceof ProvidedMetricSelector);
       this.handler = handler;
    }
 
@@ -62,18 +71,25 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
       try {
          HttpRequest request = context.request;
          request.method = method.apply(session);
-         String path = pathGenerator.apply(session);
-         boolean isHttp = path.startsWith(HttpUtil.HTTP_PREFIX);
-         boolean isUrl = isHttp || path.startsWith(HttpUtil.HTTPS_PREFIX);
+         String path;
+         if (pathPattern != null) {
+            ByteBuf pathBytes = request.pathBuffer();
+            pathPattern.accept(session, pathBytes);
+            // The String form is needed only for full URLs
+            path = startsWith(pathBytes, HttpUtil.HTTP_PREFIX) || startsWith(pathBytes, HttpUtil.HTTPS_PREFIX) ? request.path() : null;
+         } else {
+            path = pathGenerator.apply(session);
+            request.path(path);
+         }
+         boolean isHttp = path != null && path.startsWith(HttpUtil.HTTP_PREFIX);
+         boolean isUrl = isHttp || path != null && path.startsWith(HttpUtil.HTTPS_PREFIX);
          if (isUrl) {
             int pathIndex = path.indexOf('/', HttpUtil.prefixLength(isHttp));
             if (pathIndex < 0) {
-               request.path = "/";
+               request.path("/");
             } else {
-               request.path = path.substring(pathIndex);
+               request.path(path.substring(pathIndex));
             }
-         } else {
-            request.path = path;
          }
 
          HttpConnectionPool connectionPool = getConnectionPool(session, destinations, path, isHttp, isUrl);
@@ -82,8 +98,14 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
             return false;
          }
          request.authority = connectionPool.clientPool().authority();
-         String metric = destinations.hasSingleDestination() ?
-               metricSelector.apply(null, request.path) : metricSelector.apply(request.authority, request.path);
+         String metric;
+         if (!metricUsesPath) {
+            metric = metricSelector.apply(null, null);
+         } else if (destinations.hasSingleDestination()) {
+            metric = metricSelector.apply(null, request.path());
+         } else {
+            metric = metricSelector.apply(request.authority, request.path());
+         }
          Statistics statistics = session.statistics(id(), metric);
          request.start(connectionPool, handler, session.currentSequence(), statistics);
          connectionPool.acquire(false, context);
@@ -101,6 +123,18 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
       return true;
    }
 
+   private static boolean startsWith(ByteBuf buf, String prefix) {
+      if (buf.readableBytes() < prefix.length()) {
+         return false;
+      }
+      for (int i = 0; i < prefix.length(); ++i) {
+         if (buf.getByte(buf.readerIndex() + i) != prefix.charAt(i)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
    private HttpConnectionPool getConnectionPool(Session session, HttpDestinationTable destinations, String path, boolean isHttp, boolean isUrl) {
       String endpoint = this.endpoint == null ? null : this.endpoint.apply(session);
       if (endpoint != null) {
@@ -14,7 +14,7 @@ import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.http.api.HttpResponseHandlers;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
-import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.RecorderStatistics;
 import io.hyperfoil.core.VertxBaseTest;
 import io.hyperfoil.http.connection.HttpClientPoolImpl;
 import io.hyperfoil.core.session.SessionFactory;
@@ -104,10 +104,10 @@ public class BaseClientTest extends VertxBaseTest {
                }
             }).build();
       request.method = method;
-      request.path = path;
+      request.path(path);
 
       HttpConnectionPool pool = client.next();
-      request.start(pool, handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
+      request.start(pool, handlers, new SequenceInstance(), new RecorderStatistics(System.currentTimeMillis()));
       pool.acquire(false, c -> request.send(c, null, true, null));
    }
 
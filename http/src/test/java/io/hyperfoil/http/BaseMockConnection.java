@@ -7,6 +7,7 @@ import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.api.HttpVersion;
 import io.hyperfoil.api.session.Session;
@@ -20,7 +21,7 @@ public class BaseMockConnection implements HttpConnection {
    }
 
    @Override
-   public void request(HttpRequest request, BiConsumer<Session, HttpRequestWriter>[] headerAppenders, boolean injectHostHeader, BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+   public void request(HttpRequest request, HttpRequestTemplate template, BiConsumer<Session, HttpRequestWriter>[] headerAppenders, boolean injectHostHeader, BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
    }
 
    @Override
@@ -21,7 +21,7 @@ import io.hyperfoil.http.api.HttpResponseHandlers;
 import io.hyperfoil.api.processor.RawBytesHandler;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
-import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.RecorderStatistics;
 import io.hyperfoil.core.VertxBaseTest;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.http.connection.HttpClientPoolImpl;
@@ -110,11 +110,11 @@ public class BigResponseParsingTest extends VertxBaseTest {
                }).build();
          HttpRequest newRequest = HttpRequestPool.get(session).acquire();
          newRequest.method = HttpMethod.GET;
-         newRequest.path = "/";
+         newRequest.path("/");
          SequenceInstance sequence = new SequenceInstance().reset(null, 0, new Step[0], null);
 
          HttpConnectionPool pool = client.next();
-         newRequest.start(pool, handlers, sequence, new Statistics(System.currentTimeMillis()));
+         newRequest.start(pool, handlers, sequence, new RecorderStatistics(System.currentTimeMillis()));
          pool.acquire(false, c -> newRequest.send(c, null, true, null));
       });
    }
@@ -17,7 +17,7 @@ import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.http.api.HttpResponseHandlers;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
-import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.RecorderStatistics;
 import io.hyperfoil.http.connection.HttpClientPoolImpl;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.http.steps.HttpResponseHandlersImpl;
@@ -137,10 +137,10 @@ public class CertificatesTest {
                      }
                   }).build();
             request.method = HttpMethod.GET;
-            request.path = "/ping";
+            request.path("/ping");
 
             HttpConnectionPool pool = client.next();
-            request.start(pool, handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
+            request.start(pool, handlers, new SequenceInstance(), new RecorderStatistics(System.currentTimeMillis()));
             pool.acquire(false, c -> request.send(c, null, true, null));
          }));
       } catch (SSLException e) {
@@ -12,6 +12,7 @@ import org.junit.runner.RunWith;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.http.statistics.HttpStats;
+import io.hyperfoil.api.statistics.RecorderStatistics;
 import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.core.VertxBaseTest;
@@ -43,11 +44,11 @@ public class HttpCacheTest extends VertxBaseTest {
    private static final TestClock CLOCK = new TestClock();
    private static final Consumer<HttpRequest> GET_TEST = request -> {
       request.method = HttpMethod.GET;
-      request.path = "/test";
+      request.path("/test");
    };
    private static final Consumer<HttpRequest> POST_TEST = request -> {
       request.method = HttpMethod.POST;
-      request.path = "/test";
+      request.path("/test");
    };
 
    @Test
@@ -253,9 +254,9 @@ public class HttpCacheTest extends VertxBaseTest {
             })
             .build();
       configurator.accept(request);
-      log.trace("Sending {} request to {}", request.method, request.path);
+      log.trace("Sending {} request to {}", request.method, request.path());
       HttpConnectionPool pool = context.pool.next();
-      request.start(pool, handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
+      request.start(pool, handlers, new SequenceInstance(), new RecorderStatistics(System.currentTimeMillis()));
       @SuppressWarnings("unchecked")
       BiConsumer<Session, HttpRequestWriter>[] headerAppenders = headerAppender == null ? null : new BiConsumer[]{ headerAppender };
       pool.acquire(false, connection -> request.send(connection, headerAppenders, true, null));
@@ -28,7 +28,7 @@ import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
-import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.RecorderStatistics;
 import io.hyperfoil.http.config.HttpBuilder;
 import io.hyperfoil.http.connection.HttpClientPoolImpl;
 import io.hyperfoil.core.session.SessionFactory;
@@ -109,8 +109,8 @@ public class HttpClientPoolHandlerTest {
                .onCompletion(s -> latch.countDown())
                .build();
          request.method = HttpMethod.GET;
-         request.path = "/";
-         request.start(pool, handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
+         request.path("/");
+         request.start(pool, handlers, new SequenceInstance(), new RecorderStatistics(System.currentTimeMillis()));
          pool.acquire(false, c -> request.send(c, null, true, null));
       });
 
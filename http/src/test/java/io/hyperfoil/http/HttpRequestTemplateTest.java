@@ -0,0 +1,157 @@
+package io.hyperfoil.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.http.api.HttpConnection;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
+import io.hyperfoil.http.api.HttpRequestWriter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class HttpRequestTemplateTest {
+   @Test
+   public void testRequestLine() {
+      HttpRequestTemplate template = new HttpRequestTemplate(HttpMethod.GET, "/foo bar?x=a b", Collections.emptyList(), Collections.emptyList(), new int[0]);
+      HttpRequest request = new HttpRequest(null);
+      request.method = HttpMethod.GET;
+      request.path(new String("/foo bar?x=a b"));
+      ByteBuf buf = Unpooled.buffer();
+      template.writeRequestLine(request, buf);
+      assertThat(buf.toString(StandardCharsets.ISO_8859_1)).isEqualTo("GET /foo%20bar?x=a+b HTTP/1.1\r\n");
+   }
+
+   @Test
+   public void testDynamicPath() {
+      HttpRequestTemplate template = new HttpRequestTemplate(HttpMethod.GET, null, Collections.emptyList(), Collections.emptyList(), new int[0]);
+      HttpRequest request = new HttpRequest(null);
+      request.method = HttpMethod.GET;
+      ByteBuf buf = Unpooled.buffer();
+      for (String path : new String[]{ "/", "/a b?c d" }) {
+         buf.clear();
+         request.path(path);
+         template.writeRequestLine(request, buf);
+         assertThat(buf.toString(StandardCharsets.ISO_8859_1)).isEqualTo("GET " + path.replace("a b", "a%20b").replace("c d", "c+d") + " HTTP/1.1\r\n");
+      }
+   }
+
+   @Test
+   public void testRenderedPath() {
+      HttpRequestTemplate template = new HttpRequestTemplate(HttpMethod.GET, null, Collections.emptyList(), Collections.emptyList(), new int[0]);
+      HttpRequest request = new HttpRequest(null);
+      request.method = HttpMethod.GET;
+      ByteBuf buf = Unpooled.buffer();
+      for (String path : new String[]{ "/", "/a b?c d", "/a?b c?d e" }) {
+         buf.clear();
+         request.path(path);
+         template.writeRequestLine(request, buf);
+         String expected = buf.toString(StandardCharsets.UTF_8);
+
+         buf.clear();
+         request.pathBuffer().writeCharSequence(path, StandardCharsets.UTF_8);
+         template.writeRequestLine(request, buf);
+         assertThat(buf.toString(StandardCharsets.UTF_8)).isEqualTo(expected);
+         assertThat(request.path()).isEqualTo(path);
+      }
+      // rendered path is written as UTF-8
+      buf.clear();
+      request.pathBuffer().writeCharSequence("/ř ř", StandardCharsets.UTF_8);
+      template.writeRequestLine(request, buf);
+      assertThat(buf.toString(StandardCharsets.UTF_8)).isEqualTo("GET /ř%20ř HTTP/1.1\r\n");
+
+      // setting the path as String overrides the rendered one
+      request.path("/foo");
+      assertThat(request.pathBytes()).isNull();
+      buf.clear();
+      template.writeRequestLine(request, buf);
+      assertThat(buf.toString(StandardCharsets.UTF_8)).isEqualTo("GET /foo HTTP/1.1\r\n");
+   }
+
+   @Test
+   public void testDynamicMethod() {
+      HttpRequestTemplate template = new HttpRequestTemplate(null, "/foo", Collections.emptyList(), Collections.emptyList(), new int[0]);
+      HttpRequest request = new HttpRequest(null);
+      request.path("/foo");
+      ByteBuf buf = Unpooled.buffer();
+      for (HttpMethod method : new HttpMethod[]{ HttpMethod.GET, HttpMethod.DELETE }) {
+         buf.clear();
+         request.method = method;
+         template.writeRequestLine(request, buf);
+         assertThat(buf.toString(StandardCharsets.ISO_8859_1)).isEqualTo(method.name() + " /foo HTTP/1.1\r\n");
+      }
+      template = new HttpRequestTemplate(null, null, Collections.emptyList(), Collections.emptyList(), new int[0]);
+      buf.clear();
+      request.path("/bar");
+      template.writeRequestLine(request, buf);
+      assertThat(buf.toString(StandardCharsets.ISO_8859_1)).isEqualTo("DELETE /bar HTTP/1.1\r\n");
+   }
+
+   @Test
+   public void testHeaders() {
+      HttpRequestTemplate template = new HttpRequestTemplate(null, null,
+            Arrays.asList("accept", "x-name"), Arrays.asList("application/json", "Žluťoučký kůň"), new int[0]);
+      ByteBuf buf = Unpooled.buffer();
+      template.writeHeaders(buf, null, null, null);
+      assertThat(buf.toString(StandardCharsets.UTF_8)).isEqualTo("accept: application/json\r\nx-name: Žluťoučký kůň\r\n");
+   }
+
+   @Test
+   public void testHeaderOrder() {
+      HttpRequestTemplate template = new HttpRequestTemplate(null, null,
+            Arrays.asList("a", "c", "d"), Arrays.asList("1", "3", "4"), new int[]{ 0, 1, 3 });
+      @SuppressWarnings("unchecked")
+      BiConsumer<Session, HttpRequestWriter>[] appenders = new BiConsumer[]{
+            appender("x"), appender("b"), appender("e")
+      };
+      ByteBuf buf = Unpooled.buffer();
+      template.writeHeaders(buf, null, appenders, new ListWriter(new ArrayList<>()) {
+         @Override
+         public void putHeader(CharSequence header, CharSequence value) {
+            buf.writeCharSequence(header + ": " + value + "\r\n", StandardCharsets.UTF_8);
+         }
+      });
+      assertThat(buf.toString(StandardCharsets.UTF_8)).isEqualTo("x: 0\r\na: 1\r\nb: 2\r\nc: 3\r\nd: 4\r\ne: 5\r\n");
+
+      List<String> headers = new ArrayList<>();
+      template.putHeaders(null, appenders, new ListWriter(headers));
+      assertThat(headers).containsExactly("x", "a", "b", "c", "d", "e");
+   }
+
+   private static BiConsumer<Session, HttpRequestWriter> appender(String header) {
+      return (session, writer) -> writer.putHeader(header, String.valueOf("xabcde".indexOf(header)));
+   }
+
+   private static class ListWriter implements HttpRequestWriter {
+      private final List<String> headers;
+
+      ListWriter(List<String> headers) {
+         this.headers = headers;
+      }
+
+      @Override
+      public HttpConnection connection() {
+         return null;
+      }
+
+      @Override
+      public HttpRequest request() {
+         return null;
+      }
+
+      @Override
+      public void putHeader(CharSequence header, CharSequence value) {
+         headers.add(header.toString());
+      }
+   }
+}
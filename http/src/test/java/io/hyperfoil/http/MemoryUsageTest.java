@@ -11,7 +11,7 @@ import org.junit.runner.RunWith;
 
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
-import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.RecorderStatistics;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.http.api.HttpClientPool;
 import io.hyperfoil.http.api.HttpConnectionPool;
@@ -121,10 +121,10 @@ public class MemoryUsageTest {
             })
             .onCompletion(s -> pool.executor().schedule(() -> doRequest(pool, session, context, async, seenMemoryUsage), 1, TimeUnit.MILLISECONDS))
             .build();
-      request.path = "/";
+      request.path("/");
       request.method = HttpMethod.GET;
       request.handlers = handlers;
-      request.start(pool, handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
+      request.start(pool, handlers, new SequenceInstance(), new RecorderStatistics(System.currentTimeMillis()));
       pool.acquire(false, connection -> request.send(connection, null, true, null));
    }
 
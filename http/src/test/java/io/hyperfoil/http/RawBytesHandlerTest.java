@@ -20,7 +20,7 @@ import io.hyperfoil.http.api.HttpResponseHandlers;
 import io.hyperfoil.api.processor.RawBytesHandler;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
-import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.RecorderStatistics;
 import io.hyperfoil.core.VertxBaseTest;
 import io.hyperfoil.http.connection.HttpClientPoolImpl;
 import io.hyperfoil.core.session.SessionFactory;
@@ -90,11 +90,11 @@ public class RawBytesHandlerTest extends VertxBaseTest {
    private void doRequest(TestContext ctx, Session session, AtomicReference<HttpResponseHandlers> handlersRef, HttpConnectionPool pool) {
       HttpRequest newRequest = HttpRequestPool.get(session).acquire();
       newRequest.method = HttpMethod.GET;
-      newRequest.path = "/ping";
+      newRequest.path("/ping");
       newRequest.cacheControl.noCache = true;
       SequenceInstance sequence = new SequenceInstance();
       sequence.reset(null, 0, new Step[0], null);
-      newRequest.start(pool, handlersRef.get(), sequence, new Statistics(System.currentTimeMillis()));
+      newRequest.start(pool, handlersRef.get(), sequence, new RecorderStatistics(System.currentTimeMillis()));
       pool.acquire(false, c -> newRequest.send(c, null, true, null));
    }
 
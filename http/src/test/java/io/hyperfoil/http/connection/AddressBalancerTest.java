@@ -0,0 +1,83 @@
+package io.hyperfoil.http.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.hyperfoil.http.config.AddressPolicy;
+import io.hyperfoil.http.config.Http;
+
+public class AddressBalancerTest {
+   @Test
+   public void testParseAddresses() {
+      AddressBalancer balancer = new AddressBalancer(new Http.Address[]{
+            new Http.Address("10.0.0.1", 1, -1),
+            new Http.Address("10.0.0.2:8443", 1, -1),
+            new Http.Address("[::1]:8081", 1, -1),
+            new Http.Address("::1", 1, -1),
+      }, AddressPolicy.ROUND_ROBIN, 8080);
+      AddressBalancer.Target[] targets = balancer.targets();
+      assertThat(targets[0].host).isEqualTo("10.0.0.1");
+      assertThat(targets[0].port).isEqualTo(8080);
+      assertThat(targets[1].host).isEqualTo("10.0.0.2");
+      assertThat(targets[1].port).isEqualTo(8443);
+      assertThat(targets[2].host).isEqualTo("::1");
+      assertThat(targets[2].port).isEqualTo(8081);
+      assertThat(targets[3].host).isEqualTo("::1");
+      assertThat(targets[3].port).isEqualTo(8080);
+   }
+
+   @Test
+   public void testRoundRobin() {
+      AddressBalancer balancer = balancer(AddressPolicy.ROUND_ROBIN, 1, 1, 1);
+      assertThat(acquire(balancer, 6)).containsExactly("a", "b", "c", "a", "b", "c");
+   }
+
+   @Test
+   public void testWeighted() {
+      AddressBalancer balancer = balancer(AddressPolicy.WEIGHTED, 5, 1, 1);
+      // Smooth WRR interleaves the heavier address with the others
+      assertThat(acquire(balancer, 7)).containsExactly("a", "a", "b", "a", "c", "a", "a");
+   }
+
+   @Test
+   public void testLeastConnections() {
+      AddressBalancer balancer = balancer(AddressPolicy.LEAST_CONNECTIONS, 1, 1, 2);
+      List<String> selected = acquire(balancer, 4);
+      assertThat(selected).containsExactlyInAnyOrder("a", "b", "c", "c");
+      AddressBalancer.Target[] targets = balancer.targets();
+      targets[0].release();
+      assertThat(balancer.acquire()).isSameAs(targets[0]);
+   }
+
+   @Test
+   public void testQuota() {
+      AddressBalancer balancer = new AddressBalancer(new Http.Address[]{
+            new Http.Address("a", 1, 2),
+            new Http.Address("b", 1, 1),
+      }, AddressPolicy.RANDOM, 80);
+      assertThat(acquire(balancer, 3)).containsExactlyInAnyOrder("a", "a", "b");
+      assertThat(balancer.acquire()).isNull();
+      balancer.targets()[1].release();
+      assertThat(balancer.acquire()).isSameAs(balancer.targets()[1]);
+   }
+
+   private static AddressBalancer balancer(AddressPolicy policy, int... weights) {
+      Http.Address[] addresses = new Http.Address[weights.length];
+      for (int i = 0; i < weights.length; ++i) {
+         addresses[i] = new Http.Address(String.valueOf((char) ('a' + i)), weights[i], -1);
+      }
+      return new AddressBalancer(addresses, policy, 80);
+   }
+
+   private static List<String> acquire(AddressBalancer balancer, int count) {
+      List<String> selected = new ArrayList<>();
+      for (int i = 0; i < count; ++i) {
+         selected.add(balancer.acquire().label);
+      }
+      return selected;
+   }
+}
@@ -36,6 +36,7 @@ public class ConnectionStatsTest extends HttpScenarioTest {
    private static final String BLOCKED_SESSIONS = "blocked sessions";
    private static final String IN_FLIGHT_REQUESTS = "in-flight requests";
    private static final String USED_CONNECTIONS = "used connections";
+   private static final String HTTP_2_STREAMS = "HTTP 2 streams per connection";
 
    @Override
    protected Future<Void> startServer(TestContext ctx, boolean tls, boolean compression) {
@@ -225,6 +226,25 @@ public class ConnectionStatsTest extends HttpScenarioTest {
       // Too many false positives
 //      assertThat(stats.get(IN_FLIGHT_REQUESTS).high).isBetween(connections + 1, 50);
       assertThat(stats.get(USED_CONNECTIONS).high).isEqualTo(connections);
+      assertThat(stats.get(HTTP_2_STREAMS).low).isGreaterThanOrEqualTo(1);
+   }
+
+   @Test
+   public void testSharedHttp2LeastLoaded(TestContext ctx) {
+      startServer(ctx, true);
+
+      final int connections = 3;
+      http().connectionStrategy(ConnectionStrategy.SHARED_POOL)
+            .sharedConnections(connections)
+            .maxHttp2Streams(4)
+            .http2StreamWindowSize(1 << 20)
+            .http2ConnectionWindowSize(1 << 24);
+
+      Map<String, LowHigh> stats = testConcurrent(false);
+      assertThat(stats.get(HTTP_2_TLS).high).isEqualTo(connections);
+      // The number of streams is capped by the limit
+      assertThat(stats.get(HTTP_2_STREAMS).high).isBetween(1, 4);
+      assertThat(stats.get("HTTP 2 acquired at 0-25% streams").high).isGreaterThan(0);
    }
 
    @Test
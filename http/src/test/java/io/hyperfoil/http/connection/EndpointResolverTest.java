@@ -0,0 +1,152 @@
+package io.hyperfoil.http.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.hyperfoil.core.impl.EventLoopFactory;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.dns.DatagramDnsQuery;
+import io.netty.handler.codec.dns.DatagramDnsQueryDecoder;
+import io.netty.handler.codec.dns.DatagramDnsResponse;
+import io.netty.handler.codec.dns.DatagramDnsResponseEncoder;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsSection;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.dns.SingletonDnsServerAddressStreamProvider;
+import io.netty.util.NetUtil;
+
+public class EndpointResolverTest {
+   private static final String HOSTNAME = "backend.test";
+
+   private final Map<String, List<String>> records = new ConcurrentHashMap<>();
+   private final AtomicInteger queries = new AtomicInteger();
+   private volatile long ttl = 3600;
+   private EventLoopGroup eventLoopGroup;
+   private Channel dnsServer;
+   private EndpointResolver resolver;
+
+   @Before
+   public void before() throws InterruptedException {
+      eventLoopGroup = EventLoopFactory.INSTANCE.create(1);
+      dnsServer = new Bootstrap().group(eventLoopGroup)
+            .channel(EventLoopFactory.INSTANCE.datagramChannel())
+            .handler(new ChannelInitializer<>() {
+               @Override
+               protected void initChannel(Channel ch) {
+                  ch.pipeline().addLast(new DatagramDnsQueryDecoder(), new DatagramDnsResponseEncoder(), new DnsStub());
+               }
+            }).bind(NetUtil.LOCALHOST4, 0).sync().channel();
+   }
+
+   @After
+   public void after() {
+      if (resolver != null) {
+         resolver.close();
+      }
+      dnsServer.close().syncUninterruptibly();
+      eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   private EndpointResolver resolver(long refreshPeriod) {
+      resolver = new EndpointResolver(refreshPeriod,
+            new SingletonDnsServerAddressStreamProvider((InetSocketAddress) dnsServer.localAddress()));
+      return resolver;
+   }
+
+   private Set<String> resolveAll(EndpointResolver resolver) throws Exception {
+      AddressResolver<InetSocketAddress> addressResolver = resolver.group().getResolver(eventLoopGroup.next());
+      return addressResolver.resolveAll(InetSocketAddress.createUnresolved(HOSTNAME, 8080)).get(5, TimeUnit.SECONDS)
+            .stream().map(address -> address.getAddress().getHostAddress()).collect(Collectors.toSet());
+   }
+
+   @Test
+   public void testRoundRobin() throws Exception {
+      records.put(HOSTNAME, List.of("10.0.0.1", "10.0.0.2", "10.0.0.3"));
+      AddressResolver<InetSocketAddress> addressResolver = resolver(-1).group().getResolver(eventLoopGroup.next());
+      Set<String> used = new HashSet<>();
+      for (int i = 0; i < 100; ++i) {
+         used.add(addressResolver.resolve(InetSocketAddress.createUnresolved(HOSTNAME, 8080))
+               .get(5, TimeUnit.SECONDS).getAddress().getHostAddress());
+      }
+      assertThat(used).containsExactlyInAnyOrder("10.0.0.1", "10.0.0.2", "10.0.0.3");
+      // All lookups but the first one are served from the cache
+      assertThat(queries.get()).isEqualTo(1);
+   }
+
+   @Test
+   public void testTtlExpiry() throws Exception {
+      ttl = 1;
+      records.put(HOSTNAME, List.of("10.0.0.1"));
+      EndpointResolver resolver = resolver(-1);
+      assertThat(resolveAll(resolver)).containsExactly("10.0.0.1");
+      records.put(HOSTNAME, List.of("10.0.0.2"));
+      assertThat(resolveAll(resolver)).containsExactly("10.0.0.1");
+      assertThat(queries.get()).isEqualTo(1);
+
+      Thread.sleep(1500);
+      assertThat(resolveAll(resolver)).containsExactly("10.0.0.2");
+      assertThat(queries.get()).isEqualTo(2);
+   }
+
+   @Test
+   public void testPeriodicRefresh() throws Exception {
+      records.put(HOSTNAME, List.of("10.0.0.1"));
+      EndpointResolver resolver = resolver(100);
+      assertThat(resolveAll(resolver)).containsExactly("10.0.0.1");
+      EventLoop executor = (EventLoop) eventLoopGroup.next();
+      resolver.startRefresh(executor, List.of(HOSTNAME, "10.0.0.100"));
+      records.put(HOSTNAME, List.of("10.0.0.2", "10.0.0.3"));
+
+      long deadline = System.currentTimeMillis() + 5000;
+      Set<String> addresses;
+      do {
+         Thread.sleep(50);
+         addresses = resolveAll(resolver);
+      } while (!addresses.contains("10.0.0.2") && System.currentTimeMillis() < deadline);
+      // TTL did not expire, the addresses have been refreshed
+      assertThat(addresses).containsExactlyInAnyOrder("10.0.0.2", "10.0.0.3");
+      assertThat(queries.get()).isGreaterThan(1);
+   }
+
+   private class DnsStub extends SimpleChannelInboundHandler<DatagramDnsQuery> {
+      @Override
+      protected void channelRead0(ChannelHandlerContext ctx, DatagramDnsQuery query) throws Exception {
+         DnsQuestion question = query.recordAt(DnsSection.QUESTION);
+         DatagramDnsResponse response = new DatagramDnsResponse(query.recipient(), query.sender(), query.id());
+         response.addRecord(DnsSection.QUESTION, question);
+         String name = question.name().endsWith(".") ? question.name().substring(0, question.name().length() - 1) : question.name();
+         // IPv6 queries get an empty answer
+         if (question.type() == DnsRecordType.A) {
+            queries.incrementAndGet();
+            for (String address : records.getOrDefault(name, List.of())) {
+               byte[] bytes = InetAddress.getByName(address).getAddress();
+               response.addRecord(DnsSection.ANSWER, new DefaultDnsRawRecord(question.name(), DnsRecordType.A, ttl, Unpooled.wrappedBuffer(bytes)));
+            }
+         }
+         ctx.writeAndFlush(response);
+      }
+   }
+}
@@ -169,7 +169,7 @@ public class CookieStoreTest {
       @Override
       public HttpRequest request() {
          HttpRequest httpRequest = new HttpRequest(null);
-         httpRequest.path = path;
+         httpRequest.path(path);
          return httpRequest;
       }
 
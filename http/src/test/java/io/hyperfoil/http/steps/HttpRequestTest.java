@@ -222,10 +222,38 @@ public class HttpRequestTest extends HttpScenarioTest {
                      .end()
                   .endHeaders()
                .endStep()
+            .endSequence()
+            .initialSequence("testRenderedPath")
+               .step(SC).action(new SetAction.Builder()
+                  .var("foo")
+                  .value("bar"))
+               .step(SC).httpRequest(HttpMethod.GET)
+                  .path("/test?expectHeader=x-bar:${foo} ${foo}")
+                  .headers()
+                     .withKey("x-bar")
+                        .pattern("${foo} ${foo}")
+                     .end()
+                  .endHeaders()
+               .endStep()
+            .endSequence()
+            .initialSequence("testCacheControlPattern")
+               .step(SC).action(new SetAction.Builder()
+                  .var("cc")
+                  .value("cache"))
+               .step(SC).httpRequest(HttpMethod.GET)
+                  .path("/test?expectHeader=Cache-Control:no-${cc}")
+                  .headers()
+                     .withKey("Cache-Control")
+                        .pattern("no-${cc}")
+                     .end()
+                  .endHeaders()
+               .endStep()
             .endSequence();
       // @formatter:on
       Map<String, StatisticsSnapshot> stats = runScenario();
       assertThat(HttpStats.get(stats.get("testFromVar")).status_2xx).isEqualTo(1);
       assertThat(HttpStats.get(stats.get("testPattern")).status_2xx).isEqualTo(1);
+      assertThat(HttpStats.get(stats.get("testRenderedPath")).status_2xx).isEqualTo(1);
+      assertThat(HttpStats.get(stats.get("testCacheControlPattern")).status_2xx).isEqualTo(1);
    }
 }
@@ -0,0 +1,146 @@
+package io.hyperfoil.benchmark.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.statistics.Counters;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.clustering.messages.ConnectionStatsMessage;
+import io.hyperfoil.clustering.messages.ExecutorStatsMessage;
+import io.hyperfoil.clustering.messages.RequestStatsMessage;
+import io.hyperfoil.clustering.messages.SessionStatsMessage;
+import io.hyperfoil.core.util.LowHigh;
+import io.vertx.core.buffer.Buffer;
+
+public class StatsMessageCodecTest {
+   @Test
+   public void testRequestStats() {
+      RequestStatsMessage.Batch batch = new RequestStatsMessage.Batch();
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = 42;
+      snapshot.histogram.setStartTimeStamp(1_600_000_000_000L);
+      snapshot.histogram.setEndTimeStamp(1_600_000_001_000L);
+      snapshot.histogram.recordValue(1_234_567);
+      snapshot.histogram.recordValue(7_654_321);
+      snapshot.correctedHistogram.recordValue(1_234_567);
+      snapshot.correctedHistogram.recordValue(207_654_321);
+      snapshot.requestCount = 3;
+      snapshot.responseCount = 2;
+      snapshot.requestTimeouts = 1;
+      snapshot.blockedTime = 123_456_789_000L;
+      Counters counters = new Counters();
+      counters.increment("foo");
+      counters.increment("foo");
+      snapshot.extensions.put("counters", counters);
+      batch.add(1, 2, "first", snapshot);
+      // the batch must not keep references to the snapshot
+      snapshot.reset();
+      snapshot.sequenceId = 43;
+      batch.add(1, -1, null, snapshot);
+      RequestStatsMessage message = batch.build("agent", "0001");
+
+      RequestStatsMessage.Codec codec = new RequestStatsMessage.Codec();
+      Buffer buffer = Buffer.buffer();
+      buffer.appendString("prefix");
+      codec.encodeToWire(buffer, message);
+      RequestStatsMessage decoded = codec.decodeFromWire(6, buffer);
+      assertThat(decoded.address).isEqualTo("agent");
+      assertThat(decoded.runId).isEqualTo("0001");
+      assertEntries(decoded);
+      // delivery on local event bus
+      assertEntries(codec.transform(message));
+      // batch has been reset
+      assertThat(batch.size()).isZero();
+   }
+
+   private void assertEntries(RequestStatsMessage message) {
+      assertThat(message.entries).hasSize(2);
+      RequestStatsMessage.Entry first = message.entries.get(0);
+      assertThat(first.phaseId).isEqualTo(1);
+      assertThat(first.stepId).isEqualTo(2);
+      assertThat(first.metric).isEqualTo("first");
+      StatisticsSnapshot statistics = first.statistics;
+      assertThat(statistics.sequenceId).isEqualTo(42);
+      assertThat(statistics.histogram.getStartTimeStamp()).isEqualTo(1_600_000_000_000L);
+      assertThat(statistics.histogram.getEndTimeStamp()).isEqualTo(1_600_000_001_000L);
+      assertThat(statistics.histogram.getTotalCount()).isEqualTo(2);
+      assertThat(statistics.histogram.getMinValue()).isEqualTo(statistics.histogram.lowestEquivalentValue(1_234_567));
+      assertThat(statistics.histogram.getMaxValue()).isEqualTo(statistics.histogram.highestEquivalentValue(7_654_321));
+      assertThat(statistics.correctedHistogram.getTotalCount()).isEqualTo(2);
+      assertThat(statistics.correctedHistogram.getMaxValue()).isEqualTo(statistics.correctedHistogram.highestEquivalentValue(207_654_321));
+      assertThat(statistics.requestCount).isEqualTo(3);
+      assertThat(statistics.responseCount).isEqualTo(2);
+      assertThat(statistics.requestTimeouts).isEqualTo(1);
+      assertThat(statistics.blockedTime).isEqualTo(123_456_789_000L);
+      assertThat(statistics.extensions).containsOnlyKeys("counters");
+      assertThat(((Counters) statistics.extensions.get("counters")).serialize()).containsEntry("foo", 2L);
+
+      RequestStatsMessage.Entry second = message.entries.get(1);
+      assertThat(second.stepId).isEqualTo(-1);
+      assertThat(second.metric).isNull();
+      assertThat(second.statistics.sequenceId).isEqualTo(43);
+      assertThat(second.statistics.isEmpty()).isTrue();
+      assertThat(second.statistics.correctedHistogram).isNotSameAs(second.statistics.histogram);
+      // the extension instance is the same but it must not be sent as a back-reference
+      assertThat(((Counters) second.statistics.extensions.get("counters")).serialize()).containsEntry("foo", 0L);
+   }
+
+   @Test
+   public void testEmptyRequestStats() {
+      RequestStatsMessage.Codec codec = new RequestStatsMessage.Codec();
+      Buffer buffer = Buffer.buffer();
+      codec.encodeToWire(buffer, RequestStatsMessage.empty("agent", "0001"));
+      assertThat(codec.decodeFromWire(0, buffer).entries).isEmpty();
+   }
+
+   @Test
+   public void testSessionStats() {
+      Map<String, LowHigh> stats = new HashMap<>();
+      stats.put("steadyState", new LowHigh(0, 1000));
+      stats.put("rampUp", new LowHigh(3, 5));
+      SessionStatsMessage.Codec codec = new SessionStatsMessage.Codec();
+      Buffer buffer = Buffer.buffer();
+      codec.encodeToWire(buffer, new SessionStatsMessage("agent", "0001", 1_600_000_000_000L, stats));
+      SessionStatsMessage decoded = codec.decodeFromWire(0, buffer);
+      assertThat(decoded.timestamp).isEqualTo(1_600_000_000_000L);
+      assertThat(decoded.sessionStats).hasSize(2);
+      assertThat(decoded.sessionStats.get("steadyState").high).isEqualTo(1000);
+      assertThat(decoded.sessionStats.get("rampUp").low).isEqualTo(3);
+   }
+
+   @Test
+   public void testConnectionStats() {
+      Map<String, Map<String, LowHigh>> stats = new HashMap<>();
+      Map<String, LowHigh> byType = new HashMap<>();
+      byType.put("in-flight", new LowHigh(1, 2));
+      stats.put("http://localhost:8080", byType);
+      ConnectionStatsMessage.Codec codec = new ConnectionStatsMessage.Codec();
+      Buffer buffer = Buffer.buffer();
+      codec.encodeToWire(buffer, new ConnectionStatsMessage("agent", "0001", 123, stats));
+      ConnectionStatsMessage decoded = codec.decodeFromWire(0, buffer);
+      assertThat(decoded.timestamp).isEqualTo(123);
+      assertThat(decoded.stats).containsOnlyKeys("http://localhost:8080");
+      assertThat(decoded.stats.get("http://localhost:8080").get("in-flight").high).isEqualTo(2);
+   }
+
+   @Test
+   public void testExecutorStats() {
+      Map<Integer, Map<String, LowHigh>> stats = new HashMap<>();
+      Map<String, LowHigh> byMetric = new HashMap<>();
+      byMetric.put("loop latency us", new LowHigh(10, 2000));
+      byMetric.put("queue depth", new LowHigh(0, 5));
+      stats.put(3, byMetric);
+      ExecutorStatsMessage.Codec codec = new ExecutorStatsMessage.Codec();
+      Buffer buffer = Buffer.buffer();
+      codec.encodeToWire(buffer, new ExecutorStatsMessage("agent", "0001", 123, stats));
+      ExecutorStatsMessage decoded = codec.decodeFromWire(0, buffer);
+      assertThat(decoded.timestamp).isEqualTo(123);
+      assertThat(decoded.stats).containsOnlyKeys(3);
+      assertThat(decoded.stats.get(3).get("loop latency us").high).isEqualTo(2000);
+      assertThat(decoded.stats.get(3).get("queue depth").low).isEqualTo(0);
+   }
+}
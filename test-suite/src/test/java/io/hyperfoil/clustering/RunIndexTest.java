@@ -0,0 +1,72 @@
+package io.hyperfoil.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.controller.StatisticsStore;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class RunIndexTest {
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   @Test
+   public void testAppendAndRewrite() throws IOException {
+      Path runDir = folder.getRoot().toPath();
+      RunIndex index = new RunIndex(runDir);
+      assertThat(index.load()).isEmpty();
+
+      index.append(new JsonObject().put("id", "0000").put("benchmark", "foo"));
+      index.append(new JsonObject().put("id", "0001").put("benchmark", "bar").put("total", new JsonArray()));
+      index.append(new JsonObject().put("id", "0000").put("benchmark", "foo").put("cancelled", true));
+      // simulate crash while appending
+      Files.writeString(runDir.resolve(RunIndex.FILE_NAME), "{\"id\":\"00", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+      Map<String, JsonObject> entries = index.load();
+      assertThat(entries.keySet()).containsExactly("0000", "0001");
+      assertThat(entries.get("0000").getBoolean("cancelled")).isTrue();
+      assertThat(entries.get("0001").getJsonArray("total")).isEmpty();
+
+      index.rewrite(List.of(entries.get("0001")));
+      assertThat(index.load().keySet()).containsExactly("0001");
+      assertThat(Files.readAllLines(runDir.resolve(RunIndex.FILE_NAME))).hasSize(1);
+   }
+
+   @Test
+   public void testStatsCacheEvictsLeastRecentlyUsed() {
+      List<String> loaded = new ArrayList<>();
+      RunStatsCache cache = new RunStatsCache(2, run -> {
+         loaded.add(run.id);
+         return new StatisticsStore(run.benchmark, f -> { });
+      });
+      Run[] runs = new Run[3];
+      for (int i = 0; i < runs.length; ++i) {
+         runs[i] = new Run(String.format("%04X", i), folder.getRoot().toPath(), Benchmark.forTesting());
+         runs[i].statsCache = cache;
+      }
+      StatisticsStore first = runs[0].statisticsStore();
+      runs[1].statisticsStore();
+      assertThat(runs[0].statisticsStore()).isSameAs(first);
+      // run 1 is the least recently used
+      runs[2].statisticsStore();
+      assertThat(cache.size()).isEqualTo(2);
+      assertThat(runs[0].isLoaded()).isTrue();
+      assertThat(runs[1].isLoaded()).isFalse();
+      runs[1].statisticsStore();
+      assertThat(loaded).containsExactly("0000", "0001", "0002", "0001");
+   }
+}
@@ -0,0 +1,174 @@
+package io.hyperfoil.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.statistics.Counters;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.vertx.core.json.JsonObject;
+
+public class StatisticsStoreTest {
+   private static final int PERIODS = 300;
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   @Test
+   public void testSeriesFile() throws IOException {
+      Benchmark benchmark = benchmark();
+      Path seriesPath = folder.getRoot().toPath().resolve("series.jsonl");
+      StatisticsStore memoryStore = new StatisticsStore(benchmark, f -> { });
+      StatisticsStore fileStore = new StatisticsStore(benchmark, f -> { }, seriesPath);
+      for (int i = 0; i < PERIODS; ++i) {
+         for (String agent : new String[]{ "agent-a", "agent-b" }) {
+            memoryStore.record(agent, 0, 0, "test", snapshot(i));
+            fileStore.record(agent, 0, 0, "test", snapshot(i));
+         }
+      }
+      memoryStore.completePhase("test");
+      fileStore.completePhase("test");
+
+      assertThat(Files.lines(seriesPath).count()).isEqualTo(3 * PERIODS);
+      assertThat(Files.lines(seriesPath)).noneMatch(line -> line.contains("histogram"));
+      Data data = fileStore.getData().get(0);
+      assertThat(data.series.requestCount()).isEqualTo(2 * PERIODS);
+
+      Iterable<StatisticsSummary> series = fileStore.series("test", 0, "test");
+      // completing the store flushes and closes the file for writing, it is still readable
+      fileStore.complete();
+      assertThat(series).hasSize(PERIODS);
+      int i = 0;
+      for (StatisticsSummary summary : series) {
+         assertThat(summary.startTime).isEqualTo(i * 1000L);
+         assertThat(summary.requestCount).isEqualTo(2);
+         assertThat(summary.extensions).containsKey("counters");
+         ++i;
+      }
+
+      File memoryDir = folder.newFolder("memory");
+      File fileDir = folder.newFolder("file");
+      CsvWriter.writeCsv(memoryDir.toPath(), memoryStore);
+      CsvWriter.writeCsv(fileDir.toPath(), fileStore);
+      String[] csvFiles = memoryDir.list();
+      assertThat(fileDir.list()).containsExactlyInAnyOrder(csvFiles);
+      for (String csv : csvFiles) {
+         assertThat(fileDir.toPath().resolve(csv)).hasSameContentAs(memoryDir.toPath().resolve(csv));
+      }
+      assertThat(json(fileStore)).isEqualTo(json(memoryStore));
+      fileStore.close();
+   }
+
+   @Test
+   public void testAggregator() throws Exception {
+      Benchmark benchmark = benchmark();
+      StatisticsAggregator aggregator = new StatisticsAggregator(3);
+      try {
+         StatisticsStore memoryStore = new StatisticsStore(benchmark, f -> { });
+         StatisticsStore aggregatedStore = new StatisticsStore(benchmark, f -> { });
+         aggregatedStore.setAggregator(aggregator);
+         List<String> rejected = new CopyOnWriteArrayList<>();
+         for (int i = 0; i < PERIODS; ++i) {
+            for (String metric : new String[]{ "a", "b", "c", "d" }) {
+               for (String agent : new String[]{ "agent-a", "agent-b" }) {
+                  memoryStore.record(agent, 0, 0, metric, snapshot(i));
+                  aggregatedStore.record(agent, 0, 0, metric, snapshot(i), rejected::add);
+               }
+            }
+         }
+         memoryStore.completePhase("test");
+         // statistics that were not merged by the aggregator yet are merged synchronously
+         aggregatedStore.completePhase("test");
+         assertThat(rejected).isEmpty();
+         aggregatedStore.record("agent-a", 0, 0, "a", snapshot(PERIODS), rejected::add);
+         assertThat(rejected).hasSize(1);
+
+         assertThat(aggregatedStore.totalSummary()).hasSize(4);
+         assertThat(aggregatedStore.totalSummary().get(0).summary.requestCount).isEqualTo(2 * PERIODS);
+         assertThat(aggregatedStore.series("test", 0, "c")).hasSize(PERIODS);
+         assertThat(json(aggregatedStore)).isEqualTo(json(memoryStore));
+      } finally {
+         aggregator.shutdown();
+      }
+   }
+
+   @Test
+   public void testReloadCorrectedHistogram() throws IOException {
+      Benchmark benchmark = benchmark();
+      StatisticsStore store = new StatisticsStore(benchmark, f -> { });
+      for (int i = 0; i < PERIODS; ++i) {
+         StatisticsSnapshot snapshot = snapshot(i);
+         // the corrected response time includes the delay since the intended start
+         snapshot.correctedHistogram.recordValue(50_000_000L + i * 1000L);
+         store.record("agent-a", 0, 0, "test", snapshot);
+      }
+      store.completePhase("test");
+      StatisticsSummary expected = store.totalSummary().get(0).summary;
+      assertThat(expected.meanCorrectedResponseTime).isGreaterThan(10 * expected.meanResponseTime);
+
+      String json = json(store);
+      StatisticsStore loaded = JsonLoader.read(json, new StatisticsStore(benchmark, f -> { }));
+      StatisticsSnapshot total = loaded.getData().get(0).total;
+      assertThat(total.correctedHistogram.getMean()).isCloseTo(expected.meanCorrectedResponseTime, withinPercentage(1));
+      assertThat(total.correctedHistogram.getMean()).isGreaterThan(10 * total.histogram.getMean());
+      StatisticsSnapshot agent = loaded.getData().get(0).perAgent.get("agent-a");
+      assertThat(agent.correctedHistogram.getMean()).isCloseTo(expected.meanCorrectedResponseTime, withinPercentage(1));
+
+      // older reports don't contain the corrected histogram
+      JsonObject object = new JsonObject(json);
+      object.getJsonArray("stats").getJsonObject(0).getJsonObject("histogram").remove("correctedLinear");
+      object.getJsonArray("agents").getJsonObject(0).getJsonArray("stats").getJsonObject(0).getJsonObject("histogram").remove("correctedLinear");
+      StatisticsStore old = JsonLoader.read(object.encode(), new StatisticsStore(benchmark, f -> { }));
+      total = old.getData().get(0).total;
+      assertThat(total.correctedHistogram.getMean()).isEqualTo(total.histogram.getMean());
+   }
+
+   private static Benchmark benchmark() {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test");
+      builder.addPhase("test").atOnce(1).scenario().initialSequence("test").step(s -> true);
+      return builder.build();
+   }
+
+   private static StatisticsSnapshot snapshot(int sequenceId) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = sequenceId;
+      snapshot.histogram.setStartTimeStamp(sequenceId * 1000L);
+      snapshot.histogram.setEndTimeStamp(sequenceId * 1000L + 1000);
+      snapshot.histogram.recordValue(1_000_000L + sequenceId * 1000L);
+      snapshot.requestCount = 1;
+      snapshot.responseCount = 1;
+      Counters counters = new Counters();
+      counters.increment("foo");
+      snapshot.extensions.put("counters", counters);
+      return snapshot;
+   }
+
+   private static String json(StatisticsStore store) throws IOException {
+      ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      JsonFactory factory = new JsonFactory();
+      try (JsonGenerator generator = factory.createGenerator(stream, JsonEncoding.UTF8)) {
+         generator.setCodec(new ObjectMapper());
+         JsonWriter.writeArrayJsons(store, generator, null);
+      }
+      return stream.toString();
+   }
+}
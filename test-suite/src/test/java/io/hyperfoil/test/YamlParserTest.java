@@ -199,6 +199,19 @@ public class YamlParserTest extends BaseBenchmarkParserTest {
       }
    }
 
+   @Test
+   public void testAdaptiveRate() {
+      Benchmark benchmark = loadScenario("scenarios/adaptiveRate.hf.yaml");
+      Model.AdaptiveRate model = (Model.AdaptiveRate) benchmark.phases().iterator().next().model;
+      assertThat(model.initialUsersPerSec).isEqualTo(50);
+      assertThat(model.minUsersPerSec).isEqualTo(1);
+      assertThat(model.maxUsersPerSec).isEqualTo(1000);
+      assertThat(model.adjustmentPeriod).isEqualTo(5000);
+      assertThat(model.metric).isEqualTo("foo");
+      assertThat(model.maxResponseTime).isEqualTo(20_000_000);
+      assertThat(model.maxSessions).isEqualTo(1000);
+   }
+
    @Test
    public void testMutualTls() {
       Benchmark benchmark = loadScenario("scenarios/mutualTls.hf.yaml");